@@ -78,14 +78,22 @@
  * <TD>att.grappa.GrappaStyle</TD>
  * </TR>
  * </TABLE>
+ * <P>
+ * Attribute no longer extends <code>java.util.Observable</code>, so <code>addObserver</code>,
+ * <code>deleteObserver</code> and <code>countObservers</code> are gone. To be told when an attribute of an element
+ * changes, register an <code>AttributeListener</code> with <code>Element.addAttributeListener</code>; the listener
+ * hears of changes to the element's own attribute and to any subgraph default it inherits. <code>setChanged</code>,
+ * <code>clearChanged</code> and <code>hasChanged</code> remain.
  *
  * @see AttributeHandler
+ * @see AttributeListener
+ * @see Element#addAttributeListener(String, AttributeListener)
  * @see Element#setUserAttributeType
  * @version $Id$
  * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
  *         AT&T Labs</a>
  */
-public final class Attribute extends java.util.Observable implements AttributeHandler, GrappaConstants
+public final class Attribute implements AttributeHandler, GrappaConstants
 {
     // the custom attribute handler
     private static AttributeHandler specialHandler = null;
@@ -122,6 +130,27 @@ public static AttributeHandler setAttributeHandler(AttributeHandler newHandler)
     // the hash value of the attribute name
     private int nameHash;
 
+    // the registry id of the attribute name
+    private int nameId;
+
+    // the value of a numeric attribute in primitive form, valid when numberState is NUMBER_VALID
+    private double number;
+
+    // whether number is up-to-date (NUMBER_VALID), the attribute has no value (NUMBER_NONE) or neither
+    private byte numberState = NUMBER_UNKNOWN;
+
+    private static final byte NUMBER_UNKNOWN = 0;
+
+    private static final byte NUMBER_VALID = 1;
+
+    private static final byte NUMBER_NONE = 2;
+
+    // set when the value changes, cleared once the watchers have been told
+    private boolean changed = false;
+
+    // the elements to tell about changes (null when there are none)
+    private WatcherList watchers = null;
+
     /**
      * Constructs a new attribute from a name / value pair.
      *
@@ -142,6 +171,7 @@ public Attribute(int elemType, String attrName, Object attrValue)
         this.elementType = elemType;
         this.name = attrName;
         this.nameHash = this.name.hashCode();
+        this.nameId = AttributeRegistry.register(attrName);
         setValue(attrValue);
     }
 
@@ -188,6 +218,45 @@ public final String getName()
         return this.name;
     }
 
+    /**
+     * Get the id of the name of this attribute.
+     *
+     * @return the id of the name of this attribute
+     * @see Attribute#getNameId(String)
+     */
+    public final int getNameId()
+    {
+        return this.nameId;
+    }
+
+    /**
+     * Get the id of the supplied attribute name. Every distinct attribute name is given a small, non-negative integer
+     * id, the same for all element types, the first time it is used; the names of the attributes known to Grappa
+     * always have the same ids.
+     *
+     * @param name an attribute name
+     * @return the id of that name
+     */
+    public static int getNameId(String name)
+    {
+        if (name == null) {
+            throw new IllegalArgumentException("the name of an Attribute pair cannot be null");
+        }
+        return AttributeRegistry.register(name);
+    }
+
+    /**
+     * Get the attribute name that has the supplied id.
+     *
+     * @param nameId an attribute name id
+     * @return the attribute name, or null if no name has that id
+     * @see Attribute#getNameId(String)
+     */
+    public static String getNameForId(int nameId)
+    {
+        return AttributeRegistry.name(nameId);
+    }
+
     /**
      * Get the value of this attribute.
      *
@@ -201,6 +270,184 @@ public final Object getValue()
         return this.value;
     }
 
+    /**
+     * Convert the value to its object and primitive forms now, so that the attribute can afterwards be read from
+     * several threads at once without any of them writing to it. A value that does not convert is left for the reader
+     * to report.
+     */
+    final void resolve()
+    {
+        try {
+            getValue();
+            if (this.numberState == NUMBER_UNKNOWN) {
+                decodeNumber();
+            }
+        } catch (IllegalArgumentException ex) {
+            // reported again when read
+        }
+    }
+
+    /**
+     * Check whether <code>getValue()</code> would return a non-null value, without converting the string value to
+     * its object form. Colors, styles and the like are thereby left as strings until someone asks for them.
+     *
+     * @return true if the attribute has a value
+     */
+    final boolean hasValue()
+    {
+        if (this.value != null) {
+            return (true);
+        }
+        return (this.stringValue != null && (this.attributeType == STRING_TYPE || this.stringValue.trim().length() > 0));
+    }
+
+    /**
+     * Get the string value as converting it to an object and back would leave it, checking on the way that it
+     * converts. This is the form in which the parser stores the attributes of nodes and edges, and the check it makes
+     * of every attribute it reads. Numeric, direction, font style and shape values are converted in primitive form and
+     * colors through <code>ColorTable</code>, so no AWT class is loaded; tuples and lists are converted to their
+     * objects. Style values are returned as they are, after checking them with the parse that
+     * <code>GrappaStyle.getStyle</code> uses, which needs no AWT class either.
+     *
+     * @return the value in normalized string form, or null if the attribute has no value
+     * @exception IllegalArgumentException if the value does not convert, as <code>getValue()</code> would report
+     */
+    final String normalizedStringValue() throws IllegalArgumentException
+    {
+        String str = this.stringValue;
+
+        if (this.value != null || str == null) {
+            return getStringValue();
+        }
+        if (str.length() == 0 && this.attributeType != STRING_TYPE) {
+            return null;
+        }
+        switch (this.attributeType) {
+            case STRING_TYPE:
+                return str;
+            case STYLE_TYPE:
+                GrappaStyle.StyleSpec.get(str);
+                return str;
+            case COLOR_TYPE:
+                return ColorTable.getCanonicalName(str);
+            case COLOR_LIST_TYPE:
+                return ColorTable.getCanonicalListName(str);
+            case DIR_TYPE:
+            case DOUBLE_TYPE:
+            case FONTSTYLE_TYPE:
+            case INTEGER_TYPE:
+            case SHAPE_TYPE:
+                if (this.numberState == NUMBER_UNKNOWN) {
+                    decodeNumber();
+                }
+                switch (this.attributeType) {
+                    case DIR_TYPE:
+                        return GrappaSupport.xlateDir((int) this.number);
+                    case DOUBLE_TYPE:
+                        return GrappaFormat.formatDouble(this.number);
+                    case FONTSTYLE_TYPE:
+                        return GrappaSupport.xlateFontStyle((int) this.number);
+                    case INTEGER_TYPE:
+                        return Integer.toString((int) this.number);
+                    default:
+                        return Grappa.shapeToKey.get(Integer.valueOf((int) this.number));
+                }
+            default:
+                return convertValue(this.elementType, this.name, getValue(), this.attributeType);
+        }
+    }
+
+    /**
+     * Get the value of a numeric attribute (such as width, fontsize, dir or shape) as a double. The value is kept in
+     * primitive form, so no object is created for it unless <code>getValue()</code> is also called.
+     *
+     * @param missing the value to return when the attribute has no value.
+     * @return the value of the attribute as a double.
+     * @exception IllegalArgumentException if the attribute value is not numeric.
+     */
+    public final double getDoubleValue(double missing) throws IllegalArgumentException
+    {
+        if (this.numberState == NUMBER_UNKNOWN) {
+            decodeNumber();
+        }
+        return (this.numberState == NUMBER_VALID ? this.number : missing);
+    }
+
+    /**
+     * Get the value of a numeric attribute (such as fontsize, peripheries, dir or shape) as an int. The value is kept
+     * in primitive form, so no object is created for it unless <code>getValue()</code> is also called. The value of a
+     * color attribute is given as a packed ARGB value (as from <code>java.awt.Color.getRGB()</code>), looked up without
+     * loading AWT.
+     *
+     * @param missing the value to return when the attribute has no value.
+     * @return the value of the attribute as an int.
+     * @exception IllegalArgumentException if the attribute value is not numeric.
+     */
+    public final int getIntValue(int missing) throws IllegalArgumentException
+    {
+        if (this.numberState == NUMBER_UNKNOWN) {
+            decodeNumber();
+        }
+        return (this.numberState == NUMBER_VALID ? (int) this.number : missing);
+    }
+
+    // bring number and numberState up-to-date, preferring the string value
+    // so that numeric types never need their boxed form
+    private void decodeNumber()
+    {
+        Object val = this.value;
+
+        if (val == null && this.stringValue != null) {
+            if (this.stringValue.length() == 0 && this.attributeType != STRING_TYPE) {
+                this.numberState = NUMBER_NONE;
+                return;
+            }
+            switch (this.attributeType) {
+                case COLOR_TYPE:
+                    // as GrappaColor.getColor would, but without creating a java.awt.Color
+                    this.number = ColorTable.getRGB(this.stringValue, ColorTable.DEFAULT_RGB);
+                    break;
+                case DIR_TYPE:
+                    this.number = GrappaSupport.xlateDirString(this.stringValue);
+                    break;
+                case DOUBLE_TYPE:
+                    this.number = doubleForString(this.name, this.stringValue);
+                    break;
+                case FONTSTYLE_TYPE:
+                    this.number = GrappaSupport.xlateFontStyleString(this.stringValue);
+                    break;
+                case INTEGER_TYPE:
+                    this.number = intForString(this.name, this.stringValue);
+                    break;
+                case SHAPE_TYPE:
+                    this.number = shapeForString(this.name, this.stringValue).intValue();
+                    break;
+                default:
+                    val = getValue();
+                    break;
+            }
+            if (val == null) {
+                this.numberState = NUMBER_VALID;
+                return;
+            }
+        }
+        if (val == null) {
+            this.numberState = NUMBER_NONE;
+        } else if (val instanceof Number) {
+            this.number = ((Number) val).doubleValue();
+            this.numberState = NUMBER_VALID;
+        } else if (this.attributeType == COLOR_TYPE && !(val instanceof String)) {
+            this.number = ((java.awt.Color) val).getRGB();
+            this.numberState = NUMBER_VALID;
+        } else if (val instanceof String) {
+            // an untyped attribute (rotation, for example) read as a number
+            this.number = doubleForString(this.name, (String) val);
+            this.numberState = NUMBER_VALID;
+        } else {
+            throw new IllegalArgumentException("value of attribute \"" + this.name + "\" is not numeric");
+        }
+    }
+
     /**
      * Get the value of this attribute converted to a String.
      *
@@ -213,7 +460,9 @@ public final String getStringValue()
         // after doing a getValue() so that we always recompute
         // the string value when it is requested
             case HASHLIST_TYPE:
-                this.stringValue = null;
+                if (this.value != null) {
+                    this.stringValue = null;
+                }
                 break;
         }
         if (this.stringValue == null && this.value != null) {
@@ -223,8 +472,7 @@ public final String getStringValue()
     }
 
     /**
-     * Set the value of the attribute. If the value is different than the current value, the Observable changed
-     * indicator is set.
+     * Set the value of the attribute. If the value is different than the current value, the changed indicator is set.
      *
      * @param attrValue the new attribute value.
      * @return the old attribute value.
@@ -248,17 +496,25 @@ public final Object setValue(Object attrValue)
                 if (changed = (this.stringValue == null || !attrValue.equals(this.stringValue))) {
                     this.stringValue = (String) attrValue;
                     this.value = null;
+                    this.numberState = NUMBER_UNKNOWN;
                 }
             } else {
                 if (changed = (this.value == null || !attrValue.equals(this.value))) {
                     this.value = copyValue(this.elementType, this.name, attrValue, this.attributeType);
                     this.stringValue = null;
+                    this.numberState = NUMBER_UNKNOWN;
+                } else if (attrValue == this.value) {
+                    // the value itself may have been changed in place (as the arrows of an edge's pos
+                    // line are), so let the string be recomputed from it
+                    this.stringValue = null;
+                    this.numberState = NUMBER_UNKNOWN;
                 }
             }
         } else {
             if (changed = (this.value != null)) {
                 this.value = null;
                 this.stringValue = null;
+                this.numberState = NUMBER_NONE;
             }
         }
         if (changed) {
@@ -332,28 +588,119 @@ public final int getNameHash()
     }
 
     /**
-     * Use to indicate that this object has changed. This method is a convenience method that calls the corresponding
-     * protected method of the Observable class.
-     *
-     * @see java.util.Observable#setChanged()
+     * Use to indicate that this object has changed.
      */
-    @Override
     public final void setChanged()
     {
-        super.setChanged();
+        this.changed = true;
     }
 
     /**
-     * Use to indicate that this object has no longer changed, or that it has already notified all of its observers of
-     * its most recent change. This method is a convenience method that calls the corresponding protected method of the
-     * Observable class.
-     *
-     * @see java.util.Observable#clearChanged()
+     * Use to indicate that this object has no longer changed, or that it has already notified all of its watchers of
+     * its most recent change.
      */
-    @Override
     public final void clearChanged()
     {
-        super.clearChanged();
+        this.changed = false;
+    }
+
+    /**
+     * Tests if this object has changed since its watchers were last notified.
+     *
+     * @return true if the changed indicator is set
+     */
+    public final boolean hasChanged()
+    {
+        return this.changed;
+    }
+
+    // //////////////////////////////////////////////////////////////////////
+    //
+    // Change notification
+    //
+    // //////////////////////////////////////////////////////////////////////
+
+    /*
+     * An element watches each attribute in effect for it that is either of interest to its GrappaNexus or has an
+     * AttributeListener registered for it on the element. A default attribute is watched by every element inheriting
+     * it, a local attribute only by its own element. A watcher may add or remove itself while being notified.
+     * Watchers are notified most recently added first.
+     */
+
+    // add an element to the watchers, if it is not already there
+    final void addWatcher(Element elem)
+    {
+        if (this.watchers == null) {
+            this.watchers = new WatcherList(elem);
+        } else {
+            this.watchers.add(elem);
+        }
+    }
+
+    // remove an element from the watchers
+    final void removeWatcher(Element elem)
+    {
+        if (this.watchers != null) {
+            this.watchers.remove(elem);
+            if (this.watchers.isEmpty()) {
+                this.watchers = null;
+            }
+        }
+    }
+
+    // drop all the watchers
+    final void clearWatchers()
+    {
+        this.watchers = null;
+    }
+
+    // if the value has changed, tell the watchers and clear the changed indicator
+    final void notifyChanged()
+    {
+        if (!this.changed) {
+            return;
+        }
+        this.changed = false;
+
+        WatcherList list = this.watchers;
+
+        if (list != null) {
+            long when = System.currentTimeMillis();
+            Element watcher;
+            list.enter();
+            try {
+                for (int i = list.end() - 1; i >= 0; i--) {
+                    if ((watcher = list.get(i)) != null) {
+                        watcher.attributeChanged(this, when);
+                    }
+                }
+            } finally {
+                list.exit();
+            }
+        }
+    }
+
+    // tell the watchers that this attribute has been replaced (or, when replacement is null,
+    // simply dropped); they stop watching this attribute and start watching the replacement
+    final void notifyReplaced(Attribute replacement)
+    {
+        WatcherList list = this.watchers;
+
+        this.changed = false;
+        if (list != null) {
+            long when = System.currentTimeMillis();
+            Element watcher;
+            list.enter();
+            try {
+                for (int i = list.end() - 1; i >= 0; i--) {
+                    if ((watcher = list.get(i)) != null) {
+                        watcher.attributeReplaced(this, replacement, when);
+                    }
+                }
+            } finally {
+                list.exit();
+            }
+        }
     }
 
     /**
@@ -398,6 +745,25 @@ public String convertValue(int type, String name, Object value, int attrtype)
                         + "\" is not an instance of Color");
                 }
                 break;
+            case COLOR_LIST_TYPE:
+                if (value instanceof List) {
+                    StringBuilder colorNames = new StringBuilder();
+                    for (Object c : (List<?>) value) {
+                        if (!(c instanceof java.awt.Color)) {
+                            throw new IllegalArgumentException("value of attribute \"" + name
+                                + "\" is not a list of Color instances");
+                        }
+                        if (colorNames.length() > 0) {
+                            colorNames.append(':');
+                        }
+                        colorNames.append(GrappaColor.getColorName((java.awt.Color) c));
+                    }
+                    stringValue = colorNames.toString();
+                } else {
+                    throw new IllegalArgumentException("value of attribute \"" + name
+                        + "\" is not a list of Color instances");
+                }
+                break;
             case DIR_TYPE:
                 if (value instanceof Integer) {
                     stringValue = GrappaSupport.xlateDir(((Integer) value).intValue());
@@ -408,7 +774,7 @@ public String convertValue(int type, String name, Object value, int attrtype)
                 break;
             case DOUBLE_TYPE:
                 if (value instanceof Double) {
-                    stringValue = GrappaSupportPrintf.sprintf(new Object[] { "%g", value });
+                    stringValue = GrappaFormat.formatDouble(((Double) value).doubleValue());
                 } else {
                     throw new IllegalArgumentException("value of attribute \"" + name
                         + "\" is not an instance of Double");
@@ -554,12 +920,7 @@ public Object convertStringValue(int type, String name, String stringValue, int
                     value = new Integer(GrappaSupport.xlateDirString(stringValue));
                     break;
                 case DOUBLE_TYPE:
-                    try {
-                        value = Double.valueOf(stringValue);
-                    } catch (NumberFormatException nfe) {
-                        throw new IllegalArgumentException("bad number format (" + stringValue + ") for attribute \""
-                            + name + "\"");
-                    }
+                    value = Double.valueOf(doubleForString(name, stringValue));
                     break;
                 case FONTSTYLE_TYPE:
                     value = new Integer(GrappaSupport.xlateFontStyleString(stringValue));
@@ -580,12 +941,7 @@ public Object convertStringValue(int type, String name, String stringValue, int
                     }
                     break;
                 case INTEGER_TYPE:
-                    try {
-                        value = Integer.valueOf(stringValue);
-                    } catch (NumberFormatException nfe) {
-                        throw new IllegalArgumentException("bad integer format (" + stringValue + ") for attribute \""
-                            + name + "\"");
-                    }
+                    value = Integer.valueOf(intForString(name, stringValue));
                     break;
                 case LINE_TYPE:
                     value = new GrappaLine(stringValue);
@@ -594,14 +950,7 @@ public Object convertStringValue(int type, String name, String stringValue, int
                     value = new GrappaPoint(stringValue);
                     break;
                 case SHAPE_TYPE:
-                    if ((value = Grappa.keyToShape.get(stringValue)) == null) {
-                        Attribute attr;
-                        if ((attr = Graph.getGlobalAttribute(GrappaConstants.NODE, "shape")) == null
-                            || (value = Grappa.keyToShape.get(attr.getValue())) == null) {
-                            throw new InternalError("could not provide default when unkown shape (" + stringValue
-                                + ") supplied for attribute \"" + name + "\"");
-                        }
-                    }
+                    value = shapeForString(name, stringValue);
                     break;
                 case SIZE_TYPE:
                     value = new GrappaSize(stringValue);
@@ -610,7 +959,7 @@ public Object convertStringValue(int type, String name, String stringValue, int
                     value = stringValue;
                     break;
                 case STYLE_TYPE:
-                    value = new GrappaStyle(this.elementType, stringValue);
+                    value = GrappaStyle.getStyle(this.elementType, stringValue);
                     break;
                 default:
                     if (Attribute.specialHandler != null) {
@@ -629,6 +978,43 @@ public Object convertStringValue(int type, String name, String stringValue, int
         return value;
     }
 
+    // conversions shared by convertStringValue and decodeNumber
+
+    private static double doubleForString(String name, String stringValue)
+    {
+        try {
+            return TupleDecoder.parse(stringValue, 0, stringValue.length());
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("bad number format (" + stringValue + ") for attribute \"" + name
+                + "\"");
+        }
+    }
+
+    private static int intForString(String name, String stringValue)
+    {
+        try {
+            return Integer.parseInt(stringValue);
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("bad integer format (" + stringValue + ") for attribute \"" + name
+                + "\"");
+        }
+    }
+
+    private static Integer shapeForString(String name, String stringValue)
+    {
+        Integer value;
+
+        if ((value = Grappa.keyToShape.get(stringValue)) == null) {
+            Attribute attr;
+            if ((attr = Graph.getGlobalAttribute(GrappaConstants.NODE, "shape")) == null
+                || (value = Grappa.keyToShape.get(attr.getValue())) == null) {
+                throw new InternalError("could not provide default when unkown shape (" + stringValue
+                    + ") supplied for attribute \"" + name + "\"");
+            }
+        }
+        return value;
+    }
+
     /**
      * Make a copy of the supplied value. How to copy the value is based on the type, name and attrtype information
      * supplied. Note: this method really could be declared static except that it hides the instance method declared in
@@ -760,7 +1146,8 @@ public Object copyValue(int type, String name, Object value, int attrtype)
                 break;
             case STYLE_TYPE:
                 if (value instanceof GrappaStyle) {
-                    copy_value = ((GrappaStyle) value).clone();
+                    // shared styles cannot change, so there is no need to copy them
+                    copy_value = (((GrappaStyle) value).isShared() ? value : ((GrappaStyle) value).clone());
                 } else {
                     throw new IllegalArgumentException("value of attribute \"" + name
                         + "\" is not an instance of GrappaPoint");
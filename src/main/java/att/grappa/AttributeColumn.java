@@ -0,0 +1,165 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.geom.Point2D;
+
+/**
+ * The values of one numeric or point attribute for all the elements of one type in a graph, held in primitive arrays
+ * indexed by element id (see <code>Graph.addAttributeColumn</code>). The column mirrors the attribute in effect for
+ * each element: every element of the type watches that attribute, as it would for its GrappaNexus, and updates its
+ * entry whenever it changes. Entries for ids with no element, and for elements without a value, hold NaN.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see Graph#addAttributeColumn(int, String)
+ */
+final class AttributeColumn implements GrappaConstants
+{
+    final int type;
+
+    final int nameId;
+
+    final String name;
+
+    // the conversion type of the attribute (POINT_TYPE, or a numeric type)
+    final int attrType;
+
+    // the values, or the x coordinates of point values
+    double[] xs;
+
+    // the y coordinates of point values (null unless attrType is POINT_TYPE)
+    double[] ys;
+
+    AttributeColumn(int type, String name, int attrType, int capacity)
+    {
+        this.type = type;
+        this.nameId = AttributeRegistry.register(name);
+        this.name = name;
+        this.attrType = attrType;
+        this.xs = newArray(capacity);
+        if (attrType == POINT_TYPE) {
+            this.ys = newArray(capacity);
+        }
+    }
+
+    /**
+     * Start mirroring the attribute of a (new) element: the element watches the attribute now in effect for it and
+     * its entry is filled in.
+     *
+     * @param elem an element of the column type
+     */
+    void attach(Element elem)
+    {
+        Attribute attr = elem.getAttribute(this.name);
+
+        if (attr != null) {
+            attr.addWatcher(elem);
+        }
+        update(elem);
+    }
+
+    /**
+     * Bring the entry of an element up-to-date with the attribute in effect for it.
+     *
+     * @param elem an element of the column type
+     */
+    void update(Element elem)
+    {
+        Attribute attr = elem.getAttribute(this.name);
+        int id = elem.getId();
+
+        if (id >= this.xs.length) {
+            grow(id + 1);
+        }
+        if (this.ys == null) {
+            this.xs[id] = (attr == null ? Double.NaN : attr.getDoubleValue(Double.NaN));
+        } else {
+            Object value = (attr == null ? null : attr.getValue());
+            if (value instanceof Point2D) {
+                this.xs[id] = ((Point2D) value).getX();
+                this.ys[id] = ((Point2D) value).getY();
+            } else {
+                this.xs[id] = this.ys[id] = Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Clear the entry for an id that no longer has an element.
+     *
+     * @param id an element id
+     */
+    void clear(int id)
+    {
+        if (id < this.xs.length) {
+            this.xs[id] = Double.NaN;
+            if (this.ys != null) {
+                this.ys[id] = Double.NaN;
+            }
+        }
+    }
+
+    /**
+     * Make sure the arrays hold at least the supplied number of entries.
+     *
+     * @param capacity the number of entries needed
+     */
+    void grow(int capacity)
+    {
+        if (capacity <= this.xs.length) {
+            return;
+        }
+        capacity = Math.max(capacity, 2 * this.xs.length);
+        this.xs = copyOf(this.xs, capacity);
+        if (this.ys != null) {
+            this.ys = copyOf(this.ys, capacity);
+        }
+    }
+
+    /**
+     * Get the attribute value to store for an entry, in the form the attribute would hold it. A color is given by its
+     * name from <code>ColorTable</code>, as the parser stores it, so that no <code>java.awt.Color</code> is created.
+     *
+     * @param x the value, or the x coordinate of a point
+     * @param y the y coordinate of a point (ignored for other types)
+     * @return the value object
+     */
+    Object valueFor(double x, double y)
+    {
+        switch (this.attrType) {
+            case POINT_TYPE:
+                return new GrappaPoint(x, y);
+            case INTEGER_TYPE:
+                return Integer.valueOf((int) x);
+            case COLOR_TYPE:
+                return ColorTable.getNameOrHex((int) x);
+        }
+        return Double.valueOf(x);
+    }
+
+    private static double[] newArray(int capacity)
+    {
+        double[] array = new double[Math.max(capacity, 16)];
+
+        java.util.Arrays.fill(array, Double.NaN);
+        return array;
+    }
+
+    private static double[] copyOf(double[] array, int capacity)
+    {
+        double[] grown = java.util.Arrays.copyOf(array, capacity);
+
+        java.util.Arrays.fill(grown, array.length, capacity, Double.NaN);
+        return grown;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * An interface for being told when an attribute of an element changes. A listener is registered with an element for a
+ * particular attribute name (see <code>Element.addAttributeListener</code>) and is called whenever the attribute in
+ * effect for that element changes, whether the change is to the element's own attribute or to a subgraph default that
+ * the element inherits.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see Element#addAttributeListener(String, AttributeListener)
+ */
+public interface AttributeListener
+{
+    /**
+     * The method called when an attribute of an element changes.
+     *
+     * @param elem the element whose attribute changed
+     * @param attr the attribute now in effect for the element (when a local attribute is removed and there is no
+     *            default to fall back on, this is the removed attribute, whose value is now empty)
+     * @param when the time of the change, as returned by <code>System.currentTimeMillis()</code>
+     */
+    public void attributeChanged(Element elem, Attribute attr, long when);
+}
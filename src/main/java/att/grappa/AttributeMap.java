@@ -0,0 +1,371 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A compact map from attribute names to attributes, as used for the local attributes of an element and for the
+ * default attributes of a subgraph. Entries are kept in a pair of parallel arrays sorted by attribute id (see
+ * <code>AttributeRegistry</code>), so a lookup is a binary search over a few ints and the map costs two small arrays
+ * rather than a hash table with an entry object per attribute. Iteration is in attribute id order.
+ * <P>
+ * Like the rest of the graph structure, the map is not synchronized; reads do not lock.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see AttributeRegistry
+ */
+final class AttributeMap extends AbstractMap<String, Attribute>
+{
+    private static final int INITIAL_CAPACITY = 4;
+
+    // attribute ids in increasing order and the matching attributes
+    private int[] ids;
+
+    private Attribute[] attrs;
+
+    private int size = 0;
+
+    // bumped whenever an entry is added or removed, so a walk by position can tell its position went stale
+    private int version = 0;
+
+    AttributeMap()
+    {
+        this.ids = new int[INITIAL_CAPACITY];
+        this.attrs = new Attribute[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Get the attribute stored under the supplied attribute id.
+     *
+     * @param id an attribute id
+     * @return the attribute, or null if there is none
+     */
+    Attribute get(int id)
+    {
+        int index = indexOf(id);
+
+        return (index < 0 ? null : this.attrs[index]);
+    }
+
+    /**
+     * Store an attribute under the supplied attribute id.
+     *
+     * @param id an attribute id
+     * @param attr the attribute to store
+     * @return the attribute previously stored under the id, or null
+     */
+    Attribute put(int id, Attribute attr)
+    {
+        int index = indexOf(id);
+
+        if (index >= 0) {
+            Attribute old = this.attrs[index];
+            this.attrs[index] = attr;
+            return old;
+        }
+        index = -(index + 1);
+        if (this.size == this.ids.length) {
+            int[] growIds = new int[2 * this.size];
+            Attribute[] growAttrs = new Attribute[2 * this.size];
+            System.arraycopy(this.ids, 0, growIds, 0, index);
+            System.arraycopy(this.attrs, 0, growAttrs, 0, index);
+            System.arraycopy(this.ids, index, growIds, index + 1, this.size - index);
+            System.arraycopy(this.attrs, index, growAttrs, index + 1, this.size - index);
+            this.ids = growIds;
+            this.attrs = growAttrs;
+        } else {
+            System.arraycopy(this.ids, index, this.ids, index + 1, this.size - index);
+            System.arraycopy(this.attrs, index, this.attrs, index + 1, this.size - index);
+        }
+        this.ids[index] = id;
+        this.attrs[index] = attr;
+        this.size++;
+        this.version++;
+        return null;
+    }
+
+    /**
+     * Remove the attribute stored under the supplied attribute id.
+     *
+     * @param id an attribute id
+     * @return the attribute that was removed, or null
+     */
+    Attribute remove(int id)
+    {
+        int index = indexOf(id);
+
+        return (index < 0 ? null : removeAt(index));
+    }
+
+    /**
+     * Get the structural version of the map, which changes whenever an entry is added or removed (but not when the
+     * attribute stored under an existing id is replaced). Positions obtained from <code>seek</code> remain valid as
+     * long as the version is unchanged.
+     *
+     * @return the current version
+     */
+    int version()
+    {
+        return this.version;
+    }
+
+    /**
+     * Get the position of the first entry whose attribute id is not less than the supplied id.
+     *
+     * @param id an attribute id
+     * @return a position between 0 and <code>size()</code>
+     */
+    int seek(int id)
+    {
+        int index = indexOf(id);
+
+        return (index < 0 ? -(index + 1) : index);
+    }
+
+    /**
+     * Get the attribute id of the entry at the supplied position.
+     *
+     * @param index a position less than <code>size()</code>
+     * @return the attribute id at that position
+     */
+    int idAt(int index)
+    {
+        return this.ids[index];
+    }
+
+    /**
+     * Get the attribute of the entry at the supplied position.
+     *
+     * @param index a position less than <code>size()</code>
+     * @return the attribute at that position
+     */
+    Attribute attrAt(int index)
+    {
+        return this.attrs[index];
+    }
+
+    @Override
+    public Attribute get(Object key)
+    {
+        int id;
+
+        if (!(key instanceof String) || (id = AttributeRegistry.lookup((String) key)) < 0) {
+            return null;
+        }
+        return get(id);
+    }
+
+    @Override
+    public Attribute put(String key, Attribute attr)
+    {
+        if (key == null || attr == null) {
+            throw new NullPointerException();
+        }
+        return put(key.equals(attr.getName()) ? attr.getNameId() : AttributeRegistry.register(key), attr);
+    }
+
+    @Override
+    public Attribute remove(Object key)
+    {
+        int id;
+
+        if (!(key instanceof String) || (id = AttributeRegistry.lookup((String) key)) < 0) {
+            return null;
+        }
+        return remove(id);
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return (get(key) != null);
+    }
+
+    @Override
+    public int size()
+    {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return (this.size == 0);
+    }
+
+    @Override
+    public void clear()
+    {
+        for (int i = 0; i < this.size; i++) {
+            this.attrs[i] = null;
+        }
+        this.size = 0;
+        this.version++;
+    }
+
+    @Override
+    public Set<String> keySet()
+    {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator()
+            {
+                return new Cursor<String>() {
+                    @Override
+                    String at(int index)
+                    {
+                        return AttributeRegistry.name(AttributeMap.this.ids[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return AttributeMap.this.size;
+            }
+
+            @Override
+            public boolean contains(Object key)
+            {
+                return containsKey(key);
+            }
+        };
+    }
+
+    @Override
+    public Collection<Attribute> values()
+    {
+        return new AbstractCollection<Attribute>() {
+            @Override
+            public Iterator<Attribute> iterator()
+            {
+                return new Cursor<Attribute>() {
+                    @Override
+                    Attribute at(int index)
+                    {
+                        return AttributeMap.this.attrs[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return AttributeMap.this.size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, Attribute>> entrySet()
+    {
+        return new AbstractSet<Map.Entry<String, Attribute>>() {
+            @Override
+            public Iterator<Map.Entry<String, Attribute>> iterator()
+            {
+                return new Cursor<Map.Entry<String, Attribute>>() {
+                    @Override
+                    Map.Entry<String, Attribute> at(int index)
+                    {
+                        return new AbstractMap.SimpleImmutableEntry<String, Attribute>(
+                            AttributeRegistry.name(AttributeMap.this.ids[index]), AttributeMap.this.attrs[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return AttributeMap.this.size;
+            }
+        };
+    }
+
+    private int indexOf(int id)
+    {
+        int low = 0;
+        int high = this.size - 1;
+        int mid;
+        int midId;
+
+        while (low <= high) {
+            mid = (low + high) >>> 1;
+            if ((midId = this.ids[mid]) < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private Attribute removeAt(int index)
+    {
+        Attribute old = this.attrs[index];
+        int tail = this.size - index - 1;
+
+        System.arraycopy(this.ids, index + 1, this.ids, index, tail);
+        System.arraycopy(this.attrs, index + 1, this.attrs, index, tail);
+        this.attrs[--this.size] = null;
+        this.version++;
+        return old;
+    }
+
+    // iterator over the entries in id order, supporting remove()
+    private abstract class Cursor<T> implements Iterator<T>
+    {
+        private int next = 0;
+
+        private int last = -1;
+
+        abstract T at(int index);
+
+        @Override
+        public boolean hasNext()
+        {
+            return (this.next < AttributeMap.this.size);
+        }
+
+        @Override
+        public T next()
+        {
+            if (this.next >= AttributeMap.this.size) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next++;
+            return at(this.last);
+        }
+
+        @Override
+        public void remove()
+        {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(this.last);
+            this.next = this.last;
+            this.last = -1;
+        }
+    }
+}
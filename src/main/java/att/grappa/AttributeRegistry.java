@@ -0,0 +1,110 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The global registry of attribute names. Each distinct attribute name is given a small, non-negative integer id the
+ * first time it is registered; the names Grappa knows about are registered, in a fixed order, when the class is
+ * loaded so that their ids are the same from run to run. Ids are never reused, and lookups in either direction do not
+ * lock.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see AttributeMap
+ */
+final class AttributeRegistry implements GrappaConstants
+{
+    // the attribute names known to Grappa
+    private static final String[] KNOWN_NAMES = {
+        BBOX_ATTR, CLUSTERRANK_ATTR, COLOR_ATTR, CUSTOM_ATTR, DIR_ATTR, DISTORTION_ATTR, FILLCOLOR_ATTR,
+        FONTCOLOR_ATTR, FONTNAME_ATTR, FONTSIZE_ATTR, FONTSTYLE_ATTR, GRAPPA_BACKGROUND_COLOR_ATTR,
+        GRAPPA_SELECTION_STYLE_ATTR, GRAPPA_DELETION_STYLE_ATTR, GRAPPA_FONTSIZE_ADJUSTMENT_ATTR, HEIGHT_ATTR,
+        IMAGE_ATTR, LABEL_ATTR, LP_ATTR, HEADLABEL_ATTR, HEADLP_ATTR, TAILLABEL_ATTR, TAILLP_ATTR, MARGIN_ATTR,
+        MCLIMIT_ATTR, MINBOX_ATTR, MINLEN_ATTR, MINSIZE_ATTR, NODESEP_ATTR, ORIENTATION_ATTR, PATCH_ATTR,
+        PERIPHERIES_ATTR, POS_ATTR, PRINTLIST_ATTR, RANKDIR_ATTR, RANKSEP_ATTR, RECTS_ATTR, ROTATION_ATTR, SHAPE_ATTR,
+        SIDES_ATTR, SIZE_ATTR, SKEW_ATTR, STYLE_ATTR, TAG_ATTR, TIP_ATTR, WEIGHT_ATTR, WIDTH_ATTR
+    };
+
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<String, Integer>(128);
+
+    // indexed by id; replaced (never modified in place) when it has to grow
+    private static volatile String[] names = new String[128];
+
+    private static int count = 0;
+
+    static {
+        for (String name : KNOWN_NAMES) {
+            register(name);
+        }
+    }
+
+    private AttributeRegistry()
+    {
+    }
+
+    /**
+     * Get the id of the named attribute, registering the name if it has not been seen before.
+     *
+     * @param name the attribute name
+     * @return the id of the name
+     */
+    static int register(String name)
+    {
+        Integer id = ids.get(name);
+
+        if (id != null) {
+            return id.intValue();
+        }
+        synchronized (ids) {
+            if ((id = ids.get(name)) == null) {
+                String[] table = names;
+                if (count == table.length) {
+                    String[] grown = new String[2 * count];
+                    System.arraycopy(table, 0, grown, 0, count);
+                    table = grown;
+                }
+                table[count] = name;
+                names = table;
+                ids.put(name, id = Integer.valueOf(count++));
+            }
+        }
+        return id.intValue();
+    }
+
+    /**
+     * Get the id of the named attribute without registering it.
+     *
+     * @param name the attribute name
+     * @return the id of the name, or -1 if the name has never been registered
+     */
+    static int lookup(String name)
+    {
+        Integer id = ids.get(name);
+
+        return (id == null ? -1 : id.intValue());
+    }
+
+    /**
+     * Get the attribute name registered with the supplied id.
+     *
+     * @param id an attribute id
+     * @return the corresponding name, or null if no name has that id
+     */
+    static String name(int id)
+    {
+        String[] table = names;
+
+        return ((id < 0 || id >= table.length) ? null : table[id]);
+    }
+}
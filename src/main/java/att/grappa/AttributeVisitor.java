@@ -0,0 +1,34 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * An interface for walking the attributes in effect for an element, both its own and those it inherits as defaults
+ * from its subgraph, without building a collection of them first (see <code>Element.visitAttributes</code>).
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see Element#visitAttributes(AttributeVisitor)
+ */
+public interface AttributeVisitor
+{
+    /**
+     * The method called for each attribute in effect for an element.
+     *
+     * @param attr the attribute in effect for the element
+     * @param dflt the default attribute of the same name that the element would otherwise inherit, which is
+     *            <code>attr</code> itself when the element has no local attribute of that name, or null when there
+     *            is no such default
+     * @return true to go on to the next attribute, false to stop the walk
+     */
+    public boolean visitAttribute(Attribute attr, Attribute dflt);
+}
@@ -0,0 +1,1366 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The name-to-color and color-to-name mappings behind <code>GrappaColor</code>, with colors kept as packed ARGB values
+ * (as returned by <code>java.awt.Color.getRGB()</code>) so that colors can be looked up and named without loading
+ * AWT. <code>GrappaColor</code> turns these values into <code>java.awt.Color</code> objects when a renderer asks for
+ * them.
+ * <P>
+ * The built-in (X11) colors are frozen, once loaded, into a two-level perfect hash table that is looked up straight
+ * from the supplied name, without building its canonical form, and a hash table from color to name. Colors added at
+ * run-time, and the names under which HSB and hex color specifications were last seen, are kept in concurrent maps
+ * consulted first. None of the tables is locked for reading.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ */
+final class ColorTable
+{
+    /**
+     * The packed ARGB value of the color of last resort (opaque black).
+     */
+    static final int DEFAULT_RGB = 0xFF000000;
+
+    /**
+     * The value returned by <code>lookup</code> when no color matches a name.
+     */
+    static final long NOT_FOUND = -1L;
+
+    // the most HSB and hex color specifications remembered, for getName and for lookup
+    private static final int SPEC_NAME_LIMIT = 1024;
+
+    private static final int FNV_BASIS = 0x811C9DC5;
+
+    private static final int FNV_PRIME = 0x01000193;
+
+    // the built-in colors, only used while they are being loaded
+    private static Map<String, Integer> initRgb = new LinkedHashMap<>(1024);
+
+    private static Map<Integer, String> initNames = new HashMap<>(1024);
+
+    // the perfect hash of the built-in names: a first-level bucket gives the offset, size and seed of a collision-free
+    // second-level table within keys and rgbs
+    private static int[] bucketOffset;
+
+    private static int[] bucketSize;
+
+    private static int[] bucketSeed;
+
+    private static String[] keys;
+
+    private static int[] rgbs;
+
+    // the names of the built-in colors, in an open-addressed table keyed by ARGB value
+    private static int[] nameRgbs;
+
+    private static String[] names;
+
+    // given canonical name, get ARGB value of a color added at run-time
+    private static final ConcurrentHashMap<String, Integer> addedRgb = new ConcurrentHashMap<>();
+
+    // given ARGB value, get the name most recently given to it at run-time
+    private static final ConcurrentHashMap<Integer, String> addedNames = new ConcurrentHashMap<>();
+
+    // given an HSB specification as written, get its value and canonical name
+    private static final ConcurrentHashMap<String, HsbSpec> hsbSpecs = new ConcurrentHashMap<>();
+
+    // initialize the built-in tables
+    static {
+        add("aliceblue", 240, 248, 255);
+        add("antiquewhite", 250, 235, 215);
+        add("antiquewhite1", 255, 239, 219, false);
+        add("antiquewhite2", 238, 223, 204, false);
+        add("antiquewhite3", 205, 192, 176, false);
+        add("antiquewhite4", 139, 131, 120, false);
+        add("aquamarine", 127, 255, 212);
+        add("aquamarine1", 127, 255, 212, false);
+        add("aquamarine2", 118, 238, 198, false);
+        add("aquamarine3", 102, 205, 170, false);
+        add("aquamarine4", 69, 139, 116, false);
+        add("azure", 240, 255, 255);
+        add("azure1", 240, 255, 255, false);
+        add("azure2", 224, 238, 238, false);
+        add("azure3", 193, 205, 205, false);
+        add("azure4", 131, 139, 139, false);
+        add("beige", 245, 245, 220);
+        add("bisque", 255, 228, 196);
+        add("bisque1", 255, 228, 196, false);
+        add("bisque2", 238, 213, 183, false);
+        add("bisque3", 205, 183, 158, false);
+        add("bisque4", 139, 125, 107, false);
+        add("black", 0, 0, 0);
+        add("blanchedalmond", 255, 235, 205);
+        add("blue", 0, 0, 255);
+        add("blue1", 0, 0, 255, false);
+        add("blue2", 0, 0, 238, false);
+        add("blue3", 0, 0, 205, false);
+        add("blue4", 0, 0, 139, false);
+        add("blueviolet", 138, 43, 226);
+        add("brown", 165, 42, 42);
+        add("brown1", 255, 64, 64, false);
+        add("brown2", 238, 59, 59, false);
+        add("brown3", 205, 51, 51, false);
+        add("brown4", 139, 35, 35, false);
+        add("burlywood", 222, 184, 135);
+        add("burlywood1", 255, 211, 155, false);
+        add("burlywood2", 238, 197, 145, false);
+        add("burlywood3", 205, 170, 125, false);
+        add("burlywood4", 139, 115, 85, false);
+        add("cadetblue", 95, 158, 160);
+        add("cadetblue1", 152, 245, 255, false);
+        add("cadetblue2", 142, 229, 238, false);
+        add("cadetblue3", 122, 197, 205, false);
+        add("cadetblue4", 83, 134, 139, false);
+        add("chartreuse", 127, 255, 0);
+        add("chartreuse1", 127, 255, 0, false);
+        add("chartreuse2", 118, 238, 0, false);
+        add("chartreuse3", 102, 205, 0, false);
+        add("chartreuse4", 69, 139, 0, false);
+        add("chocolate", 210, 105, 30);
+        add("chocolate1", 255, 127, 36, false);
+        add("chocolate2", 238, 118, 33, false);
+        add("chocolate3", 205, 102, 29, false);
+        add("chocolate4", 139, 69, 19, false);
+        add("coral", 255, 127, 80);
+        add("coral1", 255, 114, 86, false);
+        add("coral2", 238, 106, 80, false);
+        add("coral3", 205, 91, 69, false);
+        add("coral4", 139, 62, 47, false);
+        add("cornflowerblue", 100, 149, 237);
+        add("cornsilk", 255, 248, 220);
+        add("cornsilk1", 255, 248, 220, false);
+        add("cornsilk2", 238, 232, 205, false);
+        add("cornsilk3", 205, 200, 177, false);
+        add("cornsilk4", 139, 136, 120, false);
+        add("crimson", 220, 20, 60);
+        add("cyan", 0, 255, 255);
+        add("cyan1", 0, 255, 255, false);
+        add("cyan2", 0, 238, 238, false);
+        add("cyan3", 0, 205, 205, false);
+        add("cyan4", 0, 139, 139, false);
+        add("darkblue", 0, 0, 139);
+        add("darkcyan", 0, 139, 139);
+        add("darkgoldenrod", 184, 134, 11);
+        add("darkgoldenrod1", 255, 185, 15, false);
+        add("darkgoldenrod2", 238, 173, 14, false);
+        add("darkgoldenrod3", 205, 149, 12, false);
+        add("darkgoldenrod4", 139, 101, 8, false);
+        add("darkgray", 169, 169, 169);
+        add("darkgreen", 0, 100, 0);
+        add("darkgrey", 169, 169, 169, false);
+        add("darkkhaki", 189, 183, 107);
+        add("darkmagenta", 139, 0, 139);
+        add("darkolivegreen", 85, 107, 47);
+        add("darkolivegreen1", 202, 255, 112, false);
+        add("darkolivegreen2", 188, 238, 104, false);
+        add("darkolivegreen3", 162, 205, 90, false);
+        add("darkolivegreen4", 110, 139, 61, false);
+        add("darkorange", 255, 140, 0);
+        add("darkorange1", 255, 127, 0, false);
+        add("darkorange2", 238, 118, 0, false);
+        add("darkorange3", 205, 102, 0, false);
+        add("darkorange4", 139, 69, 0, false);
+        add("darkorchid", 153, 50, 204);
+        add("darkorchid1", 191, 62, 255, false);
+        add("darkorchid2", 178, 58, 238, false);
+        add("darkorchid3", 154, 50, 205, false);
+        add("darkorchid4", 104, 34, 139, false);
+        add("darkred", 139, 0, 0);
+        add("darksalmon", 233, 150, 122);
+        add("darkseagreen", 143, 188, 143);
+        add("darkseagreen1", 193, 255, 193, false);
+        add("darkseagreen2", 180, 238, 180, false);
+        add("darkseagreen3", 155, 205, 155, false);
+        add("darkseagreen4", 105, 139, 105, false);
+        add("darkslateblue", 72, 61, 139);
+        add("darkslategray", 47, 79, 79);
+        add("darkslategray1", 151, 255, 255, false);
+        add("darkslategray2", 141, 238, 238, false);
+        add("darkslategray3", 121, 205, 205, false);
+        add("darkslategray4", 82, 139, 139, false);
+        add("darkslategrey", 47, 79, 79, false);
+        add("darkturquoise", 0, 206, 209);
+        add("darkviolet", 148, 0, 211);
+        add("deeppink", 255, 20, 147);
+        add("deeppink1", 255, 20, 147, false);
+        add("deeppink2", 238, 18, 137, false);
+        add("deeppink3", 205, 16, 118, false);
+        add("deeppink4", 139, 10, 80, false);
+        add("deepskyblue", 0, 191, 255);
+        add("deepskyblue1", 0, 191, 255, false);
+        add("deepskyblue2", 0, 178, 238, false);
+        add("deepskyblue3", 0, 154, 205, false);
+        add("deepskyblue4", 0, 104, 139, false);
+        add("dimgray", 105, 105, 105);
+        add("dimgrey", 105, 105, 105, false);
+        add("dodgerblue", 30, 144, 255);
+        add("dodgerblue1", 30, 144, 255, false);
+        add("dodgerblue2", 28, 134, 238, false);
+        add("dodgerblue3", 24, 116, 205, false);
+        add("dodgerblue4", 16, 78, 139, false);
+        add("firebrick", 178, 34, 34);
+        add("firebrick1", 255, 48, 48, false);
+        add("firebrick2", 238, 44, 44, false);
+        add("firebrick3", 205, 38, 38, false);
+        add("firebrick4", 139, 26, 26, false);
+        add("floralwhite", 255, 250, 240);
+        add("forestgreen", 34, 139, 34);
+        add("gainsboro", 220, 220, 220);
+        add("ghostwhite", 248, 248, 255);
+        add("gold", 255, 215, 0);
+        add("gold1", 255, 215, 0, false);
+        add("gold2", 238, 201, 0, false);
+        add("gold3", 205, 173, 0, false);
+        add("gold4", 139, 117, 0, false);
+        add("goldenrod", 218, 165, 32);
+        add("goldenrod1", 255, 193, 37, false);
+        add("goldenrod2", 238, 180, 34, false);
+        add("goldenrod3", 205, 155, 29, false);
+        add("goldenrod4", 139, 105, 20, false);
+        add("green", 0, 255, 0);
+        add("green1", 0, 255, 0, false);
+        add("green2", 0, 238, 0, false);
+        add("green3", 0, 205, 0, false);
+        add("green4", 0, 139, 0, false);
+        add("greenyellow", 173, 255, 47);
+        add("gray", 190, 190, 190);
+        add("grey", 190, 190, 190, false);
+        add("gray0", 0, 0, 0, false);
+        add("grey0", 0, 0, 0, false);
+        add("gray1", 3, 3, 3, false);
+        add("grey1", 3, 3, 3, false);
+        add("gray2", 5, 5, 5, false);
+        add("grey2", 5, 5, 5, false);
+        add("gray3", 8, 8, 8, false);
+        add("grey3", 8, 8, 8, false);
+        add("gray4", 10, 10, 10, false);
+        add("grey4", 10, 10, 10, false);
+        add("gray5", 13, 13, 13, false);
+        add("grey5", 13, 13, 13, false);
+        add("gray6", 15, 15, 15, false);
+        add("grey6", 15, 15, 15, false);
+        add("gray7", 18, 18, 18, false);
+        add("grey7", 18, 18, 18, false);
+        add("gray8", 20, 20, 20, false);
+        add("grey8", 20, 20, 20, false);
+        add("gray9", 23, 23, 23, false);
+        add("grey9", 23, 23, 23, false);
+        add("gray10", 26, 26, 26, false);
+        add("grey10", 26, 26, 26, false);
+        add("gray11", 28, 28, 28, false);
+        add("grey11", 28, 28, 28, false);
+        add("gray12", 31, 31, 31, false);
+        add("grey12", 31, 31, 31, false);
+        add("gray13", 33, 33, 33, false);
+        add("grey13", 33, 33, 33, false);
+        add("gray14", 36, 36, 36, false);
+        add("grey14", 36, 36, 36, false);
+        add("gray15", 38, 38, 38, false);
+        add("grey15", 38, 38, 38, false);
+        add("gray16", 41, 41, 41, false);
+        add("grey16", 41, 41, 41, false);
+        add("gray17", 43, 43, 43, false);
+        add("grey17", 43, 43, 43, false);
+        add("gray18", 46, 46, 46, false);
+        add("grey18", 46, 46, 46, false);
+        add("gray19", 48, 48, 48, false);
+        add("grey19", 48, 48, 48, false);
+        add("gray20", 51, 51, 51, false);
+        add("grey20", 51, 51, 51, false);
+        add("gray21", 54, 54, 54, false);
+        add("grey21", 54, 54, 54, false);
+        add("gray22", 56, 56, 56, false);
+        add("grey22", 56, 56, 56, false);
+        add("gray23", 59, 59, 59, false);
+        add("grey23", 59, 59, 59, false);
+        add("gray24", 61, 61, 61, false);
+        add("grey24", 61, 61, 61, false);
+        add("gray25", 64, 64, 64, false);
+        add("grey25", 64, 64, 64, false);
+        add("gray26", 66, 66, 66, false);
+        add("grey26", 66, 66, 66, false);
+        add("gray27", 69, 69, 69, false);
+        add("grey27", 69, 69, 69, false);
+        add("gray28", 71, 71, 71, false);
+        add("grey28", 71, 71, 71, false);
+        add("gray29", 74, 74, 74, false);
+        add("grey29", 74, 74, 74, false);
+        add("gray30", 77, 77, 77, false);
+        add("grey30", 77, 77, 77, false);
+        add("gray31", 79, 79, 79, false);
+        add("grey31", 79, 79, 79, false);
+        add("gray32", 82, 82, 82, false);
+        add("grey32", 82, 82, 82, false);
+        add("gray33", 84, 84, 84, false);
+        add("grey33", 84, 84, 84, false);
+        add("gray34", 87, 87, 87, false);
+        add("grey34", 87, 87, 87, false);
+        add("gray35", 89, 89, 89, false);
+        add("grey35", 89, 89, 89, false);
+        add("gray36", 92, 92, 92, false);
+        add("grey36", 92, 92, 92, false);
+        add("gray37", 94, 94, 94, false);
+        add("grey37", 94, 94, 94, false);
+        add("gray38", 97, 97, 97, false);
+        add("grey38", 97, 97, 97, false);
+        add("gray39", 99, 99, 99, false);
+        add("grey39", 99, 99, 99, false);
+        add("gray40", 102, 102, 102, false);
+        add("grey40", 102, 102, 102, false);
+        add("gray41", 105, 105, 105, false);
+        add("grey41", 105, 105, 105, false);
+        add("gray42", 107, 107, 107, false);
+        add("grey42", 107, 107, 107, false);
+        add("gray43", 110, 110, 110, false);
+        add("grey43", 110, 110, 110, false);
+        add("gray44", 112, 112, 112, false);
+        add("grey44", 112, 112, 112, false);
+        add("gray45", 115, 115, 115, false);
+        add("grey45", 115, 115, 115, false);
+        add("gray46", 117, 117, 117, false);
+        add("grey46", 117, 117, 117, false);
+        add("gray47", 120, 120, 120, false);
+        add("grey47", 120, 120, 120, false);
+        add("gray48", 122, 122, 122, false);
+        add("grey48", 122, 122, 122, false);
+        add("gray49", 125, 125, 125, false);
+        add("grey49", 125, 125, 125, false);
+        add("gray50", 127, 127, 127, false);
+        add("grey50", 127, 127, 127, false);
+        add("gray51", 130, 130, 130, false);
+        add("grey51", 130, 130, 130, false);
+        add("gray52", 133, 133, 133, false);
+        add("grey52", 133, 133, 133, false);
+        add("gray53", 135, 135, 135, false);
+        add("grey53", 135, 135, 135, false);
+        add("gray54", 138, 138, 138, false);
+        add("grey54", 138, 138, 138, false);
+        add("gray55", 140, 140, 140, false);
+        add("grey55", 140, 140, 140, false);
+        add("gray56", 143, 143, 143, false);
+        add("grey56", 143, 143, 143, false);
+        add("gray57", 145, 145, 145, false);
+        add("grey57", 145, 145, 145, false);
+        add("gray58", 148, 148, 148, false);
+        add("grey58", 148, 148, 148, false);
+        add("gray59", 150, 150, 150, false);
+        add("grey59", 150, 150, 150, false);
+        add("gray60", 153, 153, 153, false);
+        add("grey60", 153, 153, 153, false);
+        add("gray61", 156, 156, 156, false);
+        add("grey61", 156, 156, 156, false);
+        add("gray62", 158, 158, 158, false);
+        add("grey62", 158, 158, 158, false);
+        add("gray63", 161, 161, 161, false);
+        add("grey63", 161, 161, 161, false);
+        add("gray64", 163, 163, 163, false);
+        add("grey64", 163, 163, 163, false);
+        add("gray65", 166, 166, 166, false);
+        add("grey65", 166, 166, 166, false);
+        add("gray66", 168, 168, 168, false);
+        add("grey66", 168, 168, 168, false);
+        add("gray67", 171, 171, 171, false);
+        add("grey67", 171, 171, 171, false);
+        add("gray68", 173, 173, 173, false);
+        add("grey68", 173, 173, 173, false);
+        add("gray69", 176, 176, 176, false);
+        add("grey69", 176, 176, 176, false);
+        add("gray70", 179, 179, 179, false);
+        add("grey70", 179, 179, 179, false);
+        add("gray71", 181, 181, 181, false);
+        add("grey71", 181, 181, 181, false);
+        add("gray72", 184, 184, 184, false);
+        add("grey72", 184, 184, 184, false);
+        add("gray73", 186, 186, 186, false);
+        add("grey73", 186, 186, 186, false);
+        add("gray74", 189, 189, 189, false);
+        add("grey74", 189, 189, 189, false);
+        add("gray75", 191, 191, 191, false);
+        add("grey75", 191, 191, 191, false);
+        add("gray76", 194, 194, 194, false);
+        add("grey76", 194, 194, 194, false);
+        add("gray77", 196, 196, 196, false);
+        add("grey77", 196, 196, 196, false);
+        add("gray78", 199, 199, 199, false);
+        add("grey78", 199, 199, 199, false);
+        add("gray79", 201, 201, 201, false);
+        add("grey79", 201, 201, 201, false);
+        add("gray80", 204, 204, 204, false);
+        add("grey80", 204, 204, 204, false);
+        add("gray81", 207, 207, 207, false);
+        add("grey81", 207, 207, 207, false);
+        add("gray82", 209, 209, 209, false);
+        add("grey82", 209, 209, 209, false);
+        add("gray83", 212, 212, 212, false);
+        add("grey83", 212, 212, 212, false);
+        add("gray84", 214, 214, 214, false);
+        add("grey84", 214, 214, 214, false);
+        add("gray85", 217, 217, 217, false);
+        add("grey85", 217, 217, 217, false);
+        add("gray86", 219, 219, 219, false);
+        add("grey86", 219, 219, 219, false);
+        add("gray87", 222, 222, 222, false);
+        add("grey87", 222, 222, 222, false);
+        add("gray88", 224, 224, 224, false);
+        add("grey88", 224, 224, 224, false);
+        add("gray89", 227, 227, 227, false);
+        add("grey89", 227, 227, 227, false);
+        add("gray90", 229, 229, 229, false);
+        add("grey90", 229, 229, 229, false);
+        add("gray91", 232, 232, 232, false);
+        add("grey91", 232, 232, 232, false);
+        add("gray92", 235, 235, 235, false);
+        add("grey92", 235, 235, 235, false);
+        add("gray93", 237, 237, 237, false);
+        add("grey93", 237, 237, 237, false);
+        add("gray94", 240, 240, 240, false);
+        add("grey94", 240, 240, 240, false);
+        add("gray95", 242, 242, 242, false);
+        add("grey95", 242, 242, 242, false);
+        add("gray96", 245, 245, 245, false);
+        add("grey96", 245, 245, 245, false);
+        add("gray97", 247, 247, 247, false);
+        add("grey97", 247, 247, 247, false);
+        add("gray98", 250, 250, 250, false);
+        add("grey98", 250, 250, 250, false);
+        add("gray99", 252, 252, 252, false);
+        add("grey99", 252, 252, 252, false);
+        add("gray100", 255, 255, 255, false);
+        add("grey100", 255, 255, 255, false);
+        add("honeydew", 240, 255, 240);
+        add("honeydew1", 240, 255, 240, false);
+        add("honeydew2", 224, 238, 224, false);
+        add("honeydew3", 193, 205, 193, false);
+        add("honeydew4", 131, 139, 131, false);
+        add("hotpink", 255, 105, 180);
+        add("hotpink1", 255, 110, 180, false);
+        add("hotpink2", 238, 106, 167, false);
+        add("hotpink3", 205, 96, 144, false);
+        add("hotpink4", 139, 58, 98, false);
+        add("indianred", 205, 92, 92);
+        add("indianred1", 255, 106, 106, false);
+        add("indianred2", 238, 99, 99, false);
+        add("indianred3", 205, 85, 85, false);
+        add("indianred4", 139, 58, 58, false);
+        add("indigo", 75, 0, 130);
+        add("ivory", 255, 255, 240);
+        add("ivory1", 255, 255, 240, false);
+        add("ivory2", 238, 238, 224, false);
+        add("ivory3", 205, 205, 193, false);
+        add("ivory4", 139, 139, 131, false);
+        add("khaki", 240, 230, 140);
+        add("khaki1", 255, 246, 143, false);
+        add("khaki2", 238, 230, 133, false);
+        add("khaki3", 205, 198, 115, false);
+        add("khaki4", 139, 134, 78, false);
+        add("lavender", 230, 230, 250);
+        add("lavenderblush", 255, 240, 245);
+        add("lavenderblush1", 255, 240, 245, false);
+        add("lavenderblush2", 238, 224, 229, false);
+        add("lavenderblush3", 205, 193, 197, false);
+        add("lavenderblush4", 139, 131, 134, false);
+        add("lawngreen", 124, 252, 0);
+        add("lemonchiffon", 255, 250, 205);
+        add("lemonchiffon1", 255, 250, 205, false);
+        add("lemonchiffon2", 238, 233, 191, false);
+        add("lemonchiffon3", 205, 201, 165, false);
+        add("lemonchiffon4", 139, 137, 112, false);
+        add("lightblue", 173, 216, 230);
+        add("lightblue1", 191, 239, 255, false);
+        add("lightblue2", 178, 223, 238, false);
+        add("lightblue3", 154, 192, 205, false);
+        add("lightblue4", 104, 131, 139, false);
+        add("lightcoral", 240, 128, 128);
+        add("lightcyan", 224, 255, 255);
+        add("lightcyan1", 224, 255, 255, false);
+        add("lightcyan2", 209, 238, 238, false);
+        add("lightcyan3", 180, 205, 205, false);
+        add("lightcyan4", 122, 139, 139, false);
+        add("lightgoldenrod", 238, 221, 130);
+        add("lightgoldenrod1", 255, 236, 139, false);
+        add("lightgoldenrod2", 238, 220, 130, false);
+        add("lightgoldenrod3", 205, 190, 112, false);
+        add("lightgoldenrod4", 139, 129, 76, false);
+        add("lightgoldenrodyellow", 250, 250, 210);
+        add("lightgray", 211, 211, 211);
+        add("lightgreen", 144, 238, 144);
+        add("lightgrey", 211, 211, 211, false);
+        add("lightpink", 255, 182, 193);
+        add("lightpink1", 255, 174, 185, false);
+        add("lightpink2", 238, 162, 173, false);
+        add("lightpink3", 205, 140, 149, false);
+        add("lightpink4", 139, 95, 101, false);
+        add("lightsalmon", 255, 160, 122);
+        add("lightsalmon1", 255, 160, 122, false);
+        add("lightsalmon2", 238, 149, 114, false);
+        add("lightsalmon3", 205, 129, 98, false);
+        add("lightsalmon4", 139, 87, 66, false);
+        add("lightseagreen", 32, 178, 170);
+        add("lightskyblue", 135, 206, 250);
+        add("lightskyblue1", 176, 226, 255, false);
+        add("lightskyblue2", 164, 211, 238, false);
+        add("lightskyblue3", 141, 182, 205, false);
+        add("lightskyblue4", 96, 123, 139, false);
+        add("lightslateblue", 132, 112, 255);
+        add("lightslategray", 119, 136, 153);
+        add("lightslategrey", 119, 136, 153, false);
+        add("lightsteelblue", 176, 196, 222);
+        add("lightsteelblue1", 202, 225, 255, false);
+        add("lightsteelblue2", 188, 210, 238, false);
+        add("lightsteelblue3", 162, 181, 205, false);
+        add("lightsteelblue4", 110, 123, 139, false);
+        add("lightyellow", 255, 255, 224);
+        add("lightyellow1", 255, 255, 224, false);
+        add("lightyellow2", 238, 238, 209, false);
+        add("lightyellow3", 205, 205, 180, false);
+        add("lightyellow4", 139, 139, 122, false);
+        add("limegreen", 50, 205, 50);
+        add("linen", 250, 240, 230);
+        add("magenta", 255, 0, 255);
+        add("magenta1", 255, 0, 255, false);
+        add("magenta2", 238, 0, 238, false);
+        add("magenta3", 205, 0, 205, false);
+        add("magenta4", 139, 0, 139, false);
+        add("maroon", 176, 48, 96);
+        add("maroon1", 255, 52, 179, false);
+        add("maroon2", 238, 48, 167, false);
+        add("maroon3", 205, 41, 144, false);
+        add("maroon4", 139, 28, 98, false);
+        add("mediumaquamarine", 102, 205, 170);
+        add("mediumblue", 0, 0, 205);
+        add("mediumorchid", 186, 85, 211);
+        add("mediumorchid1", 224, 102, 255, false);
+        add("mediumorchid2", 209, 95, 238, false);
+        add("mediumorchid3", 180, 82, 205, false);
+        add("mediumorchid4", 122, 55, 139, false);
+        add("mediumpurple", 147, 112, 219);
+        add("mediumpurple1", 171, 130, 255, false);
+        add("mediumpurple2", 159, 121, 238, false);
+        add("mediumpurple3", 137, 104, 205, false);
+        add("mediumpurple4", 93, 71, 139, false);
+        add("mediumseagreen", 60, 179, 113);
+        add("mediumslateblue", 123, 104, 238);
+        add("mediumspringgreen", 0, 250, 154);
+        add("mediumturquoise", 72, 209, 204);
+        add("mediumvioletred", 199, 21, 133);
+        add("midnightblue", 25, 25, 112);
+        add("mintcream", 245, 255, 250);
+        add("mistyrose", 255, 228, 225);
+        add("mistyrose1", 255, 228, 225, false);
+        add("mistyrose2", 238, 213, 210, false);
+        add("mistyrose3", 205, 183, 181, false);
+        add("mistyrose4", 139, 125, 123, false);
+        add("moccasin", 255, 228, 181);
+        add("navajowhite", 255, 222, 173);
+        add("navajowhite1", 255, 222, 173, false);
+        add("navajowhite2", 238, 207, 161, false);
+        add("navajowhite3", 205, 179, 139, false);
+        add("navajowhite4", 139, 121, 94, false);
+        add("navy", 0, 0, 128);
+        add("navyblue", 0, 0, 128, false);
+        add("oldlace", 253, 245, 230);
+        add("olivedrab", 107, 142, 35);
+        add("olivedrab1", 192, 255, 62, false);
+        add("olivedrab2", 179, 238, 58, false);
+        add("olivedrab3", 154, 205, 50, false);
+        add("olivedrab4", 105, 139, 34, false);
+        add("orange", 255, 165, 0);
+        add("orange1", 255, 165, 0, false);
+        add("orange2", 238, 154, 0, false);
+        add("orange3", 205, 133, 0, false);
+        add("orange4", 139, 90, 0, false);
+        add("orangered", 255, 69, 0);
+        add("orangered1", 255, 69, 0, false);
+        add("orangered2", 238, 64, 0, false);
+        add("orangered3", 205, 55, 0, false);
+        add("orangered4", 139, 37, 0, false);
+        add("orchid", 218, 112, 214);
+        add("orchid1", 255, 131, 250, false);
+        add("orchid2", 238, 122, 233, false);
+        add("orchid3", 205, 105, 201, false);
+        add("orchid4", 139, 71, 137, false);
+        add("palegoldenrod", 238, 232, 170);
+        add("palegreen", 152, 251, 152);
+        add("palegreen1", 154, 255, 154, false);
+        add("palegreen2", 144, 238, 144, false);
+        add("palegreen3", 124, 205, 124, false);
+        add("palegreen4", 84, 139, 84, false);
+        add("paleturquoise", 175, 238, 238);
+        add("paleturquoise1", 187, 255, 255, false);
+        add("paleturquoise2", 174, 238, 238, false);
+        add("paleturquoise3", 150, 205, 205, false);
+        add("paleturquoise4", 102, 139, 139, false);
+        add("palevioletred", 219, 112, 147);
+        add("palevioletred1", 255, 130, 171, false);
+        add("palevioletred2", 238, 121, 159, false);
+        add("palevioletred3", 205, 104, 137, false);
+        add("palevioletred4", 139, 71, 93, false);
+        add("papayawhip", 255, 239, 213);
+        add("peachpuff", 255, 218, 185);
+        add("peachpuff1", 255, 218, 185, false);
+        add("peachpuff2", 238, 203, 173, false);
+        add("peachpuff3", 205, 175, 149, false);
+        add("peachpuff4", 139, 119, 101, false);
+        add("peru", 205, 133, 63);
+        add("pink", 255, 192, 203);
+        add("pink1", 255, 181, 197, false);
+        add("pink2", 238, 169, 184, false);
+        add("pink3", 205, 145, 158, false);
+        add("pink4", 139, 99, 108, false);
+        add("plum", 221, 160, 221);
+        add("plum1", 255, 187, 255, false);
+        add("plum2", 238, 174, 238, false);
+        add("plum3", 205, 150, 205, false);
+        add("plum4", 139, 102, 139, false);
+        add("powderblue", 176, 224, 230);
+        add("purple", 160, 32, 240);
+        add("purple1", 155, 48, 255, false);
+        add("purple2", 145, 44, 238, false);
+        add("purple3", 125, 38, 205, false);
+        add("purple4", 85, 26, 139, false);
+        add("red", 255, 0, 0);
+        add("red1", 255, 0, 0, false);
+        add("red2", 238, 0, 0, false);
+        add("red3", 205, 0, 0, false);
+        add("red4", 139, 0, 0, false);
+        add("rosybrown", 188, 143, 143);
+        add("rosybrown1", 255, 193, 193, false);
+        add("rosybrown2", 238, 180, 180, false);
+        add("rosybrown3", 205, 155, 155, false);
+        add("rosybrown4", 139, 105, 105, false);
+        add("royalblue", 65, 105, 225);
+        add("royalblue1", 72, 118, 255, false);
+        add("royalblue2", 67, 110, 238, false);
+        add("royalblue3", 58, 95, 205, false);
+        add("royalblue4", 39, 64, 139, false);
+        add("saddlebrown", 139, 69, 19);
+        add("salmon", 250, 128, 114);
+        add("salmon1", 255, 140, 105, false);
+        add("salmon2", 238, 130, 98, false);
+        add("salmon3", 205, 112, 84, false);
+        add("salmon4", 139, 76, 57, false);
+        add("sandybrown", 244, 164, 96);
+        add("seagreen", 46, 139, 87);
+        add("seagreen1", 84, 255, 159, false);
+        add("seagreen2", 78, 238, 148, false);
+        add("seagreen3", 67, 205, 128, false);
+        add("seagreen4", 46, 139, 87, false);
+        add("seashell", 255, 245, 238);
+        add("seashell1", 255, 245, 238, false);
+        add("seashell2", 238, 229, 222, false);
+        add("seashell3", 205, 197, 191, false);
+        add("seashell4", 139, 134, 130, false);
+        add("sgiindigo2", 33, 136, 104, false);
+        add("sienna", 160, 82, 45);
+        add("sienna1", 255, 130, 71, false);
+        add("sienna2", 238, 121, 66, false);
+        add("sienna3", 205, 104, 57, false);
+        add("sienna4", 139, 71, 38, false);
+        add("skyblue", 135, 206, 235);
+        add("skyblue1", 135, 206, 255, false);
+        add("skyblue2", 126, 192, 238, false);
+        add("skyblue3", 108, 166, 205, false);
+        add("skyblue4", 74, 112, 139, false);
+        add("slateblue", 106, 90, 205);
+        add("slateblue1", 131, 111, 255, false);
+        add("slateblue2", 122, 103, 238, false);
+        add("slateblue3", 105, 89, 205, false);
+        add("slateblue4", 71, 60, 139, false);
+        add("slategray", 112, 128, 144);
+        add("slategray1", 198, 226, 255, false);
+        add("slategray2", 185, 211, 238, false);
+        add("slategray3", 159, 182, 205, false);
+        add("slategray4", 108, 123, 139, false);
+        add("slategrey", 112, 128, 144, false);
+        add("snow", 255, 250, 250);
+        add("snow1", 255, 250, 250, false);
+        add("snow2", 238, 233, 233, false);
+        add("snow3", 205, 201, 201, false);
+        add("snow4", 139, 137, 137, false);
+        add("springgreen", 0, 255, 127);
+        add("springgreen1", 0, 255, 127, false);
+        add("springgreen2", 0, 238, 118, false);
+        add("springgreen3", 0, 205, 102, false);
+        add("springgreen4", 0, 139, 69, false);
+        add("steelblue", 70, 130, 180);
+        add("steelblue1", 99, 184, 255, false);
+        add("steelblue2", 92, 172, 238, false);
+        add("steelblue3", 79, 148, 205, false);
+        add("steelblue4", 54, 100, 139, false);
+        add("tan", 210, 180, 140);
+        add("tan1", 255, 165, 79, false);
+        add("tan2", 238, 154, 73, false);
+        add("tan3", 205, 133, 63, false);
+        add("tan4", 139, 90, 43, false);
+        add("thistle", 216, 191, 216);
+        add("thistle1", 255, 225, 255, false);
+        add("thistle2", 238, 210, 238, false);
+        add("thistle3", 205, 181, 205, false);
+        add("thistle4", 139, 123, 139, false);
+        add("tomato", 255, 99, 71);
+        add("tomato1", 255, 99, 71, false);
+        add("tomato2", 238, 92, 66, false);
+        add("tomato3", 205, 79, 57, false);
+        add("tomato4", 139, 54, 38, false);
+        add("turquoise", 64, 224, 208);
+        add("turquoise1", 0, 245, 255, false);
+        add("turquoise2", 0, 229, 238, false);
+        add("turquoise3", 0, 197, 205, false);
+        add("turquoise4", 0, 134, 139, false);
+        add("violet", 238, 130, 238);
+        add("violetred", 208, 32, 144);
+        add("violetred1", 255, 62, 150, false);
+        add("violetred2", 238, 58, 140, false);
+        add("violetred3", 205, 50, 120, false);
+        add("violetred4", 139, 34, 82, false);
+        add("wheat", 245, 222, 179);
+        add("wheat1", 255, 231, 186, false);
+        add("wheat2", 238, 216, 174, false);
+        add("wheat3", 205, 186, 150, false);
+        add("wheat4", 139, 126, 102, false);
+        add("white", 255, 255, 255);
+        add("whitesmoke", 245, 245, 245);
+        add("yellow", 255, 255, 0);
+        add("yellow1", 255, 255, 0, false);
+        add("yellow2", 238, 238, 0, false);
+        add("yellow3", 205, 205, 0, false);
+        add("yellow4", 139, 139, 0, false);
+        add("yellowgreen", 154, 205, 50);
+
+        freeze();
+    }
+
+    private ColorTable()
+    {
+    }
+
+    // used for the above static initialization
+    private static void add(String name, int red, int green, int blue)
+    {
+        add(name, red, green, blue, true);
+    }
+
+    // used for the above static initialization
+    private static void add(String name, int red, int green, int blue, boolean override)
+    {
+        Integer rgb = Integer.valueOf(0xFF000000 | (red << 16) | (green << 8) | blue);
+
+        initRgb.put(name, rgb);
+        if (override || initNames.get(rgb) == null) {
+            initNames.put(rgb, name);
+        }
+    }
+
+    // turn the loaded built-in colors into the lookup tables
+    private static void freeze()
+    {
+        int count = initRgb.size();
+        int[] hashes = new int[count];
+        String[] loaded = initRgb.keySet().toArray(new String[count]);
+        int[] members = new int[count];
+        int[] memberCount = new int[count];
+        int slots = 0;
+
+        bucketOffset = new int[count];
+        bucketSize = new int[count];
+        bucketSeed = new int[count];
+        for (int i = 0; i < count; i++) {
+            hashes[i] = hash(loaded[i]);
+            memberCount[bucket(hashes[i])]++;
+        }
+        for (int b = 0; b < count; b++) {
+            bucketOffset[b] = slots;
+            bucketSize[b] = memberCount[b] * memberCount[b];
+            slots += bucketSize[b];
+        }
+        keys = new String[slots];
+        rgbs = new int[slots];
+        for (int b = 0; b < count; b++) {
+            int k = 0;
+
+            for (int i = 0; i < count; i++) {
+                if (bucket(hashes[i]) == b) {
+                    members[k++] = i;
+                }
+            }
+            // try seeds until the members of the bucket land in distinct slots
+            for (int seed = 0; k > 0; seed++) {
+                boolean collision = false;
+
+                for (int m = 0; m < k && !collision; m++) {
+                    int slot = bucketOffset[b] + slot(hashes[members[m]], seed, bucketSize[b]);
+
+                    if (keys[slot] != null) {
+                        collision = true;
+                    } else {
+                        keys[slot] = loaded[members[m]];
+                        rgbs[slot] = initRgb.get(loaded[members[m]]).intValue();
+                    }
+                }
+                if (!collision) {
+                    bucketSeed[b] = seed;
+                    break;
+                }
+                for (int m = 0; m < bucketSize[b]; m++) {
+                    keys[bucketOffset[b] + m] = null;
+                }
+            }
+        }
+
+        int size = Integer.highestOneBit(2 * initNames.size() - 1) << 1;
+
+        nameRgbs = new int[size];
+        names = new String[size];
+        for (Map.Entry<Integer, String> entry : initNames.entrySet()) {
+            int rgb = entry.getKey().intValue();
+            int slot = mix(rgb) & (size - 1);
+
+            while (names[slot] != null) {
+                slot = (slot + 1) & (size - 1);
+            }
+            nameRgbs[slot] = rgb;
+            names[slot] = entry.getValue();
+        }
+
+        initRgb = null;
+        initNames = null;
+    }
+
+    /**
+     * Adds a color to the table under a canonical name. The name is also made the name of the color unless the color
+     * already has one and override is false.
+     *
+     * @param name a canonical color name
+     * @param rgb the packed ARGB value of the color
+     * @param override true if the name should replace any name the color already has
+     */
+    static void put(String name, int rgb, boolean override)
+    {
+        addedRgb.put(name, Integer.valueOf(rgb));
+        if (override || getName(rgb) == null) {
+            addedNames.put(Integer.valueOf(rgb), name);
+        }
+    }
+
+    /**
+     * Look up a color by name. As with <code>GrappaColor.getColor</code>, a name consisting of three comma or space
+     * separated numbers from 0 to 1 is taken as an HSB color specification, which is remembered as the name of the
+     * color.
+     *
+     * @param name a color name, which need not be canonical
+     * @param missing the value to return if no color matches the name
+     * @return the packed ARGB value of the color, or missing
+     */
+    static int getRGB(String name, int missing)
+    {
+        long rgb = lookup(name);
+
+        return (rgb == NOT_FOUND ? missing : (int) rgb);
+    }
+
+    /**
+     * Look up a color by name. Besides the names in the table, a name can be an HSB color specification (three comma
+     * or space separated numbers) or a hex specification (<code>#rrggbb</code> or <code>#rrggbbaa</code>); either is
+     * converted directly, and remembered as the name of the color (an HSB name replacing any other name, a hex name
+     * only for a color without one). Other names are matched in their canonical form, but without building it.
+     *
+     * @param name a color name, which need not be canonical
+     * @return the packed ARGB value of the color as a non-negative long, or NOT_FOUND
+     */
+    static long lookup(String name)
+    {
+        if (name == null) {
+            return NOT_FOUND;
+        }
+
+        int length = name.length();
+
+        if (length > 0 && name.charAt(0) == '#' && (length == 7 || length == 9)) {
+            long rgb = hexRGB(name);
+
+            if (rgb != NOT_FOUND) {
+                if (getName((int) rgb) == null) {
+                    remember((int) rgb, name.toLowerCase(), false);
+                }
+                return rgb;
+            }
+        }
+
+        boolean letters = false;
+        int separators = 0;
+        int dots = 0;
+        int hash = FNV_BASIS;
+
+        for (int i = 0; i < length; i++) {
+            char ch = name.charAt(i);
+
+            if (Character.isUpperCase(ch)) {
+                letters = true;
+                hash = (hash ^ Character.toLowerCase(ch)) * FNV_PRIME;
+            } else if (Character.isLowerCase(ch)) {
+                letters = true;
+                hash = (hash ^ ch) * FNV_PRIME;
+            } else if (Character.isDigit(ch)) {
+                hash = (hash ^ ch) * FNV_PRIME;
+            } else if (ch == ' ') {
+                separators++;
+                hash = (hash ^ ch) * FNV_PRIME;
+            } else if (ch == ',') {
+                separators++;
+            } else if (ch == '.') {
+                dots++;
+            }
+        }
+        if (!letters) {
+            return ((separators == 2 && dots <= 3) ? hsbRGB(name) : NOT_FOUND);
+        }
+
+        if (!addedRgb.isEmpty()) {
+            Integer rgb = addedRgb.get(canonColor(name, null));
+
+            if (rgb != null) {
+                return (rgb.intValue() & 0xFFFFFFFFL);
+            }
+        }
+
+        int b = bucket(hash);
+
+        if (bucketSize[b] > 0) {
+            int slot = bucketOffset[b] + slot(hash, bucketSeed[b], bucketSize[b]);
+
+            if (keys[slot] != null && canonEquals(name, keys[slot])) {
+                return (rgbs[slot] & 0xFFFFFFFFL);
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Get the name of a color.
+     *
+     * @param rgb the packed ARGB value of the color
+     * @return the color's (most recently entered) name, or null if it is not in the table
+     */
+    static String getName(int rgb)
+    {
+        if (!addedNames.isEmpty()) {
+            String name = addedNames.get(Integer.valueOf(rgb));
+
+            if (name != null) {
+                return name;
+            }
+        }
+
+        int slot = mix(rgb) & (names.length - 1);
+
+        while (names[slot] != null) {
+            if (nameRgbs[slot] == rgb) {
+                return names[slot];
+            }
+            slot = (slot + 1) & (names.length - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Get the name of a color, as <code>GrappaColor.getColorName</code> gives it.
+     *
+     * @param rgb the packed ARGB value of the color
+     * @return the color's (most recently entered) name, if it is in the table, or its HSB value string otherwise
+     */
+    static String getNameOrHSB(int rgb)
+    {
+        String name = getName(rgb);
+
+        if (name == null) {
+            float[] hsb = RGBtoHSB((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+            name = hsb[0] + "," + hsb[1] + "," + hsb[2];
+        }
+        return (name);
+    }
+
+    /**
+     * Get a name for a color that looks up to exactly that color: its name, if it is in the table, or its hex
+     * specification otherwise (<code>#rrggbb</code>, or <code>#rrggbbaa</code> if it is not opaque).
+     *
+     * @param rgb the packed ARGB value of the color
+     * @return the color's name or hex specification
+     */
+    static String getNameOrHex(int rgb)
+    {
+        String name = getName(rgb);
+
+        if (name == null) {
+            int alpha = rgb >>> 24;
+
+            if (alpha == 0xFF) {
+                name = String.format("#%06x", rgb & 0xFFFFFF);
+            } else {
+                name = String.format("#%06x%02x", rgb & 0xFFFFFF, alpha);
+            }
+        }
+        return (name);
+    }
+
+    /**
+     * Get the name a color name turns into when it is converted to a color and back, as an attribute value is, without
+     * creating a <code>java.awt.Color</code>. A name matching no color gives the name of the default color.
+     *
+     * @param name a color name, which need not be canonical
+     * @return the name of the color found for it
+     */
+    static String getCanonicalName(String name)
+    {
+        return (getNameOrHSB(getRGB(name, DEFAULT_RGB)));
+    }
+
+    /**
+     * Get the list of names a colon-separated color list turns into when each color is converted and back.
+     *
+     * @param list a colon-separated list of color names
+     * @return the colon-separated names of the colors found for them
+     */
+    static String getCanonicalListName(String list)
+    {
+        StringBuilder names = new StringBuilder(list.length());
+        int start = 0;
+
+        for (;;) {
+            int end = list.indexOf(':', start);
+
+            if (names.length() > 0) {
+                names.append(':');
+            }
+            names.append(getCanonicalName(end < 0 ? list.substring(start) : list.substring(start, end)));
+            if (end < 0) {
+                break;
+            }
+            start = end + 1;
+        }
+        return (names.toString());
+    }
+
+    // convert an HSB specification, whose separators have already been counted
+    private static long hsbRGB(String name)
+    {
+        HsbSpec spec = hsbSpecs.get(name);
+
+        if (spec != null) {
+            remember(spec.rgb, spec.canonName, true);
+            return (spec.rgb & 0xFFFFFFFFL);
+        }
+
+        int[] separatorSpots = new int[3];
+        int separators = 0;
+        float[] hsb = new float[3];
+        StringBuilder canonName = new StringBuilder(name.length());
+
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+
+            if (ch == ',' || ch == ' ') {
+                if (separators < 2) {
+                    separatorSpots[separators] = i;
+                }
+                separators++;
+                canonName.append(ch);
+            } else if (ch == '.' || Character.isDigit(ch)) {
+                canonName.append(ch);
+            }
+        }
+        separatorSpots[2] = name.length();
+
+        int prev = 0;
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                hsb[i] = Float.valueOf(name.substring(prev, separatorSpots[i])).floatValue();
+                prev = separatorSpots[i] + 1;
+            }
+        } catch (NumberFormatException nfe) {
+            return NOT_FOUND;
+        }
+        if (hsb[0] < 0) {
+            return NOT_FOUND;
+        }
+
+        int rgb = HSBtoRGB(hsb[0], hsb[1], hsb[2]);
+
+        spec = new HsbSpec(rgb, canonName.toString());
+        if (hsbSpecs.size() < SPEC_NAME_LIMIT) {
+            hsbSpecs.put(name, spec);
+        }
+        remember(rgb, spec.canonName, true);
+        return (rgb & 0xFFFFFFFFL);
+    }
+
+    // convert a #rrggbb or #rrggbbaa specification
+    private static long hexRGB(String name)
+    {
+        int value = 0;
+
+        for (int i = 1; i < name.length(); i++) {
+            int digit = Character.digit(name.charAt(i), 16);
+
+            if (digit < 0) {
+                return NOT_FOUND;
+            }
+            value = (value << 4) | digit;
+        }
+        if (name.length() == 7) {
+            return ((0xFF000000 | value) & 0xFFFFFFFFL);
+        }
+        return ((((value & 0xFF) << 24) | (value >>> 8)) & 0xFFFFFFFFL);
+    }
+
+    // record the name under which a color specification was seen, within bounds
+    private static void remember(int rgb, String name, boolean override)
+    {
+        Integer key = Integer.valueOf(rgb);
+        String current = addedNames.get(key);
+
+        if (name.equals(current) || (!override && getName(rgb) != null)) {
+            return;
+        }
+        if (current != null || addedNames.size() < SPEC_NAME_LIMIT) {
+            addedNames.put(key, name);
+        }
+    }
+
+    // compare a name with a canonical name without canonicalizing it
+    private static boolean canonEquals(String name, String canonName)
+    {
+        int k = 0;
+
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+
+            if (Character.isUpperCase(ch)) {
+                ch = Character.toLowerCase(ch);
+            } else if (!Character.isLowerCase(ch) && !Character.isDigit(ch) && ch != ' ') {
+                continue;
+            }
+            if (k == canonName.length() || canonName.charAt(k++) != ch) {
+                return false;
+            }
+        }
+        return (k == canonName.length());
+    }
+
+    private static int hash(String canonName)
+    {
+        int hash = FNV_BASIS;
+
+        for (int i = 0; i < canonName.length(); i++) {
+            hash = (hash ^ canonName.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static int bucket(int hash)
+    {
+        return ((mix(hash) & 0x7FFFFFFF) % bucketSize.length);
+    }
+
+    private static int slot(int hash, int seed, int size)
+    {
+        return ((mix(hash ^ (seed * 0x9E3779B9)) & 0x7FFFFFFF) % size);
+    }
+
+    private static int mix(int value)
+    {
+        value ^= value >>> 16;
+        value *= 0x85EBCA6B;
+        value ^= value >>> 13;
+        value *= 0xC2B2AE35;
+        return (value ^ (value >>> 16));
+    }
+
+    /**
+     * Canonicalizes a color name by removing non-alphanumerics and converting to lower case. When hsb is supplied, its
+     * elements are all set to -1 unless the name is an HSB color specification, in which case they are set to its
+     * hue, saturation and brightness and the commas and spaces of the name are kept.
+     *
+     * @param name the name to canonicalize
+     * @param hsb a three element array to receive the HSB values, or null
+     * @return the canonical name, or null if the name contains no alphabetics and is not an HSB specification
+     */
+    static String canonColor(String name, float[] hsb)
+    {
+        if (hsb != null) {
+            hsb[0] = hsb[1] = hsb[2] = -1;
+        }
+        if (name == null) {
+            return null;
+        }
+        char[] array = name.toCharArray();
+        int len = 0;
+        int commas = 0;
+        int[] commaSpots = new int[3];
+        int dots = 0;
+        boolean allDigits = true;
+        for (int i = 0; i < array.length; i++) {
+            if (Character.isUpperCase(array[i])) {
+                array[len++] = Character.toLowerCase(array[i]);
+                allDigits = false;
+            } else if (Character.isLowerCase(array[i])) {
+                array[len++] = array[i];
+                allDigits = false;
+            } else if (Character.isDigit(array[i])) {
+                array[len++] = array[i];
+            } else if (array[i] == ',' || array[i] == ' ') {
+                if (commas < 2) {
+                    commaSpots[commas] = i;
+                }
+                commas++;
+                array[len++] = array[i];
+            } else if (array[i] == '.') {
+                dots++;
+                array[len++] = array[i];
+            }
+        }
+
+        if (hsb != null && allDigits && commas == 2 && dots <= 3) {
+            commaSpots[2] = array.length;
+            int prev = 0;
+            try {
+                for (int i = 0; i < 3; i++) {
+                    hsb[i] = Float.valueOf(name.substring(prev, commaSpots[i])).floatValue();
+                    prev = commaSpots[i] + 1;
+                }
+            } catch (NumberFormatException nfe) {
+                return null;
+            }
+            return new String(array, 0, len);
+        }
+        if (len == 0 || allDigits) {
+            return null;
+        }
+        if (commas > 0 || dots > 0) {
+            int l = len;
+            len = 0;
+            for (int i = 0; i < l; i++) {
+                if (array[i] != '.' && array[i] != ',') {
+                    array[len++] = array[i];
+                }
+            }
+        }
+        return new String(array, 0, len);
+    }
+
+    // the same conversion as java.awt.Color.HSBtoRGB, which would load AWT
+    private static int HSBtoRGB(float hue, float saturation, float brightness)
+    {
+        int r = 0, g = 0, b = 0;
+
+        if (saturation == 0) {
+            r = g = b = (int) (brightness * 255.0f + 0.5f);
+        } else {
+            float h = (hue - (float) Math.floor(hue)) * 6.0f;
+            float f = h - (float) Math.floor(h);
+            float p = brightness * (1.0f - saturation);
+            float q = brightness * (1.0f - saturation * f);
+            float t = brightness * (1.0f - (saturation * (1.0f - f)));
+
+            switch ((int) h) {
+                case 0:
+                    r = (int) (brightness * 255.0f + 0.5f);
+                    g = (int) (t * 255.0f + 0.5f);
+                    b = (int) (p * 255.0f + 0.5f);
+                    break;
+                case 1:
+                    r = (int) (q * 255.0f + 0.5f);
+                    g = (int) (brightness * 255.0f + 0.5f);
+                    b = (int) (p * 255.0f + 0.5f);
+                    break;
+                case 2:
+                    r = (int) (p * 255.0f + 0.5f);
+                    g = (int) (brightness * 255.0f + 0.5f);
+                    b = (int) (t * 255.0f + 0.5f);
+                    break;
+                case 3:
+                    r = (int) (p * 255.0f + 0.5f);
+                    g = (int) (q * 255.0f + 0.5f);
+                    b = (int) (brightness * 255.0f + 0.5f);
+                    break;
+                case 4:
+                    r = (int) (t * 255.0f + 0.5f);
+                    g = (int) (p * 255.0f + 0.5f);
+                    b = (int) (brightness * 255.0f + 0.5f);
+                    break;
+                case 5:
+                    r = (int) (brightness * 255.0f + 0.5f);
+                    g = (int) (p * 255.0f + 0.5f);
+                    b = (int) (q * 255.0f + 0.5f);
+                    break;
+            }
+        }
+        return (0xFF000000 | (r << 16) | (g << 8) | b);
+    }
+
+    // the same conversion as java.awt.Color.RGBtoHSB, which would load AWT
+    private static float[] RGBtoHSB(int r, int g, int b)
+    {
+        float hue, saturation, brightness;
+        int cmax = (r > g) ? r : g;
+        int cmin = (r < g) ? r : g;
+
+        if (b > cmax) {
+            cmax = b;
+        }
+        if (b < cmin) {
+            cmin = b;
+        }
+        brightness = cmax / 255.0f;
+        saturation = (cmax != 0) ? ((float) (cmax - cmin)) / ((float) cmax) : 0;
+        if (saturation == 0) {
+            hue = 0;
+        } else {
+            float redc = ((float) (cmax - r)) / ((float) (cmax - cmin));
+            float greenc = ((float) (cmax - g)) / ((float) (cmax - cmin));
+            float bluec = ((float) (cmax - b)) / ((float) (cmax - cmin));
+
+            if (r == cmax) {
+                hue = bluec - greenc;
+            } else if (g == cmax) {
+                hue = 2.0f + redc - bluec;
+            } else {
+                hue = 4.0f + greenc - redc;
+            }
+            hue = hue / 6.0f;
+            if (hue < 0) {
+                hue = hue + 1.0f;
+            }
+        }
+        return (new float[] { hue, saturation, brightness });
+    }
+
+    private static final class HsbSpec
+    {
+        final int rgb;
+
+        final String canonName;
+
+        HsbSpec(int rgb, String canonName)
+        {
+            this.rgb = rgb;
+            this.canonName = canonName;
+        }
+    }
+}
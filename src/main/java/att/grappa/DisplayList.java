@@ -0,0 +1,587 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * The drawing of a subgraph by a GrappaPanel, compiled into a list of primitive operations (fill, draw, image, text)
+ * per element. The list keeps the subgraph tree, and within each subgraph the nodes and edges are held in arrays in
+ * drawing order. Each element's operations are packed four bits apiece into a long, together with the colors, style
+ * and highlight they were derived from. A replay checks those inputs against the element and compiles its operations
+ * again only when one of them has changed; the whole list is rebuilt when elements are added to or removed from the
+ * graph. The order of drawing is that of <code>GrappaPanel</code> before the list existed. Paint and stroke are set
+ * on the Graphics2D context only when an operation needs a different one from the one already set. Selection and
+ * deletion highlights can be drawn in place, left out, or drawn alone over a drawing that left them out.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see GrappaPanel
+ */
+final class DisplayList implements GrappaConstants
+{
+    // the operations; each uses the paint most recently asked for, a draw the stroke it names and the others the
+    // default stroke (which matters only to custom renderers)
+    private static final int PAINT_COLOR = 1;
+
+    private static final int PAINT_FILLCOLOR = 2;
+
+    private static final int PAINT_LINE_COLOR = 3;
+
+    private static final int PAINT_SELECTION = 4;
+
+    private static final int PAINT_DELETION = 5;
+
+    private static final int FILL = 6;
+
+    private static final int DRAW = 7;
+
+    private static final int DRAW_SELECTION = 8;
+
+    private static final int DRAW_DELETION = 9;
+
+    // a subgraph outline, drawn only for clusters or when Grappa.outlineSubgraphs is set
+    private static final int OUTLINE = 10;
+
+    private static final int IMAGE = 11;
+
+    // the label text in the font color, drawn only when labels of the element type are shown
+    private static final int TEXT = 12;
+
+    /**
+     * Paint mode for drawing elements as they would be if none were highlighted.
+     */
+    static final int PLAIN = 1;
+
+    /**
+     * Paint mode for drawing the selection and deletion highlights. Together with PLAIN, each highlighted element is
+     * drawn with its highlight in place of its outline; alone, only the highlights are drawn.
+     */
+    static final int HIGHLIGHTED = 2;
+
+    private final Subgraph subgraph;
+
+    private final GrappaStyle selectionStyle;
+
+    private final GrappaStyle deletionStyle;
+
+    private Group root = null;
+
+    // the structure version of the graph when the list was built
+    private int structure = 0;
+
+    // the state of a replay
+    private Graphics2D g2d = null;
+
+    private Rectangle clip = null;
+
+    private boolean subgLabels, nodeLabels, edgeLabels;
+
+    private int mode = 0;
+
+    private Paint paint = null;
+
+    private Paint wantPaint = null;
+
+    private Stroke stroke = null;
+
+    DisplayList(Subgraph subgraph, GrappaStyle selectionStyle, GrappaStyle deletionStyle)
+    {
+        this.subgraph = subgraph;
+        this.selectionStyle = selectionStyle;
+        this.deletionStyle = deletionStyle;
+    }
+
+    /**
+     * Draw the subgraph, much as <code>GrappaPanel.paintComponent</code> would after painting its background.
+     *
+     * @param g2d the Graphics2D context, already transformed
+     * @param clip the area to draw
+     * @param bkgdColor the color of the background already painted
+     * @param subgLabels whether to draw subgraph labels
+     * @param nodeLabels whether to draw node labels
+     * @param edgeLabels whether to draw edge labels
+     * @param mode PLAIN, HIGHLIGHTED or both
+     */
+    void paint(Graphics2D g2d, Rectangle clip, Color bkgdColor, boolean subgLabels, boolean nodeLabels,
+        boolean edgeLabels, int mode)
+    {
+        Graph graph = this.subgraph.getGraph();
+
+        int structure = graph.structureVersion.get();
+
+        if (this.root == null || this.structure != structure) {
+            this.structure = structure;
+            this.root = new Group(this.subgraph);
+        }
+
+        this.g2d = g2d;
+        this.clip = clip;
+        this.subgLabels = subgLabels;
+        this.nodeLabels = nodeLabels;
+        this.edgeLabels = edgeLabels;
+        this.mode = mode;
+        this.paint = this.wantPaint = g2d.getPaint();
+        this.stroke = g2d.getStroke();
+        try {
+            replay(this.root, bkgdColor);
+            if (this.stroke != GrappaStyle.defaultStroke) {
+                g2d.setStroke(GrappaStyle.defaultStroke);
+            }
+        } finally {
+            this.g2d = null;
+            this.clip = null;
+            this.paint = this.wantPaint = null;
+            this.stroke = null;
+        }
+    }
+
+    private void replay(Group group, Color bkgdColor)
+    {
+        Subgraph subg = group.subgraph;
+
+        if (subg != this.subgraph && !subg.reserve()) {
+            return;
+        }
+
+        try {
+            Rectangle2D bbox = subg.getBoundingBox();
+            GrappaNexus grappaNexus = subg.grappaNexus;
+
+            if (grappaNexus != null) {
+                grappaNexus.validate();
+            }
+
+            if (bbox != null && grappaNexus != null && subg.visible && !grappaNexus.style.invis
+                && this.clip.intersects(bbox)) {
+                draw(group.segment, grappaNexus, bkgdColor, this.subgLabels);
+                bkgdColor = group.segment.bkgdOut;
+
+                for (Group sub : group.groups) {
+                    replay(sub, bkgdColor);
+                }
+                for (Segment node : group.nodes) {
+                    Element elem = node.element;
+
+                    if ((this.mode == HIGHLIGHTED && elem.highlight == 0) || !elem.reserve()) {
+                        continue;
+                    }
+                    try {
+                        // bounds first, since they bring the style up to date
+                        if ((grappaNexus = elem.grappaNexus) != null && elem.visible
+                            && this.clip.intersects(grappaNexus.rawBounds2D()) && !grappaNexus.style.invis) {
+                            grappaNexus.validate();
+                            draw(node, grappaNexus, null, this.nodeLabels);
+                        }
+                    } finally {
+                        elem.release();
+                    }
+                }
+                for (Segment edge : group.edges) {
+                    Element elem = edge.element;
+
+                    if ((this.mode == HIGHLIGHTED && elem.highlight == 0) || !elem.reserve()) {
+                        continue;
+                    }
+                    try {
+                        if ((grappaNexus = elem.grappaNexus) != null && elem.visible
+                            && this.clip.intersects(grappaNexus.rawBounds2D()) && !grappaNexus.style.invis) {
+                            grappaNexus.validate();
+                            draw(edge, grappaNexus, null, this.edgeLabels);
+                        }
+                    } finally {
+                        elem.release();
+                    }
+                }
+            }
+        } finally {
+            subg.release();
+        }
+    }
+
+    // draw an element as the paint mode asks, compiling its operations again if they are out of date
+    private void draw(Segment segment, GrappaNexus grappaNexus, Color bkgdColor, boolean labels)
+    {
+        Element elem = segment.element;
+
+        if (this.mode == HIGHLIGHTED) {
+            if (elem.highlight != 0) {
+                run(segment, grappaNexus, highlightOps(elem), false);
+            }
+            return;
+        }
+
+        int highlight = ((this.mode & HIGHLIGHTED) != 0 ? elem.highlight : 0);
+
+        if (!segment.isCurrent(grappaNexus, bkgdColor, highlight)) {
+            switch (elem.getType()) {
+                case NODE:
+                    compileNode(segment, grappaNexus, highlight);
+                    break;
+                case EDGE:
+                    compileEdge(segment, grappaNexus, highlight);
+                    break;
+                default:
+                    compileSubgraph(segment, grappaNexus, bkgdColor, highlight, elem != this.subgraph);
+                    break;
+            }
+        }
+        run(segment, grappaNexus, segment.ops, labels);
+    }
+
+    // carry out operations of an element
+    private void run(Segment segment, GrappaNexus grappaNexus, long ops, boolean labels)
+    {
+        boolean custom = grappaNexus.shape instanceof CustomRenderer;
+
+        for (; ops != 0; ops >>>= 4) {
+            switch ((int) (ops & 0xF)) {
+                case PAINT_COLOR:
+                    want(segment.color);
+                    break;
+                case PAINT_FILLCOLOR:
+                    want(segment.fillcolor);
+                    break;
+                case PAINT_LINE_COLOR:
+                    want(segment.lineColor);
+                    break;
+                case PAINT_SELECTION:
+                    want(this.selectionStyle.line_color);
+                    break;
+                case PAINT_DELETION:
+                    want(this.deletionStyle.line_color);
+                    break;
+                case FILL:
+                    apply(custom ? GrappaStyle.defaultStroke : null);
+                    grappaNexus.fill(this.g2d);
+                    break;
+                case DRAW:
+                    apply(segment.stroke);
+                    grappaNexus.draw(this.g2d);
+                    break;
+                case DRAW_SELECTION:
+                    want(this.selectionStyle.line_color);
+                    apply(this.selectionStyle.stroke);
+                    grappaNexus.draw(this.g2d);
+                    break;
+                case DRAW_DELETION:
+                    want(this.deletionStyle.line_color);
+                    apply(this.deletionStyle.stroke);
+                    grappaNexus.draw(this.g2d);
+                    break;
+                case OUTLINE:
+                    if (((Subgraph) segment.element).isCluster() || Grappa.outlineSubgraphs) {
+                        apply(segment.stroke);
+                        grappaNexus.draw(this.g2d);
+                    }
+                    break;
+                case IMAGE:
+                    if (custom) {
+                        apply(GrappaStyle.defaultStroke);
+                    }
+                    grappaNexus.drawImage(this.g2d);
+                    break;
+                case TEXT:
+                    if (labels) {
+                        want(segment.fontColor);
+                        apply(custom ? GrappaStyle.defaultStroke : null);
+                        grappaNexus.drawText(this.g2d);
+                    }
+                    break;
+            }
+            if (custom) {
+                // a custom renderer may leave any paint or stroke behind
+                this.paint = this.wantPaint = this.g2d.getPaint();
+                this.stroke = this.g2d.getStroke();
+            }
+        }
+    }
+
+    // ask for a paint (as setPaint would, a null paint changes nothing)
+    private void want(Paint paint)
+    {
+        if (paint != null) {
+            this.wantPaint = paint;
+        }
+    }
+
+    // set the paint asked for and, unless null, the supplied stroke
+    private void apply(Stroke stroke)
+    {
+        if (this.wantPaint != this.paint) {
+            this.g2d.setPaint(this.wantPaint);
+            this.paint = this.wantPaint;
+        }
+        if (stroke != null && stroke != this.stroke) {
+            this.g2d.setStroke(stroke);
+            this.stroke = stroke;
+        }
+    }
+
+    private void compileSubgraph(Segment segment, GrappaNexus grappaNexus, Color bkgdColor, int highlight,
+        boolean own)
+    {
+        GrappaStyle style = grappaNexus.style;
+        Ops ops = segment.record(grappaNexus, bkgdColor, highlight);
+
+        segment.bkgdOut = bkgdColor;
+        if (own) {
+            ops.add(PAINT_COLOR);
+            if (style.filled) {
+                if (grappaNexus.fillcolor != null) {
+                    segment.bkgdOut = grappaNexus.fillcolor;
+                    ops.add(FILL);
+                    ops.add(grappaNexus.color != null ? PAINT_COLOR : PAINT_LINE_COLOR);
+                } else {
+                    segment.bkgdOut = grappaNexus.color;
+                    ops.add(FILL);
+                    ops.add(PAINT_LINE_COLOR);
+                }
+            } else if (grappaNexus.color == bkgdColor) { // using == is OK (caching)
+                ops.add(PAINT_LINE_COLOR);
+            }
+            ops.add(IMAGE);
+            ops.add(OUTLINE);
+        }
+        addHighlight(ops, highlight);
+        if (grappaNexus.lstr != null) {
+            ops.add(TEXT);
+        }
+        segment.ops = ops.bits;
+    }
+
+    private void compileNode(Segment segment, GrappaNexus grappaNexus, int highlight)
+    {
+        GrappaStyle style = grappaNexus.style;
+        Ops ops = segment.record(grappaNexus, null, highlight);
+
+        if (style.filled) {
+            if (grappaNexus.fillcolor != null) {
+                ops.add(PAINT_FILLCOLOR);
+                ops.add(FILL);
+                ops.add(grappaNexus.color != null ? PAINT_COLOR : PAINT_LINE_COLOR);
+            } else {
+                ops.add(PAINT_COLOR);
+                ops.add(FILL);
+                ops.add(PAINT_LINE_COLOR);
+            }
+        } else {
+            ops.add(PAINT_COLOR);
+        }
+        ops.add(IMAGE);
+        if (!addHighlight(ops, highlight)) {
+            ops.add(DRAW);
+        }
+        if (grappaNexus.lstr != null) {
+            ops.add(TEXT);
+        }
+        segment.ops = ops.bits;
+    }
+
+    private void compileEdge(Segment segment, GrappaNexus grappaNexus, int highlight)
+    {
+        Ops ops = segment.record(grappaNexus, null, highlight);
+
+        ops.add(IMAGE);
+        if (!addEdgeHighlight(ops, highlight)) {
+            ops.add(PAINT_COLOR);
+            ops.add(FILL);
+            ops.add(DRAW);
+        }
+        if (grappaNexus.lstr != null) {
+            ops.add(TEXT);
+        }
+        segment.ops = ops.bits;
+    }
+
+    // the operations drawing just the highlight of an element
+    private static long highlightOps(Element elem)
+    {
+        Ops ops = new Ops();
+
+        if (elem.isEdge()) {
+            addEdgeHighlight(ops, elem.highlight);
+        } else {
+            addHighlight(ops, elem.highlight);
+        }
+        return (ops.bits);
+    }
+
+    // add the outline of a deleted or selected element, if it is either
+    private static boolean addHighlight(Ops ops, int highlight)
+    {
+        if ((highlight & DELETION_MASK) == DELETION_MASK) {
+            ops.add(DRAW_DELETION);
+        } else if ((highlight & SELECTION_MASK) == SELECTION_MASK) {
+            ops.add(DRAW_SELECTION);
+        } else {
+            return (false);
+        }
+        return (true);
+    }
+
+    // add a deleted or selected edge, drawn in the color of its highlight, if it is either
+    private static boolean addEdgeHighlight(Ops ops, int highlight)
+    {
+        if ((highlight & DELETION_MASK) == DELETION_MASK) {
+            ops.add(PAINT_DELETION);
+            ops.add(FILL);
+            ops.add(DRAW_DELETION);
+        } else if ((highlight & SELECTION_MASK) == SELECTION_MASK) {
+            ops.add(PAINT_SELECTION);
+            ops.add(FILL);
+            ops.add(DRAW_SELECTION);
+        } else {
+            return (false);
+        }
+        return (true);
+    }
+
+    // a subgraph with its own segment and those of its subgraphs, nodes and edges, in drawing order
+    private static final class Group
+    {
+        final Subgraph subgraph;
+
+        final Segment segment;
+
+        final Group[] groups;
+
+        final Segment[] nodes;
+
+        final Segment[] edges;
+
+        Group(Subgraph subgraph)
+        {
+            List<Group> groupList = new ArrayList<Group>();
+            List<Segment> nodeList = new ArrayList<Segment>();
+            List<Segment> edgeList = new ArrayList<Segment>();
+            Enumeration<? extends Element> enm;
+            Element elem;
+
+            this.subgraph = subgraph;
+            this.segment = new Segment(subgraph);
+
+            enm = subgraph.subgraphElements();
+            while (enm.hasMoreElements()) {
+                if ((elem = enm.nextElement()) != null) {
+                    groupList.add(new Group((Subgraph) elem));
+                }
+            }
+            enm = subgraph.nodeElements();
+            while (enm.hasMoreElements()) {
+                if ((elem = enm.nextElement()) != null) {
+                    nodeList.add(new Segment(elem));
+                }
+            }
+            enm = subgraph.edgeElements();
+            while (enm.hasMoreElements()) {
+                if ((elem = enm.nextElement()) != null) {
+                    edgeList.add(new Segment(elem));
+                }
+            }
+            this.groups = groupList.toArray(new Group[groupList.size()]);
+            this.nodes = nodeList.toArray(new Segment[nodeList.size()]);
+            this.edges = edgeList.toArray(new Segment[edgeList.size()]);
+        }
+    }
+
+    // the compiled operations of one element and what they were compiled from
+    private static final class Segment
+    {
+        final Element element;
+
+        long ops = 0;
+
+        GrappaNexus nexus = null;
+
+        GrappaStyle style;
+
+        boolean filled;
+
+        Color color;
+
+        Color fillcolor;
+
+        Color lineColor;
+
+        Color fontColor;
+
+        Stroke stroke;
+
+        boolean labelled;
+
+        int highlight;
+
+        // for a subgraph, the background color around it and the one it leaves for its contents
+        Color bkgdIn;
+
+        Color bkgdOut;
+
+        Segment(Element element)
+        {
+            this.element = element;
+        }
+
+        // check whether the operations were compiled from the current state of the element
+        boolean isCurrent(GrappaNexus grappaNexus, Color bkgdColor, int highlight)
+        {
+            GrappaStyle style = grappaNexus.style;
+
+            return (this.nexus == grappaNexus && this.style == style && this.filled == style.filled
+                && this.color == grappaNexus.color && this.fillcolor == grappaNexus.fillcolor
+                && this.lineColor == style.line_color && this.stroke == style.stroke
+                && this.fontColor == grappaNexus.font_color && this.labelled == (grappaNexus.lstr != null)
+                && this.highlight == highlight && this.bkgdIn == bkgdColor);
+        }
+
+        // note the state of the element and start compiling its operations
+        Ops record(GrappaNexus grappaNexus, Color bkgdColor, int highlight)
+        {
+            GrappaStyle style = grappaNexus.style;
+
+            this.nexus = grappaNexus;
+            this.style = style;
+            this.filled = style.filled;
+            this.color = grappaNexus.color;
+            this.fillcolor = grappaNexus.fillcolor;
+            this.lineColor = style.line_color;
+            this.stroke = style.stroke;
+            this.fontColor = grappaNexus.font_color;
+            this.labelled = (grappaNexus.lstr != null);
+            this.highlight = highlight;
+            this.bkgdIn = bkgdColor;
+            return (new Ops());
+        }
+    }
+
+    // the operations of an element being compiled, four bits apiece with the first in the lowest bits
+    private static final class Ops
+    {
+        long bits = 0;
+
+        private int shift = 0;
+
+        void add(int op)
+        {
+            this.bits |= ((long) op) << this.shift;
+            this.shift += 4;
+        }
+    }
+}
@@ -156,7 +156,8 @@ public Edge(Subgraph subg, Node tail, String tailPort, Node head, String headPor
                 }
             }
         }
-        if (!directed && tail.getId() > head.getId()) {
+        // ends of an undirected edge go in order of node creation, which ids no longer follow once they are reused
+        if (!directed && tail.getSequence() > head.getSequence()) {
             Node tmpNode = tail;
             tail = head;
             head = tmpNode;
@@ -208,21 +209,12 @@ public Edge(Subgraph subg, Node tail, String tailPort, Node head, String headPor
         this.tailNode.addEdge(this, false);
         this.headNode.addEdge(this, true);
 
-        edgeAttrsOfInterest();
+        this.interest = EDGE_INTEREST;
     }
 
-    // a listing of the attributes of interest for Edges
-    private void edgeAttrsOfInterest()
-    {
-        attrOfInterest(POS_ATTR);
-        attrOfInterest(DIR_ATTR);
-        attrOfInterest(LP_ATTR);
-        attrOfInterest(HEADLABEL_ATTR);
-        attrOfInterest(HEADLP_ATTR);
-        attrOfInterest(TAILLABEL_ATTR);
-        attrOfInterest(TAILLP_ATTR);
-        attrOfInterest(STYLE_ATTR);
-    }
+    // the attributes of interest for Edges
+    private static final InterestSet EDGE_INTEREST = ELEMENT_INTEREST.with(POS_ATTR, DIR_ATTR, LP_ATTR, HEADLABEL_ATTR,
+        HEADLP_ATTR, TAILLABEL_ATTR, TAILLP_ATTR, STYLE_ATTR);
 
     /**
      * Returns the edge with the given tail node, head node and key.
@@ -11,13 +11,12 @@
 package att.grappa;
 
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.Vector;
 
 import att.grappa.util.IteratorEnumeration;
@@ -26,6 +25,10 @@
  * This abstract class is the root class for the <A HREF="att.grappa.Node.html">Node</A>, <A
  * HREF="att.grappa.Edge.html">Edge</A>, <A HREF="att.grappa.Subgraph.html">Subgraph</A> and <A
  * HREF="att.grappa.Graph.html">Graph</A> classes. It is the basis for describing the graph elements.
+ * <P>
+ * The application object, counter, line width and print flags that were once public fields are kept in a record
+ * allocated only for the elements that use them, and are reached through <code>getObject</code>,
+ * <code>setObject</code> and the like.
  *
  * @version $Id$
  * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
@@ -38,9 +41,6 @@ public abstract class Element implements GrappaConstants
 
     private Subgraph subgraph = null;
 
-    // used for checking whether we've been here for dfs/bfs
-    long visastamp = -1L;
-
     /*
      * These (deleteCalled and busy) used by reserve/release/setDelete to queue a delete request during a critical
      * function (e.g., drawing) and to define the start and end of that critical function.
@@ -55,12 +55,6 @@ public abstract class Element implements GrappaConstants
      */
     private static Map<String, Integer> userAttributeTypeMap = null;
 
-    /**
-     * A general-purpose object not used by Grappa and intended for application writers to attach whatever they want to
-     * an Element without the need for extending the class.
-     */
-    public Object object;
-
     /**
      * Indicates whether this element should be considered visible or not. If not visible, it will not be drawn and will
      * not be selected by a mouse click (if the supplied selection methods are used). Note that there is redundancy here
@@ -74,62 +68,39 @@ public abstract class Element implements GrappaConstants
      */
     public boolean selectable = true;
 
-    /**
-     * Indicates indicates line width for element (for nodes or subgraphs, it is the outline width, when applicable).
-     * The default is 0 (single pixel).
-     */
-    public int linewidth = 0;
-
     /**
      * Indicates whether only the list of attributes found in the PRINTLIST_ATTR should be printed. The default is
      * false.
      */
     public static boolean usePrintList = false;
 
-    /**
-     * A convenience variable, not used by Grappa, but available to keep track of or otherwise mark graph elements when
-     * traversing a graph.
-     */
-    public int counter = 0;
-
     /**
      * Determines the type of highlighting to apply, if any, when drawing. Currently recognized choices are
      * SELECTION_MASK and DELETION_MASK.
      */
     public int highlight = 0;
 
-    // identification
-    private Long idKey = null;
+    // identification (the id is unique among the live elements of this type in the graph)
+    private int id = -1;
+
+    // when this element was created relative to the others in the graph; unlike the id, never reused
+    private long sequence = -1;
 
     String name = null;
 
     // attributes
-    Map<String, Attribute> attributes = null;
+    AttributeMap attributes = null;
 
-    // attributes
-    private Set<String> attrsOfInterest = null;
+    // the attributes whose changes matter for drawing (shared by all elements of a type until one changes its own)
+    InterestSet interest = InterestSet.EMPTY;
+
+    // state that few elements ever use (listeners, traversal and layout marks, application data and print flags),
+    // allocated when first needed
+    private Extras extras = null;
 
     // the Shape for drawing
     GrappaNexus grappaNexus = null;
 
-    /**
-     * Boolean to indicate if all of this element's attributes should be printed. Either this flag or the
-     * <TT>elementPrintAllAttributes</TT> can turn on printing of all attributes.
-     *
-     * @see Subgraph#printSubgraph
-     * @see Grappa#elementPrintAllAttributes
-     */
-    public boolean printAllAttributes = false;
-
-    /**
-     * Boolean to indicate if the default attributes associated with this element should be printed. Naturally, this
-     * option only is effective if the element is a subgraph.
-     *
-     * @see Subgraph#printSubgraph
-     * @see Grappa#elementPrintDefaultAttributes
-     */
-    public boolean printDefaultAttributes = false;
-
     // canonical name
     String canonName = null;
 
@@ -161,18 +132,20 @@ protected Element(int type, Subgraph subg)
         setIdKey(type);
         getGraph().addIdMapping(this);
 
-        elementAttrsOfInterest();
+        this.interest = ELEMENT_INTEREST;
     }
 
-    // set the attributes of interest to all elements
-    private void elementAttrsOfInterest()
+    // the attributes of interest to all elements
+    static final InterestSet ELEMENT_INTEREST = InterestSet.of(COLOR_ATTR, FONTCOLOR_ATTR, FONTNAME_ATTR,
+        FONTSIZE_ATTR, FONTSTYLE_ATTR, LABEL_ATTR);
+
+    // the side record for this element, created if need be
+    private Extras extras()
     {
-        attrOfInterest(COLOR_ATTR);
-        attrOfInterest(FONTCOLOR_ATTR);
-        attrOfInterest(FONTNAME_ATTR);
-        attrOfInterest(FONTSIZE_ATTR);
-        attrOfInterest(FONTSTYLE_ATTR);
-        attrOfInterest(LABEL_ATTR);
+        if (this.extras == null) {
+            this.extras = new Extras();
+        }
+        return this.extras;
     }
 
     /**
@@ -235,6 +208,130 @@ public String getName()
         return (this.name);
     }
 
+    /**
+     * Get the general-purpose object attached to this Element. It is not used by Grappa and is intended for application
+     * writers to attach whatever they want to an Element without the need for extending the class.
+     *
+     * @return the object attached to this element, or null
+     */
+    public Object getObject()
+    {
+        return (this.extras == null ? null : this.extras.object);
+    }
+
+    /**
+     * Attach a general-purpose object to this Element.
+     *
+     * @param object the object to attach, or null
+     * @see #getObject()
+     */
+    public void setObject(Object object)
+    {
+        if (object != null || this.extras != null) {
+            extras().object = object;
+        }
+    }
+
+    /**
+     * Get the convenience counter of this Element. It is not used by Grappa, but is available to keep track of or
+     * otherwise mark graph elements when traversing a graph. The default is 0.
+     *
+     * @return the counter value
+     */
+    public int getCounter()
+    {
+        return (this.extras == null ? 0 : this.extras.counter);
+    }
+
+    /**
+     * Set the convenience counter of this Element.
+     *
+     * @param counter the new counter value
+     * @see #getCounter()
+     */
+    public void setCounter(int counter)
+    {
+        if (counter != 0 || this.extras != null) {
+            extras().counter = counter;
+        }
+    }
+
+    /**
+     * Get the line width for this element (for nodes or subgraphs, it is the outline width, when applicable). The
+     * default is 0 (single pixel).
+     *
+     * @return the line width
+     */
+    public int getLineWidth()
+    {
+        return (this.extras == null ? 0 : this.extras.linewidth);
+    }
+
+    /**
+     * Set the line width for this element.
+     *
+     * @param linewidth the new line width
+     * @see #getLineWidth()
+     */
+    public void setLineWidth(int linewidth)
+    {
+        if (linewidth != 0 || this.extras != null) {
+            extras().linewidth = linewidth;
+        }
+    }
+
+    /**
+     * Check whether all of this element's attributes should be printed. Either this flag or
+     * <TT>Grappa.elementPrintAllAttributes</TT> can turn on printing of all attributes. The default is false.
+     *
+     * @return true if all attributes of this element are printed
+     * @see Subgraph#printSubgraph
+     * @see Grappa#elementPrintAllAttributes
+     */
+    public boolean getPrintAllAttributes()
+    {
+        return (this.extras != null && this.extras.printAllAttributes);
+    }
+
+    /**
+     * Set whether all of this element's attributes should be printed.
+     *
+     * @param printAll true to print all attributes of this element
+     * @see #getPrintAllAttributes()
+     */
+    public void setPrintAllAttributes(boolean printAll)
+    {
+        if (printAll || this.extras != null) {
+            extras().printAllAttributes = printAll;
+        }
+    }
+
+    /**
+     * Check whether the default attributes associated with this element should be printed. Naturally, this option only
+     * is effective if the element is a subgraph. The default is false.
+     *
+     * @return true if the default attributes of this element are printed
+     * @see Subgraph#printSubgraph
+     * @see Grappa#elementPrintDefaultAttributes
+     */
+    public boolean getPrintDefaultAttributes()
+    {
+        return (this.extras != null && this.extras.printDefaultAttributes);
+    }
+
+    /**
+     * Set whether the default attributes associated with this element should be printed.
+     *
+     * @param printDefaults true to print the default attributes of this element
+     * @see #getPrintDefaultAttributes()
+     */
+    public void setPrintDefaultAttributes(boolean printDefaults)
+    {
+        if (printDefaults || this.extras != null) {
+            extras().printDefaultAttributes = printDefaults;
+        }
+    }
+
     /**
      * Check if this Element can be reserved, otherwise queue request
      *
@@ -304,14 +401,11 @@ protected void attrOfInterest(String name)
         if (name == null || isOfInterest(name)) {
             return;
         }
-        if (this.attrsOfInterest == null) {
-            this.attrsOfInterest = new HashSet<String>();
-        }
-        this.attrsOfInterest.add(name);
+        this.interest = this.interest.with(AttributeRegistry.register(name));
         if (this.grappaNexus != null) {
             Attribute attr = getAttribute(name);
             if (attr != null) {
-                attr.addObserver(this.grappaNexus);
+                attr.addWatcher(this);
             }
         }
     }
@@ -326,13 +420,13 @@ protected void attrNotOfInterest(String name)
         if (name == null || !isOfInterest(name)) {
             return;
         }
-        if (this.grappaNexus != null) {
+        this.interest = this.interest.without(AttributeRegistry.lookup(name));
+        if (this.grappaNexus != null && !watches(name)) {
             Attribute attr = getAttribute(name);
             if (attr != null) {
-                attr.deleteObserver(this.grappaNexus);
+                attr.removeWatcher(this);
             }
         }
-        this.attrsOfInterest.remove(name);
     }
 
     /**
@@ -342,10 +436,7 @@ protected void attrNotOfInterest(String name)
      */
     public Enumeration<String> listAttrsOfInterest()
     {
-        if (this.attrsOfInterest == null) {
-            return Collections.emptyEnumeration();
-        }
-        return new IteratorEnumeration<String>(this.attrsOfInterest.iterator());
+        return this.interest.names();
     }
 
     /**
@@ -356,10 +447,95 @@ public Enumeration<String> listAttrsOfInterest()
      */
     public boolean isOfInterest(String name)
     {
-        if (name == null || this.attrsOfInterest == null) {
+        if (name == null) {
             return false;
         }
-        return this.attrsOfInterest.contains(name);
+        return this.interest.contains(AttributeRegistry.lookup(name));
+    }
+
+    /**
+     * Register a listener to be told when the named attribute of this element changes. The listener is called for
+     * changes to this element's own attribute as well as to any subgraph default it inherits.
+     *
+     * @param name the name of the attribute
+     * @param listener the listener to register
+     * @see AttributeListener
+     */
+    public void addAttributeListener(String name, AttributeListener listener)
+    {
+        if (name == null || listener == null) {
+            throw new IllegalArgumentException("attribute name and listener cannot be null");
+        }
+        if (extras().listenerTable == null) {
+            this.extras.listenerTable = new ListenerTable();
+        }
+        this.extras.listenerTable.add(AttributeRegistry.register(name), listener);
+        Attribute attr = getAttribute(name);
+        if (attr != null) {
+            attr.addWatcher(this);
+        }
+    }
+
+    /**
+     * Unregister a listener previously registered for the named attribute of this element.
+     *
+     * @param name the name of the attribute
+     * @param listener the listener to unregister
+     */
+    public void removeAttributeListener(String name, AttributeListener listener)
+    {
+        int id;
+
+        if (name == null || this.extras == null || this.extras.listenerTable == null
+            || (id = AttributeRegistry.lookup(name)) < 0) {
+            return;
+        }
+        this.extras.listenerTable.remove(id, listener);
+        if (this.extras.listenerTable.isEmpty()) {
+            this.extras.listenerTable = null;
+        }
+        if (!watches(name)) {
+            Attribute attr = getAttribute(name);
+            if (attr != null) {
+                attr.removeWatcher(this);
+            }
+        }
+    }
+
+    // whether this element needs to watch the named attribute for changes
+    final boolean watches(String name)
+    {
+        int id = AttributeRegistry.lookup(name);
+
+        return ((this.grappaNexus != null && this.interest.contains(id))
+            || (this.extras != null && this.extras.listenerTable != null && this.extras.listenerTable.contains(id))
+            || (this.graph != null && this.graph.column(getType(), id) != null));
+    }
+
+    // called by a watched attribute when its value changes
+    final void attributeChanged(Attribute attr, long when)
+    {
+        if (this.graph != null) {
+            this.graph.updateColumn(this, attr.getNameId());
+        }
+        if (this.grappaNexus != null && this.interest.contains(attr.getNameId())) {
+            this.grappaNexus.attributeChanged(this, attr, when);
+        }
+        // this element may still be watching a default it has since overridden locally
+        if (this.extras != null && this.extras.listenerTable != null && getAttribute(attr.getName()) == attr) {
+            this.extras.listenerTable.fire(this, attr, when);
+        }
+    }
+
+    // called by a watched attribute when it is replaced by another (or dropped, when replacement is null)
+    final void attributeReplaced(Attribute attr, Attribute replacement, long when)
+    {
+        attr.removeWatcher(this);
+        if (replacement != null) {
+            replacement.addWatcher(this);
+            attr = replacement;
+        }
+        attributeChanged(attr, when);
     }
 
     /**
@@ -370,11 +546,18 @@ public boolean isOfInterest(String name)
      * @return the value of the (local) attribute previously stored under the same name
      */
     public Object setAttribute(Attribute attr)
+    {
+        return (setAttribute(attr, true));
+    }
+
+    // as above, but the old value is only converted to its object form and returned when report is true
+    Object setAttribute(Attribute attr, boolean report)
     {
         if (attr == null) {
             return null;
         }
-        return setAttribute(attr.getName(), attr.getValue());
+        // the value is stored in the form its object would print in, checked but not converted to that object
+        return setAttribute(attr.getName(), attr.normalizedStringValue(), report);
     }
 
     /**
@@ -386,9 +569,28 @@ public Object setAttribute(Attribute attr)
      * @return the value of the (local) attribute previously stored under the same name
      */
     public Object setAttribute(String name, Object value)
+    {
+        return (setAttribute(name, value, true));
+    }
+
+    // as above, but the old value is only converted to its object form and returned when report is true
+    Object setAttribute(String name, Object value, boolean report)
+    {
+        Object lock = (this.graph == null ? null : this.graph.buildLock);
+
+        if (lock != null) {
+            // a parallel build is running, so the attribute changes of its workers are made one at a time
+            synchronized (lock) {
+                return (putAttribute(name, value, report));
+            }
+        }
+        return (putAttribute(name, value, report));
+    }
+
+    private Object putAttribute(String name, Object value, boolean report)
     {
         if (this.attributes == null) {
-            this.attributes = new Hashtable<>();
+            this.attributes = new AttributeMap();
         }
         if (name == null) {
             throw new IllegalArgumentException("cannot set an attribute using a null name");
@@ -404,11 +606,11 @@ public Object setAttribute(String name, Object value)
                 return null;
             }
             this.attributes.put(name, (crntAttr = new Attribute(getType(), name, value)));
-            if (this.grappaNexus != null && isOfInterest(name)) {
-                crntAttr.addObserver(this.grappaNexus);
+            if (watches(name)) {
+                crntAttr.addWatcher(this);
             }
         } else {
-            oldValue = crntAttr.getValue();
+            oldValue = report ? crntAttr.getValue() : null;
             if (value == null) {
                 // System.err.println("direct removal of ("+name+","+value+") from "+getName());
                 removeAttribute(name);
@@ -422,9 +624,7 @@ public Object setAttribute(String name, Object value)
                 crntAttr.setValue(value);
             }
         }
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
+        crntAttr.notifyChanged();
         return oldValue;
     }
 
@@ -449,8 +649,7 @@ private Attribute removeAttribute(String name)
         if (dfltAttr == null) {
             attr.setValue("");
         }
-        attr.setChanged();
-        attr.notifyObservers(new Object[] { dfltAttr, new Long(System.currentTimeMillis()) });
+        attr.notifyReplaced(dfltAttr);
         return dfltAttr;
     }
 
@@ -579,41 +778,76 @@ public Enumeration<Attribute> getLocalAttributePairs()
      */
     public Enumeration<Attribute> getAttributePairs()
     {
-        Map<String, Attribute> pairs = null;
-        Attribute attr = null;
+        final List<Attribute> pairs = new ArrayList<>(
+            (this.attributes == null ? 0 : this.attributes.size()) + 8);
 
-        Enumeration<Attribute> enm = getLocalAttributePairs();
-        if (enm.hasMoreElements()) {
-            pairs = new HashMap<>(32);
-        }
-        while (enm.hasMoreElements()) {
-            attr = enm.nextElement();
-            pairs.put(attr.getName(), attr);
-        }
+        visitAttributes(new AttributeVisitor() {
+            @Override
+            public boolean visitAttribute(Attribute attr, Attribute dflt)
+            {
+                pairs.add(attr);
+                return true;
+            }
+        });
+        return Collections.enumeration(pairs);
+    }
 
-        switch (getType()) {
-            case GrappaConstants.NODE:
-                enm = getSubgraph().getNodeAttributePairs();
-                break;
-            case GrappaConstants.EDGE:
-                enm = getSubgraph().getEdgeAttributePairs();
-                break;
-            case GrappaConstants.SUBGRAPH:
-                enm = getLocalAttributePairs();
-                break;
-        }
+    /**
+     * Visit the attributes in effect for this element, in attribute id order: each local attribute, and each default
+     * attribute of the containing subgraph (for the type of this element) that is not overridden locally. The local
+     * attributes and the subgraph defaults are both kept sorted by attribute id, so the walk is a merge of the two
+     * that allocates nothing. The visitor may set or remove attributes of this element, or defaults of its subgraph,
+     * as it goes; the walk then picks up after the last attribute visited.
+     *
+     * @param visitor the visitor to call for each attribute.
+     * @return false if the visitor stopped the walk early, true otherwise.
+     */
+    public boolean visitAttributes(AttributeVisitor visitor)
+    {
+        Subgraph sg = isSubgraph() ? (Subgraph) this : getSubgraph();
+        int type = getType();
+        AttributeMap local = null;
+        AttributeMap dflt = null;
+        int localVersion = 0;
+        int dfltVersion = 0;
+        int i = 0;
+        int j = 0;
+        int lastId = -1;
+        int localId;
+        int dfltId;
+        Attribute attr;
+        Attribute dfltAttr;
 
-        if (pairs != null) {
-            while (enm.hasMoreElements()) {
-                attr = enm.nextElement();
-                if (!pairs.containsKey(attr.getName())) {
-                    pairs.put(attr.getName(), attr);
-                }
+        for (;;) {
+            // the visitor may create either table or add and remove entries, so then re-synchronize on the last id
+            if (local == null ? (local = this.attributes) != null : local.version() != localVersion) {
+                localVersion = local.version();
+                i = local.seek(lastId + 1);
+            }
+            if (dflt == null ? sg != null && (dflt = sg.getDefaultMap(type)) != null : dflt.version() != dfltVersion) {
+                dfltVersion = dflt.version();
+                j = dflt.seek(lastId + 1);
+            }
+            localId = (local != null && i < local.size()) ? local.idAt(i) : Integer.MAX_VALUE;
+            dfltId = (dflt != null && j < dflt.size()) ? dflt.idAt(j) : Integer.MAX_VALUE;
+            if (localId < dfltId) {
+                attr = local.attrAt(i++);
+                dfltAttr = null;
+                lastId = localId;
+            } else if (dfltId < localId) {
+                attr = dfltAttr = dflt.attrAt(j++);
+                lastId = dfltId;
+            } else if (localId != Integer.MAX_VALUE) {
+                attr = local.attrAt(i++);
+                dfltAttr = dflt.attrAt(j++);
+                lastId = localId;
+            } else {
+                return (true);
+            }
+            if (!visitor.visitAttribute(attr, dfltAttr)) {
+                return (false);
             }
-            return new IteratorEnumeration<>(pairs.values().iterator());
         }
-
-        return enm;
     }
 
     /**
@@ -760,6 +994,40 @@ public Object getAttributeValue(String key)
         return (value);
     }
 
+    /**
+     * Get the value of a numeric Attribute of this Element as a double. Search first local, then default attributes
+     * until a match is found. Unlike <code>getAttributeValue</code>, no Double (or Integer) object is created.
+     *
+     * @param key the search key for the attribute.
+     * @param missing the value to return when there is no matching attribute or it has no value.
+     * @return the corresponding attribute value as a double.
+     * @exception IllegalArgumentException if the attribute value is not numeric.
+     * @see Attribute#getDoubleValue(double)
+     */
+    public double getDoubleAttribute(String key, double missing) throws IllegalArgumentException
+    {
+        Attribute attr = getAttribute(key);
+
+        return (attr == null ? missing : attr.getDoubleValue(missing));
+    }
+
+    /**
+     * Get the value of a numeric Attribute of this Element as an int. Search first local, then default attributes
+     * until a match is found. Unlike <code>getAttributeValue</code>, no Integer object is created.
+     *
+     * @param key the search key for the attribute.
+     * @param missing the value to return when there is no matching attribute or it has no value.
+     * @return the corresponding attribute value as an int.
+     * @exception IllegalArgumentException if the attribute value is not numeric.
+     * @see Attribute#getIntValue(int)
+     */
+    public int getIntAttribute(String key, int missing) throws IllegalArgumentException
+    {
+        Attribute attr = getAttribute(key);
+
+        return (attr == null ? missing : attr.getIntValue(missing));
+    }
+
     /**
      * Checks to see if this element has an Attribute matching the key
      *
@@ -853,23 +1121,34 @@ protected void clearBBox()
     }
 
     /**
-     * Get the ID number of this Element.
+     * Get the ID number of this Element. Ids are small non-negative numbers, unique among the live elements of the
+     * same type in the graph. All ids are below <code>getGraph().getIdLimit(getType())</code>, so they can be used as
+     * array offsets.
+     * <P>
+     * Ids are reused: when an element is deleted its id goes back to its graph, and the next element of that type to be
+     * created takes the most recently freed id. An id therefore names an element only while that element is alive; an
+     * id kept across deletions may later name a different element, and ids no longer tell which of two elements was
+     * created first.
      *
      * @return the id number of this element.
+     * @see Graph#getIdLimit(int)
      */
     public int getId()
     {
-        return (int) ((getIdKey().longValue()) >> GrappaConstants.TYPES_SHIFT);
+        return (this.id);
     }
 
     /**
-     * Get the ID of this Element as a Long object.
+     * Get the ID of this Element as a Long object, which combines the id number and the type of the element.
      *
      * @return the id object of this element.
+     * @see Element#getId()
+     * @deprecated a new Long is created on every call; use <code>getId()</code> together with <code>getType()</code>
      */
+    @Deprecated
     public Long getIdKey()
     {
-        return (this.idKey);
+        return (Graph.idMapKey(getType(), this.id));
     }
 
     /**
@@ -877,7 +1156,20 @@ public Long getIdKey()
      */
     protected void setIdKey(int type)
     {
-        this.idKey = Graph.idMapKey(type, getGraph().nextId(type));
+        this.id = getGraph().nextId(type);
+        this.sequence = getGraph().nextSequence();
+    }
+
+    /**
+     * Get the creation order of this element. Elements created later in the same graph have larger sequence numbers;
+     * unlike ids, sequence numbers are not reused after a deletion, so they order elements as ids did before ids were
+     * reused.
+     *
+     * @return the sequence number of this element
+     */
+    long getSequence()
+    {
+        return (this.sequence);
     }
 
     /**
@@ -889,7 +1181,7 @@ public void printElement(PrintWriter out)
     {
         String indent = new String(getGraph().getIndent());
 
-        if (Grappa.printVisibleOnly && (!this.visible || this.grappaNexus.style.invis)) {
+        if (Grappa.printVisibleOnly && (!this.visible || ((GrappaStyle) getAttributeValue(STYLE_ATTR)).invis)) {
             return;
         }
 
@@ -909,45 +1201,24 @@ public void printElement(PrintWriter out)
      */
     private void printAttributes(PrintWriter out, String outerIndent)
     {
-        String indent = new String(getGraph().getIndent());
-        String prefix = " [";
-        String suffix = GrappaConstants.NEW_LINE + outerIndent + "];";
-        Attribute attr;
-        String key;
-        boolean first = true;
-        // thanks to Ginny Travers (bbn.com) for suggesting the printlist feature
         Hashtable<String, String> printlist = null;
 
+        // thanks to Ginny Travers (bbn.com) for suggesting the printlist feature
         if (Grappa.usePrintList || usePrintList) {
             printlist = (Hashtable<String, String>) getAttributeValue(PRINTLIST_ATTR);
         }
 
-        Enumeration<Attribute> attrs = null;
-        if (Grappa.elementPrintAllAttributes || this.printAllAttributes) {
-            attrs = getAttributePairs();
-        } else if (this.attributes != null && !this.attributes.isEmpty()) {
-            attrs = new IteratorEnumeration<Attribute>(this.attributes.values().iterator());
-        }
-        if (attrs != null) {
-            while (attrs.hasMoreElements()) {
-                attr = attrs.nextElement();
-                key = attr.getName();
-                if (printlist != null && printlist.get(key) == null) {
-                    continue;
-                }
-                if (attr != null
-                    && (Grappa.elementPrintAllAttributes || this.printAllAttributes || !attr
-                        .equalsValue(getDefaultAttribute(key)))) {
-                    if (first) {
-                        first = false;
-                        out.println(prefix);
-                    } else {
-                        out.println(",");
-                    }
-                    out.print(indent + key + " = " + canonString(attr.getStringValue()));
-                }
-            }
+        AttributePrinter printer = new AttributePrinter(out, new String(getGraph().getIndent()), " [", printlist,
+            Grappa.elementPrintAllAttributes || getPrintAllAttributes());
+
+        if (printer.printAll || (this.attributes != null && !this.attributes.isEmpty())) {
+            visitAttributes(printer);
         }
+        boolean first = printer.first;
+        String indent = printer.indent;
+        String prefix = printer.prefix;
+        String suffix = GrappaConstants.NEW_LINE + outerIndent + "];";
+
         if (getGraph().filterMode && isEdge()) {
             if (first) {
                 first = false;
@@ -1111,13 +1382,15 @@ public final boolean delete()
             return (false);
         }
         String name = getName();
-        if (this.attributes != null && this.grappaNexus != null) {
+        if (this.attributes != null) {
             for (Attribute attribute : this.attributes.values()) {
-                attribute.deleteObserver(this.grappaNexus);
+                attribute.removeWatcher(this);
             }
         }
         Element elem = null;
         Subgraph prnt = null;
+        // what was drawn for the element needs repainting
+        getGraph().damage(this);
         // account for bounding box change due to deletion
         if (this.grappaNexus != null) {
             this.grappaNexus.bbox = null;
@@ -1483,8 +1756,8 @@ public static int attributeType(String attrname)
     }
 
     /**
-     * Creates and populates the GrappaNexus object for this element. The GrappaNexus object provides bounding and
-     * drawing information for the element based on the element's attributes.
+     * Creates the GrappaNexus object for this element. The GrappaNexus object provides bounding and drawing information
+     * for the element based on the element's attributes; that information is computed when first needed.
      */
     public void buildShape()
     {
@@ -1495,7 +1768,7 @@ public void buildShape()
             while (enm.hasMoreElements()) {
                 attr = getAttribute(enm.nextElement());
                 if (attr != null) {
-                    attr.addObserver(this.grappaNexus);
+                    attr.addWatcher(this);
                 }
             }
         }
@@ -1505,13 +1778,14 @@ public void buildShape()
     }
 
     /**
-     * Returns the GrappaNexus object associated with this element.
+     * Returns the GrappaNexus object associated with this element, with all of its information computed.
      */
     public GrappaNexus getGrappaNexus()
     {
         if (this.grappaNexus == null) {
             buildShape();
         }
+        this.grappaNexus.validate();
         return (this.grappaNexus);
     }
 
@@ -1541,6 +1815,16 @@ public Vector<Vector<Element>> bdfs(int steps)
         return layers;
     }
 
+    // mark this element as visited by the search with the given stamp, returning false if it already was
+    final boolean markVisited(long stamp)
+    {
+        if (this.extras != null && this.extras.visitStamp == stamp) {
+            return (false);
+        }
+        extras().visitStamp = stamp;
+        return (true);
+    }
+
     private static void doBDFS(int type, int depth, long stamp, int level, Vector<Element> inbox,
         Vector<Vector<Element>> layers)
     {
@@ -1575,9 +1859,8 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
                 if (depth < 0 || level <= depth) {
                     for (Enumeration<Subgraph> sgs = ((Subgraph) elem).subgraphElements(); sgs.hasMoreElements();) {
                         subg = sgs.nextElement();
-                        if (subg.visastamp != stamp) {
+                        if (subg.markVisited(stamp)) {
                             input.addElement(subg);
-                            subg.visastamp = stamp;
                         }
                     }
                 }
@@ -1590,18 +1873,16 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
                     for (Enumeration<Edge> edges = ((Node) elem).outEdgeElements(); edges.hasMoreElements();) {
                         edge = edges.nextElement();
                         if (edge.goesForward()) {
-                            if (edge.getHead().visastamp != stamp) {
+                            if (edge.getHead().markVisited(stamp)) {
                                 input.addElement(edge.getHead());
-                                edge.getHead().visastamp = stamp;
                             }
                         }
                     }
                     for (Enumeration<Edge> edges = ((Node) elem).inEdgeElements(); edges.hasMoreElements();) {
                         edge = edges.nextElement();
                         if (edge.goesReverse()) {
-                            if (edge.getTail().visastamp != stamp) {
+                            if (edge.getTail().markVisited(stamp)) {
                                 input.addElement(edge.getTail());
-                                edge.getTail().visastamp = stamp;
                             }
                         }
                     }
@@ -1619,9 +1900,8 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
                         while (edges.hasMoreElements()) {
                             edge = edges.nextElement();
                             if (edge.goesForward()) {
-                                if (edge.visastamp != stamp) {
+                                if (edge.markVisited(stamp)) {
                                     input.addElement(edge);
-                                    edge.visastamp = stamp;
                                 }
                             }
                         }
@@ -1629,9 +1909,8 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
                         while (edges.hasMoreElements()) {
                             edge = edges.nextElement();
                             if (edge.goesReverse()) {
-                                if (edge.visastamp != stamp) {
+                                if (edge.markVisited(stamp)) {
                                     input.addElement(edge);
-                                    edge.visastamp = stamp;
                                 }
                             }
                         }
@@ -1641,9 +1920,8 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
                         while (edges.hasMoreElements()) {
                             edge = edges.nextElement();
                             if (edge.goesForward()) {
-                                if (edge.visastamp != stamp) {
+                                if (edge.markVisited(stamp)) {
                                     input.addElement(edge);
-                                    edge.visastamp = stamp;
                                 }
                             }
                         }
@@ -1651,9 +1929,8 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
                         while (edges.hasMoreElements()) {
                             edge = edges.nextElement();
                             if (edge.goesReverse()) {
-                                if (edge.visastamp != stamp) {
+                                if (edge.markVisited(stamp)) {
                                     input.addElement(edge);
-                                    edge.visastamp = stamp;
                                 }
                             }
                         }
@@ -1671,46 +1948,119 @@ private static void doBDFS(int type, int depth, long stamp, int level, Vector<El
     // Start PatchWork stuff
     //
 
-    private double patchSize = 0;
-
     double getPatchSize()
     {
-        return (this.patchSize);
+        return (this.extras == null ? 0 : this.extras.patchSize);
     }
 
     void setPatchSize(double val)
     {
-        this.patchSize = val;
+        if (val != 0 || this.extras != null) {
+            extras().patchSize = val;
+        }
     }
 
-    private java.awt.geom.Rectangle2D.Double patch = null;
-
     java.awt.geom.Rectangle2D.Double getPatch()
     {
-        return (this.patch);
+        return (this.extras == null ? null : this.extras.patch);
     }
 
     void setPatch(java.awt.geom.Rectangle2D.Double p)
     {
         if (p == null) {
-            this.patch = p;
-        } else if (this.patch == null) {
-            this.patch = new GrappaBox(p.getX(), p.getY(), p.getWidth(), p.getHeight());
+            if (this.extras != null) {
+                this.extras.patch = null;
+            }
+        } else if (extras().patch == null) {
+            this.extras.patch = new GrappaBox(p.getX(), p.getY(), p.getWidth(), p.getHeight());
         } else {
-            this.patch.setRect(p.getX(), p.getY(), p.getWidth(), p.getHeight());
+            this.extras.patch.setRect(p.getX(), p.getY(), p.getWidth(), p.getHeight());
         }
     }
 
     void setPatch(double x, double y, double w, double h)
     {
-        if (this.patch == null) {
-            this.patch = new GrappaBox(x, y, w, h);
+        if (extras().patch == null) {
+            this.extras.patch = new GrappaBox(x, y, w, h);
         } else {
-            this.patch.setRect(x, y, w, h);
+            this.extras.patch.setRect(x, y, w, h);
         }
     }
 
     //
     // End PatchWork stuff
     //
+
+    // prints the attributes of an element as they are visited, noting whether anything was printed
+    private static final class AttributePrinter implements AttributeVisitor
+    {
+        final PrintWriter out;
+
+        final String indent;
+
+        final String prefix;
+
+        final Hashtable<String, String> printlist;
+
+        final boolean printAll;
+
+        boolean first = true;
+
+        AttributePrinter(PrintWriter out, String indent, String prefix, Hashtable<String, String> printlist,
+                         boolean printAll)
+        {
+            this.out = out;
+            this.indent = indent;
+            this.prefix = prefix;
+            this.printlist = printlist;
+            this.printAll = printAll;
+        }
+
+        @Override
+        public boolean visitAttribute(Attribute attr, Attribute dflt)
+        {
+            String key = attr.getName();
+
+            if (this.printlist != null && this.printlist.get(key) == null) {
+                return (true);
+            }
+            // unless printing everything, only local attributes that differ from their default are printed
+            if (this.printAll || !attr.equalsValue(dflt)) {
+                if (this.first) {
+                    this.first = false;
+                    this.out.println(this.prefix);
+                } else {
+                    this.out.println(",");
+                }
+                this.out.print(this.indent + key + " = " + canonString(attr.getStringValue()));
+            }
+            return (true);
+        }
+    }
+
+    // the state of an element that is seldom used, kept apart so that most elements do without it
+    private static final class Extras
+    {
+        // user listeners for attribute changes
+        ListenerTable listenerTable = null;
+
+        // used for checking whether we've been here for dfs/bfs
+        long visitStamp = -1L;
+
+        // the PatchWork size and area
+        double patchSize = 0;
+
+        java.awt.geom.Rectangle2D.Double patch = null;
+
+        // the application data and flags reached through getObject, getCounter and the like
+        Object object = null;
+
+        int counter = 0;
+
+        int linewidth = 0;
+
+        boolean printAllAttributes = false;
+
+        boolean printDefaultAttributes = false;
+    }
 }
@@ -0,0 +1,149 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * The elements of one type in a graph, indexed by element id. Ids are small, dense, non-negative ints: an id freed by
+ * the deletion of an element is handed out again before a new one is used, so every live element has an id below
+ * <code>limit()</code> and an array of that size can be indexed by element id. Elements are kept in fixed-size chunks,
+ * so the table grows without copying the elements already in it.
+ * <P>
+ * Like the rest of the graph structure, the table is not synchronized.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see Graph#getIdLimit(int)
+ */
+final class ElementTable
+{
+    private static final int CHUNK_SHIFT = 10;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private Element[][] chunks = new Element[4][];
+
+    // ids below the limit have been handed out at least once
+    private int limit = 0;
+
+    // ids freed by deletions, most recent last
+    private int[] free = new int[8];
+
+    private int freeCount = 0;
+
+    /**
+     * Get an id for a new element, reusing a freed id if there is one.
+     *
+     * @return the id
+     */
+    int allocate()
+    {
+        if (this.freeCount > 0) {
+            return this.free[--this.freeCount];
+        }
+        return this.limit++;
+    }
+
+    /**
+     * Get the id that <code>allocate</code> would return next, without allocating it.
+     *
+     * @return the next id
+     */
+    int peek()
+    {
+        return (this.freeCount > 0 ? this.free[this.freeCount - 1] : this.limit);
+    }
+
+    /**
+     * Store an element under its id.
+     *
+     * @param id an id obtained from <code>allocate</code>
+     * @param elem the element
+     * @return the element previously stored under the id, or null
+     */
+    Element put(int id, Element elem)
+    {
+        int chunk = id >>> CHUNK_SHIFT;
+
+        if (chunk >= this.chunks.length) {
+            Element[][] grown = new Element[Math.max(2 * this.chunks.length, chunk + 1)][];
+            System.arraycopy(this.chunks, 0, grown, 0, this.chunks.length);
+            this.chunks = grown;
+        }
+        if (this.chunks[chunk] == null) {
+            this.chunks[chunk] = new Element[CHUNK_SIZE];
+        }
+
+        Element old = this.chunks[chunk][id & CHUNK_MASK];
+
+        this.chunks[chunk][id & CHUNK_MASK] = elem;
+        return old;
+    }
+
+    /**
+     * Get the element stored under an id.
+     *
+     * @param id an element id
+     * @return the element, or null if there is none
+     */
+    Element get(int id)
+    {
+        int chunk = id >>> CHUNK_SHIFT;
+
+        if (id < 0 || chunk >= this.chunks.length || this.chunks[chunk] == null) {
+            return null;
+        }
+        return this.chunks[chunk][id & CHUNK_MASK];
+    }
+
+    /**
+     * Remove an element from the table and free its id for reuse. Nothing happens unless the element is the one
+     * stored under its id, so releasing an element twice is harmless.
+     *
+     * @param id the id of the element
+     * @param elem the element
+     */
+    void release(int id, Element elem)
+    {
+        if (elem == null || get(id) != elem) {
+            return;
+        }
+        this.chunks[id >>> CHUNK_SHIFT][id & CHUNK_MASK] = null;
+        if (this.freeCount == this.free.length) {
+            int[] grown = new int[2 * this.freeCount];
+            System.arraycopy(this.free, 0, grown, 0, this.freeCount);
+            this.free = grown;
+        }
+        this.free[this.freeCount++] = id;
+    }
+
+    /**
+     * Get the bound on the ids handed out so far.
+     *
+     * @return one more than the largest id ever handed out
+     */
+    int limit()
+    {
+        return this.limit;
+    }
+
+    /**
+     * Remove all elements and start handing out ids from zero again.
+     */
+    void clear()
+    {
+        this.chunks = new Element[4][];
+        this.limit = 0;
+        this.freeCount = 0;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.util.Map;
+
+/**
+ * The fonts and text measurements used when laying out labels (see <code>GrappaNexus.updateText</code>). Fonts are
+ * interned by name, style and size, so the elements of a graph share a handful of <code>Font</code> objects, and the
+ * bounds of a line of text are measured once per font, text and rendering context. Both tables are bounded and drop
+ * their least recently used entries; they may be used from any thread.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ */
+final class FontTable
+{
+    private static final int FONT_TABLE_SIZE = 256;
+
+    private static final int BOUNDS_TABLE_SIZE = 16384;
+
+    private static final Map<FontKey, Font> fontTable = new LruMap<FontKey, Font>(FONT_TABLE_SIZE);
+
+    private static final Map<BoundsKey, Rectangle2D> boundsTable = new LruMap<BoundsKey, Rectangle2D>(
+        BOUNDS_TABLE_SIZE);
+
+    private FontTable()
+    {
+    }
+
+    /**
+     * Get the font with the supplied name, style and size.
+     *
+     * @param name the font name (null for the default font)
+     * @param style the font style (e.g., <code>Font.BOLD</code>)
+     * @param size the point size
+     * @return the shared font
+     */
+    static Font getFont(String name, int style, int size)
+    {
+        FontKey key = new FontKey(name, style, size);
+        Font font;
+
+        synchronized (fontTable) {
+            font = fontTable.get(key);
+        }
+        if (font == null) {
+            font = new Font(name, style, size);
+            synchronized (fontTable) {
+                fontTable.put(key, font);
+            }
+        }
+        return (font);
+    }
+
+    /**
+     * Get the logical bounds of a line of text, as <code>Font.getStringBounds</code> would.
+     *
+     * @param font the font
+     * @param text the line of text
+     * @param frc the rendering context to measure in
+     * @return a new rectangle holding the bounds, which the caller is free to change
+     */
+    static Rectangle2D getStringBounds(Font font, String text, FontRenderContext frc)
+    {
+        BoundsKey key = new BoundsKey(font, text, frc);
+        Rectangle2D bounds;
+
+        synchronized (boundsTable) {
+            bounds = boundsTable.get(key);
+        }
+        if (bounds == null) {
+            bounds = font.getStringBounds(text, frc);
+            synchronized (boundsTable) {
+                boundsTable.put(key, bounds);
+            }
+        }
+        return ((Rectangle2D) bounds.clone());
+    }
+
+    private static final class FontKey
+    {
+        private final String name;
+
+        private final int style;
+
+        private final int size;
+
+        FontKey(String name, int style, int size)
+        {
+            this.name = name;
+            this.style = style;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof FontKey)) {
+                return (false);
+            }
+
+            FontKey key = (FontKey) obj;
+
+            return (this.style == key.style && this.size == key.size
+                && (this.name == null ? key.name == null : this.name.equals(key.name)));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (((this.name == null ? 0 : this.name.hashCode()) * 31 + this.style) * 31 + this.size);
+        }
+    }
+
+    private static final class BoundsKey
+    {
+        private final Font font;
+
+        private final String text;
+
+        private final FontRenderContext frc;
+
+        BoundsKey(Font font, String text, FontRenderContext frc)
+        {
+            this.font = font;
+            this.text = text;
+            this.frc = frc;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof BoundsKey)) {
+                return (false);
+            }
+
+            BoundsKey key = (BoundsKey) obj;
+
+            return (this.text.equals(key.text) && this.font.equals(key.font) && this.frc.equals(key.frc));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return ((this.text.hashCode() * 31 + this.font.hashCode()) * 31 + this.frc.hashCode());
+        }
+    }
+}
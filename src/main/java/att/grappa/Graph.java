@@ -20,6 +20,7 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class is the root of the overall graph and provides methods for working with the entire graph (for example,
@@ -68,12 +69,43 @@ public class Graph extends Subgraph
     // list of panels displaying this graph
     private List<GrappaPanel> panelList = null;
 
-    // counters for subgraph, node and edge elements (for id generation)
-    private int gid = 0;
+    // area, in graph coordinates, changed since the panels were last asked to repaint (see damage)
+    private java.awt.geom.Rectangle2D damage = null;
 
-    private int nid = 0;
+    // bounding box of the graph when the first of that area was noted
+    private java.awt.geom.Rectangle2D damageGraphBox = null;
 
-    private int eid = 0;
+    // set when some changed area could not be found, so that the panels are repainted in full
+    private boolean damageUnbounded = false;
+
+    private final Object damageLock = new Object();
+
+    // the open batch of changes, if any (see beginBatch)
+    GraphBatch batch = null;
+
+    // while a parallel build runs, the lock held by the elements of this graph when setting attributes (see
+    // buildShapes(int))
+    volatile Object buildLock = null;
+
+    // incremented whenever an element is added to or removed from a subgraph of this graph (see DisplayList); atomic
+    // since elements may change on the worker threads of a parallel build while a panel reads it
+    final AtomicInteger structureVersion = new AtomicInteger();
+
+    // incremented whenever anything drawn for the graph may have changed, other than highlights (see GrappaPanel)
+    final AtomicInteger contentVersion = new AtomicInteger();
+
+    // subgraph, node and edge elements by id (for id generation and lookup)
+    private final ElementTable subgraphTable = new ElementTable();
+
+    private final ElementTable nodeTable = new ElementTable();
+
+    private final ElementTable edgeTable = new ElementTable();
+
+    // sequence number given to the next element created (see Element.getSequence)
+    private long sequence = 0;
+
+    // attribute values kept in arrays indexed by element id (see addAttributeColumn), if any
+    private AttributeColumn[] columns = null;
 
     // indicators for properties of the graph
     private boolean editable = false;
@@ -91,9 +123,6 @@ public class Graph extends Subgraph
     // strict graph?
     private boolean strict = false;
 
-    // for mapping id to an element
-    Hashtable<Long, Element> id2element = null;
-
     // Grappa global attributes (apply to all elements)
     private Hashtable<String, Attribute> grattributes = null;
 
@@ -156,11 +185,8 @@ private static void putAttribute(Hashtable<String, Attribute> table, int type, S
         table.put(name, attr);
     }
 
-    /**
-     * Reference FontRenderContext
-     */
-    public final java.awt.font.FontRenderContext REFCNTXT = new java.awt.font.FontRenderContext(IDENTXFRM,
-        Grappa.useAntiAliasing, Grappa.useFractionalMetrics);
+    // reference FontRenderContext, created when text is first measured
+    private java.awt.font.FontRenderContext refcntxt = null;
 
     /**
      * Creates a new, empty Graph object.
@@ -199,13 +225,11 @@ public Graph(String graphName)
     // graph initialization steps
     private void initialize(String graphName)
     {
-        this.eid = this.nid = this.gid = 0;
+        this.subgraphTable.clear();
+        this.nodeTable.clear();
+        this.edgeTable.clear();
         clearBBox();
 
-        if (this.id2element != null) {
-            this.id2element.clear();
-        }
-
         setGraph(this);
         setSubgraph(null);
         setIdKey(GrappaConstants.SUBGRAPH);
@@ -214,15 +238,15 @@ private void initialize(String graphName)
 
         Enumeration<Attribute> enm = getGlobalAttributePairs(GrappaConstants.NODE);
         while (enm.hasMoreElements()) {
-            setNodeAttribute(enm.nextElement());
+            setNodeAttribute(enm.nextElement(), false);
         }
         enm = getGlobalAttributePairs(GrappaConstants.EDGE);
         while (enm.hasMoreElements()) {
-            setEdgeAttribute(enm.nextElement());
+            setEdgeAttribute(enm.nextElement(), false);
         }
         enm = getGlobalAttributePairs(GrappaConstants.SUBGRAPH);
         while (enm.hasMoreElements()) {
-            setAttribute(enm.nextElement());
+            setAttribute(enm.nextElement(), false);
         }
 
         setDelete(false);
@@ -540,8 +564,23 @@ public static int getGlobalAttributeSize(int type) throws IllegalArgumentExcepti
         throw new IllegalArgumentException("specified type must be NODE, EDGE or SUBGRAPH");
     }
 
+    // the id table for the given element type
+    private ElementTable idTable(int type) throws IllegalArgumentException
+    {
+        switch (type) {
+            case GrappaConstants.NODE:
+                return (this.nodeTable);
+            case GrappaConstants.EDGE:
+                return (this.edgeTable);
+            case GrappaConstants.SUBGRAPH:
+                return (this.subgraphTable);
+        }
+        throw new IllegalArgumentException("Type (" + type + ") is not recognized.");
+    }
+
     /**
-     * Add id to element lookup table (used in setId method)
+     * Add an element to the id table of its type, under the id it was given when it was created, and attach it to the
+     * attribute columns of its type.
      *
      * @param elem the element associated with the id
      */
@@ -550,10 +589,16 @@ Element addIdMapping(Element elem)
         if (elem == null) {
             return null;
         }
-        if (this.id2element == null) {
-            this.id2element = new Hashtable<>();
+        Element old = idTable(elem.getType()).put(elem.getId(), elem);
+
+        if (this.columns != null) {
+            for (AttributeColumn column : this.columns) {
+                if (column.type == elem.getType()) {
+                    column.attach(elem);
+                }
+            }
         }
-        return this.id2element.put(elem.getIdKey(), elem);
+        return old;
     }
 
     /**
@@ -576,7 +621,7 @@ static Long idMapKey(int type, int id) throws IllegalArgumentException
         }
         value = (value << GrappaConstants.TYPES_SHIFT)
             | (type & (GrappaConstants.NODE | GrappaConstants.EDGE | GrappaConstants.SUBGRAPH));
-        return new Long(value);
+        return Long.valueOf(value);
     }
 
     /**
@@ -595,13 +640,10 @@ static int idKeyType(Long idKey)
     }
 
     /**
-     * Get the type of the id key.
+     * Get the id number of the id key.
      *
      * @param idKey the id key to examine
-     * @return the type of the id key (Grappa.NODE, Grappa.EDGE, Grappa.SUBGRAPH)
-     * @see GrappaConstants#NODE
-     * @see GrappaConstants#EDGE
-     * @see GrappaConstants#SUBGRAPH
+     * @return the id number of the id key
      */
     static int idKeyId(Long idKey)
     {
@@ -617,21 +659,311 @@ static int idKeyId(Long idKey)
      */
     Element element4Id(Long idKey)
     {
-        if (this.id2element == null) {
-            return null;
+        int type = idKeyType(idKey);
+
+        switch (type) {
+            case GrappaConstants.NODE:
+            case GrappaConstants.EDGE:
+            case GrappaConstants.SUBGRAPH:
+                return idTable(type).get(idKeyId(idKey));
         }
-        return this.id2element.get(idKey);
+        return null;
     }
 
     /**
-     * Remove id2element dictionary element
+     * Remove id2element dictionary element. An element that is not the one stored under its id is left alone and
+     * reported through <code>printError</code>, since the tables no longer match the elements.
      *
-     * @param id the id number of the element entry to be removed
+     * @param elem the element whose entry is to be removed
      */
     void removeIdMapping(Element elem)
     {
-        if (this.id2element != null && elem != null) {
-            this.id2element.remove(elem.getIdKey());
+        if (elem == null) {
+            return;
+        }
+
+        Element stored = idTable(elem.getType()).get(elem.getId());
+
+        if (stored != elem) {
+            printError("id " + elem.getId() + " of \"" + elem.getName() + "\" belongs to "
+                + (stored == null ? "no element" : "\"" + stored.getName() + "\""));
+        } else {
+            idTable(elem.getType()).release(elem.getId(), elem);
+            if (this.columns != null) {
+                Attribute attr;
+                for (AttributeColumn column : this.columns) {
+                    if (column.type == elem.getType()) {
+                        column.clear(elem.getId());
+                        // a deleted element must not write into the entry its id will have next
+                        if ((attr = elem.getAttribute(column.name)) != null) {
+                            attr.removeWatcher(elem);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the node with the supplied id number. Ids of deleted nodes are reused, most recently freed first, so the node
+     * found is the live one holding the id now, which need not be the one that held it when the id was obtained.
+     *
+     * @param id the id number of the node
+     * @return the node, or null if no node in this graph has that id
+     * @see Element#getId()
+     */
+    public Node findNodeById(int id)
+    {
+        return ((Node) this.nodeTable.get(id));
+    }
+
+    /**
+     * Get the edge with the supplied id number. Ids of deleted edges are reused, most recently freed first, so the edge
+     * found is the live one holding the id now, which need not be the one that held it when the id was obtained.
+     *
+     * @param id the id number of the edge
+     * @return the edge, or null if no edge in this graph has that id
+     * @see Element#getId()
+     */
+    public Edge findEdgeById(int id)
+    {
+        return ((Edge) this.edgeTable.get(id));
+    }
+
+    /**
+     * Get the subgraph with the supplied id number. Ids of deleted subgraphs are reused, most recently freed first, so
+     * the subgraph found is the live one holding the id now, which need not be the one that held it when the id was
+     * obtained.
+     *
+     * @param id the id number of the subgraph
+     * @return the subgraph, or null if no subgraph in this graph has that id
+     * @see Element#getId()
+     */
+    public Subgraph findSubgraphById(int id)
+    {
+        return ((Subgraph) this.subgraphTable.get(id));
+    }
+
+    /**
+     * Get the bound on the id numbers of the elements of the specified type. Every element of that type in the graph
+     * has an id below this bound, and the ids are dense (ids of deleted elements are reused), so the bound can be used
+     * to size arrays indexed by element id.
+     *
+     * @param type type of id number
+     * @exception IllegalArgumentException whenever the specified type is not valid
+     * @return one more than the largest id number given out so far for the type
+     * @see GrappaConstants#NODE
+     * @see GrappaConstants#EDGE
+     * @see GrappaConstants#SUBGRAPH
+     */
+    public int getIdLimit(int type) throws IllegalArgumentException
+    {
+        return (idTable(type).limit());
+    }
+
+    /**
+     * Start keeping the values of the named attribute for all nodes or all edges of this graph in a column: a
+     * primitive array indexed by element id (see <code>Element.getId()</code>). The column follows the attribute in
+     * effect for each element, whether set locally or inherited from a subgraph default, as it is changed through
+     * <code>setAttribute</code> and the subgraph default setters, so bulk operations (finding extents, say) can loop
+     * over the array instead of going through each element's attributes. The attribute must be numeric (width, for
+     * example, or a color, whose entries are packed ARGB values) or a point (the pos of a node or the lp of an edge).
+     * Adding a column that already exists has no effect.
+     *
+     * @param type NODE or EDGE
+     * @param name the attribute name
+     * @exception IllegalArgumentException if the type is not NODE or EDGE or the attribute is not numeric or a point
+     * @see Graph#getAttributeColumn(int, String, int)
+     * @see Graph#setAttributeColumn(int, String, double[], double[])
+     */
+    public void addAttributeColumn(int type, String name) throws IllegalArgumentException
+    {
+        if (type != GrappaConstants.NODE && type != GrappaConstants.EDGE) {
+            throw new IllegalArgumentException("attribute columns are kept only for nodes and edges");
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("cannot add a column using a null name");
+        }
+        if (column(type, AttributeRegistry.register(name)) != null) {
+            return;
+        }
+
+        int attrType = Attribute.attributeType(type, name);
+
+        switch (attrType) {
+            case GrappaConstants.COLOR_TYPE:
+            case GrappaConstants.DOUBLE_TYPE:
+            case GrappaConstants.INTEGER_TYPE:
+            case GrappaConstants.POINT_TYPE:
+                break;
+            default:
+                throw new IllegalArgumentException("attribute \"" + name + "\" is not numeric or a point");
+        }
+
+        AttributeColumn column = new AttributeColumn(type, name, attrType, getIdLimit(type));
+        AttributeColumn[] grown = new AttributeColumn[this.columns == null ? 1 : this.columns.length + 1];
+
+        if (this.columns != null) {
+            System.arraycopy(this.columns, 0, grown, 0, this.columns.length);
+        }
+        grown[grown.length - 1] = column;
+        this.columns = grown;
+
+        ElementTable table = idTable(type);
+        Element elem;
+
+        for (int id = 0; id < table.limit(); id++) {
+            if ((elem = table.get(id)) != null) {
+                column.attach(elem);
+            }
+        }
+    }
+
+    /**
+     * Stop keeping the values of the named attribute in a column.
+     *
+     * @param type NODE or EDGE
+     * @param name the attribute name
+     */
+    public void removeAttributeColumn(int type, String name)
+    {
+        AttributeColumn column = (name == null ? null : column(type, AttributeRegistry.lookup(name)));
+
+        if (column == null) {
+            return;
+        }
+        if (this.columns.length == 1) {
+            this.columns = null;
+        } else {
+            AttributeColumn[] shrunk = new AttributeColumn[this.columns.length - 1];
+            int i = 0;
+            for (AttributeColumn other : this.columns) {
+                if (other != column) {
+                    shrunk[i++] = other;
+                }
+            }
+            this.columns = shrunk;
+        }
+
+        ElementTable table = idTable(type);
+        Element elem;
+        Attribute attr;
+
+        for (int id = 0; id < table.limit(); id++) {
+            if ((elem = table.get(id)) != null && !elem.watches(name) && (attr = elem.getAttribute(name)) != null) {
+                attr.removeWatcher(elem);
+            }
+        }
+    }
+
+    /**
+     * Check whether the values of the named attribute are kept in a column.
+     *
+     * @param type NODE or EDGE
+     * @param name the attribute name
+     * @return true if there is such a column
+     */
+    public boolean hasAttributeColumn(int type, String name)
+    {
+        return (name != null && column(type, AttributeRegistry.lookup(name)) != null);
+    }
+
+    /**
+     * Get the values of a column (see <code>addAttributeColumn</code>). The array is indexed by element id and is at
+     * least <code>getIdLimit(type)</code> long; entries for ids without an element, or for elements without a value,
+     * are NaN. For a point attribute, component 0 gives the x coordinates and component 1 the y coordinates; other
+     * attributes have only component 0. The array is the column itself, so it must not be modified (use
+     * <code>setAttributeColumn</code> instead), and it is replaced by a larger one when elements are added.
+     *
+     * @param type NODE or EDGE
+     * @param name the attribute name
+     * @param component 0, or 1 for the y coordinates of a point attribute
+     * @exception IllegalArgumentException if there is no such column or component
+     * @return the column values
+     */
+    public double[] getAttributeColumn(int type, String name, int component) throws IllegalArgumentException
+    {
+        AttributeColumn column = (name == null ? null : column(type, AttributeRegistry.lookup(name)));
+
+        if (column == null) {
+            throw new IllegalArgumentException("there is no column for attribute \"" + name + "\"");
+        }
+        column.grow(getIdLimit(type));
+        if (component == 0) {
+            return column.xs;
+        } else if (component == 1 && column.ys != null) {
+            return column.ys;
+        }
+        throw new IllegalArgumentException("column for attribute \"" + name + "\" has no component " + component);
+    }
+
+    /**
+     * Set the named attribute of all the nodes or all the edges of this graph from arrays indexed by element id, as if
+     * <code>setAttribute</code> were called for each element. Elements whose entry is NaN are left alone. There must be
+     * a column for the attribute (see <code>addAttributeColumn</code>), and it reflects the new values once this
+     * method returns.
+     *
+     * @param type NODE or EDGE
+     * @param name the attribute name
+     * @param values the new values, or the new x coordinates of a point attribute
+     * @param yValues the new y coordinates of a point attribute (ignored for other attributes)
+     * @exception IllegalArgumentException if there is no such column
+     */
+    public void setAttributeColumn(int type, String name, double[] values, double[] yValues)
+        throws IllegalArgumentException
+    {
+        AttributeColumn column = (name == null ? null : column(type, AttributeRegistry.lookup(name)));
+
+        if (column == null) {
+            throw new IllegalArgumentException("there is no column for attribute \"" + name + "\"");
+        }
+
+        boolean point = (column.attrType == GrappaConstants.POINT_TYPE);
+        ElementTable table = idTable(type);
+        int limit = Math.min(table.limit(), point ? Math.min(values.length, yValues.length) : values.length);
+        Element elem;
+
+        for (int id = 0; id < limit; id++) {
+            if ((elem = table.get(id)) == null || Double.isNaN(values[id]) || (point && Double.isNaN(yValues[id]))) {
+                continue;
+            }
+            elem.setAttribute(name, column.valueFor(values[id], point ? yValues[id] : 0), false);
+        }
+    }
+
+    // the column for the given element type and attribute id, or null if there is none
+    AttributeColumn column(int type, int nameId)
+    {
+        if (this.columns != null) {
+            for (AttributeColumn column : this.columns) {
+                if (column.type == type && column.nameId == nameId) {
+                    return column;
+                }
+            }
+        }
+        return null;
+    }
+
+    // an attribute watched by the element changed, so bring its entry in the matching column (if any) up-to-date
+    void updateColumn(Element elem, int nameId)
+    {
+        AttributeColumn column = (this.columns == null ? null : column(elem.getType(), nameId));
+
+        if (column != null && idTable(elem.getType()).get(elem.getId()) == elem) {
+            column.update(elem);
+        }
+    }
+
+    // a default of the given type was added to a subgraph, so the elements below it may now inherit it
+    void defaultAdded(Subgraph subg, int type, String name)
+    {
+        AttributeColumn column = (this.columns == null ? null : column(type, AttributeRegistry.lookup(name)));
+
+        if (column != null) {
+            GraphEnumeration enm = subg.elements(type);
+            while (enm.hasMoreElements()) {
+                column.attach(enm.nextGraphElement());
+            }
         }
     }
 
@@ -668,22 +1000,24 @@ public void printGraph(OutputStream output)
      *
      * @param type type of id number to return
      * @exception IllegalArgumentException whenever the specified type is not valid
-     * @return the next sequential id number (counter is incremented).
+     * @return the next id number (an id freed by a deletion, or else the next sequential one).
      * @see GrappaConstants#NODE
      * @see GrappaConstants#EDGE
      * @see GrappaConstants#SUBGRAPH
      */
     int nextId(int type) throws IllegalArgumentException
     {
-        switch (type) {
-            case GrappaConstants.NODE:
-                return (this.nid++);
-            case GrappaConstants.EDGE:
-                return (this.eid++);
-            case GrappaConstants.SUBGRAPH:
-                return (this.gid++);
-        }
-        throw new IllegalArgumentException("Type (" + type + ") is not recognized.");
+        return (idTable(type).allocate());
+    }
+
+    /**
+     * Get the sequence number for a new element of this graph.
+     *
+     * @return a number larger than that of any element created before
+     */
+    long nextSequence()
+    {
+        return (this.sequence++);
     }
 
     /**
@@ -691,22 +1025,14 @@ int nextId(int type) throws IllegalArgumentException
      *
      * @param type type of id number to return
      * @exception IllegalArgumentException whenever the specified type is not valid
-     * @return the next sequential id number (counter is not incremented).
+     * @return the id number the next element of the type will get (counter is not incremented).
      * @see GrappaConstants#NODE
      * @see GrappaConstants#EDGE
      * @see GrappaConstants#SUBGRAPH
      */
     public int getId(int type) throws IllegalArgumentException
     {
-        switch (type) {
-            case GrappaConstants.NODE:
-                return (this.nid);
-            case GrappaConstants.EDGE:
-                return (this.eid);
-            case GrappaConstants.SUBGRAPH:
-                return (this.gid);
-        }
-        throw new IllegalArgumentException("Type (" + type + ") is not recognized.");
+        return (idTable(type).peek());
     }
 
     /**
@@ -969,6 +1295,23 @@ public void buildShapes()
         }
     }
 
+    /**
+     * Builds any GrappaNexus object not already built for elements in this graph, then computes the geometry of every
+     * node and edge and the bounding box of the graph, spreading the work on nodes and edges over a fork/join pool.
+     * The nodes are computed first, then the edges (which refer to the positions of their nodes); the bounding boxes
+     * of the subgraphs are aggregated on the calling thread at the end. The graph must not otherwise be changed until
+     * this method returns. When a batch is open, or the parallelism is 1 or less, all of the work is done on the
+     * calling thread.
+     *
+     * @param parallelism the number of worker threads to use (for instance,
+     *            <code>Runtime.getRuntime().availableProcessors()</code>)
+     * @see Graph#buildShapes()
+     */
+    public void buildShapes(int parallelism)
+    {
+        ShapeBuilder.build(this, parallelism);
+    }
+
     /**
      * Builds any GrappaNexus object not already built and rebuilds those that already exist for all elements in this
      * graph.
@@ -987,16 +1330,71 @@ public void resync()
         }
     }
 
+    /**
+     * Starts a batch of changes to this graph. Until the batch is committed, attribute changes only record which parts
+     * of each affected element need updating; the commit then updates each element once, clears the bounding boxes of
+     * the enclosing subgraphs once and makes a single repaint request covering the changed area. Batches nest, so a
+     * call while a batch is already open joins that batch and only the matching outermost commit does the work.
+     *
+     * @return the open batch, which commits when closed
+     * @see Graph#commit()
+     * @see GraphBatch
+     */
+    public synchronized GraphBatch beginBatch()
+    {
+        if (this.batch == null) {
+            this.batch = new GraphBatch(this);
+        } else {
+            this.batch.nest();
+        }
+        return (this.batch);
+    }
+
+    /**
+     * Ends the innermost open batch of changes to this graph. When that batch is the outermost one, the deferred
+     * updates are carried out and a repaint is requested. Should an update fail, the remaining updates are still
+     * carried out and the first failure is then rethrown.
+     *
+     * @exception IllegalStateException whenever no batch is open
+     * @see Graph#beginBatch()
+     */
+    public void commit() throws IllegalStateException
+    {
+        GraphBatch done;
+
+        synchronized (this) {
+            if (this.batch == null) {
+                throw new IllegalStateException("no batch is open for graph \"" + getName() + "\"");
+            }
+            if (!this.batch.unnest()) {
+                return;
+            }
+            done = this.batch;
+        }
+        try {
+            done.flush();
+        } finally {
+            synchronized (this) {
+                this.batch = null;
+            }
+        }
+    }
+
     // ////////////////////////////////////////////////////////////////////
 
     /**
-     * Makes a repaint request of all GrappaPanels that are displaying this graph.
+     * Makes a repaint request of all GrappaPanels that are displaying this graph. Any area noted by damage() is
+     * covered by the request and forgotten.
      */
     public void repaint()
     {
         if (this.panelList == null) {
             return;
         }
+        synchronized (this.damageLock) {
+            this.damage = this.damageGraphBox = null;
+            this.damageUnbounded = false;
+        }
 
         boolean incomplete = true;
 
@@ -1015,6 +1413,129 @@ public void repaint()
         }
     }
 
+    /**
+     * Makes a repaint request of all GrappaPanels that are displaying this graph, limited to the area of each panel
+     * that shows the supplied region.
+     *
+     * @param region the region to repaint, in graph coordinates
+     */
+    public void repaint(java.awt.geom.Rectangle2D region)
+    {
+        if (this.panelList == null) {
+            return;
+        }
+
+        boolean incomplete = true;
+
+        ListIterator<GrappaPanel> li = null;
+
+        while (incomplete) {
+            try {
+                li = this.panelList.listIterator(0);
+                while (li.hasNext()) {
+                    li.next().repaintRegion(region);
+                }
+            } catch (ConcurrentModificationException cme) {
+                continue;
+            }
+            incomplete = false;
+        }
+    }
+
+    /**
+     * Notes that the area drawn for the supplied element is about to change or has changed, so that the next
+     * repaintDamage() covers it. For a change that moves or resizes the element, call it both before and after the
+     * change so that the area left and the area taken are both repainted. Attribute changes, deletions and
+     * GrappaSupport.setHighlight() call it themselves. Nothing is noted while no panel is displaying this graph.
+     *
+     * @param elem the element whose drawing changes
+     * @see Graph#repaintDamage()
+     */
+    public void damage(Element elem)
+    {
+        GrappaNexus nexus;
+        java.awt.geom.Rectangle2D box;
+
+        if (elem == null || (nexus = elem.grappaNexus) == null || !isDisplayed()) {
+            return;
+        }
+        try {
+            box = nexus.drawnBounds2D();
+        } catch (RuntimeException ex) {
+            // nothing usable to add, so the whole graph will be repainted
+            box = null;
+        }
+        synchronized (this.damageLock) {
+            if (this.damageUnbounded) {
+                return;
+            }
+            if (this.damage == null) {
+                this.damageGraphBox = (this.grappaNexus == null || this.grappaNexus.bbox == null) ? null
+                    : this.grappaNexus.bbox.getBounds2D();
+            }
+            if (box == null) {
+                this.damageUnbounded = true;
+                this.damage = null;
+            } else if (this.damage == null) {
+                this.damage = box;
+            } else {
+                this.damage.add(box);
+            }
+        }
+    }
+
+    /**
+     * Makes a repaint request of all GrappaPanels that are displaying this graph, limited to the area noted by
+     * damage() since the last repaint request, which is then forgotten. The panels are repainted in full when some
+     * of that area could not be found or when the bounding box of the graph has changed, since panels scaled to fit
+     * the graph will then be drawn at a new scale.
+     *
+     * @see Graph#damage(Element)
+     */
+    public void repaintDamage()
+    {
+        java.awt.geom.Rectangle2D region;
+        java.awt.geom.Rectangle2D graphBox;
+        boolean unbounded;
+
+        synchronized (this.damageLock) {
+            region = this.damage;
+            graphBox = this.damageGraphBox;
+            unbounded = this.damageUnbounded;
+            this.damage = this.damageGraphBox = null;
+            this.damageUnbounded = false;
+        }
+        if (unbounded || (region != null && (graphBox == null || !graphBox.equals(getBoundingBox())))) {
+            repaint();
+        } else if (region != null) {
+            repaint(region);
+        }
+    }
+
+    // check if any panel is displaying this graph
+    boolean isDisplayed()
+    {
+        return (this.panelList != null && !this.panelList.isEmpty());
+    }
+
+    /**
+     * Get the reference FontRenderContext used to measure element labels. It is created the first time text is
+     * measured, using the anti-aliasing and fractional metrics settings in effect at that time, so that a graph that
+     * is only parsed and printed never needs it. This replaces the former public <code>REFCNTXT</code> field.
+     *
+     * @return the reference FontRenderContext
+     * @see Grappa#useAntiAliasing
+     * @see Grappa#useFractionalMetrics
+     */
+    public java.awt.font.FontRenderContext getFontRenderContext()
+    {
+        if (this.refcntxt == null) {
+            this.refcntxt = new java.awt.font.FontRenderContext(IDENTXFRM, Grappa.useAntiAliasing,
+                Grappa.useFractionalMetrics);
+        }
+        return (this.refcntxt);
+    }
+
     /**
      * Makes a paintImmediately request of all GrappaPanels that are displaying this graph.
      */
@@ -0,0 +1,212 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A group of changes to a graph whose drawing work is deferred until the group is committed. While a batch is open,
+ * attribute changes that would normally rebuild the shape, text, style, decoration or image of an element are only
+ * recorded against that element; when the batch is committed each affected element is brought up to date once, the
+ * bounding boxes of the enclosing subgraphs are cleared once and a single repaint covering the changed area is
+ * requested of the panels displaying the graph.
+ * <P>
+ * A batch is obtained from <code>Graph.beginBatch()</code> and is meant to be used with try-with-resources:
+ *
+ * <pre>
+ * try (GraphBatch batch = graph.beginBatch()) {
+ *     // any number of setAttribute calls
+ * }
+ * </pre>
+ *
+ * Batches nest; only the outermost commit does the deferred work. As with the rest of the graph structure, a batch
+ * applies to the graph as a whole rather than to a thread, so changes made by other threads while it is open are
+ * deferred as well.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see Graph#beginBatch()
+ * @see Graph#commit()
+ */
+public final class GraphBatch implements AutoCloseable
+{
+    private final Graph graph;
+
+    // number of beginBatch calls not yet matched by a commit
+    private int depth = 1;
+
+    // true once the outermost commit has started
+    private boolean committing = false;
+
+    private boolean closed = false;
+
+    // elements with deferred updates, in the order first changed
+    private final List<GrappaNexus> pending = new ArrayList<>();
+
+    // subgraphs whose bounding box (and that of their ancestors) must be cleared
+    private final List<Subgraph> stale = new ArrayList<>();
+
+    GraphBatch(Graph graph)
+    {
+        this.graph = graph;
+    }
+
+    /**
+     * Get the graph to which this batch applies.
+     *
+     * @return the graph
+     */
+    public Graph getGraph()
+    {
+        return (this.graph);
+    }
+
+    /**
+     * Commits the batch, unless it has already been committed. Equivalent to calling <code>Graph.commit()</code> once
+     * for this batch.
+     */
+    @Override
+    public void close()
+    {
+        if (!this.closed) {
+            this.graph.commit();
+        }
+    }
+
+    // //////////////////////////////////////////////////////////////////////
+    //
+    // Package methods
+    //
+    // //////////////////////////////////////////////////////////////////////
+
+    // one more beginBatch on the graph
+    void nest()
+    {
+        this.depth++;
+    }
+
+    // one commit on the graph; returns true when the outermost level is reached
+    boolean unnest()
+    {
+        if (--this.depth == 0) {
+            this.closed = true;
+            return (true);
+        }
+        return (false);
+    }
+
+    /**
+     * Check whether updates are being deferred.
+     *
+     * @return true while the batch is open and its commit has not started
+     */
+    boolean isDeferring()
+    {
+        return (!this.committing);
+    }
+
+    /**
+     * Note that a nexus has been given its first deferred update, recording the area it covers now.
+     *
+     * @param nexus the nexus with a deferred update
+     */
+    void defer(GrappaNexus nexus)
+    {
+        this.pending.add(nexus);
+        this.graph.damage(nexus.element);
+    }
+
+    /**
+     * Note that the bounding box of an element changed, so that those of its enclosing subgraphs need clearing.
+     *
+     * @param elem the element whose bounding box changed
+     */
+    void boundsChanged(Element elem)
+    {
+        Subgraph prnt = elem.getSubgraph();
+
+        if (prnt != null) {
+            this.stale.add(prnt);
+        }
+    }
+
+    /**
+     * Bring every element with deferred updates up to date, clear stale bounding boxes and ask the graph's panels to
+     * repaint. Called by the graph once the outermost commit is reached.
+     */
+    void flush()
+    {
+        RuntimeException failure = null;
+        Error fatal = null;
+
+        this.committing = true;
+
+        for (GrappaNexus nexus : this.pending) {
+            try {
+                nexus.applyDeferred();
+            } catch (RuntimeException ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            } catch (Error err) {
+                if (fatal == null) {
+                    fatal = err;
+                }
+            }
+        }
+
+        clearStale();
+
+        for (GrappaNexus nexus : this.pending) {
+            this.graph.damage(nexus.element);
+        }
+
+        if (!this.pending.isEmpty()) {
+            this.graph.repaintDamage();
+        }
+        this.pending.clear();
+
+        if (fatal != null) {
+            throw fatal;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // //////////////////////////////////////////////////////////////////////
+    //
+    // Private methods
+    //
+    // //////////////////////////////////////////////////////////////////////
+
+    // clear the bounding box of each stale subgraph and its ancestors, visiting each subgraph once
+    private void clearStale()
+    {
+        Map<Subgraph, Subgraph> seen = new IdentityHashMap<>();
+        Subgraph prnt;
+
+        for (Subgraph sg : this.stale) {
+            prnt = sg;
+            while (prnt != null && seen.put(prnt, prnt) == null) {
+                if (prnt.grappaNexus != null) {
+                    prnt.grappaNexus.bbox = null;
+                }
+                prnt = prnt.getSubgraph();
+            }
+        }
+        this.stale.clear();
+    }
+}
@@ -357,6 +357,15 @@ public static String getToolTipText()
      */
     public static boolean synchronizePaint = false;
 
+    /**
+     * Indicates whether a GrappaPanel should keep its drawing of the visible part of the graph, less any selection or
+     * deletion highlights, as an image and draw the highlights over it. A change of highlight alone then redraws only
+     * the highlights, but highlighted elements are drawn above any overlapping ones. The default is false.
+     *
+     * @see GrappaPanel#clearLayers()
+     */
+    public static boolean layeredPainting = false;
+
     /**
      * Indicates that an image requested via the IMAGE_ATTR of an element should be loaded before the element is drawn.
      * By default, Grappa will wait.
@@ -73,15 +73,17 @@ public void grappaClicked(Subgraph subg, Element elem, GrappaPoint pt, int modif
                             if (subg.currentSelection != null) {
                                 if (subg.currentSelection instanceof Element) {
                                     ((Element) (subg.currentSelection)).highlight &= ~HIGHLIGHT_MASK;
+                                    subg.getGraph().damage((Element) (subg.currentSelection));
                                 } else {
                                     @SuppressWarnings("unchecked")
                                     Vector<Element> vec = ((Vector<Element>) (subg.currentSelection));
                                     for (int i = 0; i < vec.size(); i++) {
                                         vec.elementAt(i).highlight &= ~HIGHLIGHT_MASK;
+                                        subg.getGraph().damage(vec.elementAt(i));
                                     }
                                 }
                                 subg.currentSelection = null;
-                                subg.getGraph().repaint();
+                                subg.getGraph().repaintDamage();
                             }
                         } else {
                             if (subg.currentSelection != null) {
@@ -90,18 +92,21 @@ public void grappaClicked(Subgraph subg, Element elem, GrappaPoint pt, int modif
                                 }
                                 if (subg.currentSelection instanceof Element) {
                                     ((Element) (subg.currentSelection)).highlight &= ~HIGHLIGHT_MASK;
+                                    subg.getGraph().damage((Element) (subg.currentSelection));
                                 } else {
                                     @SuppressWarnings("unchecked")
                                     Vector<Element> vec = ((Vector<Element>) (subg.currentSelection));
                                     for (int i = 0; i < vec.size(); i++) {
                                         vec.elementAt(i).highlight &= ~HIGHLIGHT_MASK;
+                                        subg.getGraph().damage(vec.elementAt(i));
                                     }
                                 }
                                 subg.currentSelection = null;
                             }
                             elem.highlight |= SELECTION_MASK;
+                            subg.getGraph().damage(elem);
                             subg.currentSelection = elem;
-                            subg.getGraph().repaint();
+                            subg.getGraph().repaintDamage();
                         }
                     } else if (modifiers == (InputEvent.BUTTON1_MASK | InputEvent.CTRL_MASK)) {
                         // adjust selection
@@ -109,6 +114,7 @@ public void grappaClicked(Subgraph subg, Element elem, GrappaPoint pt, int modif
                             if ((elem.highlight & SELECTION_MASK) == SELECTION_MASK) {
                                 // unselect element
                                 elem.highlight &= ~SELECTION_MASK;
+                                subg.getGraph().damage(elem);
                                 if (subg.currentSelection == null) {
                                     // something got messed up somewhere
                                     throw new InternalError("currentSelection improperly maintained");
@@ -137,6 +143,7 @@ public void grappaClicked(Subgraph subg, Element elem, GrappaPoint pt, int modif
                             } else {
                                 // select element
                                 elem.highlight |= SELECTION_MASK;
+                                subg.getGraph().damage(elem);
                                 if (subg.currentSelection == null) {
                                     subg.currentSelection = elem;
                                 } else if (subg.currentSelection instanceof Element) {
@@ -148,7 +155,7 @@ public void grappaClicked(Subgraph subg, Element elem, GrappaPoint pt, int modif
                                     ((Vector) (subg.currentSelection)).add(elem);
                                 }
                             }
-                            subg.getGraph().repaint();
+                            subg.getGraph().repaintDamage();
                         }
                     }
                 }
@@ -284,7 +291,7 @@ public void grappaReleased(Subgraph subg, Element elem, GrappaPoint pt, int modi
                 Vector elems = GrappaSupport.findContainedElements(subg, outline);
                 if (elems != null) {
                     drillDown(subg, elems, SELECTION_MASK, HIGHLIGHT_TOGGLE);
-                    subg.getGraph().repaint();
+                    subg.getGraph().repaintDamage();
                 } else {
                     Graphics2D g2d = (Graphics2D) (panel.getGraphics());
                     AffineTransform orig = g2d.getTransform();
@@ -482,7 +489,7 @@ public void actionPerformed(ActionEvent aev)
                                 GrappaSupport.setHighlight(vec.elementAt(i), DELETION_MASK, HIGHLIGHT_OFF);
                             }
                         }
-                        subg.getGraph().repaint();
+                        subg.getGraph().repaintDamage();
                     } else if (text.startsWith("Clear")) {
                         if (subg.currentSelection == null) {
                             return;
@@ -497,7 +504,7 @@ public void actionPerformed(ActionEvent aev)
                             }
                         }
                         subg.currentSelection = null;
-                        subg.getGraph().repaint();
+                        subg.getGraph().repaintDamage();
                     } else if (text.startsWith("Select")) {
                         if (subg.currentSelection == null) {
                             return;
@@ -510,6 +517,7 @@ public void actionPerformed(ActionEvent aev)
                             return;
                         }
                         ((Element) (subg.currentSelection)).highlight &= ~HIGHLIGHT_MASK;
+                        subg.getGraph().damage((Element) (subg.currentSelection));
                         Vector<Element> elems = new Vector<>();
                         Enumeration<? extends Element> enm = ((Subgraph) elem).nodeElements();
                         while (enm.hasMoreElements()) {
@@ -523,7 +531,7 @@ public void actionPerformed(ActionEvent aev)
                         if (elems != null && elems.size() > 0) {
                             drillDown(subg, elems, SELECTION_MASK, HIGHLIGHT_ON);
                         }
-                        subg.getGraph().repaint();
+                        subg.getGraph().repaintDamage();
                     } else if (text.startsWith("Enclose")) {
                         if (subg.currentSelection == null || subg.currentSelection == subg) {
                             return;
@@ -558,7 +566,7 @@ public void actionPerformed(ActionEvent aev)
                                 GrappaSupport.setHighlight(vec.elementAt(i), DELETION_MASK, HIGHLIGHT_ON);
                             }
                         }
-                        subg.getGraph().repaint();
+                        subg.getGraph().repaintDamage();
                     } else if (text.startsWith("Perform")) {
                         if (subg.currentSelection == null) {
                             return;
@@ -573,7 +581,7 @@ public void actionPerformed(ActionEvent aev)
                             }
                         }
                         subg.currentSelection = null;
-                        subg.getGraph().repaint();
+                        subg.getGraph().repaintDamage();
                     } else if (text.startsWith("Remove")) {
                         subg.removeEmptySubgraphs();
                     } else if (text.startsWith("Reset")) {
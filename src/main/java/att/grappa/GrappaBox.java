@@ -70,42 +70,64 @@ public GrappaBox(String coordString, boolean dimensioned)
     {
         this.dimensioned = dimensioned;
 
-        double[] coords = null;
+        if (coordString == null) {
+            throw new IllegalArgumentException("supplied tuple string is null");
+        }
+
+        double x1, y1, x2, y2;
+        int end = coordString.length();
+        int start = TupleDecoder.skip(coordString, 0, end);
+        int stop;
+
         try {
-            coords = GrappaSupport.arrayForTuple(coordString);
+            if (start == (stop = TupleDecoder.scan(coordString, start, end))) {
+                throw TupleDecoder.badTuple(coordString, 4);
+            }
+            x1 = TupleDecoder.parse(coordString, start, stop);
+            if ((start = TupleDecoder.skip(coordString, stop, end)) == (stop = TupleDecoder.scan(coordString, start,
+                end))) {
+                throw TupleDecoder.badTuple(coordString, 4);
+            }
+            y1 = TupleDecoder.parse(coordString, start, stop);
+            if ((start = TupleDecoder.skip(coordString, stop, end)) == (stop = TupleDecoder.scan(coordString, start,
+                end))) {
+                throw TupleDecoder.badTuple(coordString, 4);
+            }
+            x2 = TupleDecoder.parse(coordString, start, stop);
+            if ((start = TupleDecoder.skip(coordString, stop, end)) == (stop = TupleDecoder.scan(coordString, start,
+                end)) || TupleDecoder.skip(coordString, stop, end) != end) {
+                throw TupleDecoder.badTuple(coordString, 4);
+            }
+            y2 = TupleDecoder.parse(coordString, start, stop);
         } catch (NumberFormatException nfe) {
             throw new IllegalArgumentException("coordinate string (" + coordString + ") has a bad number format ("
                 + nfe.getMessage() + ")");
         }
-        if (coords == null || coords.length != 4) {
-            throw new IllegalArgumentException("coordinate string (" + coordString
-                + ") does not contain 4 valid coordinates");
-        }
         if (dimensioned) { // x1, y2, width, height
-            this.x = coords[0];
-            this.y = (Grappa.negateStringYCoord ? -coords[1] : coords[1]);
-            this.width = coords[2];
-            this.height = coords[3];
+            this.x = x1;
+            this.y = (Grappa.negateStringYCoord ? -y1 : y1);
+            this.width = x2;
+            this.height = y2;
         } else { // x1, y1, x2, y2
             double tmp;
             if (Grappa.negateStringYCoord) {
-                coords[1] = -coords[1];
-                coords[3] = -coords[3];
+                y1 = -y1;
+                y2 = -y2;
             }
-            if (coords[0] > coords[2]) {
-                tmp = coords[0];
-                coords[0] = coords[2];
-                coords[2] = tmp;
+            if (x1 > x2) {
+                tmp = x1;
+                x1 = x2;
+                x2 = tmp;
             }
-            if (coords[1] > coords[3]) {
-                tmp = coords[1];
-                coords[1] = coords[3];
-                coords[3] = tmp;
+            if (y1 > y2) {
+                tmp = y1;
+                y1 = y2;
+                y2 = tmp;
             }
-            this.x = coords[0];
-            this.y = coords[1];
-            this.width = coords[2] - coords[0];
-            this.height = coords[3] - coords[1];
+            this.x = x1;
+            this.y = y1;
+            this.width = x2 - x1;
+            this.height = y2 - y1;
         }
     }
 
@@ -128,7 +150,7 @@ public GrappaBox(String coordString)
      */
     public String toAttributeString()
     {
-        return (toFormattedString("%b"));
+        return (GrappaFormat.appendBox(new StringBuilder(), this).toString());
     }
 
     /**
@@ -139,7 +161,7 @@ public String toAttributeString()
      */
     public String toFormattedString(String format)
     {
-        return (GrappaSupportPrintf.sprintf(new Object[] { format, this }));
+        return (GrappaFormat.getFormat(format).format(new Object[] { this }));
     }
 
     /**
@@ -0,0 +1,709 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.geom.Dimension2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A precompiled <I>sprintf</I> format. The format string is parsed once, when the object is built, into literal text
+ * and conversion specifications, so that formatting only has to walk the compiled pieces and append to a caller
+ * supplied buffer. The output is the same as that of <code>GrappaSupportPrintf.sprintf</code>, which is now built on
+ * this class.
+ * <P>
+ * The plain <TT>%g</TT>, <TT>%p</TT> and <TT>%b</TT> conversions used for attribute values (no flags, width or
+ * precision) are also available as static appenders that write directly into a <code>StringBuilder</code> without
+ * creating any intermediate strings.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see GrappaSupportPrintf#sprintf(Object[])
+ */
+public final class GrappaFormat implements GrappaConstants
+{
+    // conversion flags, as parsed by PrintfParser
+    static final int FLAG_RIGHTPAD = 0x01;
+
+    static final int FLAG_SIGN = 0x02;
+
+    static final int FLAG_SPACE = 0x04;
+
+    static final int FLAG_ZEROPAD = 0x08;
+
+    static final int FLAG_ALTERNATE = 0x10;
+
+    // the number of significant digits of a plain %g conversion, less one
+    private static final int PRECISION = 5;
+
+    private static final double POWER = Math.pow(10, PRECISION);
+
+    // compiled formats handed out by getFormat()
+    private static final ConcurrentHashMap<String, GrappaFormat> formats = new ConcurrentHashMap<String, GrappaFormat>();
+
+    private static final int MAX_CACHED_FORMATS = 256;
+
+    private final String format;
+
+    // literal text before each conversion, plus the text after the last one
+    private final String[] literals;
+
+    private final char[] conversions;
+
+    private final int[] flags;
+
+    private final int[] widths;
+
+    private final int[] precisions;
+
+    /**
+     * Compiles the supplied format string.
+     *
+     * @param format a format string as accepted by <code>GrappaSupportPrintf.sprintf</code>
+     */
+    public GrappaFormat(String format)
+    {
+        char[] fmt = format.toCharArray();
+        int flen = fmt.length;
+        StringBuilder literal = new StringBuilder(flen);
+        PrintfParser cvt = new PrintfParser();
+        int count = 0;
+        int n;
+        char ch;
+
+        // every conversion takes at least two characters
+        String[] texts = new String[flen / 2 + 1];
+        char[] convs = new char[flen / 2];
+        int[] bits = new int[flen / 2];
+        int[] wids = new int[flen / 2];
+        int[] precs = new int[flen / 2];
+
+        this.format = format;
+
+        for (n = 0; n < flen;) {
+            if ((ch = fmt[n++]) == '%') {
+                int spec = n;
+                if ((n = cvt.parse(fmt, n)) < flen) {
+                    ch = fmt[n++];
+                    if (ch == '%') {
+                        literal.append('%');
+                    } else if (isConversion(ch)) {
+                        texts[count] = literal.toString();
+                        literal.setLength(0);
+                        convs[count] = ch;
+                        bits[count] = specFlags(fmt, spec);
+                        wids[count] = cvt.getWidth();
+                        precs[count] = cvt.getPrecision();
+                        count++;
+                    }
+                    // different compilers handle unrecognized formats
+                    // different ways, some just do the equivalent of
+                    // literal.append(ch), but we will just ignore them
+                } else {
+                    literal.append(ch);
+                }
+            } else if (ch == '\\') {
+                if (n < flen) {
+                    switch (ch = fmt[n++]) {
+                        case 'b':
+                            literal.append('\b');
+                            break;
+                        case 'f':
+                            literal.append('\f');
+                            break;
+                        case 'n':
+                            literal.append('\n');
+                            break;
+                        case 'r':
+                            literal.append('\r');
+                            break;
+                        case 't':
+                            literal.append('\t');
+                            break;
+                        case 'u':
+                            if ((n + 3) < flen) {
+                                if (GrappaSupport.isdigit(fmt[n])
+                                    &&
+                                    GrappaSupport.isdigit(fmt[n + 1])
+                                    &&
+                                    GrappaSupport.isdigit(fmt[n + 2])
+                                    &&
+                                    GrappaSupport.isdigit(fmt[n + 3])) {
+                                    int uni = fmt[n + 3] + 16 * fmt[n + 2] + 256 * fmt[n + 1] + 4096 * fmt[n];
+                                    literal.append((char) uni);
+                                    n += 4;
+                                } else {
+                                    literal.append('u');
+                                }
+                            } else {
+                                literal.append('u');
+                            }
+                            break;
+                        case '"':
+                            literal.append('\"');
+                            break;
+                        case '\'':
+                            literal.append('\'');
+                            break;
+                        case '\\':
+                            literal.append('\\');
+                            break;
+                        case '0':
+                        case '1':
+                        case '2':
+                        case '3':
+                        case '4':
+                        case '5':
+                        case '6':
+                        case '7':
+                        case '8':
+                        case '9':
+                            // need to fix this, assumes 3 digit octals
+                            if ((n + 1) < flen) {
+                                if (GrappaSupport.isdigit(fmt[n])
+                                    &&
+                                    GrappaSupport.isdigit(fmt[n + 1])) {
+                                    int oct = fmt[n + 1] + 8 * fmt[n] + 64 * ch;
+                                    literal.append((char) oct);
+                                    n += 2;
+                                } else {
+                                    literal.append(ch);
+                                }
+                            } else {
+                                literal.append(ch);
+                            }
+                            break;
+                    }
+                } else {
+                    literal.append(ch);
+                }
+            } else {
+                literal.append(ch);
+            }
+        }
+        texts[count] = literal.toString();
+
+        this.literals = Arrays.copyOf(texts, count + 1);
+        this.conversions = Arrays.copyOf(convs, count);
+        this.flags = Arrays.copyOf(bits, count);
+        this.widths = Arrays.copyOf(wids, count);
+        this.precisions = Arrays.copyOf(precs, count);
+    }
+
+    /**
+     * Get a compiled version of the supplied format string. Compiled formats are cached, so repeated requests for the
+     * same format do not parse it again.
+     *
+     * @param format a format string as accepted by <code>GrappaSupportPrintf.sprintf</code>
+     * @return the compiled format
+     */
+    public static GrappaFormat getFormat(String format)
+    {
+        GrappaFormat compiled = formats.get(format);
+        if (compiled == null) {
+            compiled = new GrappaFormat(format);
+            if (formats.size() < MAX_CACHED_FORMATS) {
+                formats.putIfAbsent(format, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Get the format string from which this object was compiled.
+     *
+     * @return the format string
+     */
+    public String getFormat()
+    {
+        return this.format;
+    }
+
+    /**
+     * Format the supplied arguments.
+     *
+     * @param args the objects to be formatted according to this format
+     * @return a string giving a formatted representation of the arguments
+     */
+    public String format(Object[] args)
+    {
+        return (format(new StringBuilder(2 * this.format.length()), args, 0).toString());
+    }
+
+    /**
+     * Format the supplied arguments, appending the result to the supplied buffer.
+     *
+     * @param buf the buffer to which the formatted text is appended
+     * @param args the objects to be formatted according to this format
+     * @return the supplied buffer
+     */
+    public StringBuilder format(StringBuilder buf, Object[] args)
+    {
+        return (format(buf, args, 0));
+    }
+
+    /**
+     * Format the supplied arguments, appending the result to the supplied <code>Appendable</code>.
+     *
+     * @param out where to append the formatted text
+     * @param args the objects to be formatted according to this format
+     * @return the supplied <code>Appendable</code>
+     * @exception IOException if appending to <code>out</code> fails
+     */
+    public Appendable format(Appendable out, Object[] args) throws IOException
+    {
+        if (out instanceof StringBuilder) {
+            format((StringBuilder) out, args, 0);
+        } else {
+            out.append(format(new StringBuilder(2 * this.format.length()), args, 0));
+        }
+        return out;
+    }
+
+    /**
+     * Format the arguments starting at <code>args[argn]</code>.
+     */
+    StringBuilder format(StringBuilder buf, Object[] args, int argn)
+    {
+        PrintfParser cvt = null;
+        boolean flag;
+        Object arg;
+        char ch;
+
+        for (int i = 0; i < this.conversions.length; i++) {
+            buf.append(this.literals[i]);
+            if (args.length <= argn) {
+                throw new RuntimeException("too few arguments for format");
+            }
+            arg = args[argn];
+            ch = this.conversions[i];
+
+            if (this.flags[i] == 0 && this.widths[i] == 0 && this.precisions[i] < 0) {
+                // plain conversions that do not need a PrintfParser
+                switch (ch) {
+                    case 'b':
+                    case 'B':
+                        if (arg instanceof Rectangle2D) {
+                            flag = (arg instanceof GrappaBox) ? ((GrappaBox) arg).isDimensioned() : true;
+                            appendBox(buf, (Rectangle2D) arg, flag, ch == 'B');
+                            argn++;
+                            continue;
+                        }
+                        break;
+                    case 'p':
+                    case 'P':
+                        if (arg instanceof Point2D) {
+                            appendPoint(buf, (Point2D) arg, ch == 'P');
+                            argn++;
+                            continue;
+                        } else if (arg instanceof Dimension2D) {
+                            appendSize(buf, (Dimension2D) arg, ch == 'P');
+                            argn++;
+                            continue;
+                        }
+                        break;
+                    case 'g':
+                    case 'G':
+                        if (arg instanceof Number) {
+                            appendFlex(buf, ((Number) arg).doubleValue(), ch == 'G');
+                            argn++;
+                            continue;
+                        }
+                        break;
+                    case 's':
+                        buf.append(arg.toString());
+                        argn++;
+                        continue;
+                }
+            }
+
+            if (cvt == null) {
+                cvt = new PrintfParser();
+            }
+            cvt.setSpec(this.flags[i], this.widths[i], this.precisions[i]);
+
+            switch (ch) {
+                case 'b':
+                case 'B':
+                    if (arg instanceof GrappaBox) {
+                        flag = ((GrappaBox) arg).isDimensioned();
+                    } else {
+                        flag = true;
+                    }
+                    if (arg instanceof Rectangle2D) {
+                        cvt.buildBox(buf, (Rectangle2D) arg, ch == 'B', flag);
+                    } else {
+                        throw new RuntimeException("argument " + argn + " should be a Rectangle2D");
+                    }
+                    break;
+
+                case 'c':
+                    if (arg instanceof Character) {
+                        cvt.buildChar(buf, ((Character) arg).charValue());
+                    } else {
+                        throw new RuntimeException("argument " + argn + " should be a Character");
+                    }
+                    break;
+
+                case 'd':
+                    if (arg instanceof Number) {
+                        cvt.buildInteger(buf, ((Number) arg).intValue());
+                    } else {
+                        throw new RuntimeException("argument " + argn + " should be a Number");
+                    }
+                    break;
+
+                case 'o':
+                    if (arg instanceof Character) {
+                        cvt.buildOctal(buf, ((Character) arg).charValue());
+                    } else if (arg instanceof Number) {
+                        cvt.buildOctal(buf, ((Number) arg).intValue());
+                    } else {
+                        throw new RuntimeException("argument " + argn + " should be a Character or Number");
+                    }
+                    break;
+
+                case 'p':
+                case 'P':
+                    if (arg instanceof Point2D) {
+                        cvt.buildPoint(buf, (Point2D) arg, ch == 'P');
+                    } else if (arg instanceof Dimension2D) {
+                        cvt.buildSize(buf, (Dimension2D) arg, ch == 'P');
+                    } else {
+                        throw new RuntimeException("argument " + argn + " should be a Point2D");
+                    }
+                    break;
+
+                case 'x':
+                case 'X':
+                    if (arg instanceof Character) {
+                        cvt.buildHex(buf, ((Character) arg).charValue(), ch == 'X');
+                    } else if (arg instanceof Number) {
+                        cvt.buildHex(buf, ((Number) arg).intValue(), ch == 'X');
+                    } else {
+                        throw new RuntimeException("argument " + argn + " should be a Character or Number");
+                    }
+                    break;
+
+                case 'e':
+                case 'E':
+                    if (arg instanceof Character) {
+                        cvt.buildExp(buf, ((Character) arg).charValue(), ch == 'E');
+                    } else if (arg instanceof Number) {
+                        cvt.buildExp(buf, ((Number) arg).doubleValue(), ch == 'E');
+                    } else {
+                        throw new RuntimeException("argument " + argn + " should be a Character or Number");
+                    }
+                    break;
+
+                case 'f':
+                    if (arg instanceof Character) {
+                        cvt.buildFloat(buf, ((Character) arg).charValue());
+                    } else if (arg instanceof Number) {
+                        cvt.buildFloat(buf, ((Number) arg).doubleValue());
+                    } else {
+                        throw new RuntimeException("argument " + argn + " should be a Character or Number");
+                    }
+                    break;
+
+                case 'g':
+                case 'G':
+                    if (arg instanceof Character) {
+                        cvt.buildFlex(buf, ((Character) arg).charValue(), ch == 'G');
+                    } else if (arg instanceof Number) {
+                        cvt.buildFlex(buf, ((Number) arg).doubleValue(), ch == 'G');
+                    } else {
+                        throw new RuntimeException("argument " + argn + " should be a Character or Number");
+                    }
+                    break;
+
+                case 's':
+                    cvt.buildString(buf, arg.toString());
+                    break;
+            }
+            argn++;
+        }
+        buf.append(this.literals[this.conversions.length]);
+
+        return buf;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    //
+    // Appenders
+    //
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Format a double as a plain <TT>%g</TT> conversion would.
+     *
+     * @param value the value to format
+     * @return the formatted value
+     */
+    public static String formatDouble(double value)
+    {
+        return (appendFlex(new StringBuilder(12), value, false).toString());
+    }
+
+    /**
+     * Append a double to the supplied buffer as a plain <TT>%g</TT> conversion would.
+     *
+     * @param buf the buffer to append to
+     * @param value the value to format
+     * @return the supplied buffer
+     */
+    public static StringBuilder appendDouble(StringBuilder buf, double value)
+    {
+        return (appendFlex(buf, value, false));
+    }
+
+    /**
+     * Append a point to the supplied buffer as a plain <TT>%p</TT> conversion would.
+     *
+     * @param buf the buffer to append to
+     * @param point the point to format
+     * @return the supplied buffer
+     */
+    public static StringBuilder appendPoint(StringBuilder buf, Point2D point)
+    {
+        return (appendPoint(buf, point, false));
+    }
+
+    /**
+     * Append a size to the supplied buffer as a plain <TT>%p</TT> conversion would.
+     *
+     * @param buf the buffer to append to
+     * @param size the size to format
+     * @return the supplied buffer
+     */
+    public static StringBuilder appendSize(StringBuilder buf, Dimension2D size)
+    {
+        return (appendSize(buf, size, false));
+    }
+
+    /**
+     * Append a box to the supplied buffer as a plain <TT>%b</TT> conversion would.
+     *
+     * @param buf the buffer to append to
+     * @param box the box to format
+     * @return the supplied buffer
+     */
+    public static StringBuilder appendBox(StringBuilder buf, Rectangle2D box)
+    {
+        return (appendBox(buf, box, (box instanceof GrappaBox) ? ((GrappaBox) box).isDimensioned() : true, false));
+    }
+
+    private static StringBuilder appendPoint(StringBuilder buf, Point2D point, boolean upper)
+    {
+        appendFlex(buf, point.getX(), upper);
+        buf.append(',');
+        return (appendFlex(buf, (Grappa.negateStringYCoord ? -point.getY() : point.getY()), upper));
+    }
+
+    private static StringBuilder appendSize(StringBuilder buf, Dimension2D size, boolean upper)
+    {
+        appendFlex(buf, size.getWidth(), upper);
+        buf.append(',');
+        return (appendFlex(buf, size.getHeight(), upper));
+    }
+
+    private static StringBuilder appendBox(StringBuilder buf, Rectangle2D box, boolean dimensioned, boolean upper)
+    {
+        double y = (Grappa.negateStringYCoord ? -box.getY() : box.getY());
+
+        appendFlex(buf, box.getX(), upper);
+        buf.append(',');
+        appendFlex(buf, y, upper);
+        buf.append(',');
+        if (dimensioned) {
+            appendFlex(buf, box.getWidth(), upper);
+            buf.append(',');
+            appendFlex(buf, box.getHeight(), upper);
+        } else {
+            // as PrintfParser.buildBox, which repeats the origin here
+            appendFlex(buf, box.getX(), upper);
+            buf.append(',');
+            appendFlex(buf, y, upper);
+        }
+        return buf;
+    }
+
+    // the arithmetic below mirrors PrintfParser.buildFlex, buildExp and
+    // doubleToString for a plain conversion, so the digits are identical
+    private static StringBuilder appendFlex(StringBuilder buf, double arg, boolean upper)
+    {
+        if (Double.isNaN(arg) || Double.isInfinite(arg)) {
+            PrintfParser cvt = new PrintfParser();
+            cvt.setSpec(0, 0, -1);
+            return (cvt.buildFlex(buf, arg, upper));
+        }
+
+        double val = (arg < 0) ? -arg : arg;
+        double ival = (int) arg;
+        double exp;
+
+        if (val >= 1) {
+            exp = Math.log(val) / LOG10;
+        } else {
+            exp = Math.log(val / 10) / LOG10;
+        }
+
+        int iexp = (int) exp;
+
+        if (val == ival) {
+            if (iexp <= PRECISION) {
+                return (buf.append((int) arg));
+            }
+            return (appendExp(buf, arg, upper));
+        } else if (iexp < -4 || iexp > PRECISION) {
+            return (appendExp(buf, arg, upper));
+        }
+        return (appendDecimal(buf, arg, (char) 0, false, 0));
+    }
+
+    private static StringBuilder appendExp(StringBuilder buf, double arg, boolean upper)
+    {
+        double val = (arg < 0) ? -arg : arg;
+        double exp;
+        double base;
+
+        if (val >= 1) {
+            exp = Math.log(val) / LOG10;
+            base = Math.pow(10, exp - (int) exp);
+        } else {
+            exp = Math.log(val / 10) / LOG10;
+            base = Math.pow(10, exp - (int) exp + 1);
+        }
+
+        int iexp = (int) (exp > 0 ? exp : -exp);
+        boolean positive = (exp > 0);
+
+        if (PrintfParser.carriesToTen(base, PRECISION)) {
+            base /= 10;
+            if (positive) {
+                iexp++;
+            } else if (--iexp == 0) {
+                positive = true;
+            }
+        }
+        return (appendDecimal(buf, (arg >= 0) ? base : -base, upper ? 'E' : 'e', positive, iexp));
+    }
+
+    private static StringBuilder appendDecimal(StringBuilder buf, double val, char expChar, boolean expPositive,
+        int exp)
+    {
+        int precision = PRECISION;
+
+        if (!(val >= 0)) {
+            buf.append('-');
+            val = -val;
+        }
+
+        double whole = Math.floor(val);
+        double frac = (val - whole) * POWER;
+        long tail = Math.round(frac);
+
+        if (tail >= POWER) {
+            whole += 1;
+            tail = 0;
+        }
+        buf.append((long) whole);
+        if (tail == 0) {
+            if (expChar != 0) {
+                buf.append(".0");
+            }
+        } else {
+            while (tail % 10 == 0) {
+                tail /= 10;
+                precision--;
+            }
+            buf.append('.');
+            if (precision > 0 && (POWER / 10) > frac) {
+                for (long limit = 10; precision > 1; precision--, limit *= 10) {
+                    if (tail < limit) {
+                        buf.append('0');
+                    }
+                }
+            }
+            buf.append(tail);
+        }
+        if (expChar != 0) {
+            buf.append(expChar);
+            buf.append(expPositive ? '+' : '-');
+            if (exp < 10) {
+                buf.append('0');
+            }
+            buf.append(exp);
+        }
+        return buf;
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    //
+    // Private methods
+    //
+    // /////////////////////////////////////////////////////////////////////////
+
+    private static boolean isConversion(char ch)
+    {
+        switch (ch) {
+            case 'b':
+            case 'B':
+            case 'c':
+            case 'd':
+            case 'o':
+            case 'p':
+            case 'P':
+            case 'x':
+            case 'X':
+            case 'e':
+            case 'E':
+            case 'f':
+            case 'g':
+            case 'G':
+            case 's':
+                return true;
+        }
+        return false;
+    }
+
+    private static int specFlags(char[] fmt, int n)
+    {
+        int bits = 0;
+
+        for (; n < fmt.length; n++) {
+            switch (fmt[n]) {
+                case '-':
+                    bits |= FLAG_RIGHTPAD;
+                    break;
+                case '+':
+                    bits |= FLAG_SIGN;
+                    break;
+                case ' ':
+                    bits |= FLAG_SPACE;
+                    break;
+                case '0':
+                    bits |= FLAG_ZEROPAD;
+                    break;
+                case '#':
+                    bits |= FLAG_ALTERNATE;
+                    break;
+                default:
+                    return bits;
+            }
+        }
+        return bits;
+    }
+}
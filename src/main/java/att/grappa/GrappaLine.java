@@ -175,7 +175,7 @@ public boolean startsNear(Point2D pt)
      */
     public String toAttributeString()
     {
-        return (toFormattedString("%p"));
+        return (toFormattedString(GrappaFormat.getFormat("%p")));
     }
 
     /**
@@ -186,14 +186,27 @@ public String toAttributeString()
      * @return a string representation of this GrappaLine.
      */
     public String toFormattedString(String pointFormat)
+    {
+        return (toFormattedString(GrappaFormat.getFormat(pointFormat)));
+    }
+
+    /**
+     * Provides a formatted string representation of this object.
+     *
+     * @param pointFormat the compiled format to use for each point in the line
+     * @return a string representation of this GrappaLine.
+     */
+    public String toFormattedString(GrappaFormat pointFormat)
     {
         int ps = 0;
         int pe = this.gpts.length - 1;
         boolean spacer = false;
-        StringBuilder buf = new StringBuilder();
+        StringBuilder buf = new StringBuilder(16 * this.gpts.length);
+        Object[] args = new Object[1];
         if ((this.arrow & HEAD_ARROW_EDGE) != 0) {
             buf.append("s,");
-            buf.append(this.gpts[ps++].toFormattedString(pointFormat));
+            args[0] = this.gpts[ps++];
+            pointFormat.format(buf, args);
             spacer = true;
         }
         if ((this.arrow & TAIL_ARROW_EDGE) != 0) {
@@ -203,7 +216,8 @@ public String toFormattedString(String pointFormat)
                 buf.append("e,");
                 spacer = true;
             }
-            buf.append(this.gpts[pe--].toFormattedString(pointFormat));
+            args[0] = this.gpts[pe--];
+            pointFormat.format(buf, args);
         }
         while (ps <= pe) {
             if (spacer) {
@@ -211,7 +225,8 @@ public String toFormattedString(String pointFormat)
             } else {
                 spacer = true;
             }
-            buf.append(this.gpts[ps++].toFormattedString(pointFormat));
+            args[0] = this.gpts[ps++];
+            pointFormat.format(buf, args);
         }
         return (buf.toString());
     }
@@ -359,7 +374,7 @@ private void updateLine(String curve)
         }
         pts = 0;
         if (curve.charAt(i) == 's') {
-            grpts[pts++] = new GrappaPoint(curve.substring(i + 2, j));
+            grpts[pts++] = new GrappaPoint(curve, i + 2, j);
             for (i = ++j; i < len; i++) {
                 if (curve.charAt(i) != ' ') {
                     break;
@@ -373,7 +388,7 @@ private void updateLine(String curve)
             }
         }
         if (curve.charAt(i) == 'e') {
-            grpts[grpts.length - 1] = new GrappaPoint(curve.substring(i + 2, j));
+            grpts[grpts.length - 1] = new GrappaPoint(curve, i + 2, j);
             for (i = ++j; i < len; i++) {
                 if (curve.charAt(i) != ' ') {
                     break;
@@ -387,7 +402,7 @@ private void updateLine(String curve)
             }
         }
         if (curve.charAt(i) == 's') {
-            grpts[pts++] = new GrappaPoint(curve.substring(i + 2, j));
+            grpts[pts++] = new GrappaPoint(curve, i + 2, j);
             for (i = ++j; i < len; i++) {
                 if (curve.charAt(i) != ' ') {
                     break;
@@ -401,7 +416,7 @@ private void updateLine(String curve)
             }
         }
         while (i < len) {
-            grpts[pts++] = new GrappaPoint(curve.substring(i, j));
+            grpts[pts++] = new GrappaPoint(curve, i, j);
             for (i = ++j; i < len; i++) {
                 if (curve.charAt(i) != ' ') {
                     break;
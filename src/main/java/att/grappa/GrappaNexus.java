@@ -16,6 +16,8 @@
 import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.Ellipse2D;
@@ -30,7 +32,6 @@
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.net.URL;
-import java.util.Observer;
 
 /**
  * This class brings together shape, text and attribute information related to bounding and drawing an element.
@@ -39,7 +40,7 @@
  * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
  *         AT&T Labs</a>
  */
-public class GrappaNexus implements GrappaConstants, Cloneable, ImageObserver, Observer, Shape
+public class GrappaNexus implements GrappaConstants, Cloneable, ImageObserver, AttributeListener, Shape
 {
     /**
      * RoundRectangle arc height factor
@@ -51,6 +52,54 @@ public class GrappaNexus implements GrappaConstants, Cloneable, ImageObserver, O
      */
     public static double arcWidthFactor = 0.05;
 
+    // what to update when an attribute of interest changes, indexed by attribute id (one table per element type)
+    private static final byte UPDATE_NONE = 0;
+
+    private static final byte UPDATE_SHAPE = 1;
+
+    private static final byte UPDATE_TEXT = 2;
+
+    private static final byte UPDATE_STYLE = 3;
+
+    private static final byte UPDATE_DECORATION = 4;
+
+    private static final byte UPDATE_IMAGE = 5;
+
+    private static final byte UPDATE_BBOX = 6;
+
+    // text, unless node labels are positioned automatically
+    private static final byte UPDATE_NODE_LP = 7;
+
+    private static byte[] nodeUpdates = new byte[0];
+
+    private static byte[] edgeUpdates = new byte[0];
+
+    private static byte[] subgraphUpdates = new byte[0];
+
+    static {
+        nodeUpdates = setUpdate(nodeUpdates, UPDATE_SHAPE, POS_ATTR, WIDTH_ATTR, HEIGHT_ATTR, SHAPE_ATTR,
+            DISTORTION_ATTR, ORIENTATION_ATTR, PERIPHERIES_ATTR, SIDES_ATTR, SKEW_ATTR);
+        nodeUpdates = setUpdate(nodeUpdates, UPDATE_TEXT, LABEL_ATTR, FONTSIZE_ATTR, FONTNAME_ATTR, FONTSTYLE_ATTR);
+        nodeUpdates = setUpdate(nodeUpdates, UPDATE_NODE_LP, LP_ATTR);
+        nodeUpdates = setUpdate(nodeUpdates, UPDATE_STYLE, STYLE_ATTR);
+        nodeUpdates = setUpdate(nodeUpdates, UPDATE_DECORATION, COLOR_ATTR, FONTCOLOR_ATTR);
+        nodeUpdates = setUpdate(nodeUpdates, UPDATE_IMAGE, IMAGE_ATTR);
+
+        edgeUpdates = setUpdate(edgeUpdates, UPDATE_SHAPE, POS_ATTR);
+        edgeUpdates = setUpdate(edgeUpdates, UPDATE_TEXT, LABEL_ATTR, LP_ATTR, HEADLABEL_ATTR, HEADLP_ATTR,
+            TAILLABEL_ATTR, TAILLP_ATTR, FONTSIZE_ATTR, FONTNAME_ATTR, FONTSTYLE_ATTR);
+        edgeUpdates = setUpdate(edgeUpdates, UPDATE_STYLE, STYLE_ATTR);
+        edgeUpdates = setUpdate(edgeUpdates, UPDATE_DECORATION, COLOR_ATTR, DIR_ATTR, FONTCOLOR_ATTR);
+        edgeUpdates = setUpdate(edgeUpdates, UPDATE_IMAGE, IMAGE_ATTR);
+
+        subgraphUpdates = setUpdate(subgraphUpdates, UPDATE_TEXT, LABEL_ATTR, LP_ATTR, FONTSIZE_ATTR, FONTNAME_ATTR,
+            FONTSTYLE_ATTR);
+        subgraphUpdates = setUpdate(subgraphUpdates, UPDATE_STYLE, STYLE_ATTR);
+        subgraphUpdates = setUpdate(subgraphUpdates, UPDATE_DECORATION, COLOR_ATTR, FONTCOLOR_ATTR);
+        subgraphUpdates = setUpdate(subgraphUpdates, UPDATE_IMAGE, IMAGE_ATTR);
+        subgraphUpdates = setUpdate(subgraphUpdates, UPDATE_BBOX, MINBOX_ATTR, MINSIZE_ATTR);
+    }
+
     static {
         if (Grappa.toolkit == null) {
             try {
@@ -70,6 +119,9 @@ public class GrappaNexus implements GrappaConstants, Cloneable, ImageObserver, O
 
     GrappaStyle style = null;
 
+    // the style whose font style was last passed on to the fontstyle attribute
+    private GrappaStyle fontStyleSource = null;
+
     Color fillcolor = null;
 
     Color color = null;
@@ -121,12 +173,29 @@ public class GrappaNexus implements GrappaConstants, Cloneable, ImageObserver, O
 
     private long lastImageUpdate = 0;
 
+    // updates deferred by an open GraphBatch, one bit per update code
+    private int deferred = 0;
+
+    // the parts of the nexus not computed yet: the geometry (style, shape and text) is needed
+    // for bounds and hit testing, the paint (decoration and image) only for drawing
+    private static final int GEOMETRY = 1;
+
+    private static final int PAINT = 2;
+
+    private int stale = 0;
+
+    // set while stale parts are being computed
+    private boolean validating = false;
+
     Font font = null;
 
     String[] lstr = null;
 
     GrappaPoint[] lpos = null;
 
+    // layouts for the label lines that need them, made the first time they are drawn
+    private LabelLayouts layouts = null;
+
     Color font_color = null;
 
     // fix winding rule at instantiation time
@@ -139,14 +208,16 @@ public class GrappaNexus implements GrappaConstants, Cloneable, ImageObserver, O
     // //////////////////////////////////////////////////////////////////////
 
     /**
-     * Constructs a new <code>GrappaNexus</code> object from an element.
+     * Constructs a new <code>GrappaNexus</code> object from an element. Nothing is computed until it is first needed:
+     * the style, shape and text when the bounds are asked for or the nexus is hit tested, the decoration and image
+     * when it is drawn.
      *
      * @param elem the <code>Element</code> needing a <code>GrappaNexus</code> object.
      */
     public GrappaNexus(Element elem)
     {
         this.element = elem;
-        rebuild();
+        this.stale = GEOMETRY | PAINT;
     }
 
     // //////////////////////////////////////////////////////////////////////
@@ -172,6 +243,7 @@ public Element getElement()
      */
     public Image getImage()
     {
+        validate(GEOMETRY | PAINT);
         return this.image;
     }
 
@@ -183,6 +255,7 @@ public Image getImage()
      */
     public boolean isImageLoading()
     {
+        validate(GEOMETRY | PAINT);
         return this.imageLoading;
     }
 
@@ -207,11 +280,68 @@ public int getWindingRule()
      */
     public void rebuild()
     {
+        if (this.element != null && this.element.getGraph() != null) {
+            this.element.getGraph().contentVersion.incrementAndGet();
+        }
         updateStyle();
         updateDecoration();
         updateShape();
         updateText();
         updateImage();
+        this.stale = 0;
+    }
+
+    /**
+     * Compute whichever of the supplied parts of this GrappaNexus have not been computed yet. The geometry is computed
+     * in the order used by <code>rebuild</code>; the decoration follows it, but the arrowheads of an edge are left as
+     * given by its <I>pos</I> attribute, just as when the decoration preceded the shape.
+     *
+     * @param parts GEOMETRY, PAINT or both (PAINT implies GEOMETRY)
+     */
+    private void validate(int parts)
+    {
+        int todo = parts & this.stale;
+
+        if (todo == 0 || this.validating) {
+            return;
+        }
+        if ((todo & PAINT) != 0) {
+            todo |= this.stale & GEOMETRY;
+        }
+
+        this.validating = true;
+        try {
+            if ((todo & GEOMETRY) != 0) {
+                updateStyle();
+                updateShape();
+                updateText();
+                this.stale &= ~GEOMETRY;
+            }
+            if ((todo & PAINT) != 0) {
+                updateDecoration(false);
+                updateImage();
+                this.stale &= ~PAINT;
+            }
+        } finally {
+            this.validating = false;
+        }
+    }
+
+    /**
+     * Compute all parts of this GrappaNexus that have not been computed yet, as is needed before drawing it.
+     */
+    void validate()
+    {
+        validate(GEOMETRY | PAINT);
+    }
+
+    /**
+     * Compute the style, shape and text of this GrappaNexus if they have not been computed yet, as is needed before
+     * its bounding box can be used.
+     */
+    void validateGeometry()
+    {
+        validate(GEOMETRY);
     }
 
     /**
@@ -234,31 +364,20 @@ public void updateShape()
 
                 Node node = (Node) this.element;
                 GrappaPoint pos = (GrappaPoint) node.getAttributeValue(POS_ATTR);
-                Double Width = (Double) node.getAttributeValue(WIDTH_ATTR);
-                Double Height = (Double) node.getAttributeValue(HEIGHT_ATTR);
-                Integer Type = (Integer) node.getAttributeValue(SHAPE_ATTR);
-
-                double width = PointsPerInch * Width.doubleValue();
-                double height = PointsPerInch * Height.doubleValue();
-                int type = Type.intValue();
+                double width = PointsPerInch * node.getDoubleAttribute(WIDTH_ATTR, 0);
+                double height = PointsPerInch * node.getDoubleAttribute(HEIGHT_ATTR, 0);
+                int type = node.getIntAttribute(SHAPE_ATTR, 0);
 
                 // the above attributes are sure to be there since they are defaulted,
-                // but these could return null values, so be sure to account for that
-                Integer Peripheries = (Integer) node.getAttributeValue(PERIPHERIES_ATTR);
-                Integer Sides = (Integer) node.getAttributeValue(SIDES_ATTR);
-                Double Distortion = (Double) node.getAttributeValue(DISTORTION_ATTR);
-                Double Skew = (Double) node.getAttributeValue(SKEW_ATTR);
-                Double Orientation = (Double) node.getAttributeValue(ORIENTATION_ATTR);
-                Double Rotation = (Double) node.getAttributeValue(ROTATION_ATTR);
-
-                int peripheries = Peripheries == null ? -1 : Peripheries.intValue();
-                int sides = Sides == null ? -1 : Sides.intValue();
-                double distortion = Distortion == null ? 0 : Distortion.doubleValue();
-                double skew = Skew == null ? 0 : Skew.doubleValue();
-                double orientation = Orientation == null ? 0 : Orientation.doubleValue();
-                double rotation = Rotation == null ? 0 : Rotation.doubleValue();
-
-                if (Orientation != null && orientation != 0 && Grappa.orientationInDegrees) {
+                // but these could be missing, so be sure to account for that
+                int peripheries = node.getIntAttribute(PERIPHERIES_ATTR, -1);
+                int sides = node.getIntAttribute(SIDES_ATTR, -1);
+                double distortion = node.getDoubleAttribute(DISTORTION_ATTR, 0);
+                double skew = node.getDoubleAttribute(SKEW_ATTR, 0);
+                double orientation = node.getDoubleAttribute(ORIENTATION_ATTR, 0);
+                double rotation = node.getDoubleAttribute(ROTATION_ATTR, 0);
+
+                if (orientation != 0 && Grappa.orientationInDegrees) {
                     orientation = Math.PI * orientation / 180.0;
                 }
 
@@ -316,11 +435,11 @@ public void updateShape()
                         this.shapeType = CUSTOM_SHAPE;
                         break;
                     case BOX_SHAPE:
-                        if ((Distortion == null || distortion == 0)
+                        if ((distortion == 0)
                             &&
-                            (Skew == null || skew == 0)
+                            (skew == 0)
                             &&
-                            (Orientation == null || orientation == 0)) {
+                            (orientation == 0)) {
                             this.shapeType = BOX_SHAPE;
                             if (Grappa.centerPointNodes) {
                                 this.shape =
@@ -328,7 +447,7 @@ public void updateShape()
                             } else {
                                 this.shape = new Rectangle2D.Double(pos.x, pos.y, width, height);
                             }
-                            if (Peripheries != null && peripheries > 1) {
+                            if (peripheries > 1) {
                                 path = new GeneralPath(this.shape);
                                 for (int i = 1; i < peripheries; i++) {
                                     if (Grappa.centerPointNodes) {
@@ -375,11 +494,11 @@ public void updateShape()
                         }
                         break;
                     case ROUNDEDBOX_SHAPE:
-                        if ((Distortion == null || distortion == 0)
+                        if ((distortion == 0)
                             &&
-                            (Skew == null || skew == 0)
+                            (skew == 0)
                             &&
-                            (Orientation == null || orientation == 0)) {
+                            (orientation == 0)) {
                             this.shapeType = ROUNDEDBOX_SHAPE;
                             if (Grappa.centerPointNodes) {
                                 this.shape =
@@ -390,7 +509,7 @@ public void updateShape()
                                     new RoundRectangle2D.Double(pos.x, pos.y, width, height, arcWidthFactor * width,
                                         arcHeightFactor * height);
                             }
-                            if (Peripheries != null && peripheries > 1) {
+                            if (peripheries > 1) {
                                 path = new GeneralPath(this.shape);
                                 for (int i = 1; i < peripheries; i++) {
                                     if (Grappa.centerPointNodes) {
@@ -441,11 +560,11 @@ public void updateShape()
                         }
                         break;
                     case OVAL_SHAPE:
-                        if ((Distortion == null || distortion == 0)
+                        if ((distortion == 0)
                             &&
-                            (Skew == null || skew == 0)
+                            (skew == 0)
                             &&
-                            (Orientation == null || orientation == 0)) {
+                            (orientation == 0)) {
                             this.shapeType = OVAL_SHAPE;
                             if (Grappa.centerPointNodes) {
                                 this.shape =
@@ -453,7 +572,7 @@ public void updateShape()
                             } else {
                                 this.shape = new Ellipse2D.Double(pos.x, pos.y, width, height);
                             }
-                            if (Peripheries != null && peripheries > 1) {
+                            if (peripheries > 1) {
                                 path = new GeneralPath(this.shape);
                                 for (int i = 1; i < peripheries; i++) {
                                     if (Grappa.centerPointNodes) {
@@ -559,7 +678,7 @@ public void updateShape()
 
                 // handle rotation (rotation just spins the node,
                 // orientation spins it within a fixed bounding box
-                if (Rotation != null && rotation != 0 && this.shape != null) {
+                if (rotation != 0 && this.shape != null) {
                     double theta = rotation;
                     if (Grappa.rotationInDegrees) {
                         theta = Math.PI * theta / 180.0;
@@ -583,11 +702,9 @@ public void updateShape()
                 }
 
                 if ((this.shape = (Shape) edge.getAttributeValue(POS_ATTR)) == null) {
-                    Integer attr_type = (Integer) (edge.getAttributeValue(DIR_ATTR));
-
                     edge.direction =
-                        (attr_type != null ? attr_type.intValue() : (edge.getGraph().isDirected()
-                            ? GrappaLine.TAIL_ARROW_EDGE : GrappaLine.NONE_ARROW_EDGE));
+                        edge.getIntAttribute(DIR_ATTR, edge.getGraph().isDirected() ? GrappaLine.TAIL_ARROW_EDGE
+                            : GrappaLine.NONE_ARROW_EDGE);
 
                     // create a default straight line connecting the two
                     // node centers
@@ -678,12 +795,13 @@ public void updateStyle()
             throw new InternalError("style defaults not properly set in Graph.java");
         }
 
-        // an attempt to handle font info passed via style instead of fontstyle
-        if (this.style.font_style != null
-            &&
-            this.style.font_style != (Integer) this.element.getAttributeValue(FONTSTYLE_ATTR)) {
-            this.element.setAttribute(FONTSTYLE_ATTR, this.style.font_style);
-            this.style.font_style = null;
+        // an attempt to handle font info passed via style instead of fontstyle; styles are shared and
+        // cannot be changed, so remember which style last supplied it rather than clearing it there
+        if (this.style.font_style != null && this.style != this.fontStyleSource) {
+            this.fontStyleSource = this.style;
+            if (!this.style.font_style.equals(this.element.getAttributeValue(FONTSTYLE_ATTR))) {
+                this.element.setAttribute(FONTSTYLE_ATTR, this.style.font_style);
+            }
         }
         this.lastUpdate = this.lastStyleUpdate = thisStyleUpdate;
     }
@@ -771,20 +889,20 @@ public void updateText()
             if (hasEdgeLabel || labelAttr.length() > 0) {
 
                 String fontname = (String) this.element.getAttributeValue(FONTNAME_ATTR);
-                Integer fontstyle = (Integer) this.element.getAttributeValue(FONTSTYLE_ATTR);
-                Integer fontsize = (Integer) this.element.getAttributeValue(FONTSIZE_ATTR);
-                Integer fontadj =
-                    (Integer) (this.element.getGraph()).getGrappaAttributeValue(GRAPPA_FONTSIZE_ADJUSTMENT_ATTR);
+                int fontstyle = this.element.getIntAttribute(FONTSTYLE_ATTR, Font.PLAIN);
+                int fontsize = this.element.getIntAttribute(FONTSIZE_ATTR, 0);
+                Attribute fontadj = (this.element.getGraph()).getGrappaAttribute(GRAPPA_FONTSIZE_ADJUSTMENT_ATTR);
 
                 // set font
-                tfont = new Font(fontname, fontstyle.intValue(), fontsize.intValue() + fontadj.intValue());
+                tfont =
+                    FontTable.getFont(fontname, fontstyle, fontsize + (fontadj == null ? 0 : fontadj.getIntValue(0)));
 
                 int lines;
                 int i;
                 char[] array;
                 int[] justification;
                 Rectangle2D[] bnds;
-                java.awt.font.LineMetrics[] mtrc;
+                java.awt.font.FontRenderContext frc;
                 int start;
                 char ch;
                 double wdinfo, htinfo;
@@ -907,7 +1025,7 @@ public void updateText()
                         }
                         justification = new int[lines];
                         bnds = new Rectangle2D[lines];
-                        mtrc = new java.awt.font.LineMetrics[lines];
+                        frc = this.element.getGraph().getFontRenderContext();
 
                         // now extract lines and justification info
                         lines = 0;
@@ -921,10 +1039,7 @@ public void updateText()
                                 &&
                                 ((ch = array[i]) == 'l' || array[i] == 'r' || array[i] == 'n')) {
                                 tstr[offset + lines] = new String(array, start, i - 1 - start);
-                                bnds[lines] =
-                                    tfont.getStringBounds(tstr[offset + lines], this.element.getGraph().REFCNTXT);
-                                mtrc[lines] =
-                                    tfont.getLineMetrics(tstr[offset + lines], this.element.getGraph().REFCNTXT);
+                                bnds[lines] = FontTable.getStringBounds(tfont, tstr[offset + lines], frc);
                                 if (bnds[lines].getWidth() > wdinfo) {
                                     wdinfo = bnds[lines].getWidth();
                                 }
@@ -942,8 +1057,7 @@ public void updateText()
                         }
                         if (start < array.length) {
                             tstr[offset + lines] = new String(array, start, array.length - start);
-                            bnds[lines] = tfont.getStringBounds(tstr[offset + lines], this.element.getGraph().REFCNTXT);
-                            mtrc[lines] = tfont.getLineMetrics(tstr[offset + lines], this.element.getGraph().REFCNTXT);
+                            bnds[lines] = FontTable.getStringBounds(tfont, tstr[offset + lines], frc);
                             if (bnds[lines].getWidth() > wdinfo) {
                                 wdinfo = bnds[lines].getWidth();
                             }
@@ -1020,6 +1134,7 @@ public void updateText()
         this.font = tfont;
         this.lpos = tpos;
         this.lstr = tstr;
+        this.layouts = null;
         this.textArea = area;
         bboxCheckSet();
         this.lastUpdate = this.lastTextUpdate = thisTextUpdate;
@@ -1030,6 +1145,12 @@ public void updateText()
      * are examined. For edges, the <I>dir</I> attribute is examined.
      */
     public void updateDecoration()
+    {
+        updateDecoration(true);
+    }
+
+    // the arrowheads of an edge are reconciled with its dir attribute only when arrows is true
+    private void updateDecoration(boolean arrows)
     {
         long thisDecorationUpdate = System.currentTimeMillis();
         this.color = (Color) (this.element.getAttributeValue(COLOR_ATTR));
@@ -1043,13 +1164,13 @@ public void updateDecoration()
         }
 
         this.font_color = (Color) (this.element.getAttributeValue(FONTCOLOR_ATTR));
-        if (this.element.isEdge() && this.shape != null && this.shape instanceof GrappaLine) {
+        if (arrows && this.element.isEdge() && this.shape != null && this.shape instanceof GrappaLine) {
             Edge edge = (Edge) this.element;
             int graph_dir = edge.getGraph().isDirected() ? GrappaLine.TAIL_ARROW_EDGE : GrappaLine.NONE_ARROW_EDGE;
             int dir = graph_dir;
-            Integer attr_type = (Integer) (edge.getThisAttributeValue(DIR_ATTR));
+            Attribute attr_type = edge.getThisAttribute(DIR_ATTR);
             if (attr_type != null) {
-                dir = attr_type.intValue();
+                dir = attr_type.getIntValue(dir);
             }
 
             edge.direction = dir;
@@ -1154,6 +1275,9 @@ public final boolean imageUpdate(Image image, int flags, int x, int y, int width
                 ret = false;
                 this.image = image;
                 this.imageLoading = false;
+                if (this.element != null && this.element.getGraph() != null) {
+                    this.element.getGraph().contentVersion.incrementAndGet();
+                }
                 notifyAll();
             } else if ((flags & (ABORT | ERROR)) != 0) {
                 ret = false;
@@ -1196,13 +1320,19 @@ private void bboxCheckSet()
             (oldbox != null && newbox == null)
             ||
             (newbox != null && !newbox.equals(oldbox))) {
-            // bounding box has changed so null out existing bboxes of enclosing subgraphs
-            Subgraph prnt = this.element.getSubgraph();
-            while (prnt != null) {
-                if (prnt.grappaNexus != null) {
-                    prnt.grappaNexus.bbox = null;
+            // bounding box has changed so null out existing bboxes of enclosing subgraphs,
+            // leaving it to the batch, if any, to do so once for all its changes
+            GraphBatch batch = this.element.getGraph().batch;
+            if (batch != null) {
+                batch.boundsChanged(this.element);
+            } else {
+                Subgraph prnt = this.element.getSubgraph();
+                while (prnt != null) {
+                    if (prnt.grappaNexus != null) {
+                        prnt.grappaNexus.bbox = null;
+                    }
+                    prnt = prnt.getSubgraph();
                 }
-                prnt = prnt.getSubgraph();
             }
 
             // commit
@@ -1227,6 +1357,7 @@ private void bboxCheckSet()
     @Override
     public Object clone()
     {
+        validate();
         try {
             GrappaNexus copy = (GrappaNexus) super.clone();
             if (this.shape != null) {
@@ -1266,6 +1397,8 @@ public boolean contains(double x, double y)
 
         boolean contains = false;
 
+        validate(GEOMETRY);
+
         if (this.shape != null) {
             contains = this.shape.contains(x, y);
         }
@@ -1291,6 +1424,8 @@ public boolean contains(double x, double y, double width, double height)
 
         boolean contains = false;
 
+        validate(GEOMETRY);
+
         if (this.shape != null) {
             contains = this.shape.contains(x, y, width, height);
         }
@@ -1335,6 +1470,8 @@ public Rectangle getBounds()
     public Rectangle2D getBounds2D()
     {
 
+        validate(GEOMETRY);
+
         if (this.dirty) {
             this.bbox = null;
             updateShape();
@@ -1370,6 +1507,8 @@ public Rectangle2D getBounds2D()
     Rectangle2D rawBounds2D()
     {
 
+        validate(GEOMETRY);
+
         if (this.dirty) {
             this.bbox = null;
             updateShape();
@@ -1399,6 +1538,27 @@ Rectangle2D rawBounds2D()
         return (this.bbox);
     }
 
+    // the area drawn for the element, label and outline included, or null if it has never been laid out (see
+    // Graph.damage)
+    Rectangle2D drawnBounds2D()
+    {
+        Rectangle2D box;
+        double pad;
+
+        if ((this.stale & GEOMETRY) != 0) {
+            return (null);
+        }
+        box = rawBounds2D();
+        if (this.textArea != null) {
+            box = box.createUnion(this.textArea.getBounds2D());
+        } else {
+            box = box.getBounds2D();
+        }
+        pad = (this.style == null ? 0 : this.style.line_width);
+        box.setRect(box.getX() - pad, box.getY() - pad, box.getWidth() + 2 * pad, box.getHeight() + 2 * pad);
+        return (box);
+    }
+
     /**
      * Equivalent to <TT>getPathIterator(null)</TT>.
      *
@@ -1406,18 +1566,21 @@ Rectangle2D rawBounds2D()
      */
     public PathIterator getPathIterator()
     {
+        validate(GEOMETRY);
         return new GrappaPathIterator(this, null);
     }
 
     @Override
     public PathIterator getPathIterator(AffineTransform at)
     {
+        validate(GEOMETRY);
         return new GrappaPathIterator(this, at);
     }
 
     @Override
     public PathIterator getPathIterator(AffineTransform at, double flatness)
     {
+        validate(GEOMETRY);
         return new FlatteningPathIterator(new GrappaPathIterator(this, at), flatness);
     }
 
@@ -1427,6 +1590,8 @@ public boolean intersects(double x, double y, double width, double height)
 
         boolean intersects = false;
 
+        validate(GEOMETRY);
+
         if (this.shape != null) {
             intersects = this.shape.intersects(x, y, width, height);
         }
@@ -1455,205 +1620,188 @@ public boolean intersects(Rectangle2D r)
 
     // //////////////////////////////////////////////////////////////////////
     //
-    // Observer interface
+    // AttributeListener interface
     //
     // //////////////////////////////////////////////////////////////////////
 
     /**
-     * This method is called whenever the observed object is changed. When certain observed attributes (attributes of
-     * interest) are changed, this method will update the GrappaNexus as needed.
+     * This method is called by the underlying element whenever one of its attributes of interest is changed. It will
+     * update the GrappaNexus as needed.
      *
-     * @param obs the Observable must be an Attribute
-     * @param arg either a Long giving the update time of the Attribute as returned by System.getTimeInMillis() or it is
-     *            a two element Object array, where the first element is a new Attribute to be observed in place of that
-     *            passed via <I>obs</I> and the second element is the update time of this new Attribute.
+     * @param elem the element whose attribute changed (the underlying element)
+     * @param attr the attribute now in effect for the element
+     * @param when the update time of the attribute as returned by System.currentTimeMillis()
      */
     @Override
-    public void update(java.util.Observable obs, Object arg)
+    public void attributeChanged(Element elem, Attribute attr, long when)
     {
-
-        // begin boilerplate
-        if (!(obs instanceof Attribute)) {
-            throw new IllegalArgumentException("expected to be observing attributes only (obs) for \""
-                + this.element.getName() + "\"");
+        // this method will see what has been updated and set flags
+        // in this object so that the appropriate parts will be updated
+        // before any drawing occurs.
+        long thisUpdate = when + 1L;
+        int id = attr.getNameId();
+        byte[] updates;
+        byte update;
+
+        if (this.element == null || !this.element.reserve()) {
+            return;
         }
-        Attribute attr = (Attribute) obs;
-        if (arg instanceof Object[]) {
-            Object[] args = (Object[]) arg;
-            if (args.length == 2 && args[0] instanceof Attribute && args[1] instanceof Long) {
-                attr.deleteObserver(this);
-                attr = (Attribute) args[0];
-                attr.addObserver(this);
-                // in case we call: super.update(obs,arg)
-                obs = attr;
-                arg = args[1];
-            } else {
-                throw new IllegalArgumentException("badly formated update information for \"" + this.element.getName()
-                    + "\"");
-            }
-        }
-        // end boilerplate
+        try {
+            // reset
+            this.objs = null;
 
-        // when this object is created it should register with the
-        // appropriate Attributes based on how it was created;
-        // this method will then see what has been updated
-        // and set flags in this object (and put tokens in an update
-        // stack in Graph is autoUpdate is true) so that the appropriate
-        // parts will be updated before any drawing occurs.
-        if (arg instanceof Long) {
+            switch (this.element.getType()) {
+                case NODE:
+                    updates = nodeUpdates;
+                    break;
+                case EDGE:
+                    updates = edgeUpdates;
+                    break;
+                default:
+                    updates = subgraphUpdates;
+                    break;
+            }
+            update = (id < updates.length ? updates[id] : UPDATE_NONE);
+            if (update == UPDATE_NODE_LP) {
+                update = Grappa.autoPositionNodeLabel ? UPDATE_NONE : UPDATE_TEXT;
+            }
+            if (update != UPDATE_NONE) {
+                this.element.getGraph().contentVersion.incrementAndGet();
+            }
 
-            String attrName = attr.getName();
-            int attrHash = attr.getNameHash();
-            long thisUpdate = ((Long) arg).longValue() + 1L;
+            // parts not computed yet will pick up the change when they are
+            switch (update) {
+                case UPDATE_SHAPE:
+                case UPDATE_TEXT:
+                case UPDATE_STYLE:
+                    if ((this.stale & GEOMETRY) != 0) {
+                        return;
+                    }
+                    break;
+                case UPDATE_DECORATION:
+                    if (this.element.isEdge()) {
+                        // the arrowheads are reconciled with the current shape at the time of the change
+                        validate(GEOMETRY);
+                    } else if ((this.stale & PAINT) != 0) {
+                        return;
+                    }
+                    break;
+                case UPDATE_IMAGE:
+                    if ((this.stale & PAINT) != 0) {
+                        return;
+                    }
+                    break;
+            }
 
-            if (this.element == null || !this.element.reserve()) {
+            GraphBatch batch = this.element.getGraph().batch;
+            if (batch != null && batch.isDeferring() && update != UPDATE_NONE) {
+                if (this.deferred == 0) {
+                    batch.defer(this);
+                }
+                this.deferred |= 1 << update;
                 return;
             }
 
-            // reset
-            this.objs = null;
+            // what was drawn before the change needs repainting as well as what is drawn after it
+            this.element.getGraph().damage(this.element);
 
-            switch (this.element.getType()) {
-                case NODE:
-                    if ((POS_HASH == attrHash && POS_ATTR.equals(attrName))
-                        ||
-                        (WIDTH_HASH == attrHash && WIDTH_ATTR.equals(attrName))
-                        ||
-                        (HEIGHT_HASH == attrHash && HEIGHT_ATTR.equals(attrName))
-                        ||
-                        (SHAPE_HASH == attrHash && SHAPE_ATTR.equals(attrName))) {
-                        if (this.lastShapeUpdate < thisUpdate) {
-                            updateShape();
-                            if (Grappa.autoPositionNodeLabel) {
-                                updateText();
-                            }
-                        }
-                    } else if ((LABEL_HASH == attrHash && LABEL_ATTR.equals(attrName))
-                        ||
-                        (
-                        !Grappa.autoPositionNodeLabel
-                        &&
-                        (LP_HASH == attrHash && LP_ATTR.equals(attrName)) // in case it is used
-                        )
-                        ||
-                        (FONTSIZE_HASH == attrHash && FONTSIZE_ATTR.equals(attrName))
-                        ||
-                        (FONTNAME_HASH == attrHash && FONTNAME_ATTR.equals(attrName))
-                        ||
-                        (FONTSTYLE_HASH == attrHash && FONTSTYLE_ATTR.equals(attrName))) {
-                        if (this.lastTextUpdate < thisUpdate) {
+            switch (update) {
+                case UPDATE_SHAPE:
+                    if (this.lastShapeUpdate < thisUpdate) {
+                        updateShape();
+                        if (this.element.isNode() && Grappa.autoPositionNodeLabel) {
                             updateText();
                         }
-                    } else if ((STYLE_HASH == attrHash && STYLE_ATTR.equals(attrName))) {
-                        if (this.lastStyleUpdate < thisUpdate) {
-                            updateStyle();
-                        }
-                    } else if ((COLOR_HASH == attrHash && COLOR_ATTR.equals(attrName))
-                        ||
-                        (FONTCOLOR_HASH == attrHash && FONTCOLOR_ATTR.equals(attrName))) {
-                        if (this.lastDecorationUpdate < thisUpdate) {
-                            updateDecoration();
-                        }
-                    } else if ((IMAGE_HASH == attrHash && IMAGE_ATTR.equals(attrName))) {
-                        if (this.lastImageUpdate < thisUpdate) {
-                            updateImage();
-                        }
-                    } else {
-                        throw new InternalError("update called for \"" + this.element.getName()
-                            + "\" with an unmonitored attribute: " + attrName);
                     }
                     break;
-                case EDGE:
-                    if ((POS_HASH == attrHash && POS_ATTR.equals(attrName))) {
-                        if (this.lastShapeUpdate < thisUpdate) {
-                            updateShape();
-                        }
-                    } else if ((LABEL_HASH == attrHash && LABEL_ATTR.equals(attrName))
-                        ||
-                        (LP_HASH == attrHash && LP_ATTR.equals(attrName))
-                        ||
-                        (HEADLABEL_HASH == attrHash && HEADLABEL_ATTR.equals(attrName))
-                        ||
-                        (HEADLP_HASH == attrHash && HEADLP_ATTR.equals(attrName))
-                        ||
-                        (TAILLABEL_HASH == attrHash && TAILLABEL_ATTR.equals(attrName))
-                        ||
-                        (TAILLP_HASH == attrHash && TAILLP_ATTR.equals(attrName))
-                        ||
-                        (FONTSIZE_HASH == attrHash && FONTSIZE_ATTR.equals(attrName))
-                        ||
-                        (FONTNAME_HASH == attrHash && FONTNAME_ATTR.equals(attrName))
-                        ||
-                        (FONTSTYLE_HASH == attrHash && FONTSTYLE_ATTR.equals(attrName))) {
-                        if (this.lastTextUpdate < thisUpdate) {
-                            updateText();
-                        }
-                    } else if ((STYLE_HASH == attrHash && STYLE_ATTR.equals(attrName))) {
-                        if (this.lastStyleUpdate < thisUpdate) {
-                            updateStyle();
-                        }
-                    } else if ((COLOR_HASH == attrHash && COLOR_ATTR.equals(attrName))
-                        ||
-                        (DIR_HASH == attrHash && DIR_ATTR.equals(attrName))
-                        ||
-                        (FONTCOLOR_HASH == attrHash && FONTCOLOR_ATTR.equals(attrName))) {
-                        if (this.lastDecorationUpdate < thisUpdate) {
-                            updateDecoration();
-                        }
-                    } else if ((IMAGE_HASH == attrHash && IMAGE_ATTR.equals(attrName))) {
-                        if (this.lastImageUpdate < thisUpdate) {
-                            updateImage();
-                        }
-                    } else {
-                        throw new InternalError("update called for \"" + this.element.getName()
-                            + "\" with an unmonitored attribute: " + attrName);
+                case UPDATE_TEXT:
+                    if (this.lastTextUpdate < thisUpdate) {
+                        updateText();
                     }
                     break;
-                case SUBGRAPH:
-                    if ((LABEL_HASH == attrHash && LABEL_ATTR.equals(attrName))
-                        ||
-                        (LP_HASH == attrHash && LP_ATTR.equals(attrName))
-                        ||
-                        (FONTSIZE_HASH == attrHash && FONTSIZE_ATTR.equals(attrName))
-                        ||
-                        (FONTNAME_HASH == attrHash && FONTNAME_ATTR.equals(attrName))
-                        ||
-                        (FONTSTYLE_HASH == attrHash && FONTSTYLE_ATTR.equals(attrName))) {
-                        if (this.lastTextUpdate < thisUpdate) {
-                            updateText();
-                        }
-                    } else if ((STYLE_HASH == attrHash && STYLE_ATTR.equals(attrName))) {
-                        if (this.lastStyleUpdate < thisUpdate) {
-                            updateStyle();
-                        }
-                    } else if ((COLOR_HASH == attrHash && COLOR_ATTR.equals(attrName))
-                        ||
-                        (FONTCOLOR_HASH == attrHash && FONTCOLOR_ATTR.equals(attrName))) {
-                        if (this.lastDecorationUpdate < thisUpdate) {
-                            updateDecoration();
-                        }
-                    } else if ((IMAGE_HASH == attrHash && IMAGE_ATTR.equals(attrName))) {
-                        if (this.lastImageUpdate < thisUpdate) {
-                            updateImage();
-                        }
-                    } else if ((MINBOX_HASH == attrHash && MINBOX_ATTR.equals(attrName))
-                        ||
-                        (MINSIZE_HASH == attrHash && MINSIZE_ATTR.equals(attrName))) {
-                        this.bbox = null;
-                    } else {
-                        throw new InternalError("update called for \"" + this.element.getName()
-                            + "\" with an unmonitored attribute: " + attrName);
+                case UPDATE_STYLE:
+                    if (this.lastStyleUpdate < thisUpdate) {
+                        updateStyle();
+                    }
+                    break;
+                case UPDATE_DECORATION:
+                    if (this.lastDecorationUpdate < thisUpdate) {
+                        updateDecoration();
                     }
                     break;
+                case UPDATE_IMAGE:
+                    if (this.lastImageUpdate < thisUpdate) {
+                        updateImage();
+                    }
+                    break;
+                case UPDATE_BBOX:
+                    this.bbox = null;
+                    break;
+                default:
+                    throw new InternalError("update called for \"" + this.element.getName()
+                        + "\" with an unmonitored attribute: " + attr.getName());
             }
+            this.element.getGraph().damage(this.element);
+        } finally {
+            this.element.release();
+        }
+    }
+
+    /**
+     * Carry out the updates deferred by a batch, each once. The style is updated first since it may alter the font
+     * style, and the shape before the text since node labels may be positioned relative to the shape.
+     */
+    void applyDeferred()
+    {
+        int todo = this.deferred;
 
+        this.deferred = 0;
+        if (todo == 0 || this.element == null || !this.element.reserve()) {
+            return;
+        }
+        this.element.getGraph().contentVersion.incrementAndGet();
+        try {
+            if ((todo & (1 << UPDATE_SHAPE)) != 0 && this.element.isNode() && Grappa.autoPositionNodeLabel) {
+                todo |= 1 << UPDATE_TEXT;
+            }
+            if ((todo & (1 << UPDATE_STYLE)) != 0) {
+                updateStyle();
+            }
+            if ((todo & (1 << UPDATE_SHAPE)) != 0) {
+                updateShape();
+            }
+            if ((todo & (1 << UPDATE_TEXT)) != 0) {
+                updateText();
+            }
+            if ((todo & (1 << UPDATE_DECORATION)) != 0) {
+                updateDecoration();
+            }
+            if ((todo & (1 << UPDATE_IMAGE)) != 0) {
+                updateImage();
+            }
+            if ((todo & (1 << UPDATE_BBOX)) != 0) {
+                this.bbox = null;
+            }
+        } finally {
             this.element.release();
-        } else {
-            throw new InternalError("update called for shape of element \"" + this.element.getName()
-                + "\" without proper format");
         }
     }
 
+    // mark the named attributes with the supplied update in the table, growing it as needed
+    private static byte[] setUpdate(byte[] updates, byte update, String... names)
+    {
+        for (String name : names) {
+            int id = Attribute.getNameId(name);
+            if (id >= updates.length) {
+                byte[] grown = new byte[id + 1];
+                System.arraycopy(updates, 0, grown, 0, updates.length);
+                updates = grown;
+            }
+            updates[id] = update;
+        }
+        return updates;
+    }
+
     /**
      * Draw the element using the supplied Graphics2D context.
      *
@@ -1661,6 +1809,7 @@ public void update(java.util.Observable obs, Object arg)
      */
     void draw(java.awt.Graphics2D g2d)
     {
+        validate();
         if (this.shape instanceof CustomRenderer) {
             ((CustomRenderer) this.shape).draw(g2d);
         } else {
@@ -1675,6 +1824,7 @@ void draw(java.awt.Graphics2D g2d)
      */
     void fill(java.awt.Graphics2D g2d)
     {
+        validate();
         if (this.shape instanceof CustomRenderer) {
             ((CustomRenderer) this.shape).fill(g2d);
         } else {
@@ -1682,6 +1832,63 @@ void fill(java.awt.Graphics2D g2d)
         }
     }
 
+    /**
+     * Draw the label text of the element using the supplied Graphics2D context. Lines of plain text are drawn as
+     * strings, which Java2D renders from its glyph caches. Lines that need layout (combining marks, complex or
+     * right-to-left scripts) would be laid out again on every call, so their layouts are kept until the text changes
+     * or the context renders text differently (for example, after a zoom).
+     *
+     * @param g2d the Graphics2D context to be used for drawing
+     */
+    void drawText(java.awt.Graphics2D g2d)
+    {
+        String[] strs = this.lstr;
+        GrappaPoint[] pos = this.lpos;
+        Font tfont = this.font;
+        LabelLayouts ll = this.layouts;
+        FontRenderContext frc;
+        int count;
+
+        if (strs == null || pos == null || tfont == null) {
+            return;
+        }
+        g2d.setFont(tfont);
+        count = Math.min(strs.length, pos.length);
+        if (ll == null || ll.strs != strs || ll.font != tfont
+            || (ll.layouts != null && !ll.frc.equals(g2d.getFontRenderContext()))) {
+            TextLayout[] layouts = null;
+
+            frc = g2d.getFontRenderContext();
+            for (int i = 0; i < count; i++) {
+                if (strs[i] != null && strs[i].length() > 0 && needsLayout(strs[i])) {
+                    if (layouts == null) {
+                        layouts = new TextLayout[count];
+                    }
+                    layouts[i] = new TextLayout(strs[i], tfont, frc);
+                }
+            }
+            this.layouts = ll = new LabelLayouts(strs, tfont, frc, layouts);
+        }
+        for (int i = 0; i < count; i++) {
+            if (ll.layouts != null && ll.layouts[i] != null) {
+                ll.layouts[i].draw(g2d, (int) pos[i].x, (int) pos[i].y);
+            } else if (strs[i] != null) {
+                g2d.drawString(strs[i], (int) pos[i].x, (int) pos[i].y);
+            }
+        }
+    }
+
+    // check whether a line of text has characters that Java2D only draws by laying the text out
+    private static boolean needsLayout(String str)
+    {
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) >= '\u0300') {
+                return (true);
+            }
+        }
+        return (false);
+    }
+
     /**
      * Draw the image associated with the IMAGE_ATTR using the supplied Graphics2D context.
      *
@@ -1689,6 +1896,7 @@ void fill(java.awt.Graphics2D g2d)
      */
     void drawImage(java.awt.Graphics2D g2d)
     {
+        validate();
         if (Grappa.waitForImages && this.imageLoading) {
             synchronized (this) {
                 try {
@@ -1709,4 +1917,24 @@ void drawImage(java.awt.Graphics2D g2d)
             }
         }
     }
+
+    // the layouts of a set of label lines (null when none of them needs one), for one font and rendering context
+    private static final class LabelLayouts
+    {
+        final String[] strs;
+
+        final Font font;
+
+        final FontRenderContext frc;
+
+        final TextLayout[] layouts;
+
+        LabelLayouts(String[] strs, Font font, FontRenderContext frc, TextLayout[] layouts)
+        {
+            this.strs = strs;
+            this.font = font;
+            this.frc = frc;
+            this.layouts = layouts;
+        }
+    }
 }
@@ -10,6 +10,7 @@
 
 package att.grappa;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Container;
 import java.awt.Dimension;
@@ -19,7 +20,6 @@
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
-import java.awt.Shape;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.MouseEvent;
@@ -30,8 +30,10 @@
 import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
 import java.awt.print.Printable;
+import java.awt.print.PrinterGraphics;
 import java.awt.print.PrinterException;
 import java.util.Enumeration;
 import java.util.Vector;
@@ -90,6 +92,9 @@ public class GrappaPanel extends javax.swing.JPanel implements att.grappa.Grappa
 
     private GrappaStyle deletionStyle = null;
 
+    // the drawing of the subgraph, compiled on first paint
+    private DisplayList displayList = null;
+
     private double scaleFactor = 1;
 
     private double scaleInfo = 1;
@@ -108,6 +113,22 @@ public class GrappaPanel extends javax.swing.JPanel implements att.grappa.Grappa
 
     private Point2D panelcpt = null;
 
+    // the drawing of the visible area without highlights, kept when Grappa.layeredPainting is set, and what it
+    // depends on
+    private BufferedImage layer = null;
+
+    private Rectangle layerArea = null;
+
+    private AffineTransform layerTransform = null;
+
+    private int layerVersion = 0;
+
+    private int layerFlags = 0;
+
+    private Color layerBackground = null;
+
+    private GrappaBacker layerBacker = null;
+
     /**
      * Constructs a new canvas associated with a particular subgraph. Keep in mind that Graph is a sub-class of Subgraph
      * so that usually a Graph object is passed to the constructor.
@@ -495,6 +516,8 @@ private Point2D componentPaint(Graphics g)
         } catch (NoninvertibleTransformException nite) {
             this.inverseTransform = null;
         }
+        AffineTransform base = g2d.getTransform();
+
         g2d.transform(this.transform);
 
         Rectangle clip = g2d.getClipBounds();
@@ -507,48 +530,16 @@ private Point2D componentPaint(Graphics g)
 
         synchronized (this.graph) {
 
-            GrappaNexus grappaNexus = this.subgraph.grappaNexus;
-
-            if (grappaNexus != null) {
-
-                Color bkgdColor = null;
-
-                // do fill now in case there is a Backer supplied
-                g2d.setPaint(bkgdColor = (Color) (this.graph.getGrappaAttributeValue(GRAPPA_BACKGROUND_COLOR_ATTR)));
-                g2d.fill(clip);
-                if (grappaNexus.style.filled || grappaNexus.image != null) {
-                    if (grappaNexus.style.filled) {
-                        if (grappaNexus.fillcolor != null) {
-                            g2d.setPaint(bkgdColor = grappaNexus.fillcolor);
-                            grappaNexus.fill(g2d);
-                            if (grappaNexus.color != null) {
-                                g2d.setPaint(grappaNexus.color);
-                            } else {
-                                g2d.setPaint(grappaNexus.style.line_color);
-                            }
-                        } else {
-                            g2d.setPaint(bkgdColor = grappaNexus.color);
-                            grappaNexus.fill(g2d);
-                            g2d.setPaint(grappaNexus.style.line_color);
-                        }
-                    }
-                    grappaNexus.drawImage(g2d);
-                    // for the main graph, only outline when filling/imaging
-                    if (GrappaStyle.defaultStroke != grappaNexus.style.stroke) {
-                        g2d.setStroke(grappaNexus.style.stroke);
-                        grappaNexus.draw(g2d);
-                        g2d.setStroke(GrappaStyle.defaultStroke);
-                    } else {
-                        grappaNexus.draw(g2d);
-                    }
+            if (this.subgraph.grappaNexus != null) {
+                if (this.displayList == null) {
+                    this.displayList = new DisplayList(this.subgraph, this.selectionStyle, this.deletionStyle);
                 }
-
-                if (this.backer != null && Grappa.backgroundDrawing) {
-                    this.backer.drawBackground(g2d, this.graph, bbox, clip);
+                if (Grappa.layeredPainting && !(g2d instanceof PrinterGraphics)
+                    && (base.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0) {
+                    paintLayered(g2d, base, bbox, clip);
+                } else {
+                    paintContent(g2d, bbox, clip, DisplayList.PLAIN | DisplayList.HIGHLIGHTED);
                 }
-
-                paintSubgraph(g2d, this.subgraph, clip, bkgdColor);
-
             }
 
         }
@@ -614,6 +605,28 @@ public AffineTransform getInverseTransform()
         return this.inverseTransform;
     }
 
+    // repaint the part of the panel showing the supplied region, given in graph coordinates
+    void repaintRegion(Rectangle2D region)
+    {
+        AffineTransform xform = this.transform;
+
+        if (xform == null) {
+            // not drawn yet, so no way to know where the region lands
+            repaint();
+            return;
+        }
+
+        // allow for a selection or deletion outline wider than the line of the element
+        double pad = Math.max(this.selectionStyle == null ? 0 : this.selectionStyle.line_width,
+            this.deletionStyle == null ? 0 : this.deletionStyle.line_width);
+        Rectangle area = xform.createTransformedShape(new Rectangle2D.Double(region.getX() - pad,
+            region.getY() - pad, region.getWidth() + 2 * pad, region.getHeight() + 2 * pad)).getBounds();
+        // allow for anti-aliasing and rounding at the edges
+        area.grow(2, 2);
+        // the repaint manager coalesces this with any other area of the panel waiting to be painted
+        repaint(area);
+    }
+
     /**
      * Registers the default text to display in a tool tip. Setting the default text to null turns off tool tips. The
      * default text is displayed when the mouse is outside the graph boundaries, but within the panel.
@@ -694,6 +707,17 @@ public void resetZoom()
         this.zoomBox = null;
     }
 
+    /**
+     * Discard the drawing kept when <code>Grappa.layeredPainting</code> is set, so that the next paint draws the graph
+     * in full. Changes the panel cannot see, such as to what a <code>GrappaBacker</code> draws or to the
+     * <code>visible</code> field of an element, call for it.
+     */
+    public void clearLayers()
+    {
+        this.layer = null;
+        this.layerArea = null;
+    }
+
     /**
      * Check if a swept outline is still available.
      *
@@ -769,208 +793,112 @@ public double multiplyScaleFactor(double multiplier)
     //
     // //////////////////////////////////////////////////////////////////////
 
-    private void paintSubgraph(Graphics2D g2d, Subgraph subg, Shape clipper, Color bkgdColor)
+    // draw the background and the subgraph, with or without highlights
+    private void paintContent(Graphics2D g2d, GrappaBox bbox, Rectangle clip, int mode)
     {
-        if (subg != this.subgraph && !subg.reserve()) {
-            return;
-        }
-
-        Rectangle2D bbox = subg.getBoundingBox();
-        GrappaNexus grappaNexus = subg.grappaNexus;
-
-        if (bbox != null && grappaNexus != null && subg.visible && !grappaNexus.style.invis && clipper.intersects(bbox)) {
-
-            Enumeration<? extends Element> enm = null;
-
-            int i;
-
-            if (subg != this.subgraph) {
-                g2d.setPaint(grappaNexus.color);
-                if (grappaNexus.style.filled) {
-                    if (grappaNexus.fillcolor != null) {
-                        bkgdColor = grappaNexus.fillcolor;
-                        grappaNexus.fill(g2d);
-                        if (grappaNexus.color != null) {
-                            g2d.setPaint(grappaNexus.color);
-                        } else {
-                            g2d.setPaint(grappaNexus.style.line_color);
-                        }
+        GrappaNexus grappaNexus = this.subgraph.grappaNexus;
+        Color bkgdColor = null;
+
+        grappaNexus.validate();
+
+        // do fill now in case there is a Backer supplied
+        g2d.setPaint(bkgdColor = (Color) (this.graph.getGrappaAttributeValue(GRAPPA_BACKGROUND_COLOR_ATTR)));
+        g2d.fill(clip);
+        if (grappaNexus.style.filled || grappaNexus.image != null) {
+            if (grappaNexus.style.filled) {
+                if (grappaNexus.fillcolor != null) {
+                    g2d.setPaint(bkgdColor = grappaNexus.fillcolor);
+                    grappaNexus.fill(g2d);
+                    if (grappaNexus.color != null) {
+                        g2d.setPaint(grappaNexus.color);
                     } else {
-                        bkgdColor = grappaNexus.color;
-                        grappaNexus.fill(g2d);
                         g2d.setPaint(grappaNexus.style.line_color);
                     }
-                } else if (grappaNexus.color == bkgdColor) { // using == is OK (caching)
+                } else {
+                    g2d.setPaint(bkgdColor = grappaNexus.color);
+                    grappaNexus.fill(g2d);
                     g2d.setPaint(grappaNexus.style.line_color);
                 }
-                grappaNexus.drawImage(g2d);
-                if (subg.isCluster() || Grappa.outlineSubgraphs) {
-                    if (GrappaStyle.defaultStroke != grappaNexus.style.stroke) {
-                        g2d.setStroke(grappaNexus.style.stroke);
-                        grappaNexus.draw(g2d);
-                        g2d.setStroke(GrappaStyle.defaultStroke);
-                    } else {
-                        grappaNexus.draw(g2d);
-                    }
-                }
             }
-
-            if ((subg.highlight & DELETION_MASK) == DELETION_MASK) {
-                g2d.setPaint(this.deletionStyle.line_color);
-                if (GrappaStyle.defaultStroke != this.deletionStyle.stroke) {
-                    g2d.setStroke(this.deletionStyle.stroke);
-                    grappaNexus.draw(g2d);
-                    g2d.setStroke(GrappaStyle.defaultStroke);
-                } else {
-                    grappaNexus.draw(g2d);
-                }
-            } else if ((subg.highlight & SELECTION_MASK) == SELECTION_MASK) {
-                g2d.setPaint(this.selectionStyle.line_color);
-                if (GrappaStyle.defaultStroke != this.selectionStyle.stroke) {
-                    g2d.setStroke(this.selectionStyle.stroke);
-                    grappaNexus.draw(g2d);
-                    g2d.setStroke(GrappaStyle.defaultStroke);
-                } else {
-                    grappaNexus.draw(g2d);
-                }
+            grappaNexus.drawImage(g2d);
+            // for the main graph, only outline when filling/imaging
+            if (GrappaStyle.defaultStroke != grappaNexus.style.stroke) {
+                g2d.setStroke(grappaNexus.style.stroke);
+                grappaNexus.draw(g2d);
+                g2d.setStroke(GrappaStyle.defaultStroke);
+            } else {
+                grappaNexus.draw(g2d);
             }
+        }
 
-            if (grappaNexus.lstr != null && this.subgLabels) {
-                g2d.setFont(grappaNexus.font);
-                g2d.setPaint(grappaNexus.font_color);
-                for (i = 0; i < grappaNexus.lstr.length; i++) {
-                    g2d.drawString(grappaNexus.lstr[i], (int) grappaNexus.lpos[i].x, (int) grappaNexus.lpos[i].y);
-                }
-            }
+        if (this.backer != null && Grappa.backgroundDrawing) {
+            this.backer.drawBackground(g2d, this.graph, bbox, clip);
+        }
 
-            enm = subg.subgraphElements();
-            Subgraph subsubg = null;
-            while (enm.hasMoreElements()) {
-                subsubg = (Subgraph) (enm.nextElement());
-                if (subsubg != null) {
-                    paintSubgraph(g2d, subsubg, clipper, bkgdColor);
-                }
-            }
-            Node node;
-            enm = subg.nodeElements();
-            while (enm.hasMoreElements()) {
-                node = (Node) (enm.nextElement());
-                if (node == null || !node.reserve()) {
-                    continue;
-                }
-                if ((grappaNexus = node.grappaNexus) != null && node.visible && !grappaNexus.style.invis
-                    && clipper.intersects(grappaNexus.rawBounds2D())) {
-                    if (grappaNexus.style.filled) {
-                        if (grappaNexus.fillcolor != null) {
-                            g2d.setPaint(grappaNexus.fillcolor);
-                            grappaNexus.fill(g2d);
-                            if (grappaNexus.color != null) {
-                                g2d.setPaint(grappaNexus.color);
-                            } else {
-                                g2d.setPaint(grappaNexus.style.line_color);
-                            }
-                        } else {
-                            g2d.setPaint(grappaNexus.color);
-                            grappaNexus.fill(g2d);
-                            g2d.setPaint(grappaNexus.style.line_color);
-                        }
-                    } else {
-                        g2d.setPaint(grappaNexus.color);
-                    }
-                    grappaNexus.drawImage(g2d);
-                    if ((node.highlight & DELETION_MASK) == DELETION_MASK) {
-                        g2d.setPaint(this.deletionStyle.line_color);
-                        if (GrappaStyle.defaultStroke != this.deletionStyle.stroke) {
-                            g2d.setStroke(this.deletionStyle.stroke);
-                            grappaNexus.draw(g2d);
-                            g2d.setStroke(GrappaStyle.defaultStroke);
-                        } else {
-                            grappaNexus.draw(g2d);
-                        }
-                    } else if ((node.highlight & SELECTION_MASK) == SELECTION_MASK) {
-                        g2d.setPaint(this.selectionStyle.line_color);
-                        if (GrappaStyle.defaultStroke != this.selectionStyle.stroke) {
-                            g2d.setStroke(this.selectionStyle.stroke);
-                            grappaNexus.draw(g2d);
-                            g2d.setStroke(GrappaStyle.defaultStroke);
-                        } else {
-                            grappaNexus.draw(g2d);
-                        }
-                    } else {
-                        if (GrappaStyle.defaultStroke != grappaNexus.style.stroke) {
-                            g2d.setStroke(grappaNexus.style.stroke);
-                            grappaNexus.draw(g2d);
-                            g2d.setStroke(GrappaStyle.defaultStroke);
-                        } else {
-                            grappaNexus.draw(g2d);
-                        }
-                    }
-                    if (grappaNexus.lstr != null && this.nodeLabels) {
-                        g2d.setFont(grappaNexus.font);
-                        g2d.setPaint(grappaNexus.font_color);
-                        for (i = 0; i < grappaNexus.lstr.length; i++) {
-                            g2d.drawString(grappaNexus.lstr[i], (int) grappaNexus.lpos[i].x,
-                                (int) grappaNexus.lpos[i].y);
-                        }
-                    }
-                }
-                node.release();
-            }
+        this.displayList.paint(g2d, clip, bkgdColor, this.subgLabels, this.nodeLabels, this.edgeLabels, mode);
+    }
 
-            Edge edge;
-            enm = subg.edgeElements();
-            while (enm.hasMoreElements()) {
-                edge = (Edge) (enm.nextElement());
-                if (edge == null || !edge.reserve()) {
-                    continue;
-                }
-                if ((grappaNexus = edge.grappaNexus) != null && edge.visible && !grappaNexus.style.invis
-                    && clipper.intersects(grappaNexus.rawBounds2D())) {
-                    grappaNexus.drawImage(g2d);
-                    if ((edge.highlight & DELETION_MASK) == DELETION_MASK) {
-                        g2d.setPaint(this.deletionStyle.line_color);
-                        grappaNexus.fill(g2d);
-                        if (GrappaStyle.defaultStroke != this.deletionStyle.stroke) {
-                            g2d.setStroke(this.deletionStyle.stroke);
-                            grappaNexus.draw(g2d);
-                            g2d.setStroke(GrappaStyle.defaultStroke);
-                        } else {
-                            grappaNexus.draw(g2d);
-                        }
-                    } else if ((edge.highlight & SELECTION_MASK) == SELECTION_MASK) {
-                        g2d.setPaint(this.selectionStyle.line_color);
-                        grappaNexus.fill(g2d);
-                        if (GrappaStyle.defaultStroke != this.selectionStyle.stroke) {
-                            g2d.setStroke(this.selectionStyle.stroke);
-                            grappaNexus.draw(g2d);
-                            g2d.setStroke(GrappaStyle.defaultStroke);
-                        } else {
-                            grappaNexus.draw(g2d);
-                        }
-                    } else {
-                        g2d.setPaint(grappaNexus.color);
-                        grappaNexus.fill(g2d);
-                        if (GrappaStyle.defaultStroke != grappaNexus.style.stroke) {
-                            g2d.setStroke(grappaNexus.style.stroke);
-                            grappaNexus.draw(g2d);
-                            g2d.setStroke(GrappaStyle.defaultStroke);
-                        } else {
-                            grappaNexus.draw(g2d);
-                        }
-                    }
-                    if (grappaNexus.lstr != null && this.edgeLabels) {
-                        g2d.setFont(grappaNexus.font);
-                        g2d.setPaint(grappaNexus.font_color);
-                        for (i = 0; i < grappaNexus.lstr.length; i++) {
-                            g2d.drawString(grappaNexus.lstr[i], (int) grappaNexus.lpos[i].x,
-                                (int) grappaNexus.lpos[i].y);
-                        }
-                    }
-                }
-                edge.release();
+    // draw the visible area from the kept drawing, drawing it again first if it is out of date, and the highlights
+    // over it
+    private void paintLayered(Graphics2D g2d, AffineTransform base, GrappaBox bbox, Rectangle clip)
+    {
+        Rectangle area = getVisibleRect();
+        Color bkgdColor = (Color) (this.graph.getGrappaAttributeValue(GRAPPA_BACKGROUND_COLOR_ATTR));
+        int flags = (this.subgLabels ? 1 : 0) | (this.nodeLabels ? 2 : 0) | (this.edgeLabels ? 4 : 0)
+            | (Grappa.outlineSubgraphs ? 8 : 0) | (Grappa.backgroundDrawing ? 16 : 0)
+            | (Grappa.useAntiAliasing ? 32 : 0) | (Grappa.antiAliasText ? 64 : 0)
+            | (Grappa.useFractionalMetrics ? 128 : 0);
+
+        if (area.isEmpty()) {
+            paintContent(g2d, bbox, clip, DisplayList.PLAIN | DisplayList.HIGHLIGHTED);
+            return;
+        }
+        if (this.layer == null || this.layer.getWidth() != area.width || this.layer.getHeight() != area.height) {
+            this.layer = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_ARGB_PRE);
+            this.layerArea = null;
+        }
+        // read before drawing, so that a change made while the layer is drawn leaves it out of date
+        int version = this.graph.contentVersion.get();
+
+        if (!area.equals(this.layerArea) || !this.transform.equals(this.layerTransform)
+            || this.layerVersion != version || this.layerFlags != flags
+            || this.layerBackground != bkgdColor || this.layerBacker != this.backer) {
+            Graphics2D lg2d = this.layer.createGraphics();
+
+            try {
+                lg2d.setComposite(AlphaComposite.Clear);
+                lg2d.fillRect(0, 0, area.width, area.height);
+                lg2d.setComposite(AlphaComposite.SrcOver);
+                lg2d.setRenderingHints(g2d.getRenderingHints());
+                lg2d.setStroke(GrappaStyle.defaultStroke);
+                lg2d.translate(-area.x, -area.y);
+                lg2d.clipRect(area.x, area.y, area.width, area.height);
+                lg2d.transform(this.transform);
+
+                Rectangle lclip = lg2d.getClipBounds();
+
+                lclip.x--;
+                lclip.y--;
+                lclip.width += 2;
+                lclip.height += 2;
+                paintContent(lg2d, bbox, lclip, DisplayList.PLAIN);
+            } finally {
+                lg2d.dispose();
             }
+            this.layerVersion = version;
+            this.layerArea = area;
+            this.layerTransform = this.transform;
+            this.layerFlags = flags;
+            this.layerBackground = bkgdColor;
+            this.layerBacker = this.backer;
         }
-        subg.release();
+
+        AffineTransform user = g2d.getTransform();
+
+        g2d.setTransform(base);
+        g2d.drawImage(this.layer, area.x, area.y, null);
+        g2d.setTransform(user);
+        this.displayList.paint(g2d, clip, null, false, false, false, DisplayList.HIGHLIGHTED);
     }
 
     private Element findContainingElement(Subgraph subg, Point2D pt)
@@ -49,19 +49,45 @@ public GrappaPoint(double x, double y)
      */
     public GrappaPoint(String coordString)
     {
-        double[] coords = null;
+        if (coordString == null) {
+            throw new IllegalArgumentException("supplied tuple string is null");
+        }
+        decode(coordString, 0, coordString.length());
+    }
+
+    /**
+     * Constructs and initializes a <code>GrappaPoint</code> with the coordinates derived from the specified range of
+     * the supplied String, as used when decoding the points of a spline without creating substrings.
+     *
+     * @param str String containing the coordinates
+     * @param start the start of the coordinate range within <code>str</code>
+     * @param end the end of the coordinate range within <code>str</code>
+     */
+    GrappaPoint(String str, int start, int end)
+    {
+        decode(str, start, end);
+    }
+
+    private void decode(String str, int start, int end)
+    {
+        int xstart = TupleDecoder.skip(str, start, end);
+        int xend = TupleDecoder.scan(str, xstart, end);
+        int ystart = TupleDecoder.skip(str, xend, end);
+        int yend = TupleDecoder.scan(str, ystart, end);
+
         try {
-            coords = GrappaSupport.arrayForTuple(coordString);
+            if (xstart == xend || ystart == yend || TupleDecoder.skip(str, yend, end) != end) {
+                throw TupleDecoder.badTuple(str.substring(start, end), 2);
+            }
+            this.x = TupleDecoder.parse(str, xstart, xend);
+            this.y = TupleDecoder.parse(str, ystart, yend);
         } catch (NumberFormatException nfe) {
-            throw new IllegalArgumentException("coordinate string (" + coordString + ") has a bad number format ("
-                + nfe.getMessage() + ")");
+            throw new IllegalArgumentException("coordinate string (" + str.substring(start, end)
+                + ") has a bad number format (" + nfe.getMessage() + ")");
         }
-        if (coords == null || coords.length != 2) {
-            throw new IllegalArgumentException("coordinate string (" + coordString
-                + ") does not contain 2 valid coordinates");
+        if (Grappa.negateStringYCoord) {
+            this.y = -this.y;
         }
-        this.x = coords[0];
-        this.y = (Grappa.negateStringYCoord ? -coords[1] : coords[1]);
     }
 
     /**
@@ -71,7 +97,7 @@ public GrappaPoint(String coordString)
      */
     public String toAttributeString()
     {
-        return (toFormattedString("%p"));
+        return (GrappaFormat.appendPoint(new StringBuilder(), this).toString());
     }
 
     /**
@@ -82,7 +108,7 @@ public String toAttributeString()
      */
     public String toFormattedString(String format)
     {
-        return (GrappaSupportPrintf.sprintf(new Object[] { format, this }));
+        return (GrappaFormat.getFormat(format).format(new Object[] { this }));
     }
 
     /**
@@ -18,10 +18,13 @@
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.util.Map;
 
 /**
  * This class provides a flexible, parameterized polygonal shape builder. The guts of a GrappaShape is a GeneralPath
- * object.
+ * object. Shapes built with the same parameters differ only by where they are centered, so a GrappaShape (though not
+ * a subclass or a record with interior partitions) shares its path, built once about the origin, with the other shapes
+ * like it and just records its own center.
  *
  * @version $Id$
  * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
@@ -34,6 +37,19 @@ public class GrappaShape implements GrappaConstants, Cloneable, Shape
      */
     protected GeneralPath path = null;
 
+    // true when the path is shared with other shapes through the path cache, in which case it is centered at the
+    // origin and (tx,ty) is where this shape is centered
+    private boolean shared = false;
+
+    private double tx = 0;
+
+    private double ty = 0;
+
+    // the most recently used shared paths, keyed by the shape parameters
+    private final static int PATH_CACHE_SIZE = 256;
+
+    private final static Map<ShapeKey, GeneralPath> pathCache = new LruMap<ShapeKey, GeneralPath>(PATH_CACHE_SIZE);
+
     private final static double RBCONST = 12.0;
 
     private final static double RBCURVE = 0.5;
@@ -71,9 +87,6 @@ public GrappaShape(int type, double x, double y, double width, double height, in
         double distortionArg, double skewArg, double orientationArg, boolean roundedArg, boolean diagonalsArg,
         Object extra)
     {
-
-        this.path = new GeneralPath(Grappa.windingRule);
-
         // defaults
         int sides = 120;
         int peripheries = 1;
@@ -252,8 +265,44 @@ public GrappaShape(int type, double x, double y, double width, double height, in
             }
         }
 
+        if (getClass() == GrappaShape.class && rects == null && type != CUSTOM_SHAPE
+            && peripheries >= 1 && sides != 0) {
+            // the outline only depends on the position through a translation, so build it once about the origin
+            // and share it among all the shapes with the same parameters
+            ShapeKey key =
+                new ShapeKey(type, width, height, sides, peripheries, distortion, skew, orientation, rounded, diagonals,
+                    Grappa.windingRule);
+            GeneralPath shared;
+            synchronized (pathCache) {
+                shared = pathCache.get(key);
+            }
+            if (shared == null) {
+                shared = new GeneralPath(Grappa.windingRule);
+                buildPath(shared, type, 0, 0, width, height, sides, peripheries, distortion, skew, orientation, rounded,
+                    diagonals, null, null, null);
+                synchronized (pathCache) {
+                    pathCache.put(key, shared);
+                }
+            }
+            this.path = shared;
+            this.shared = true;
+            this.tx = x;
+            this.ty = y;
+        } else {
+            this.path = new GeneralPath(Grappa.windingRule);
+            buildPath(this.path, type, x, y, width, height, sides, peripheries, distortion, skew, orientation, rounded,
+                diagonals, rects, rectsMin, rectsMax);
+        }
+    }
+
+    // build the outline of a shape centered at (x,y) from its normalized parameters
+    private static void buildPath(GeneralPath path, int type, double x, double y, double width, double height,
+        int sides, int peripheries, double distortion, double skew, double orientation, boolean rounded,
+        boolean diagonals, float[] rects, Point2D.Float rectsMin, Point2D.Float rectsMax)
+    {
+        int i;
         if (peripheries < 1 || sides == 0) {
-            this.path.moveTo((float) x, (float) y);
+            path.moveTo((float) x, (float) y);
             return;
         }
 
@@ -465,37 +514,37 @@ public GrappaShape(int type, double x, double y, double width, double height, in
                 if (tooSmall) {
                     for (i = 0; i < sides; i++) {
                         if (i == 0) {
-                            this.path.moveTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
+                            path.moveTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
                         } else {
-                            this.path.lineTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
+                            path.lineTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
                         }
                     }
                 } else {
                     if (diagonals) {
-                        this.path.moveTo((float) (x + tmpVertices[0].x), (float) (y - tmpVertices[0].y));
+                        path.moveTo((float) (x + tmpVertices[0].x), (float) (y - tmpVertices[0].y));
                         for (i = (2 * sides) - 1; i > 0; i -= 2) {
-                            this.path.lineTo((float) (x + tmpVertices[i].x), (float) (y - tmpVertices[i].y));
-                            this.path.moveTo((float) (x + tmpVertices[i - 1].x), (float) (y - tmpVertices[i - 1].y));
+                            path.lineTo((float) (x + tmpVertices[i].x), (float) (y - tmpVertices[i].y));
+                            path.moveTo((float) (x + tmpVertices[i - 1].x), (float) (y - tmpVertices[i - 1].y));
                         }
                         for (i = 0; i < sides; i++) {
                             if (i == 0) {
-                                this.path.moveTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
+                                path.moveTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
                             } else {
-                                this.path.lineTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
+                                path.lineTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
                             }
                         }
                     } else {
-                        this.path.moveTo((float) (x + tmpVertices[2].x), (float) (y - tmpVertices[2].y));
+                        path.moveTo((float) (x + tmpVertices[2].x), (float) (y - tmpVertices[2].y));
                         for (i = 3; i < (4 * sides) - 2; i += 4) {
-                            this.path.curveTo(
+                            path.curveTo(
                                 (float) (x + tmpVertices[i].x), (float) (y - tmpVertices[i].y),
                                 (float) (x + tmpVertices[i + 1].x), (float) (y - tmpVertices[i + 1].y),
                                 (float) (x + tmpVertices[i + 2].x), (float) (y - tmpVertices[i + 2].y)
                                 );
-                            this.path.lineTo((float) (x + tmpVertices[i + 3].x), (float) (y - tmpVertices[i + 3].y));
+                            path.lineTo((float) (x + tmpVertices[i + 3].x), (float) (y - tmpVertices[i + 3].y));
                         }
                         i = (4 * sides) - 1;
-                        this.path.curveTo(
+                        path.curveTo(
                             (float) (x + tmpVertices[i].x), (float) (y - tmpVertices[i].y),
                             (float) (x + tmpVertices[0].x), (float) (y - tmpVertices[0].y),
                             (float) (x + tmpVertices[1].x), (float) (y - tmpVertices[1].y)
@@ -505,13 +554,13 @@ public GrappaShape(int type, double x, double y, double width, double height, in
             } else {
                 for (i = 0; i < sides; i++) {
                     if (i == 0) {
-                        this.path.moveTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
+                        path.moveTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
                     } else {
-                        this.path.lineTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
+                        path.lineTo((float) (x + rawVertices[i].x), (float) (y - rawVertices[i].y));
                     }
                 }
             }
-            this.path.closePath();
+            path.closePath();
         }
 
         // special cases
@@ -527,14 +576,14 @@ public GrappaShape(int type, double x, double y, double width, double height, in
             Rpt.x = Ppt.x - 2.0 * Pt0.x;
             Rpt.y = Ppt.y;
 
-            this.path.moveTo((float) Ppt.x, (float) Ppt.y);
-            this.path.lineTo((float) Rpt.x, (float) Rpt.y);
+            path.moveTo((float) Ppt.x, (float) Ppt.y);
+            path.lineTo((float) Rpt.x, (float) Rpt.y);
 
             Ppt.y += (2.0 * Pt0.y) - 1.0;
             Rpt.y = Ppt.y;
 
-            this.path.moveTo((float) Ppt.x, (float) Ppt.y);
-            this.path.lineTo((float) Rpt.x, (float) Rpt.y);
+            path.moveTo((float) Ppt.x, (float) Ppt.y);
+            path.lineTo((float) Rpt.x, (float) Rpt.y);
 
         } else if (type == RECORD_SHAPE) {
             if (rects != null) {
@@ -551,20 +600,20 @@ public GrappaShape(int type, double x, double y, double width, double height, in
                         rects[i + 3] = tmp;
                     }
                     if (!(rects[i] == rectsMin.x && rects[i + 2] == rectsMax.x) || rects[i + 1] != rectsMin.y) {
-                        this.path.moveTo(rects[i], rects[i + 1]);
-                        this.path.lineTo(rects[i + 2], rects[i + 1]);
+                        path.moveTo(rects[i], rects[i + 1]);
+                        path.lineTo(rects[i + 2], rects[i + 1]);
                     }
                     if (rects[i + 2] != rectsMax.x || !(rects[i + 1] == rectsMin.y && rects[i + 3] == rectsMax.y)) {
-                        this.path.moveTo(rects[i + 2], rects[i + 1]);
-                        this.path.lineTo(rects[i + 2], rects[i + 3]);
+                        path.moveTo(rects[i + 2], rects[i + 1]);
+                        path.lineTo(rects[i + 2], rects[i + 3]);
                     }
                     if (!(rects[i] == rectsMin.x && rects[i + 2] == rectsMax.x) || rects[i + 3] != rectsMax.y) {
-                        this.path.moveTo(rects[i + 2], rects[i + 3]);
-                        this.path.lineTo(rects[i], rects[i + 3]);
+                        path.moveTo(rects[i + 2], rects[i + 3]);
+                        path.lineTo(rects[i], rects[i + 3]);
                     }
                     if (rects[i] != rectsMin.x || !(rects[i + 1] == rectsMin.y && rects[i + 3] == rectsMax.y)) {
-                        this.path.moveTo(rects[i], rects[i + 3]);
-                        this.path.lineTo(rects[i], rects[i + 1]);
+                        path.moveTo(rects[i], rects[i + 3]);
+                        path.lineTo(rects[i], rects[i + 1]);
                     }
                 }
             }
@@ -589,7 +638,9 @@ public Object clone()
     {
         try {
             GrappaShape copy = (GrappaShape) super.clone();
-            copy.path = (GeneralPath) this.path.clone();
+            if (!this.shared) {
+                copy.path = (GeneralPath) this.path.clone();
+            }
             return copy;
         } catch (CloneNotSupportedException e) {
             // this shouldn't happen, since we are Cloneable
@@ -606,37 +657,42 @@ public Object clone()
     @Override
     public final boolean contains(double x, double y)
     {
-        return (this.path.contains(x, y));
+        return (this.path.contains(x - this.tx, y - this.ty));
     }
 
     @Override
     public final boolean contains(double x, double y, double width, double height)
     {
-        return (this.path.contains(x, y, width, height));
+        return (this.path.contains(x - this.tx, y - this.ty, width, height));
     }
 
     @Override
     public final boolean contains(Point2D p)
     {
-        return (this.path.contains(p));
+        return (contains(p.getX(), p.getY()));
     }
 
     @Override
     public final boolean contains(Rectangle2D r)
     {
-        return (this.path.contains(r));
+        return (contains(r.getX(), r.getY(), r.getWidth(), r.getHeight()));
     }
 
     @Override
     public final Rectangle getBounds()
     {
-        return (this.path.getBounds2D().getBounds());
+        return (getBounds2D().getBounds());
     }
 
     @Override
     public final Rectangle2D getBounds2D()
     {
-        return (this.path.getBounds2D());
+        Rectangle2D bounds = this.path.getBounds2D();
+
+        if (this.shared) {
+            bounds.setRect(bounds.getX() + this.tx, bounds.getY() + this.ty, bounds.getWidth(), bounds.getHeight());
+        }
+        return (bounds);
     }
 
     /**
@@ -646,30 +702,108 @@ public final Rectangle2D getBounds2D()
      */
     public final PathIterator getPathIterator()
     {
-        return this.path.getPathIterator(null);
+        return getPathIterator(null);
     }
 
     @Override
     public final PathIterator getPathIterator(AffineTransform at)
     {
+        if (this.shared) {
+            AffineTransform move = AffineTransform.getTranslateInstance(this.tx, this.ty);
+            if (at != null) {
+                move.preConcatenate(at);
+            }
+            at = move;
+        }
         return this.path.getPathIterator(at);
     }
 
     @Override
     public final PathIterator getPathIterator(AffineTransform at, double flatness)
     {
-        return new FlatteningPathIterator(this.path.getPathIterator(at), flatness);
+        return new FlatteningPathIterator(getPathIterator(at), flatness);
     }
 
     @Override
     public final boolean intersects(double x, double y, double width, double height)
     {
-        return (this.path.intersects(x, y, width, height));
+        return (this.path.intersects(x - this.tx, y - this.ty, width, height));
     }
 
     @Override
     public final boolean intersects(Rectangle2D r)
     {
-        return (this.path.intersects(r));
+        return (intersects(r.getX(), r.getY(), r.getWidth(), r.getHeight()));
+    }
+
+    // the parameters that determine the outline of a shape, apart from its position
+    private static final class ShapeKey
+    {
+        private final int type;
+
+        private final int sides;
+
+        private final int peripheries;
+
+        private final double width;
+
+        private final double height;
+
+        private final double distortion;
+
+        private final double skew;
+
+        private final double orientation;
+
+        private final boolean rounded;
+
+        private final boolean diagonals;
+
+        private final int windingRule;
+
+        ShapeKey(int type, double width, double height, int sides, int peripheries, double distortion, double skew,
+            double orientation, boolean rounded, boolean diagonals, int windingRule)
+        {
+            this.type = type;
+            this.width = width;
+            this.height = height;
+            this.sides = sides;
+            this.peripheries = peripheries;
+            this.distortion = distortion;
+            this.skew = skew;
+            this.orientation = orientation;
+            this.rounded = rounded;
+            this.diagonals = diagonals;
+            this.windingRule = windingRule;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof ShapeKey)) {
+                return (false);
+            }
+
+            ShapeKey key = (ShapeKey) obj;
+
+            return (this.type == key.type && this.sides == key.sides && this.peripheries == key.peripheries
+                && Double.compare(this.width, key.width) == 0 && Double.compare(this.height, key.height) == 0
+                && Double.compare(this.distortion, key.distortion) == 0 && Double.compare(this.skew, key.skew) == 0
+                && Double.compare(this.orientation, key.orientation) == 0 && this.rounded == key.rounded
+                && this.diagonals == key.diagonals && this.windingRule == key.windingRule);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            long bits = Double.doubleToLongBits(this.width);
+
+            bits = 31 * bits + Double.doubleToLongBits(this.height);
+            bits = 31 * bits + Double.doubleToLongBits(this.distortion);
+            bits = 31 * bits + Double.doubleToLongBits(this.skew);
+            bits = 31 * bits + Double.doubleToLongBits(this.orientation);
+            return ((int) (bits ^ (bits >>> 32)) * 31 + ((this.type * 31 + this.sides) * 31 + this.peripheries) * 4
+                + (this.rounded ? 2 : 0) + (this.diagonals ? 1 : 0) + this.windingRule);
+        }
     }
 }
@@ -57,19 +57,26 @@ public GrappaSize(double width, double height)
      */
     public GrappaSize(String dimenString)
     {
-        double[] coords = null;
+        if (dimenString == null) {
+            throw new IllegalArgumentException("supplied tuple string is null");
+        }
+
+        int end = dimenString.length();
+        int wstart = TupleDecoder.skip(dimenString, 0, end);
+        int wend = TupleDecoder.scan(dimenString, wstart, end);
+        int hstart = TupleDecoder.skip(dimenString, wend, end);
+        int hend = TupleDecoder.scan(dimenString, hstart, end);
+
         try {
-            coords = GrappaSupport.arrayForTuple(dimenString);
+            if (wstart == wend || hstart == hend || TupleDecoder.skip(dimenString, hend, end) != end) {
+                throw TupleDecoder.badTuple(dimenString, 2);
+            }
+            this.width = TupleDecoder.parse(dimenString, wstart, wend);
+            this.height = TupleDecoder.parse(dimenString, hstart, hend);
         } catch (NumberFormatException nfe) {
             throw new IllegalArgumentException("coordinate string (" + dimenString + ") has a bad number format ("
                 + nfe.getMessage() + ")");
         }
-        if (coords == null || coords.length != 2) {
-            throw new IllegalArgumentException("coordinate string (" + dimenString
-                + ") does not contain 2 valid coordinates");
-        }
-        this.width = coords[0];
-        this.height = coords[1];
     }
 
     /**
@@ -116,7 +123,7 @@ public void setSize(double width, double height)
      */
     public String toAttributeString()
     {
-        return (toFormattedString("%p"));
+        return (GrappaFormat.appendSize(new StringBuilder(), this).toString());
     }
 
     /**
@@ -127,7 +134,7 @@ public String toAttributeString()
      */
     public String toFormattedString(String format)
     {
-        return (GrappaSupportPrintf.sprintf(new Object[] { format, this }));
+        return (GrappaFormat.getFormat(format).format(new Object[] { this }));
     }
 
     /**
@@ -14,9 +14,12 @@
 import java.awt.Color;
 import java.awt.Font;
 import java.util.Hashtable;
+import java.util.Map;
 
 /**
- * This class translates and encapsulates information provided by the <I>style</I> attribute.
+ * This class translates and encapsulates information provided by the <I>style</I> attribute. Style attribute values
+ * are obtained from <code>getStyle</code>, which parses each distinct style string once per element type and hands
+ * out the same, unchangeable, instance for it thereafter.
  *
  * @version $Id$
  * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
@@ -224,53 +227,14 @@ public class GrappaStyle implements GrappaConstants, Cloneable
     static String defaultStrokeString = generateStrokeString(STYLE_LINE_WIDTH_DEFAULT, STYLE_CAP_DEFAULT,
         STYLE_JOIN_DEFAULT, STYLE_MITER_LIMIT_DEFAULT, STYLE_DASH_DEFAULT, STYLE_DASH_PHASE_DEFAULT);
 
-    private static Hashtable<String, Integer> styleTypes = new Hashtable<>(20);
-
     private static Hashtable<String, BasicStroke> strokeCache = new Hashtable<>(4);
 
-    static {
-        styleTypes.put("solid", new Integer(STYLE_SOLID));
-        styleTypes.put("dashed", new Integer(STYLE_DASHED));
-        styleTypes.put("dotted", new Integer(STYLE_DOTTED));
-        styleTypes.put("dash", new Integer(STYLE_DASH));
-        styleTypes.put("dashphase", new Integer(STYLE_DASH_PHASE));
-        styleTypes.put("dash_phase", new Integer(STYLE_DASH_PHASE));
-        styleTypes.put("width", new Integer(STYLE_LINE_WIDTH));
-        styleTypes.put("linewidth", new Integer(STYLE_LINE_WIDTH));
-        styleTypes.put("line_width", new Integer(STYLE_LINE_WIDTH));
-        styleTypes.put("setlinewidth", new Integer(STYLE_LINE_WIDTH));
-        styleTypes.put("color", new Integer(STYLE_LINE_COLOR));
-        styleTypes.put("linecolor", new Integer(STYLE_LINE_COLOR));
-        styleTypes.put("line_color", new Integer(STYLE_LINE_COLOR));
-        styleTypes.put("filled", new Integer(STYLE_FILLED));
-        styleTypes.put("invis", new Integer(STYLE_INVIS));
-        styleTypes.put("diagonals", new Integer(STYLE_DIAGONALS));
-        styleTypes.put("rounded", new Integer(STYLE_ROUNDED));
-        styleTypes.put("capbutt", new Integer(STYLE_CAP_BUTT));
-        styleTypes.put("cap_butt", new Integer(STYLE_CAP_BUTT));
-        styleTypes.put("capround", new Integer(STYLE_CAP_ROUND));
-        styleTypes.put("cap_round", new Integer(STYLE_CAP_ROUND));
-        styleTypes.put("capsquare", new Integer(STYLE_CAP_SQUARE));
-        styleTypes.put("cap_square", new Integer(STYLE_CAP_SQUARE));
-        styleTypes.put("joinbevel", new Integer(STYLE_JOIN_BEVEL));
-        styleTypes.put("join_bevel", new Integer(STYLE_JOIN_BEVEL));
-        styleTypes.put("joinmiter", new Integer(STYLE_JOIN_MITER));
-        styleTypes.put("join_miter", new Integer(STYLE_JOIN_MITER));
-        styleTypes.put("joinround", new Integer(STYLE_JOIN_ROUND));
-        styleTypes.put("join_round", new Integer(STYLE_JOIN_ROUND));
-        styleTypes.put("miterlimit", new Integer(STYLE_MITER_LIMIT));
-        styleTypes.put("miter_limit", new Integer(STYLE_MITER_LIMIT));
-        styleTypes.put("fixedsize", new Integer(STYLE_FIXED_SIZE));
-        styleTypes.put("fixed_size", new Integer(STYLE_FIXED_SIZE));
-        styleTypes.put("gradientfill", new Integer(STYLE_GRADIENT_FILL));
-        styleTypes.put("gradient_fill", new Integer(STYLE_GRADIENT_FILL));
-
-        // for compatibility with dot (these should be fontstyle for Grappa)
-        styleTypes.put("bold", new Integer(STYLE_OLD_BOLD));
-        styleTypes.put("italic", new Integer(STYLE_OLD_ITALIC));
-        styleTypes.put("normal", new Integer(STYLE_OLD_PLAIN));
-        styleTypes.put("plain", new Integer(STYLE_OLD_PLAIN));
+    // the shared styles, most recently used last
+    private final static int STYLE_TABLE_SIZE = 256;
 
+    private final static Map<StyleKey, GrappaStyle> styleTable = new LruMap<StyleKey, GrappaStyle>(STYLE_TABLE_SIZE);
+
+    static {
         strokeCache.put(defaultStrokeString, defaultStroke);
     }
 
@@ -306,6 +270,9 @@ public class GrappaStyle implements GrappaConstants, Cloneable
 
     BasicStroke stroke = defaultStroke;
 
+    // true for the instances handed out by getStyle, which may not be updated
+    private boolean shared = false;
+
     // //////////////////////////////////////////////////////////////////////
     //
     // Constructors
@@ -327,278 +294,87 @@ public GrappaStyle(int type, String style)
         updateStyle(style);
     }
 
+    /**
+     * Get the shared <code>GrappaStyle</code> object for a style description string. The string is only parsed the
+     * first time it is seen for an element type; the object returned cannot be updated, so it is safe to use it as the
+     * value of any number of <I>style</I> attributes.
+     *
+     * @param type element type to associate with the style.
+     * @param style the <code>String</code> that specifies the style info. format is: style1,style2(extra2),...,styleN.
+     * @return the shared style
+     * @see #GrappaStyle(int, String)
+     */
+    public static GrappaStyle getStyle(int type, String style)
+    {
+        StyleKey key = new StyleKey(type, style);
+        GrappaStyle grappaStyle;
+
+        synchronized (styleTable) {
+            grappaStyle = styleTable.get(key);
+        }
+        if (grappaStyle == null) {
+            grappaStyle = new GrappaStyle(type, style);
+            grappaStyle.shared = true;
+            synchronized (styleTable) {
+                styleTable.put(key, grappaStyle);
+            }
+        }
+        return (grappaStyle);
+    }
+
     // //////////////////////////////////////////////////////////////////////
     //
     // Public methods
     //
     // //////////////////////////////////////////////////////////////////////
 
+    /**
+     * Check whether this GrappaStyle is a shared one obtained from <code>getStyle</code>.
+     *
+     * @return true if this style is shared and cannot be updated
+     */
+    public boolean isShared()
+    {
+        return (this.shared);
+    }
+
     /**
      * Update this GrappaStyle based on the supplied style string.
      *
      * @param style a style specification
+     * @exception UnsupportedOperationException if this style is shared (see <code>getStyle</code>); clone it first.
+     * @exception IllegalArgumentException if the string is not a valid style specification
      */
     public void updateStyle(String style)
     {
-        this.stroke = defaultStroke;
-
-        this.line_color = STYLE_LINE_COLOR_DEFAULT;
-        this.line_style = STYLE_LINE_STYLE_DEFAULT;
-        this.line_width = STYLE_LINE_WIDTH_DEFAULT;
-        this.cap = STYLE_CAP_DEFAULT;
-        this.join = STYLE_JOIN_DEFAULT;
-        this.miter_limit = STYLE_MITER_LIMIT_DEFAULT;
-        this.dash = STYLE_DASH_DEFAULT;
-        ;
-        this.dash_phase = STYLE_DASH_PHASE_DEFAULT;
-        this.rounded = STYLE_ROUNDED_DEFAULT;
-        this.diagonals = STYLE_DIAGONALS_DEFAULT;
-        this.filled = STYLE_FILLED_DEFAULT;
-        this.gradient_fill = STYLE_GRADIENT_FILL_DEFAULT;
-        this.invis = STYLE_INVIS_DEFAULT;
-        this.fixed_size = STYLE_FIXED_SIZE_DEFAULT;
-        this.font_style = null;
-
-        if (style == null) {
-            return;
+        if (this.shared) {
+            throw new UnsupportedOperationException("a shared style cannot be updated");
         }
 
-        int len = style.length();
-        if (len == 0 || style.equals(GrappaStyle.DEFAULT_SET_STRING)) {
+        StyleSpec spec = StyleSpec.get(style);
+
+        this.line_color = (spec.line_color == null ? STYLE_LINE_COLOR_DEFAULT
+            : GrappaColor.getColor(spec.line_color, null));
+        this.line_style = spec.line_style;
+        this.line_width = spec.line_width;
+        this.cap = spec.cap;
+        this.join = spec.join;
+        this.miter_limit = spec.miter_limit;
+        this.dash = (spec.dash == null ? null : spec.dash.clone());
+        this.dash_phase = spec.dash_phase;
+        this.rounded = spec.rounded;
+        this.diagonals = spec.diagonals;
+        this.filled = spec.filled;
+        this.gradient_fill = spec.gradient_fill;
+        this.invis = spec.invis;
+        this.fixed_size = spec.fixed_size;
+        this.font_style = spec.font_style;
+
+        if (spec == StyleSpec.DEFAULT) {
+            this.stroke = defaultStroke;
             return;
         }
 
-        String option_string = null;
-        Object option_obj = null;
-        int option = -1;
-        int last_option = -1;
-        boolean in_parens = false;
-        boolean keyword_ok = true;
-        boolean parens_ok = false;
-        int i = 0, offset = 0;
-        char c;
-        while (i < len) {
-            c = style.charAt(i++);
-            if (Character.isWhitespace(c)) {
-                continue;
-            }
-            if (c == '(') {
-                if (in_parens) {
-                    throw new RuntimeException("style attribute has nested parentheses");
-                }
-                if (!parens_ok) {
-                    throw new RuntimeException("style attribute has parentheses without keyword");
-                }
-                if (last_option < 0) {
-                    throw new RuntimeException("style attribute (" + option_string + ") has unexpected modifier");
-                }
-                in_parens = true;
-                keyword_ok = true;
-                parens_ok = false;
-            } else if (c == ')') {
-                if (!in_parens) {
-                    throw new RuntimeException("style attribute has unmatched right parenthesis");
-                }
-                in_parens = false;
-                keyword_ok = false;
-                parens_ok = false;
-            } else if (c == ',') {
-                if (in_parens) {
-                    throw new RuntimeException("style attribute has comma within parentheses");
-                }
-                keyword_ok = true;
-                parens_ok = false;
-            } else {
-                if (!keyword_ok) {
-                    throw new RuntimeException("style attribute (" + option_string + ") has bad format");
-                }
-                offset = i - 1;
-                if (in_parens) {
-                    int pcnt = 0;
-                    while (i < len && ((c = style.charAt(i)) != ')' || pcnt > 0)) {
-                        if (c == '(') {
-                            pcnt++;
-                        } else if (c == ')') {
-                            pcnt--;
-                        }
-                        i++;
-                    }
-                } else {
-                    while (i < len && (c = style.charAt(i)) != ',' && c != ' ' && c != '(' && c != ')') {
-                        i++;
-                    }
-                }
-                option_string = style.substring(offset, i);
-                if (in_parens) {
-                    if (last_option == -1) {
-                        throw new RuntimeException("style attribute modifier (" + option_string + ") is unexpected");
-                    }
-                    switch (last_option) {
-                        case STYLE_DASH:
-                            this.line_style = last_option;
-                            try {
-                                this.dash = GrappaSupport.floatArrayForTuple(option_string);
-                            } catch (NumberFormatException nfe) {
-                                throw new RuntimeException("dash style attribute modifier (" + option_string
-                                    + ") is not a comma-delimited floating point tuple");
-                            }
-                            break;
-                        case STYLE_DASH_PHASE:
-                            try {
-                                this.dash_phase = Float.valueOf(option_string).floatValue();
-                            } catch (NumberFormatException nfe) {
-                                throw new RuntimeException("dash phase style attribute modifier (" + option_string
-                                    + ") is not a floating point number");
-                            }
-                            break;
-                        case STYLE_LINE_WIDTH:
-                            try {
-                                this.line_width = Float.valueOf(option_string).floatValue();
-                            } catch (NumberFormatException nfe) {
-                                throw new RuntimeException("line width style attribute modifier (" + option_string
-                                    + ") is not a floating point number");
-                            }
-                            break;
-                        case STYLE_MITER_LIMIT:
-                            try {
-                                this.miter_limit = Float.valueOf(option_string).floatValue();
-                            } catch (NumberFormatException nfe) {
-                                throw new RuntimeException("miter limit style attribute modifier (" + option_string
-                                    + ") is not a floating point number");
-                            }
-                            break;
-                        case STYLE_LINE_COLOR:
-                            this.line_color = GrappaColor.getColor(option_string, null);
-                            break;
-                        case STYLE_FILLED:
-                            this.filled = Boolean.valueOf(option_string).booleanValue();
-                            break;
-                        case STYLE_INVIS:
-                            this.invis = Boolean.valueOf(option_string).booleanValue();
-                            break;
-                        case STYLE_DIAGONALS:
-                            this.diagonals = Boolean.valueOf(option_string).booleanValue();
-                            break;
-                        case STYLE_ROUNDED:
-                            this.rounded = Boolean.valueOf(option_string).booleanValue();
-                            break;
-                        case STYLE_FIXED_SIZE:
-                            this.fixed_size = Boolean.valueOf(option_string).booleanValue();
-                            break;
-                        case STYLE_OLD_BOLD:
-                        case STYLE_OLD_ITALIC:
-                        case STYLE_OLD_PLAIN:
-                        case STYLE_SOLID:
-                        case STYLE_DASHED:
-                        case STYLE_DOTTED:
-                        case STYLE_CAP_BUTT:
-                        case STYLE_CAP_ROUND:
-                        case STYLE_CAP_SQUARE:
-                        case STYLE_JOIN_BEVEL:
-                        case STYLE_JOIN_MITER:
-                        case STYLE_JOIN_ROUND:
-                        default:
-                            throw new RuntimeException("style attribute (" + option_string + ") has bad format");
-                    }
-                    last_option = -1;
-                } else {
-                    option_obj = styleTypes.get(option_string.toLowerCase());
-                    if (DEFAULT_SET_STRING.equals(option_string)) {
-                        continue;
-                    } else if (option_obj == null || !(option_obj instanceof Integer)) {
-                        throw new RuntimeException("style attribute (" + option_string
-                            + ") is unrecognized or badly implemented");
-                    }
-                    option = ((Integer) option_obj).intValue();
-
-                    last_option = -1;
-                    switch (option) {
-                        case STYLE_SOLID:
-                            this.line_style = option;
-                            this.dash = null;
-                            this.dash_phase = 0;
-                            break;
-                        case STYLE_DASHED:
-                            this.line_style = option;
-                            this.dash = new float[] { 12, 12 };
-                            this.dash_phase = 0;
-                            break;
-                        case STYLE_DOTTED:
-                            this.line_style = option;
-                            this.dash = new float[] { 2, 2 };
-                            this.dash_phase = 0;
-                            break;
-                        case STYLE_FILLED:
-                            last_option = option;
-                            this.filled = true;
-                            break;
-                        case STYLE_GRADIENT_FILL:
-                            last_option = option;
-                            this.gradient_fill = true;
-                            break;
-                        case STYLE_INVIS:
-                            last_option = option;
-                            this.invis = true;
-                            break;
-                        case STYLE_DIAGONALS:
-                            last_option = option;
-                            this.diagonals = true;
-                            break;
-                        case STYLE_ROUNDED:
-                            last_option = option;
-                            this.rounded = true;
-                            break;
-                        case STYLE_CAP_BUTT:
-                            this.cap = BasicStroke.CAP_BUTT;
-                            break;
-                        case STYLE_CAP_ROUND:
-                            this.cap = BasicStroke.CAP_ROUND;
-                            break;
-                        case STYLE_CAP_SQUARE:
-                            this.cap = BasicStroke.CAP_SQUARE;
-                            break;
-                        case STYLE_JOIN_BEVEL:
-                            this.cap = BasicStroke.JOIN_BEVEL;
-                            break;
-                        case STYLE_JOIN_MITER:
-                            this.cap = BasicStroke.JOIN_MITER;
-                            break;
-                        case STYLE_JOIN_ROUND:
-                            this.cap = BasicStroke.JOIN_ROUND;
-                            break;
-                        case STYLE_FIXED_SIZE:
-                            last_option = option;
-                            this.fixed_size = true;
-                            break;
-                        case STYLE_OLD_BOLD:
-                            this.font_style = new Integer(Font.BOLD);
-                            break;
-                        case STYLE_OLD_ITALIC:
-                            this.font_style = new Integer(Font.ITALIC);
-                            break;
-                        case STYLE_OLD_PLAIN:
-                            this.font_style = new Integer(Font.PLAIN);
-                            break;
-                        case STYLE_DASH:
-                        case STYLE_DASH_PHASE:
-                        case STYLE_LINE_WIDTH:
-                        case STYLE_LINE_COLOR:
-                        case STYLE_MITER_LIMIT:
-                            last_option = option;
-                            break;
-                        default:
-                            throw new RuntimeException("style attribute (" + option_string + ") has bad format");
-                    }
-                    if (last_option != -1) {
-                        parens_ok = true;
-                    }
-                }
-            }
-        }
-        if (in_parens) {
-            throw new RuntimeException("style attribute has unmatched left parenthesis");
-        }
-
         String strokeString =
             generateStrokeString(this.line_width, this.cap, this.join, this.miter_limit, this.dash, this.dash_phase);
         if ((this.stroke = strokeCache.get(strokeString)) == null) {
@@ -693,7 +469,6 @@ private static String generateStyleString(
     {
         StringBuilder styleStringBuilder = null;
         String tmpstr = null;
-        Object[] args = { "%g", null };
 
         if (showAll || (
             color != STYLE_LINE_COLOR_DEFAULT && STYLE_LINE_COLOR_DEFAULT != null && !STYLE_LINE_COLOR_DEFAULT
@@ -708,8 +483,9 @@ private static String generateStyleString(
                 // styleStringBuilder.append(hsb[1]);
                 // styleStringBuilder.append(',');
                 // styleStringBuilder.append(hsb[2]);
-                styleStringBuilder.append(GrappaSupportPrintf.sprintf(new Object[] { "%g,%g,%g", new Float(hsb[0]),
-                new Float(hsb[1]), new Float(hsb[2]) }));
+                GrappaFormat.appendDouble(styleStringBuilder, hsb[0]).append(',');
+                GrappaFormat.appendDouble(styleStringBuilder, hsb[1]).append(',');
+                GrappaFormat.appendDouble(styleStringBuilder, hsb[2]);
             } else {
                 styleStringBuilder.append(tmpstr);
             }
@@ -740,13 +516,11 @@ private static String generateStyleString(
                     } else {
                         styleStringBuilder.append("dash(");
                         // styleStringBuilder.append(dashSpec[0]);
-                        args[1] = new Float(dashSpec[0]);
-                        styleStringBuilder.append(GrappaSupportPrintf.sprintf(args));
+                        GrappaFormat.appendDouble(styleStringBuilder, dashSpec[0]);
                         for (int i = 1; i < dashSpec.length; i++) {
                             styleStringBuilder.append(',');
                             // styleStringBuilder.append(dashSpec[i]);
-                            args[1] = new Float(dashSpec[i]);
-                            styleStringBuilder.append(GrappaSupportPrintf.sprintf(args));
+                            GrappaFormat.appendDouble(styleStringBuilder, dashSpec[i]);
                         }
                         styleStringBuilder.append(')');
                     }
@@ -766,8 +540,7 @@ private static String generateStyleString(
             }
             styleStringBuilder.append("lineWidth(");
             // styleStringBuilder.append(lineWidth);
-            args[1] = new Float(lineWidth);
-            styleStringBuilder.append(GrappaSupportPrintf.sprintf(args));
+            GrappaFormat.appendDouble(styleStringBuilder, lineWidth);
             styleStringBuilder.append(')');
         }
 
@@ -827,8 +600,7 @@ private static String generateStyleString(
             }
             styleStringBuilder.append("miterLimit(");
             // styleStringBuilder.append(miterLimit);
-            args[1] = new Float(miterLimit);
-            styleStringBuilder.append(GrappaSupportPrintf.sprintf(args));
+            GrappaFormat.appendDouble(styleStringBuilder, miterLimit);
             styleStringBuilder.append(')');
         }
 
@@ -842,8 +614,7 @@ private static String generateStyleString(
             }
             styleStringBuilder.append("dashPhase(");
             // styleStringBuilder.append(dashPhase);
-            args[1] = new Float(dashPhase);
-            styleStringBuilder.append(GrappaSupportPrintf.sprintf(args));
+            GrappaFormat.appendDouble(styleStringBuilder, dashPhase);
             styleStringBuilder.append(')');
         }
 
@@ -1142,7 +913,8 @@ public int getFontStyle()
     // //////////////////////////////////////////////////////////////////////
 
     /**
-     * Creates a new object of the same class as this object.
+     * Creates a new object of the same class as this object. The clone of a shared style is not shared, so it can be
+     * updated.
      *
      * @return a clone of this instance.
      * @exception OutOfMemoryError if there is not enough memory.
@@ -1154,10 +926,403 @@ public Object clone()
         try {
             GrappaStyle copy = (GrappaStyle) super.clone();
             copy.dash = getDash();
+            copy.shared = false;
             return copy;
         } catch (CloneNotSupportedException e) {
             // this shouldn't happen, since we are Cloneable
             throw new InternalError();
         }
     }
+
+    /**
+     * The settings given by a style string, as plain values. Parsing a style string this way creates no AWT object, so
+     * it can be used to check style attribute values when they are set, before any style is built. Each distinct string
+     * is parsed once; the settings are shared and must not be changed.
+     */
+    static final class StyleSpec
+    {
+        // the settings of an empty or default style
+        static final StyleSpec DEFAULT = new StyleSpec();
+
+        private static final Hashtable<String, Integer> STYLE_TYPES = new Hashtable<>(64);
+
+        // the most recently used settings, keyed by style string
+        private static final int SPEC_TABLE_SIZE = 256;
+
+        private static final Map<String, StyleSpec> specTable = new LruMap<String, StyleSpec>(SPEC_TABLE_SIZE);
+
+        static {
+            STYLE_TYPES.put("solid", Integer.valueOf(STYLE_SOLID));
+            STYLE_TYPES.put("dashed", Integer.valueOf(STYLE_DASHED));
+            STYLE_TYPES.put("dotted", Integer.valueOf(STYLE_DOTTED));
+            STYLE_TYPES.put("dash", Integer.valueOf(STYLE_DASH));
+            STYLE_TYPES.put("dashphase", Integer.valueOf(STYLE_DASH_PHASE));
+            STYLE_TYPES.put("dash_phase", Integer.valueOf(STYLE_DASH_PHASE));
+            STYLE_TYPES.put("width", Integer.valueOf(STYLE_LINE_WIDTH));
+            STYLE_TYPES.put("linewidth", Integer.valueOf(STYLE_LINE_WIDTH));
+            STYLE_TYPES.put("line_width", Integer.valueOf(STYLE_LINE_WIDTH));
+            STYLE_TYPES.put("setlinewidth", Integer.valueOf(STYLE_LINE_WIDTH));
+            STYLE_TYPES.put("color", Integer.valueOf(STYLE_LINE_COLOR));
+            STYLE_TYPES.put("linecolor", Integer.valueOf(STYLE_LINE_COLOR));
+            STYLE_TYPES.put("line_color", Integer.valueOf(STYLE_LINE_COLOR));
+            STYLE_TYPES.put("filled", Integer.valueOf(STYLE_FILLED));
+            STYLE_TYPES.put("invis", Integer.valueOf(STYLE_INVIS));
+            STYLE_TYPES.put("diagonals", Integer.valueOf(STYLE_DIAGONALS));
+            STYLE_TYPES.put("rounded", Integer.valueOf(STYLE_ROUNDED));
+            STYLE_TYPES.put("capbutt", Integer.valueOf(STYLE_CAP_BUTT));
+            STYLE_TYPES.put("cap_butt", Integer.valueOf(STYLE_CAP_BUTT));
+            STYLE_TYPES.put("capround", Integer.valueOf(STYLE_CAP_ROUND));
+            STYLE_TYPES.put("cap_round", Integer.valueOf(STYLE_CAP_ROUND));
+            STYLE_TYPES.put("capsquare", Integer.valueOf(STYLE_CAP_SQUARE));
+            STYLE_TYPES.put("cap_square", Integer.valueOf(STYLE_CAP_SQUARE));
+            STYLE_TYPES.put("joinbevel", Integer.valueOf(STYLE_JOIN_BEVEL));
+            STYLE_TYPES.put("join_bevel", Integer.valueOf(STYLE_JOIN_BEVEL));
+            STYLE_TYPES.put("joinmiter", Integer.valueOf(STYLE_JOIN_MITER));
+            STYLE_TYPES.put("join_miter", Integer.valueOf(STYLE_JOIN_MITER));
+            STYLE_TYPES.put("joinround", Integer.valueOf(STYLE_JOIN_ROUND));
+            STYLE_TYPES.put("join_round", Integer.valueOf(STYLE_JOIN_ROUND));
+            STYLE_TYPES.put("miterlimit", Integer.valueOf(STYLE_MITER_LIMIT));
+            STYLE_TYPES.put("miter_limit", Integer.valueOf(STYLE_MITER_LIMIT));
+            STYLE_TYPES.put("fixedsize", Integer.valueOf(STYLE_FIXED_SIZE));
+            STYLE_TYPES.put("fixed_size", Integer.valueOf(STYLE_FIXED_SIZE));
+            STYLE_TYPES.put("gradientfill", Integer.valueOf(STYLE_GRADIENT_FILL));
+            STYLE_TYPES.put("gradient_fill", Integer.valueOf(STYLE_GRADIENT_FILL));
+
+            // for compatibility with dot (these should be fontstyle for Grappa)
+            STYLE_TYPES.put("bold", Integer.valueOf(STYLE_OLD_BOLD));
+            STYLE_TYPES.put("italic", Integer.valueOf(STYLE_OLD_ITALIC));
+            STYLE_TYPES.put("normal", Integer.valueOf(STYLE_OLD_PLAIN));
+            STYLE_TYPES.put("plain", Integer.valueOf(STYLE_OLD_PLAIN));
+        }
+
+        // the name of the line color, or null for the default
+        String line_color = null;
+
+        int line_style = STYLE_LINE_STYLE_DEFAULT;
+
+        float line_width = STYLE_LINE_WIDTH_DEFAULT;
+
+        int cap = STYLE_CAP_DEFAULT;
+
+        int join = STYLE_JOIN_DEFAULT;
+
+        float miter_limit = STYLE_MITER_LIMIT_DEFAULT;
+
+        float[] dash = null;
+
+        float dash_phase = STYLE_DASH_PHASE_DEFAULT;
+
+        boolean rounded = STYLE_ROUNDED_DEFAULT;
+
+        boolean diagonals = STYLE_DIAGONALS_DEFAULT;
+
+        boolean filled = STYLE_FILLED_DEFAULT;
+
+        boolean gradient_fill = STYLE_GRADIENT_FILL_DEFAULT;
+
+        boolean invis = STYLE_INVIS_DEFAULT;
+
+        boolean fixed_size = STYLE_FIXED_SIZE_DEFAULT;
+
+        Integer font_style = null;
+
+        private StyleSpec()
+        {
+        }
+
+        /**
+         * Get the settings given by a style string.
+         *
+         * @param style a style specification, or null
+         * @return the shared settings for the string
+         * @exception IllegalArgumentException if the string is not a valid style specification
+         */
+        static StyleSpec get(String style) throws IllegalArgumentException
+        {
+            if (style == null || style.length() == 0 || style.equals(DEFAULT_SET_STRING)) {
+                return (DEFAULT);
+            }
+
+            StyleSpec spec;
+
+            synchronized (specTable) {
+                spec = specTable.get(style);
+            }
+            if (spec == null) {
+                spec = new StyleSpec();
+                spec.parse(style);
+                synchronized (specTable) {
+                    specTable.put(style, spec);
+                }
+            }
+            return (spec);
+        }
+
+        private void parse(String style)
+        {
+            int len = style.length();
+
+            String option_string = null;
+            Object option_obj = null;
+            int option = -1;
+            int last_option = -1;
+            boolean in_parens = false;
+            boolean keyword_ok = true;
+            boolean parens_ok = false;
+            int i = 0, offset = 0;
+            char c;
+            while (i < len) {
+                c = style.charAt(i++);
+                if (Character.isWhitespace(c)) {
+                    continue;
+                }
+                if (c == '(') {
+                    if (in_parens) {
+                        throw new IllegalArgumentException("style attribute has nested parentheses");
+                    }
+                    if (!parens_ok) {
+                        throw new IllegalArgumentException("style attribute has parentheses without keyword");
+                    }
+                    if (last_option < 0) {
+                        throw new IllegalArgumentException("style attribute (" + option_string + ") has unexpected modifier");
+                    }
+                    in_parens = true;
+                    keyword_ok = true;
+                    parens_ok = false;
+                } else if (c == ')') {
+                    if (!in_parens) {
+                        throw new IllegalArgumentException("style attribute has unmatched right parenthesis");
+                    }
+                    in_parens = false;
+                    keyword_ok = false;
+                    parens_ok = false;
+                } else if (c == ',') {
+                    if (in_parens) {
+                        throw new IllegalArgumentException("style attribute has comma within parentheses");
+                    }
+                    keyword_ok = true;
+                    parens_ok = false;
+                } else {
+                    if (!keyword_ok) {
+                        throw new IllegalArgumentException("style attribute (" + option_string + ") has bad format");
+                    }
+                    offset = i - 1;
+                    if (in_parens) {
+                        int pcnt = 0;
+                        while (i < len && ((c = style.charAt(i)) != ')' || pcnt > 0)) {
+                            if (c == '(') {
+                                pcnt++;
+                            } else if (c == ')') {
+                                pcnt--;
+                            }
+                            i++;
+                        }
+                    } else {
+                        while (i < len && (c = style.charAt(i)) != ',' && c != ' ' && c != '(' && c != ')') {
+                            i++;
+                        }
+                    }
+                    option_string = style.substring(offset, i);
+                    if (in_parens) {
+                        if (last_option == -1) {
+                            throw new IllegalArgumentException("style attribute modifier (" + option_string + ") is unexpected");
+                        }
+                        switch (last_option) {
+                            case STYLE_DASH:
+                                this.line_style = last_option;
+                                try {
+                                    this.dash = GrappaSupport.floatArrayForTuple(option_string);
+                                } catch (NumberFormatException nfe) {
+                                    throw new IllegalArgumentException("dash style attribute modifier (" + option_string
+                                        + ") is not a comma-delimited floating point tuple");
+                                }
+                                break;
+                            case STYLE_DASH_PHASE:
+                                try {
+                                    this.dash_phase = Float.valueOf(option_string).floatValue();
+                                } catch (NumberFormatException nfe) {
+                                    throw new IllegalArgumentException("dash phase style attribute modifier (" + option_string
+                                        + ") is not a floating point number");
+                                }
+                                break;
+                            case STYLE_LINE_WIDTH:
+                                try {
+                                    this.line_width = Float.valueOf(option_string).floatValue();
+                                } catch (NumberFormatException nfe) {
+                                    throw new IllegalArgumentException("line width style attribute modifier (" + option_string
+                                        + ") is not a floating point number");
+                                }
+                                break;
+                            case STYLE_MITER_LIMIT:
+                                try {
+                                    this.miter_limit = Float.valueOf(option_string).floatValue();
+                                } catch (NumberFormatException nfe) {
+                                    throw new IllegalArgumentException("miter limit style attribute modifier (" + option_string
+                                        + ") is not a floating point number");
+                                }
+                                break;
+                            case STYLE_LINE_COLOR:
+                                this.line_color = option_string;
+                                break;
+                            case STYLE_FILLED:
+                                this.filled = Boolean.valueOf(option_string).booleanValue();
+                                break;
+                            case STYLE_INVIS:
+                                this.invis = Boolean.valueOf(option_string).booleanValue();
+                                break;
+                            case STYLE_DIAGONALS:
+                                this.diagonals = Boolean.valueOf(option_string).booleanValue();
+                                break;
+                            case STYLE_ROUNDED:
+                                this.rounded = Boolean.valueOf(option_string).booleanValue();
+                                break;
+                            case STYLE_FIXED_SIZE:
+                                this.fixed_size = Boolean.valueOf(option_string).booleanValue();
+                                break;
+                            case STYLE_OLD_BOLD:
+                            case STYLE_OLD_ITALIC:
+                            case STYLE_OLD_PLAIN:
+                            case STYLE_SOLID:
+                            case STYLE_DASHED:
+                            case STYLE_DOTTED:
+                            case STYLE_CAP_BUTT:
+                            case STYLE_CAP_ROUND:
+                            case STYLE_CAP_SQUARE:
+                            case STYLE_JOIN_BEVEL:
+                            case STYLE_JOIN_MITER:
+                            case STYLE_JOIN_ROUND:
+                            default:
+                                throw new IllegalArgumentException("style attribute (" + option_string + ") has bad format");
+                        }
+                        last_option = -1;
+                    } else {
+                        option_obj = STYLE_TYPES.get(option_string.toLowerCase());
+                        if (DEFAULT_SET_STRING.equals(option_string)) {
+                            continue;
+                        } else if (option_obj == null || !(option_obj instanceof Integer)) {
+                            throw new IllegalArgumentException("style attribute (" + option_string
+                                + ") is unrecognized or badly implemented");
+                        }
+                        option = ((Integer) option_obj).intValue();
+
+                        last_option = -1;
+                        switch (option) {
+                            case STYLE_SOLID:
+                                this.line_style = option;
+                                this.dash = null;
+                                this.dash_phase = 0;
+                                break;
+                            case STYLE_DASHED:
+                                this.line_style = option;
+                                this.dash = new float[] { 12, 12 };
+                                this.dash_phase = 0;
+                                break;
+                            case STYLE_DOTTED:
+                                this.line_style = option;
+                                this.dash = new float[] { 2, 2 };
+                                this.dash_phase = 0;
+                                break;
+                            case STYLE_FILLED:
+                                last_option = option;
+                                this.filled = true;
+                                break;
+                            case STYLE_GRADIENT_FILL:
+                                last_option = option;
+                                this.gradient_fill = true;
+                                break;
+                            case STYLE_INVIS:
+                                last_option = option;
+                                this.invis = true;
+                                break;
+                            case STYLE_DIAGONALS:
+                                last_option = option;
+                                this.diagonals = true;
+                                break;
+                            case STYLE_ROUNDED:
+                                last_option = option;
+                                this.rounded = true;
+                                break;
+                            case STYLE_CAP_BUTT:
+                                this.cap = BasicStroke.CAP_BUTT;
+                                break;
+                            case STYLE_CAP_ROUND:
+                                this.cap = BasicStroke.CAP_ROUND;
+                                break;
+                            case STYLE_CAP_SQUARE:
+                                this.cap = BasicStroke.CAP_SQUARE;
+                                break;
+                            case STYLE_JOIN_BEVEL:
+                                this.cap = BasicStroke.JOIN_BEVEL;
+                                break;
+                            case STYLE_JOIN_MITER:
+                                this.cap = BasicStroke.JOIN_MITER;
+                                break;
+                            case STYLE_JOIN_ROUND:
+                                this.cap = BasicStroke.JOIN_ROUND;
+                                break;
+                            case STYLE_FIXED_SIZE:
+                                last_option = option;
+                                this.fixed_size = true;
+                                break;
+                            case STYLE_OLD_BOLD:
+                                this.font_style = Integer.valueOf(Font.BOLD);
+                                break;
+                            case STYLE_OLD_ITALIC:
+                                this.font_style = Integer.valueOf(Font.ITALIC);
+                                break;
+                            case STYLE_OLD_PLAIN:
+                                this.font_style = Integer.valueOf(Font.PLAIN);
+                                break;
+                            case STYLE_DASH:
+                            case STYLE_DASH_PHASE:
+                            case STYLE_LINE_WIDTH:
+                            case STYLE_LINE_COLOR:
+                            case STYLE_MITER_LIMIT:
+                                last_option = option;
+                                break;
+                            default:
+                                throw new IllegalArgumentException("style attribute (" + option_string + ") has bad format");
+                        }
+                        if (last_option != -1) {
+                            parens_ok = true;
+                        }
+                    }
+                }
+            }
+            if (in_parens) {
+                throw new IllegalArgumentException("style attribute has unmatched left parenthesis");
+            }
+        }
+    }
+
+    private static final class StyleKey
+    {
+        private final int type;
+
+        private final String style;
+
+        StyleKey(int type, String style)
+        {
+            this.type = type;
+            this.style = style;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof StyleKey)) {
+                return (false);
+            }
+
+            StyleKey key = (StyleKey) obj;
+
+            return (this.type == key.type && (this.style == null ? key.style == null : this.style.equals(key.style)));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return ((this.style == null ? 0 : this.style.hashCode()) * 31 + this.type);
+        }
+    }
 }
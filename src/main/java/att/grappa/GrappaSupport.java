@@ -596,7 +596,7 @@ public static Vector findContainedElements(Subgraph subg, GrappaBox box)
     /**
      * Set the highlight on an element and, possibly, related elements. Since deletion can affect related elements
      * (i.e., the edges connected to a node or the sub-elements of a subgraph), those elements are affected as well when
-     * highlighting.
+     * highlighting. The area of each element affected is noted for Graph.repaintDamage().
      *
      * @param elem the element whose highlighting is to be adjusted.
      * @param mode the highlight mode to apply or remove; a mode of zero indicates all highlighting is turned off
@@ -608,6 +608,10 @@ public static void setHighlight(Element elem, int mode, int setting)
         if (elem == null) {
             return;
         }
+
+        Graph graph = elem.getGraph();
+        Element sub;
+
         if (mode == 0) {
             // treat delete specially
             boolean wasDelete = ((elem.highlight & DELETION_MASK) == DELETION_MASK);
@@ -616,12 +620,14 @@ public static void setHighlight(Element elem, int mode, int setting)
                 if (elem.isNode()) {
                     Enumeration<Edge> enm = ((Node) elem).edgeElements();
                     while (enm.hasMoreElements()) {
-                        enm.nextElement().highlight = 0;
+                        (sub = enm.nextElement()).highlight = 0;
+                        graph.damage(sub);
                     }
                 } else if (elem.isSubgraph()) {
                     Enumeration<Element> enm = ((Subgraph) elem).elements();
                     while (enm.hasMoreElements()) {
-                        enm.nextElement().highlight = 0;
+                        (sub = enm.nextElement()).highlight = 0;
+                        graph.damage(sub);
                     }
                 }
             }
@@ -640,29 +646,34 @@ public static void setHighlight(Element elem, int mode, int setting)
                     if ((elem.highlight & DELETION_MASK) == DELETION_MASK) {
                         Enumeration<Edge> enm = ((Node) elem).edgeElements();
                         while (enm.hasMoreElements()) {
-                            enm.nextElement().highlight |= DELETION_MASK;
+                            (sub = enm.nextElement()).highlight |= DELETION_MASK;
+                            graph.damage(sub);
                         }
                     } else {
                         Enumeration<Edge> enm = ((Node) elem).edgeElements();
                         while (enm.hasMoreElements()) {
-                            enm.nextElement().highlight &= ~DELETION_MASK;
+                            (sub = enm.nextElement()).highlight &= ~DELETION_MASK;
+                            graph.damage(sub);
                         }
                     }
                 } else if (elem.isSubgraph()) {
                     if ((elem.highlight & DELETION_MASK) == DELETION_MASK) {
                         Enumeration<Element> enm = ((Subgraph) elem).elements();
                         while (enm.hasMoreElements()) {
-                            enm.nextElement().highlight |= DELETION_MASK;
+                            (sub = enm.nextElement()).highlight |= DELETION_MASK;
+                            graph.damage(sub);
                         }
                     } else {
                         Enumeration<Element> enm = ((Subgraph) elem).elements();
                         while (enm.hasMoreElements()) {
-                            enm.nextElement().highlight &= ~DELETION_MASK;
+                            (sub = enm.nextElement()).highlight &= ~DELETION_MASK;
+                            graph.damage(sub);
                         }
                     }
                 }
             }
         }
+        graph.damage(elem);
     }
 
     /**
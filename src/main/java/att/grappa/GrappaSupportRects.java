@@ -13,6 +13,7 @@
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.util.Map;
 
 /**
  * This class provides a method for parsing RECORD_SHAPE node labels and deriving the RECT_ATTR information from it. It
@@ -86,16 +87,14 @@ public class GrappaSupportRects implements GrappaConstants
 
     final static char NBSP = '\u00a0'; // Unicode no-break space
 
-    private static char[] parseArray = null;
+    // the most recently used record layouts, keyed by label, orientation, font and size
+    private final static int LAYOUT_CACHE_SIZE = 1024;
 
-    private static int arrayOffset = 0;
-
-    private static int fields = 0;
-
-    private static StringBuilder rbuf = null;
+    private final static Map<LayoutKey, RecordLayout> layoutCache =
+        new LruMap<LayoutKey, RecordLayout>(LAYOUT_CACHE_SIZE);
 
     // assumes shape type is RECORD_SHAPE or MRECORD_SHAPE
-    protected static synchronized Object[] parseRecordInfo(Node node)
+    protected static Object[] parseRecordInfo(Node node)
     {
         Object[] objs = { null, null, null };
 
@@ -114,225 +113,340 @@ protected static synchronized Object[] parseRecordInfo(Node node)
             return objs;
         }
 
-        parseArray = label.toCharArray();
-        arrayOffset = 0;
-        TableField tableField = doParse(node, !node.getSubgraph().isLR(), true);
+        boolean LR = !node.getSubgraph().isLR();
+        double width = node.getDoubleAttribute(WIDTH_ATTR, 0) * PointsPerInch;
+        double height = node.getDoubleAttribute(HEIGHT_ATTR, 0) * PointsPerInch;
+        Dimension sz = new Dimension((int) Math.round(width), (int) Math.round(height));
+        String fontname = node.getAttribute(FONTNAME_ATTR).getStringValue();
+        int fontsize = node.getIntAttribute(FONTSIZE_ATTR, 0);
+        LayoutKey key = new LayoutKey(label, LR, fontname, fontsize, sz);
+        RecordLayout layout;
+
+        synchronized (layoutCache) {
+            layout = layoutCache.get(key);
+        }
+        if (layout == null) {
+            layout = layOut(label, LR, fontname, fontsize, sz, new Point(0, 0));
+            synchronized (layoutCache) {
+                layoutCache.put(key, layout);
+            }
+        }
 
-        if (tableField == null) {
+        if (layout.texts == null) {
             node.setAttribute(RECTS_ATTR, null);
             return objs;
         }
+        if (layout.count == 0) {
+            return null;
+        }
 
-        tableField.sizeFields();
-        double width = ((Double) node.getAttributeValue(WIDTH_ATTR)).doubleValue() * PointsPerInch;
-        double height = ((Double) node.getAttributeValue(HEIGHT_ATTR)).doubleValue() * PointsPerInch;
-        Dimension sz = new Dimension((int) Math.round(width), (int) Math.round(height));
-        tableField.resizeFields(sz);
-
+        // the layout is relative to the top-left corner of the node, so only the translation is left to do
         GrappaPoint pos = (GrappaPoint) node.getAttributeValue(POS_ATTR);
-        tableField.positionFields(new Point((int) Math.round(pos.getX() - width / 2.0), (int) Math.round(pos.getY()
-            - height / 2.0)));
-
-        objs[0] = new String[fields];
-        objs[1] = new GrappaPoint[fields];
-        fields = 0;
-        if (emitFields(tableField, objs)) {
-            objs[2] = rbuf.toString();
-            node.setAttribute(RECTS_ATTR, (objs[2]));
-        } else {
-            objs = null;
+        int x0 = (int) Math.round(pos.getX() - width / 2.0);
+        int y0 = (int) Math.round(pos.getY() - height / 2.0);
+        GrappaPoint[] centers = new GrappaPoint[layout.texts.length];
+        StringBuilder rbuf = new StringBuilder();
+
+        for (int i = 0; i < layout.count; i++) {
+            int x = x0 + layout.rects[4 * i];
+            int y = y0 + layout.rects[4 * i + 1];
+            int w = layout.rects[4 * i + 2];
+            int h = layout.rects[4 * i + 3];
+
+            if (i > 0) {
+                rbuf.append(' ');
+            }
+            rbuf.append(x);
+            rbuf.append(',');
+            rbuf.append(Grappa.negateStringYCoord ? -y : y);
+            rbuf.append(',');
+            rbuf.append(x + w);
+            rbuf.append(',');
+            rbuf.append(Grappa.negateStringYCoord ? (-y - h) : (y + h));
+            centers[i] = new GrappaPoint(x + w / 2.0, y + h / 2.0);
         }
-        rbuf = null;
-
-        // for(int i = 0; i < fields; i++) {
-        // pos = ((GrappaPoint[])objs[1])[i];
-        // pos.setLocation(pos.getX() - width, pos.getY() - height);
-        // }
+        objs[0] = layout.texts.clone();
+        objs[1] = centers;
+        objs[2] = rbuf.toString();
+        node.setAttribute(RECTS_ATTR, (objs[2]));
 
         return objs;
     }
 
-    private static boolean emitFields(TableField tf, Object[] objs)
+    // parse, size and position the fields of a record label with its top-left corner at the given point
+    static RecordLayout layOut(String label, boolean LR, String fontname, int fontsize, Dimension sz, Point origin)
     {
-        boolean retval = false;
+        RecordParser parser = new RecordParser(label, fontname, fontsize);
+        TableField tableField = parser.doParse(LR, true);
 
-        if (tf == null) {
-            return false;
+        if (tableField == null) {
+            return (new RecordLayout(null));
         }
 
-        int fc = tf.fieldCount();
+        tableField.sizeFields();
+        tableField.resizeFields(sz);
+        tableField.positionFields(origin);
 
-        if (fc == 0) {
-            Rectangle rect = tf.getBounds();
-            if (rbuf == null) {
-                rbuf = new StringBuilder();
-            } else {
-                rbuf.append(' ');
-            }
-            rbuf.append(rect.x);
-            rbuf.append(',');
-            rbuf.append(Grappa.negateStringYCoord ? -rect.y : rect.y);
-            rbuf.append(',');
-            rbuf.append(rect.x + rect.width);
-            rbuf.append(',');
-            rbuf.append(Grappa.negateStringYCoord ? (-rect.y - rect.height) : (rect.y + rect.height));
-            ;
+        RecordLayout layout = new RecordLayout(new String[parser.fields]);
 
-            ((String[]) objs[0])[fields] = tf.getText();
-            ((GrappaPoint[]) objs[1])[fields] = new GrappaPoint(rect.getCenterX(), rect.getCenterY());
-            fields++;
-            return true;
-        }
-        for (int cnt = 0; cnt < fc; cnt++) {
-            if (emitFields(tf.fieldAt(cnt), objs)) {
-                retval = true;
-            }
-        }
-        return (retval);
+        layout.emitFields(tableField);
+        return (layout);
     }
 
-    private static TableField doParse(Node node, boolean LR, boolean topLevel)
+    private static boolean isSpec(char c)
     {
-        int maxf = 1;
-        int cnt = 0;
-        for (int pos = arrayOffset; pos < parseArray.length; pos++) {
-            if (parseArray[pos] == '\\') {
-                pos++;
-                if (pos < parseArray.length
-                    && (parseArray[pos] == '{' || parseArray[pos] == '}' || parseArray[pos] == '|')) {
-                    continue;
+        return ((c) == '{' || (c) == '}' || (c) == '|' || (c) == '<' || (c) == '>');
+    }
+
+    // the state of one parse of a record label
+    private static final class RecordParser
+    {
+        private final char[] parseArray;
+
+        private int arrayOffset = 0;
+
+        private int fields = 0;
+
+        private final String fontname;
+
+        private final int fontsize;
+
+        RecordParser(String label, String fontname, int fontsize)
+        {
+            this.parseArray = label.toCharArray();
+            this.fontname = fontname;
+            this.fontsize = fontsize;
+        }
+
+        TableField doParse(boolean LR, boolean topLevel)
+        {
+            int maxf = 1;
+            int cnt = 0;
+            for (int pos = this.arrayOffset; pos < this.parseArray.length; pos++) {
+                if (this.parseArray[pos] == '\\') {
+                    pos++;
+                    if (pos < this.parseArray.length && (this.parseArray[pos] == '{' || this.parseArray[pos] == '}'
+                        || this.parseArray[pos] == '|')) {
+                        continue;
+                    }
+                }
+                if (this.parseArray[pos] == '{') {
+                    cnt++;
+                } else if (this.parseArray[pos] == '}') {
+                    cnt--;
+                } else if (cnt == 0 && this.parseArray[pos] == '|') {
+                    maxf++;
+                }
+                if (cnt < 0) {
+                    break;
                 }
             }
-            if (parseArray[pos] == '{') {
-                cnt++;
-            } else if (parseArray[pos] == '}') {
-                cnt--;
-            } else if (cnt == 0 && parseArray[pos] == '|') {
-                maxf++;
+
+            TableField rv = new TableField();
+            rv.setLR(LR);
+            rv.subfields(maxf);
+            if (topLevel) {
+                rv.setParent(null);
             }
-            if (cnt < 0) {
-                break;
+
+            StringBuilder textBuf, portBuf;
+            textBuf = new StringBuilder();
+            portBuf = new StringBuilder();
+
+            int mode = 0;
+            boolean wflag = true;
+            TableField tf = null;
+            char curCh = '\000';
+            while (wflag) {
+                if (this.arrayOffset >= this.parseArray.length) {
+                    curCh = '\000';
+                    wflag = false;
+                } else {
+                    curCh = this.parseArray[this.arrayOffset];
+                }
+                switch (curCh) {
+                    case '<':
+                        if ((mode & (HASTABLE | HASPORT)) != 0) {
+                            return null;
+                        }
+                        mode |= (HASPORT | INPORT);
+                        this.arrayOffset++;
+                        break;
+                    case '>':
+                        if ((mode & INPORT) == 0) {
+                            return null;
+                        }
+                        mode &= ~INPORT;
+                        this.arrayOffset++;
+                        break;
+                    case '{':
+                        this.arrayOffset++;
+                        if (mode != 0 || this.arrayOffset >= this.parseArray.length) {
+                            return null;
+                        }
+                        mode = HASTABLE;
+                        if ((tf = doParse(!LR, false)) == null) {
+                            return null;
+                        } else {
+                            rv.addField(tf);
+                            tf.setParent(rv);
+                        }
+                        break;
+                    case '}':
+                    case '|':
+                    case '\000':
+                        if ((this.arrayOffset >= this.parseArray.length && !topLevel) || (mode & INPORT) != 0) {
+                            return null;
+                        }
+                        if ((mode & HASTABLE) == 0) {
+                            tf = new TableField();
+                            rv.addField(tf);
+                            tf.setLR(!LR);
+                            tf.setParent(rv);
+                            if ((mode & HASPORT) != 0) {
+                                tf.setId(portBuf.toString().trim());
+                                portBuf.setLength(0);
+                            }
+                        }
+                        if ((mode & (HASTEXT | HASTABLE)) == 0) {
+                            mode |= HASTEXT;
+                            textBuf.append(' ');
+                        }
+                        if ((mode & HASTEXT) != 0) {
+                            tf.setTextBounds(textBuf.toString().trim(), this.fontname, this.fontsize);
+                            this.fields++;
+                            // tf.setLR(true);
+                            textBuf.setLength(0);
+                        }
+                        if (this.arrayOffset < this.parseArray.length) {
+                            if (curCh == '}') {
+                                this.arrayOffset++;
+                                return rv;
+                            }
+                            mode = 0;
+                            this.arrayOffset++;
+                        }
+                        break;
+                    case '\\':
+                        if (this.arrayOffset + 1 < this.parseArray.length) {
+                            if (isSpec(this.parseArray[this.arrayOffset + 1])) {
+                                this.arrayOffset++;
+                                curCh = this.parseArray[this.arrayOffset];
+                            } else if (this.parseArray[this.arrayOffset + 1] == ' ') {
+                                this.arrayOffset++;
+                                curCh = NBSP;
+                            }
+                        }
+                        // fall through...
+                    default:
+                        if ((mode & HASTABLE) != 0 && curCh != ' ' && curCh != NBSP) {
+                            return null;
+                        }
+                        if ((mode & (INTEXT | INPORT)) == 0 && curCh != ' ' && curCh != NBSP) {
+                            mode |= (INTEXT | HASTEXT);
+                        }
+                        if ((mode & INTEXT) != 0) {
+                            textBuf.append(curCh);
+                        } else if ((mode & INPORT) != 0) {
+                            portBuf.append(curCh);
+                        }
+                        this.arrayOffset++;
+                        break;
+                }
             }
+            return rv;
         }
+    }
+
+    // the fields of a record label as laid out; texts is null if the label could not be parsed
+    static final class RecordLayout
+    {
+        final String[] texts;
+
+        // x, y, width and height of each field
+        final int[] rects;
 
-        TableField rv = new TableField();
-        rv.setLR(LR);
-        rv.subfields(maxf);
-        if (topLevel) {
-            rv.setParent(null);
+        int count = 0;
+
+        RecordLayout(String[] texts)
+        {
+            this.texts = texts;
+            this.rects = new int[4 * (texts == null ? 0 : texts.length)];
         }
 
-        StringBuilder textBuf, portBuf;
-        textBuf = new StringBuilder();
-        portBuf = new StringBuilder();
+        void emitFields(TableField tf)
+        {
+            if (tf == null) {
+                return;
+            }
+
+            int fc = tf.fieldCount();
 
-        int mode = 0;
-        boolean wflag = true;
-        TableField tf = null;
-        char curCh = '\000';
-        while (wflag) {
-            if (arrayOffset >= parseArray.length) {
-                curCh = '\000';
-                wflag = false;
-            } else {
-                curCh = parseArray[arrayOffset];
+            if (fc == 0) {
+                Rectangle rect = tf.getBounds();
+
+                this.rects[4 * this.count] = rect.x;
+                this.rects[4 * this.count + 1] = rect.y;
+                this.rects[4 * this.count + 2] = rect.width;
+                this.rects[4 * this.count + 3] = rect.height;
+                this.texts[this.count++] = tf.getText();
+                return;
             }
-            switch (curCh) {
-                case '<':
-                    if ((mode & (HASTABLE | HASPORT)) != 0) {
-                        return null;
-                    }
-                    mode |= (HASPORT | INPORT);
-                    arrayOffset++;
-                    break;
-                case '>':
-                    if ((mode & INPORT) == 0) {
-                        return null;
-                    }
-                    mode &= ~INPORT;
-                    arrayOffset++;
-                    break;
-                case '{':
-                    arrayOffset++;
-                    if (mode != 0 || arrayOffset >= parseArray.length) {
-                        return null;
-                    }
-                    mode = HASTABLE;
-                    if ((tf = doParse(node, !LR, false)) == null) {
-                        return null;
-                    } else {
-                        rv.addField(tf);
-                        tf.setParent(rv);
-                    }
-                    break;
-                case '}':
-                case '|':
-                case '\000':
-                    if ((arrayOffset >= parseArray.length && !topLevel) || (mode & INPORT) != 0) {
-                        return null;
-                    }
-                    if ((mode & HASTABLE) == 0) {
-                        tf = new TableField();
-                        rv.addField(tf);
-                        tf.setLR(!LR);
-                        tf.setParent(rv);
-                        if ((mode & HASPORT) != 0) {
-                            tf.setId(portBuf.toString().trim());
-                            portBuf.setLength(0);
-                        }
-                    }
-                    if ((mode & (HASTEXT | HASTABLE)) == 0) {
-                        mode |= HASTEXT;
-                        textBuf.append(' ');
-                    }
-                    if ((mode & HASTEXT) != 0) {
-                        tf.setTextBounds(textBuf.toString().trim(), node);
-                        fields++;
-                        // tf.setLR(true);
-                        textBuf.setLength(0);
-                    }
-                    if (arrayOffset < parseArray.length) {
-                        if (curCh == '}') {
-                            arrayOffset++;
-                            return rv;
-                        }
-                        mode = 0;
-                        arrayOffset++;
-                    }
-                    break;
-                case '\\':
-                    if (arrayOffset + 1 < parseArray.length) {
-                        if (isSpec(parseArray[arrayOffset + 1])) {
-                            arrayOffset++;
-                            curCh = parseArray[arrayOffset];
-                        } else if (parseArray[arrayOffset + 1] == ' ') {
-                            arrayOffset++;
-                            curCh = NBSP;
-                        }
-                    }
-                    // fall through...
-                default:
-                    if ((mode & HASTABLE) != 0 && curCh != ' ' && curCh != NBSP) {
-                        return null;
-                    }
-                    if ((mode & (INTEXT | INPORT)) == 0 && curCh != ' ' && curCh != NBSP) {
-                        mode |= (INTEXT | HASTEXT);
-                    }
-                    if ((mode & INTEXT) != 0) {
-                        textBuf.append(curCh);
-                    } else if ((mode & INPORT) != 0) {
-                        portBuf.append(curCh);
-                    }
-                    arrayOffset++;
-                    break;
+            for (int cnt = 0; cnt < fc; cnt++) {
+                emitFields(tf.fieldAt(cnt));
             }
         }
-        return rv;
     }
 
-    private static boolean isSpec(char c)
+    private static final class LayoutKey
     {
-        return ((c) == '{' || (c) == '}' || (c) == '|' || (c) == '<' || (c) == '>');
+        private final String label;
+
+        private final boolean LR;
+
+        private final String fontname;
+
+        private final int fontsize;
+
+        private final int width;
+
+        private final int height;
+
+        LayoutKey(String label, boolean LR, String fontname, int fontsize, Dimension sz)
+        {
+            this.label = label;
+            this.LR = LR;
+            this.fontname = fontname;
+            this.fontsize = fontsize;
+            this.width = sz.width;
+            this.height = sz.height;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof LayoutKey)) {
+                return (false);
+            }
+
+            LayoutKey key = (LayoutKey) obj;
+
+            return (this.LR == key.LR && this.fontsize == key.fontsize && this.width == key.width
+                && this.height == key.height && this.label.equals(key.label)
+                && (this.fontname == null ? key.fontname == null : this.fontname.equals(key.fontname)));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = this.label.hashCode();
+
+            hash = hash * 31 + (this.fontname == null ? 0 : this.fontname.hashCode());
+            hash = hash * 31 + this.fontsize;
+            hash = hash * 31 + this.width;
+            hash = hash * 31 + this.height;
+            return (this.LR ? ~hash : hash);
+        }
     }
 }
 
@@ -641,13 +755,13 @@ private void posFields(TableField tf, Point pos)
         }
     }
 
-    void setTextBounds(String str, Node node)
+    void setTextBounds(String str, String fontname, int fontsize)
     {
         int lines = 1;
         boolean cwFont = false;
         double[] fontwidth = { GrappaSupportRects.constantFontwidth };
 
-        String fontname = node.getAttribute(FONTNAME_ATTR).getStringValue().toLowerCase();
+        fontname = fontname.toLowerCase();
         if (fontname.startsWith("courier") || fontname.startsWith("monospaced")) {
             cwFont = true;
         } else if (fontname.startsWith("helvetica") || fontname.startsWith("sansserif")) {
@@ -681,7 +795,7 @@ void setTextBounds(String str, Node node)
         if (fwidth > xwidth) {
             xwidth = fwidth;
         }
-        int height = ((Integer) node.getAttributeValue(FONTSIZE_ATTR)).intValue();
+        int height = fontsize;
         int width = (int) Math.round(height * xwidth);
         this.textBounds = new Rectangle(0, 0, width, height * lines);
         this.text = str;
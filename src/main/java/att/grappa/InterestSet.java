@@ -0,0 +1,174 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set of attribute ids (see <code>AttributeRegistry</code>), used for the attributes of interest to an
+ * element. The set is a bit mask over the ids; since the names Grappa knows about have the lowest ids, the sets for
+ * the element types fit in a single word. All elements of a type share one set, and an element gets a set of its own
+ * only when attributes are added to or removed from its interests.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see Element#attrOfInterest(String)
+ */
+final class InterestSet
+{
+    /**
+     * The set with no attributes in it.
+     */
+    static final InterestSet EMPTY = new InterestSet(new long[0]);
+
+    private final long[] words;
+
+    private InterestSet(long[] words)
+    {
+        this.words = words;
+    }
+
+    /**
+     * Get the set of the named attributes.
+     *
+     * @param names attribute names
+     * @return the set
+     */
+    static InterestSet of(String... names)
+    {
+        return EMPTY.with(names);
+    }
+
+    /**
+     * Get a set holding the attributes of this set and the named attributes.
+     *
+     * @param names attribute names
+     * @return the set, which is this set if nothing was added
+     */
+    InterestSet with(String... names)
+    {
+        InterestSet set = this;
+
+        for (String name : names) {
+            set = set.with(AttributeRegistry.register(name));
+        }
+        return set;
+    }
+
+    /**
+     * Get a set holding the attributes of this set and the attribute with the supplied id.
+     *
+     * @param id an attribute id
+     * @return the set, which is this set if the id is already in it
+     */
+    InterestSet with(int id)
+    {
+        if (contains(id)) {
+            return this;
+        }
+
+        long[] added = new long[Math.max(this.words.length, (id >>> 6) + 1)];
+
+        System.arraycopy(this.words, 0, added, 0, this.words.length);
+        added[id >>> 6] |= 1L << id;
+        return new InterestSet(added);
+    }
+
+    /**
+     * Get a set holding the attributes of this set except the attribute with the supplied id.
+     *
+     * @param id an attribute id
+     * @return the set, which is this set if the id is not in it
+     */
+    InterestSet without(int id)
+    {
+        if (!contains(id)) {
+            return this;
+        }
+
+        long[] removed = this.words.clone();
+
+        removed[id >>> 6] &= ~(1L << id);
+        return new InterestSet(removed);
+    }
+
+    /**
+     * Check whether the attribute with the supplied id is in this set.
+     *
+     * @param id an attribute id
+     * @return true if it is in the set
+     */
+    boolean contains(int id)
+    {
+        int index = id >>> 6;
+
+        return (id >= 0 && index < this.words.length && (this.words[index] & (1L << id)) != 0L);
+    }
+
+    /**
+     * Get the lowest attribute id in this set that is not less than the supplied id.
+     *
+     * @param id an attribute id
+     * @return the next id in the set, or -1 if there is none
+     */
+    int next(int id)
+    {
+        int index = id >>> 6;
+        long word;
+
+        if (index >= this.words.length) {
+            return -1;
+        }
+        word = this.words[index] & (-1L << id);
+        for (;;) {
+            if (word != 0L) {
+                return ((index << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if (++index == this.words.length) {
+                return -1;
+            }
+            word = this.words[index];
+        }
+    }
+
+    /**
+     * Get an enumeration of the names of the attributes in this set, in id order.
+     *
+     * @return an enumeration of attribute names
+     */
+    Enumeration<String> names()
+    {
+        return new Enumeration<String>() {
+            private int id = next(0);
+
+            @Override
+            public boolean hasMoreElements()
+            {
+                return (this.id >= 0);
+            }
+
+            @Override
+            public String nextElement()
+            {
+                if (this.id < 0) {
+                    throw new NoSuchElementException();
+                }
+
+                String name = AttributeRegistry.name(this.id);
+
+                this.id = next(this.id + 1);
+                return name;
+            }
+        };
+    }
+}
@@ -74,15 +74,17 @@
     /**
      * Count of warnings issued so far
      */
-    @SuppressWarnings("unused")
     private int warning_count = 0;
 
     /**
-     * hash tables to hold symbols
+     * hash table to hold keywords
      */
     private Hashtable<String, Integer> keywords = new Hashtable<>(32);
 
-    private Hashtable<Integer, Integer> char_symbols = new Hashtable<>(32);
+    /**
+     * String value of the most recently scanned token (only set for ATOM tokens)
+     */
+    private String token_value = null;
 
     private Reader inReader;
 
@@ -131,16 +133,6 @@ public void init() throws IOException
         this.keywords.put("--", new Integer(Symbols.ND_EDGE_OP));
         this.keywords.put("->", new Integer(Symbols.D_EDGE_OP));
 
-        // set up the table of single character symbols
-        this.char_symbols.put(new Integer(';'), new Integer(Symbols.SEMI));
-        this.char_symbols.put(new Integer(','), new Integer(Symbols.COMMA));
-        this.char_symbols.put(new Integer('{'), new Integer(Symbols.LCUR));
-        this.char_symbols.put(new Integer('}'), new Integer(Symbols.RCUR));
-        this.char_symbols.put(new Integer('['), new Integer(Symbols.LBR));
-        this.char_symbols.put(new Integer(']'), new Integer(Symbols.RBR));
-        this.char_symbols.put(new Integer('='), new Integer(Symbols.EQUAL));
-        this.char_symbols.put(new Integer(':'), new Integer(Symbols.COLON));
-
         // read two characters of lookahead
         advance();
         advance();
@@ -244,7 +236,39 @@ private void emit_error(String message)
      */
     public String getLocation()
     {
-        return "[" + this.current_line + "(" + this.current_position + ")]";
+        return location(this.current_line, this.current_position);
+    }
+
+    /**
+     * Get the current line number.
+     *
+     * @return the current line number in the input
+     */
+    public int getLine()
+    {
+        return this.current_line;
+    }
+
+    /**
+     * Get the current character position in the current line.
+     *
+     * @return the current character position
+     */
+    public int getPosition()
+    {
+        return this.current_position;
+    }
+
+    /**
+     * Format a location in the form "[line_number(character_offser)]".
+     *
+     * @param line the line number
+     * @param position the character position in the line
+     * @return the formatted location
+     */
+    static String location(int line, int position)
+    {
+        return "[" + line + "(" + position + ")]";
     }
 
     /**
@@ -287,15 +311,27 @@ public static boolean id_char(char ch)
      *
      * @param ch the character in question.
      */
-    private int find_single_char(int ch)
+    private static int find_single_char(int ch)
     {
-        Integer result;
-
-        result = this.char_symbols.get(new Integer((char) ch));
-        if (result == null) {
-            return -1;
-        } else {
-            return result.intValue();
+        switch (ch) {
+            case ';':
+                return Symbols.SEMI;
+            case ',':
+                return Symbols.COMMA;
+            case '{':
+                return Symbols.LCUR;
+            case '}':
+                return Symbols.RCUR;
+            case '[':
+                return Symbols.LBR;
+            case ']':
+                return Symbols.RBR;
+            case '=':
+                return Symbols.EQUAL;
+            case ':':
+                return Symbols.COLON;
+            default:
+                return -1;
         }
     }
 
@@ -352,9 +388,9 @@ private void swallow_comment() throws IOException
     /**
      * Swallow up a quote string. Quote strings begin with a double quote and include all characters up to the first
      * occurrence of another double quote (there is no way to include a double quote inside a quote string). The routine
-     * returns a Symbol object suitable for return by the scanner.
+     * returns the ATOM symbol number and leaves the string in token_value.
      */
-    private Symbol do_quote_string() throws IOException
+    private int do_quote_string() throws IOException
     {
         String result_str;
 
@@ -375,25 +411,26 @@ private Symbol do_quote_string() throws IOException
                     break;
                 }
                 // otherwise record the char and move on
-                this.cmnstrbuf.append(new Character((char) this.next_char));
+                this.cmnstrbuf.append((char) this.next_char);
                 advance();
             }
 
             result_str = this.cmnstrbuf.toString();
         }
 
-        // advance past the closing double quote and build a return Symbol
+        // advance past the closing double quote and record the token value
         advance();
         this.haveId = true;
-        return new Symbol(Symbols.ATOM, result_str);
+        this.token_value = result_str;
+        return Symbols.ATOM;
     }
 
     /**
      * Swallow up an html-like string.  Html-like strings begin with a '<'
      * and include all characters up to the first matching occurrence of a '>'
-     * The routine returns a Symbol object suitable for return by the scanner.
+     * The routine returns the ATOM symbol number and leaves the string in token_value.
      */
-    private Symbol do_html_string() throws IOException
+    private int do_html_string() throws IOException
     {
         String result_str;
         int angles = 0;
@@ -413,42 +450,39 @@ private Symbol do_html_string() throws IOException
                     angles--;
                 }
 
-                this.cmnstrbuf.append(new Character((char) this.next_char));
+                this.cmnstrbuf.append((char) this.next_char);
                 advance();
             } while (angles > 0);
 
             result_str = this.cmnstrbuf.toString();
         }
 
-        // advance past the closing double quote and build a return Symbol
+        // advance past the closing double quote and record the token value
         advance();
         this.haveId = true;
-        return new Symbol(Symbols.ATOM, result_str);
+        this.token_value = result_str;
+        return Symbols.ATOM;
     }
 
     /**
      * Process an identifier. Identifiers begin with a letter, underscore, or dollar sign, which is followed by zero or
-     * more letters, numbers, underscores or dollar signs. This routine returns an Symbol suitable for return by the
-     * scanner.
+     * more letters, numbers, underscores or dollar signs. This routine returns the keyword or ATOM symbol number; for
+     * an ATOM the identifier is left in token_value.
      */
-    private Symbol do_id() throws IOException
+    private int do_id() throws IOException
     {
         String result_str;
         Integer keyword_num;
-        char buffer[] = new char[1];
-
-        // next_char holds first character of id
-        buffer[0] = (char) this.next_char;
 
         synchronized (this.cmnstrbuf) {
             this.cmnstrbuf.delete(0, this.cmnstrbuf.length()); // faster than cmnstrbuf.setLength(0)!
-            this.cmnstrbuf.append(buffer, 0, 1);
+            // next_char holds first character of id
+            this.cmnstrbuf.append((char) this.next_char);
             advance();
 
             // collect up characters while they fit in id
             while (id_char(this.next_char)) {
-                buffer[0] = (char) this.next_char;
-                this.cmnstrbuf.append(buffer, 0, 1);
+                this.cmnstrbuf.append((char) this.next_char);
                 advance();
             }
             // extract a string and try to look it up as a keyword
@@ -460,22 +494,23 @@ private Symbol do_id() throws IOException
         // if we found something, return that keyword
         if (keyword_num != null) {
             this.haveId = false;
-            return new Symbol(keyword_num.intValue());
+            return keyword_num.intValue();
         }
 
-        // otherwise build and return an id Symbol with an attached string
+        // otherwise return an id symbol with the attached string
         this.haveId = true;
-        return new Symbol(Symbols.ATOM, result_str);
+        this.token_value = result_str;
+        return Symbols.ATOM;
     }
 
     /**
-     * The actual routine to return one Symbol. This is normally called from next_token(), but for debugging purposes
-     * can be called indirectly from debug_next_token().
+     * The actual routine to scan one symbol. This is normally called from next_token_sym() or next_token().
      */
-    private Symbol real_next_token() throws IOException
+    private int real_next_token() throws IOException
     {
         int sym_num;
 
+        this.token_value = null;
         for (;;) {
             // look for white space
             if (this.next_char == ' ' || this.next_char == '\t' || this.next_char == '\n' ||
@@ -492,12 +527,12 @@ private Symbol real_next_token() throws IOException
                     advance();
                     advance();
                     this.haveId = false;
-                    return new Symbol(Symbols.D_EDGE_OP);
+                    return Symbols.D_EDGE_OP;
                 } else if (this.next_char2 == '-') {
                     advance();
                     advance();
                     this.haveId = false;
-                    return new Symbol(Symbols.ND_EDGE_OP);
+                    return Symbols.ND_EDGE_OP;
                 }
             }
 
@@ -505,16 +540,15 @@ private Symbol real_next_token() throws IOException
             sym_num = find_single_char(this.next_char);
             if (sym_num != -1) {
                 if (sym_num == Symbols.LCUR && !this.haveId) {
-                    Symbol result = new Symbol(Symbols.SUBGRAPH);
                     this.haveId = true;
                     retreat();
-                    return result;
+                    return Symbols.SUBGRAPH;
                 }
 
-                // found one -- advance past it and return a Symbol for it
+                // found one -- advance past it and return its symbol number
                 advance();
                 this.haveId = false;
-                return new Symbol(sym_num);
+                return sym_num;
             }
 
             // look for quoted string
@@ -542,7 +576,7 @@ private Symbol real_next_token() throws IOException
             // look for EOF
             if (this.next_char == EOF_CHAR) {
                 this.haveId = false;
-                return new Symbol(Symbols.EOF);
+                return Symbols.EOF;
             }
 
             // if we get here, we have an unrecognized character
@@ -556,21 +590,58 @@ private Symbol real_next_token() throws IOException
     }
 
     /**
-     * Return one Symbol. This method is the main external interface to the scanner. It consumes sufficient characters
-     * to determine the next input Symbol and returns it.
+     * Scan one symbol without allocating a Symbol object. This method is the main external interface to the scanner. It
+     * consumes sufficient characters to determine the next input symbol and returns its number (one of the terminal
+     * constants in Symbols). The string value of an ATOM symbol is available from getTokenValue().
      *
+     * @param debugLevel the debug level of the calling parser
+     * @return the symbol number of the token that was scanned
      * @exception IOException if <code>advance()</code> does
+     * @see Lexer#getTokenValue()
+     */
+    public int next_token_sym(int debugLevel) throws IOException
+    {
+        int result = real_next_token();
+        if (debugLevel >= 5 && this.errWriter != null) {
+            this.errWriter.println("DEBUG: Lexer: next_token() => " + result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of warnings issued so far.
+     *
+     * @return the count of warnings issued by this lexer
+     */
+    public int getWarningCount()
+    {
+        return this.warning_count;
+    }
+
+    /**
+     * Get the string value of the most recently scanned symbol.
+     *
+     * @return the text of the last ATOM symbol scanned, or null if the last symbol was not an ATOM
+     */
+    public String getTokenValue()
+    {
+        return this.token_value;
+    }
+
+    /**
+     * Return one Symbol. A convenience wrapper around next_token_sym() for callers that want a Symbol object.
+     *
+     * @param debugLevel the debug level of the calling parser
+     * @return the scanned Symbol, with the ATOM string (if any) as its value
+     * @exception IOException if <code>advance()</code> does
+     * @see Lexer#next_token_sym(int)
      */
     public Symbol next_token(int debugLevel) throws IOException
     {
-        if (debugLevel > 0) {
-            Symbol result = real_next_token();
-            if (this.errWriter != null && debugLevel >= 5) {
-                this.errWriter.println("DEBUG: Lexer: next_token() => " + result.sym);
-            }
-            return result;
-        } else {
-            return real_next_token();
+        int sym = next_token_sym(debugLevel);
+        if (this.token_value != null) {
+            return new Symbol(sym, this.token_value);
         }
+        return new Symbol(sym);
     }
 }
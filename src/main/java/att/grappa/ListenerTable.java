@@ -0,0 +1,130 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * The attribute listeners registered with a single element, keyed by attribute id. Entries are kept in a pair of
+ * parallel arrays that are replaced rather than modified, so a listener may add or remove listeners while it is being
+ * called. Elements with no listeners have no table.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see AttributeListener
+ */
+final class ListenerTable
+{
+    private static final int[] NO_IDS = new int[0];
+
+    private static final AttributeListener[] NO_LISTENERS = new AttributeListener[0];
+
+    // the attribute id each listener is registered for and the matching listener
+    private int[] ids = NO_IDS;
+
+    private AttributeListener[] listeners = NO_LISTENERS;
+
+    /**
+     * Register a listener for an attribute id. Registering the same listener for the same id twice has no effect.
+     *
+     * @param id an attribute id
+     * @param listener the listener
+     */
+    void add(int id, AttributeListener listener)
+    {
+        int count = this.ids.length;
+
+        for (int i = 0; i < count; i++) {
+            if (this.ids[i] == id && this.listeners[i] == listener) {
+                return;
+            }
+        }
+
+        int[] growIds = new int[count + 1];
+        AttributeListener[] growListeners = new AttributeListener[count + 1];
+        System.arraycopy(this.ids, 0, growIds, 0, count);
+        System.arraycopy(this.listeners, 0, growListeners, 0, count);
+        growIds[count] = id;
+        growListeners[count] = listener;
+        this.ids = growIds;
+        this.listeners = growListeners;
+    }
+
+    /**
+     * Unregister a listener for an attribute id.
+     *
+     * @param id an attribute id
+     * @param listener the listener
+     */
+    void remove(int id, AttributeListener listener)
+    {
+        int count = this.ids.length;
+
+        for (int i = 0; i < count; i++) {
+            if (this.ids[i] == id && this.listeners[i] == listener) {
+                int[] shrunkIds = new int[count - 1];
+                AttributeListener[] shrunkListeners = new AttributeListener[count - 1];
+                System.arraycopy(this.ids, 0, shrunkIds, 0, i);
+                System.arraycopy(this.listeners, 0, shrunkListeners, 0, i);
+                System.arraycopy(this.ids, i + 1, shrunkIds, i, count - i - 1);
+                System.arraycopy(this.listeners, i + 1, shrunkListeners, i, count - i - 1);
+                this.ids = shrunkIds;
+                this.listeners = shrunkListeners;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Check whether any listener is registered for an attribute id.
+     *
+     * @param id an attribute id
+     * @return true if there is at least one listener for the id
+     */
+    boolean contains(int id)
+    {
+        for (int registered : this.ids) {
+            if (registered == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether the table is empty.
+     *
+     * @return true if no listeners are registered
+     */
+    boolean isEmpty()
+    {
+        return (this.ids.length == 0);
+    }
+
+    /**
+     * Call the listeners registered for the id of the supplied attribute.
+     *
+     * @param elem the element whose attribute changed
+     * @param attr the attribute now in effect
+     * @param when the time of the change
+     */
+    void fire(Element elem, Attribute attr, long when)
+    {
+        int[] list = this.ids;
+        AttributeListener[] targets = this.listeners;
+        int id = attr.getNameId();
+
+        for (int i = 0; i < list.length; i++) {
+            if (list[i] == id) {
+                targets[i].attributeChanged(elem, attr, when);
+            }
+        }
+    }
+}
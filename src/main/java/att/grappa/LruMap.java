@@ -0,0 +1,48 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A map that keeps at most a fixed number of entries, dropping the least recently used one when a new entry would
+ * exceed the limit. It is the table behind the shared font, path, style and record layout caches. Like
+ * <code>LinkedHashMap</code> it is not synchronized, and since a lookup reorders the entries, even reads must hold
+ * the map's lock when it is shared between threads.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ */
+final class LruMap<K, V> extends LinkedHashMap<K, V>
+{
+    private static final long serialVersionUID = 1L;
+
+    private final int limit;
+
+    /**
+     * Make an empty map holding at most the supplied number of entries.
+     *
+     * @param limit the number of entries kept
+     */
+    LruMap(int limit)
+    {
+        super(2 * limit, 0.75f, true);
+        this.limit = limit;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+    {
+        return (size() > this.limit);
+    }
+}
@@ -48,7 +48,7 @@ public Node(Subgraph subg, String name)
         super(GrappaConstants.NODE, subg);
         setName(name);
 
-        nodeAttrsOfInterest();
+        this.interest = NODE_INTEREST;
     }
 
     /**
@@ -62,19 +62,9 @@ public Node(Subgraph subg)
         this(subg, (String) null);
     }
 
-    // a listing of the attributes of interest for Nodes
-    private void nodeAttrsOfInterest()
-    {
-        attrOfInterest(DISTORTION_ATTR);
-        attrOfInterest(HEIGHT_ATTR);
-        attrOfInterest(ORIENTATION_ATTR);
-        attrOfInterest(PERIPHERIES_ATTR);
-        attrOfInterest(POS_ATTR);
-        attrOfInterest(SIDES_ATTR);
-        attrOfInterest(SKEW_ATTR);
-        attrOfInterest(STYLE_ATTR);
-        attrOfInterest(WIDTH_ATTR);
-    }
+    // the attributes of interest for Nodes
+    private static final InterestSet NODE_INTEREST = ELEMENT_INTEREST.with(DISTORTION_ATTR, HEIGHT_ATTR, ORIENTATION_ATTR,
+        PERIPHERIES_ATTR, POS_ATTR, SIDES_ATTR, SKEW_ATTR, STYLE_ATTR, WIDTH_ATTR);
 
     // override Element methods
 
@@ -271,10 +261,10 @@ public GrappaPoint getCenterPoint()
         if (pt == null) { // this should never be null, but just in case...
             pt = new GrappaPoint();
         } else if (!Grappa.centerPointNodes) {
-            Double w = (Double) getAttributeValue(WIDTH_ATTR);
-            Double h = (Double) getAttributeValue(HEIGHT_ATTR);
-            if (w != null && h != null) { // these should never be null, but...
-                pt = new GrappaPoint(pt.x - (w.doubleValue() / 2.0), pt.y - (h.doubleValue() / 2.0));
+            double w = getDoubleAttribute(WIDTH_ATTR, Double.NaN);
+            double h = getDoubleAttribute(HEIGHT_ATTR, Double.NaN);
+            if (!Double.isNaN(w) && !Double.isNaN(h)) { // these should never be missing, but...
+                pt = new GrappaPoint(pt.x - (w / 2.0), pt.y - (h / 2.0));
             }
         } else {
             pt = new GrappaPoint(pt.x, pt.y); // return copy
@@ -0,0 +1,287 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.io.CharArrayReader;
+
+/**
+ * A run of top-level statements of a <i>dot</i> graph body that is lexed and parsed on its own (possibly on another
+ * thread) by <code>Parser.parallel_parse</code>. Rather than building graph elements, parsing a chunk records the
+ * semantic actions it would have performed, in order, so that they can later be replayed against the graph on the
+ * parsing thread. Replaying the chunks in input order performs exactly the same actions as a sequential parse, so node
+ * ownership, default attribute scoping and edge creation order are unaffected.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see Parser#parallel_parse(int)
+ */
+final class ParseChunk
+{
+    /** Append an attribute; operand is a prebuilt <code>Attribute</code>. */
+    static final int ATTR = 0;
+
+    /**
+     * Append an attribute whose element type was not known while parsing the chunk; operands are its name and value.
+     */
+    static final int DEFERRED_ATTR = 1;
+
+    /** Apply pending attributes as defaults; followed in the op list by the element type. */
+    static final int ATTR_STMT = 2;
+
+    /** Open a subgraph; operand is its name, or null for an anonymous subgraph. */
+    static final int OPEN_SUBG = 3;
+
+    /** Close the current subgraph. */
+    static final int CLOSE_SUBG = 4;
+
+    /** Append a node to the current node list; operands are the node name and port. */
+    static final int NODE = 5;
+
+    /** Finish a node statement. */
+    static final int NODE_WRAP = 6;
+
+    /**
+     * Buffer the preceding node list or subgraph as the tail of an edge; followed in the op list by 1 for a directed
+     * edge operator and 0 otherwise.
+     */
+    static final int EDGE_OP = 7;
+
+    /** Finish an edge statement. */
+    static final int EDGE_WRAP = 8;
+
+    /** Element type used while parsing a chunk until the first statement that determines it. */
+    static final int UNKNOWN_TYPE = -1;
+
+    /** Smallest chunk (in characters) worth handing to another thread. */
+    static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    // the input buffer and the range of it covered by this chunk
+    final char[] input;
+
+    final int start;
+
+    final int end;
+
+    // recorded actions and their operands
+    int[] ops = new int[256];
+
+    int opCount = 0;
+
+    Object[] args = new Object[256];
+
+    int argCount = 0;
+
+    // set when the chunk could not be parsed cleanly on its own
+    boolean failed = false;
+
+    ParseChunk(char[] input, int start, int end)
+    {
+        this.input = input;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Parse this chunk, recording its actions. Any syntax error, semantic error or lexer warning marks the chunk as
+     * failed; the caller then falls back to a sequential parse, which reports the problem at its proper location. So
+     * does an error, such as a stack overflow on deeply nested subgraphs, since the executor running the chunk would
+     * otherwise keep it to itself and the partial actions would be replayed.
+     */
+    void parse()
+    {
+        Parser parser = new Parser(new CharArrayReader(this.input, this.start, this.end - this.start), null);
+        try {
+            parser.parseChunk(this);
+            if (parser.getLexer().getWarningCount() > 0) {
+                this.failed = true;
+            }
+        } catch (Throwable ex) {
+            this.failed = true;
+        }
+    }
+
+    void addOp(int op)
+    {
+        if (this.opCount == this.ops.length) {
+            int[] grown = new int[2 * this.opCount];
+            System.arraycopy(this.ops, 0, grown, 0, this.opCount);
+            this.ops = grown;
+        }
+        this.ops[this.opCount++] = op;
+    }
+
+    void addArg(Object arg)
+    {
+        if (this.argCount == this.args.length) {
+            Object[] grown = new Object[2 * this.argCount];
+            System.arraycopy(this.args, 0, grown, 0, this.argCount);
+            this.args = grown;
+        }
+        this.args[this.argCount++] = arg;
+    }
+
+    /**
+     * Find where the body of the graph in the supplied input can be cut into chunks. Cuts are only made just after a
+     * semicolon that ends a top-level statement and is followed by white space, so each chunk lexes exactly as it
+     * would in the middle of the whole input.
+     *
+     * @param input the input characters
+     * @param length the number of valid characters in <code>input</code>
+     * @param pieces the desired minimum number of chunks
+     * @return the cut offsets, starting with the offset just after the opening brace of the graph body and ending with
+     *         the offset of its closing brace, or null if the input cannot (or need not) be chunked
+     */
+    static int[] split(char[] input, int length, int pieces)
+    {
+        int bodyStart = -1;
+        int depth = 0;
+        int brackets = 0;
+        int[] cuts = new int[16];
+        int cutCount = 0;
+        int target = MIN_CHUNK_SIZE;
+        int i = 0;
+        char c;
+
+        while (i < length) {
+            c = input[i];
+            switch (c) {
+                case '"':
+                    // skip quote string, honoring \" escapes
+                    i++;
+                    while (i < length && input[i] != '"') {
+                        if (input[i] == '\\' && i + 1 < length && input[i + 1] == '"') {
+                            i++;
+                        }
+                        i++;
+                    }
+                    if (i == length) {
+                        return null;
+                    }
+                    i++;
+                    continue;
+                case '<':
+                    // skip html-like string
+                    int angles = 0;
+                    do {
+                        if (i == length) {
+                            return null;
+                        }
+                        if (input[i] == '<') {
+                            angles++;
+                        } else if (input[i] == '>') {
+                            angles--;
+                        }
+                        i++;
+                    } while (angles > 0);
+                    // the lexer also swallows the character after the closing '>'
+                    if (i < length) {
+                        if (isLineJoin(input, length, i)) {
+                            return null;
+                        }
+                        i++;
+                    }
+                    continue;
+                case '/':
+                    if (i + 1 < length && input[i + 1] == '*') {
+                        i += 2;
+                        while (i + 1 < length && !(input[i] == '*' && input[i + 1] == '/')) {
+                            if (isLineJoin(input, length, i)) {
+                                return null;
+                            }
+                            i++;
+                        }
+                        if (i + 1 >= length) {
+                            return null;
+                        }
+                        i += 2;
+                        continue;
+                    } else if (i + 1 < length && input[i + 1] == '/') {
+                        while (i < length && input[i] != '\n' && input[i] != '\f' && input[i] != '\r') {
+                            if (isLineJoin(input, length, i)) {
+                                return null;
+                            }
+                            i++;
+                        }
+                        continue;
+                    }
+                    break;
+                case '\\':
+                    if (isLineJoin(input, length, i)) {
+                        return null;
+                    }
+                    break;
+                case '{':
+                    if (++depth == 1) {
+                        if (bodyStart >= 0 || i + 1 >= length || !isSpace(input[i + 1])) {
+                            return null;
+                        }
+                        bodyStart = i + 1;
+                        target = Math.max(MIN_CHUNK_SIZE, (length - bodyStart) / (4 * Math.max(1, pieces)));
+                        cuts[cutCount++] = bodyStart;
+                    }
+                    break;
+                case '}':
+                    if (--depth == 0) {
+                        if (cutCount < 3) {
+                            // not worth it
+                            return null;
+                        }
+                        if (cutCount == cuts.length) {
+                            int[] grown = new int[cutCount + 1];
+                            System.arraycopy(cuts, 0, grown, 0, cutCount);
+                            cuts = grown;
+                        }
+                        cuts[cutCount++] = i;
+                        if (cutCount < cuts.length) {
+                            int[] exact = new int[cutCount];
+                            System.arraycopy(cuts, 0, exact, 0, cutCount);
+                            cuts = exact;
+                        }
+                        return cuts;
+                    } else if (depth < 0) {
+                        return null;
+                    }
+                    break;
+                case '[':
+                    brackets++;
+                    break;
+                case ']':
+                    brackets--;
+                    break;
+                case ';':
+                    if (depth == 1 && brackets == 0 && i + 1 < length && isSpace(input[i + 1])
+                        && i + 1 - cuts[cutCount - 1] >= target) {
+                        if (cutCount == cuts.length) {
+                            int[] grown = new int[2 * cutCount];
+                            System.arraycopy(cuts, 0, grown, 0, cutCount);
+                            cuts = grown;
+                        }
+                        cuts[cutCount++] = i + 1;
+                    }
+                    break;
+            }
+            i++;
+        }
+        return null;
+    }
+
+    // the lexer joins lines broken by a backslash, which could hide a cut point
+    private static boolean isLineJoin(char[] input, int length, int i)
+    {
+        return (input[i] == '\\' && i + 1 < length && (input[i + 1] == '\n' || input[i + 1] == '\r'));
+    }
+
+    private static boolean isSpace(char c)
+    {
+        return (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f');
+    }
+}
@@ -1,307 +1,129 @@
-//----------------------------------------------------
-// The following code was generated by CUP v0.10k
-// Wed May 25 19:10:51 EDT 2005
-//----------------------------------------------------
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
 
 package att.grappa;
 
+import java.io.CharArrayReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
-import java.util.Vector;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import java_cup.runtime.Symbol;
 
-/** CUP v0.10k generated parser.
- * @version Wed May 25 19:10:51 EDT 2005
- */
 /**
- * This class provides a parser for the <i>dot</i> graph representation format. It is used in conjunction with JavaCup,
- * a yacc-like parser generator originally by:
- * <p>
- * <center> <a href="http://www.cc.gatech.edu/gvu/people/Faculty/Scott.E.Hudson.html">Scott E. Hudson</a><br>
- * Graphics Visualization and Usability Center<br>
- * Georgia Institute of Technology<br>
- * </center>
- * </p>
- * and more recently modified and maintained by <a href="http://www.cs.princeton.edu/~appel/modern/java/CUP/"> a number
- * of people at Princeton University</a>.
+ * This class provides a parser for the <i>dot</i> graph representation format. It is a hand-written recursive-descent
+ * parser that pulls symbol numbers directly from the <code>Lexer</code>, so no <code>Symbol</code> objects or parse
+ * stacks are allocated while parsing. The grammar accepted is the one formerly processed by JavaCup:
+ *
+ * <pre>
+ * graph     ::= hdr body | (empty)
+ * hdr       ::= [STRICT] (GRAPH | DIGRAPH) [ATOM] | STRICTGRAPH [ATOM] | STRICTDIGRAPH [ATOM]
+ * body      ::= LCUR { stmt [SEMI] } RCUR
+ * stmt      ::= attrType [ATOM EQUAL] attrList | ATOM EQUAL ATOM | compound
+ * compound  ::= simple { edge_op simple } [attrList]
+ * simple    ::= nodeList | subgraph
+ * nodeList  ::= node { COMMA node }
+ * node      ::= ATOM [COLON ATOM]
+ * subgraph  ::= [SUBGRAPH [ATOM]] body
+ * attrList  ::= LBR [attrItem { [SEMI | COMMA] attrItem }] RBR { LBR ... RBR }
+ * attrItem  ::= ATOM EQUAL ATOM | ATSIGN ATOM
+ * </pre>
+ *
+ * Semantic actions are performed at the same points in the input as they were by the table-driven parser, so error
+ * and debug messages report the same locations.
  *
  * @version $Id$
  * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
  *         AT&T Labs</a>
  */
-public class Parser extends java_cup.runtime.lr_parser
+public class Parser
 {
-    /** Default constructor. */
-    public Parser()
-    {
-        super();
-    }
+    // the longest input read into memory, as large as an array can safely be
+    private static final int MAX_INPUT = Integer.MAX_VALUE - 8;
 
-    /** Constructor which sets the default scanner. */
-    public Parser(java_cup.runtime.Scanner s)
-    {
-        super(s);
-    }
+    private Graph theGraph = null;
 
-    /** Production table. */
-    protected static final short _production_table[][] =
-        unpackFromStrings(new String[] {
-        "\000\077\000\002\002\004\000\002\042\002\000\002\013" +
-            "\005\000\002\013\003\000\002\013\002\000\002\014\005" +
-            "\000\002\014\004\000\002\014\004\000\002\003\003\000" +
-            "\002\003\002\000\002\004\003\000\002\004\003\000\002" +
-            "\010\003\000\002\010\002\000\002\015\005\000\002\016" +
-            "\003\000\002\016\002\000\002\017\004\000\002\017\003" +
-            "\000\002\020\004\000\002\020\004\000\002\024\005\000" +
-            "\002\025\003\000\002\025\003\000\002\041\003\000\002" +
-            "\041\003\000\002\043\002\000\002\005\006\000\002\005" +
-            "\002\000\002\027\003\000\002\027\005\000\002\031\004" +
-            "\000\002\012\004\000\002\012\002\000\002\021\005\000" +
-            "\002\021\003\000\002\006\003\000\002\006\003\000\002" +
-            "\006\003\000\002\011\004\000\002\011\002\000\002\026" +
-            "\003\000\002\026\002\000\002\032\006\000\002\034\003" +
-            "\000\002\034\002\000\002\035\003\000\002\035\005\000" +
-            "\002\036\003\000\002\036\003\000\002\037\005\000\002" +
-            "\040\004\000\002\033\003\000\002\044\002\000\002\030" +
-            "\005\000\002\007\004\000\002\007\003\000\002\007\002" +
-            "\000\002\022\003\000\002\022\002\000\002\023\003\000" +
-            "\002\023\003\000\002\023\002" });
-
-    /** Access to production table. */
-    @Override
-    public short[][] production_table()
-    {
-        return _production_table;
-    }
+    private Reader inReader;
 
-    /** Parse-action table. */
-    protected static final short[][] _action_table =
-        unpackFromStrings(new String[] {
-        "\000\121\000\020\002\ufffd\003\010\004\ufff8\012\007\013" +
-            "\ufff8\014\004\015\005\001\002\000\006\020\ufff4\027\120" +
-            "\001\002\000\006\020\ufff4\027\120\001\002\000\006\004" +
-            "\117\013\116\001\002\000\006\004\ufff9\013\ufff9\001\002" +
-            "\000\004\002\ufffe\001\002\000\004\002\114\001\002\000" +
-            "\004\020\000\001\002\000\004\020\015\001\002\000\004" +
-            "\002\uffff\001\002\000\020\004\026\005\037\006\025\007" +
-            "\016\020\uffc8\021\ufff1\027\022\001\002\000\006\020\uffc9" +
-            "\027\113\001\002\000\022\004\uffcd\005\uffcd\006\uffcd\007" +
-            "\uffcd\016\uffcd\020\uffcd\021\uffcd\027\uffcd\001\002\000\022" +
-            "\004\uffde\005\uffde\006\uffde\007\uffde\016\uffde\020\uffde\021" +
-            "\uffde\027\uffde\001\002\000\004\021\112\001\002\000\036" +
-            "\004\uffe0\005\uffe0\006\uffe0\007\uffe0\010\uffe0\011\uffe0\016" +
-            "\uffe0\017\uffe0\020\uffe0\021\uffe0\022\uffe0\024\063\025\071" +
-            "\027\uffe0\001\002\000\030\004\uffea\005\uffea\006\uffea\007" +
-            "\uffea\010\uffea\011\uffea\016\uffea\020\uffea\021\uffea\022\uffea" +
-            "\027\uffea\001\002\000\004\020\uffcc\001\002\000\006\022" +
-            "\uffdb\027\uffdb\001\002\000\006\022\uffdd\027\uffdd\001\002" +
-            "\000\032\004\uffe4\005\uffe4\006\uffe4\007\uffe4\010\uffe4\011" +
-            "\uffe4\016\uffe4\017\uffe4\020\uffe4\021\uffe4\022\uffe4\027\uffe4" +
-            "\001\002\000\022\004\uffc6\005\uffc6\006\uffc6\007\uffc6\016" +
-            "\074\020\uffc6\021\uffc6\027\uffc6\001\002\000\030\004\uffe5" +
-            "\005\uffe5\006\uffe5\007\uffe5\010\101\011\077\016\uffe5\020" +
-            "\uffe5\021\uffe5\022\uffe5\027\uffe5\001\002\000\022\004\uffc6" +
-            "\005\uffc6\006\uffc6\007\uffc6\016\074\020\uffc6\021\uffc6\027" +
-            "\uffc6\001\002\000\032\004\uffeb\005\uffeb\006\uffeb\007\uffeb" +
-            "\010\uffeb\011\uffeb\016\uffeb\017\066\020\uffeb\021\uffeb\022" +
-            "\uffeb\027\uffeb\001\002\000\020\004\uffef\005\uffef\006\uffef" +
-            "\007\uffef\020\uffef\021\uffef\027\uffef\001\002\000\006\022" +
-            "\uffd9\027\041\001\002\000\020\004\026\005\037\006\025" +
-            "\007\016\020\uffc8\021\ufff2\027\022\001\002\000\006\022" +
-            "\uffdc\027\uffdc\001\002\000\020\004\ufff0\005\ufff0\006\ufff0" +
-            "\007\ufff0\020\ufff0\021\ufff0\027\ufff0\001\002\000\004\024" +
-            "\065\001\002\000\004\022\uffd7\001\002\000\004\022\045" +
-            "\001\002\000\024\004\uffdf\005\uffdf\006\uffdf\007\uffdf\016" +
-            "\uffdf\020\uffdf\021\uffdf\022\uffd8\027\uffdf\001\002\000\010" +
-            "\023\uffd4\026\051\027\046\001\002\000\004\024\063\001" +
-            "\002\000\014\016\060\017\057\023\uffd5\026\uffc3\027\uffc3" +
-            "\001\002\000\014\016\uffd1\017\uffd1\023\uffd1\026\uffd1\027" +
-            "\uffd1\001\002\000\004\027\056\001\002\000\014\016\uffd3" +
-            "\017\uffd3\023\uffd3\026\uffd3\027\uffd3\001\002\000\014\016" +
-            "\uffd0\017\uffd0\023\uffd0\026\uffd0\027\uffd0\001\002\000\004" +
-            "\023\055\001\002\000\024\004\uffd6\005\uffd6\006\uffd6\007" +
-            "\uffd6\016\uffd6\020\uffd6\021\uffd6\022\uffd6\027\uffd6\001\002" +
-            "\000\014\016\uffce\017\uffce\023\uffce\026\uffce\027\uffce\001" +
-            "\002\000\006\026\uffc4\027\uffc4\001\002\000\006\026\uffc5" +
-            "\027\uffc5\001\002\000\006\026\051\027\046\001\002\000" +
-            "\014\016\uffd2\017\uffd2\023\uffd2\026\uffd2\027\uffd2\001\002" +
-            "\000\004\027\064\001\002\000\030\004\uffcf\005\uffcf\006" +
-            "\uffcf\007\uffcf\016\uffcf\017\uffcf\020\uffcf\021\uffcf\023\uffcf" +
-            "\026\uffcf\027\uffcf\001\002\000\004\022\uffda\001\002\000" +
-            "\004\027\067\001\002\000\034\004\uffe0\005\uffe0\006\uffe0" +
-            "\007\uffe0\010\uffe0\011\uffe0\016\uffe0\017\uffe0\020\uffe0\021" +
-            "\uffe0\022\uffe0\025\071\027\uffe0\001\002\000\032\004\uffe3" +
-            "\005\uffe3\006\uffe3\007\uffe3\010\uffe3\011\uffe3\016\uffe3\017" +
-            "\uffe3\020\uffe3\021\uffe3\022\uffe3\027\uffe3\001\002\000\004" +
-            "\027\073\001\002\000\032\004\uffe2\005\uffe2\006\uffe2\007" +
-            "\uffe2\010\uffe2\011\uffe2\016\uffe2\017\uffe2\020\uffe2\021\uffe2" +
-            "\022\uffe2\027\uffe2\001\002\000\032\004\uffe1\005\uffe1\006" +
-            "\uffe1\007\uffe1\010\uffe1\011\uffe1\016\uffe1\017\uffe1\020\uffe1" +
-            "\021\uffe1\022\uffe1\027\uffe1\001\002\000\020\004\uffc7\005" +
-            "\uffc7\006\uffc7\007\uffc7\020\uffc7\021\uffc7\027\uffc7\001\002" +
-            "\000\020\004\uffed\005\uffed\006\uffed\007\uffed\020\uffed\021" +
-            "\uffed\027\uffed\001\002\000\010\007\uffe7\020\uffe7\027\uffe7" +
-            "\001\002\000\010\007\uffe8\020\uffe8\027\uffe8\001\002\000" +
-            "\024\004\uffd7\005\uffd7\006\uffd7\007\uffd7\016\uffd7\020\uffd7" +
-            "\021\uffd7\022\uffd7\027\uffd7\001\002\000\010\007\uffe9\020" +
-            "\uffe9\027\uffe9\001\002\000\024\004\uffec\005\uffec\006\uffec" +
-            "\007\uffec\016\uffec\020\uffec\021\uffec\022\045\027\uffec\001" +
-            "\002\000\024\004\uffd8\005\uffd8\006\uffd8\007\uffd8\016\uffd8" +
-            "\020\uffd8\021\uffd8\022\uffd8\027\uffd8\001\002\000\010\007" +
-            "\016\020\uffc8\027\067\001\002\000\030\004\uffe5\005\uffe5" +
-            "\006\uffe5\007\uffe5\010\101\011\077\016\uffe5\020\uffe5\021" +
-            "\uffe5\022\uffe5\027\uffe5\001\002\000\024\004\uffe6\005\uffe6" +
-            "\006\uffe6\007\uffe6\016\uffe6\020\uffe6\021\uffe6\022\uffe6\027" +
-            "\uffe6\001\002\000\020\004\uffee\005\uffee\006\uffee\007\uffee" +
-            "\020\uffee\021\uffee\027\uffee\001\002\000\004\020\015\001" +
-            "\002\000\030\004\uffcb\005\uffcb\006\uffcb\007\uffcb\010\uffcb" +
-            "\011\uffcb\016\uffcb\020\uffcb\021\uffcb\022\uffcb\027\uffcb\001" +
-            "\002\000\032\002\ufff3\004\ufff3\005\ufff3\006\ufff3\007\ufff3" +
-            "\010\ufff3\011\ufff3\016\ufff3\020\ufff3\021\ufff3\022\ufff3\027" +
-            "\ufff3\001\002\000\004\020\uffca\001\002\000\004\002\001" +
-            "\001\002\000\006\020\ufff4\027\120\001\002\000\006\020" +
-            "\ufff6\027\ufff6\001\002\000\006\020\ufff7\027\ufff7\001\002" +
-            "\000\004\020\ufff5\001\002\000\004\020\ufffc\001\002\000" +
-            "\004\020\ufffa\001\002\000\004\020\ufffb\001\002" });
-
-    /** Access to parse-action table. */
-    @Override
-    public short[][] action_table()
-    {
-        return _action_table;
-    }
+    private PrintWriter errWriter;
 
-    /** <code>reduce_goto</code> table. */
-    protected static final short[][] _reduce_table =
-        unpackFromStrings(new String[] {
-        "\000\121\000\010\003\005\013\010\014\011\001\001\000" +
-            "\004\010\122\001\001\000\004\010\121\001\001\000\004" +
-            "\004\114\001\001\000\002\001\001\000\002\001\001\000" +
-            "\002\001\001\000\004\042\012\001\001\000\004\015\013" +
-            "\001\001\000\002\001\001\000\034\006\034\007\023\016" +
-            "\020\017\035\020\033\021\027\024\031\025\030\027\032" +
-            "\030\022\031\026\033\017\037\016\001\001\000\002\001" +
-            "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-            "\000\004\012\071\001\001\000\002\001\001\000\004\044" +
-            "\107\001\001\000\002\001\001\000\002\001\001\000\002" +
-            "\001\001\000\004\022\106\001\001\000\006\005\077\041" +
-            "\075\001\001\000\004\022\074\001\001\000\002\001\001" +
-            "\000\002\001\001\000\004\011\041\001\001\000\030\006" +
-            "\034\007\023\020\037\021\027\024\031\025\030\027\032" +
-            "\030\022\031\026\033\017\037\016\001\001\000\002\001" +
-            "\001\000\002\001\001\000\002\001\001\000\006\026\042" +
-            "\032\043\001\001\000\002\001\001\000\002\001\001\000" +
-            "\014\034\053\035\046\036\051\037\047\040\052\001\001" +
-            "\000\002\001\001\000\004\023\060\001\001\000\002\001" +
-            "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-            "\000\002\001\001\000\002\001\001\000\002\001\001\000" +
-            "\002\001\001\000\002\001\001\000\010\036\061\037\047" +
-            "\040\052\001\001\000\002\001\001\000\002\001\001\000" +
-            "\002\001\001\000\002\001\001\000\004\031\067\001\001" +
-            "\000\004\012\071\001\001\000\002\001\001\000\002\001" +
-            "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-            "\000\002\001\001\000\004\043\103\001\001\000\002\001" +
-            "\001\000\006\026\101\032\102\001\001\000\002\001\001" +
-            "\000\002\001\001\000\002\001\001\000\014\007\023\025" +
-            "\104\027\032\030\022\031\026\001\001\000\006\005\105" +
-            "\041\075\001\001\000\002\001\001\000\002\001\001\000" +
-            "\004\015\110\001\001\000\002\001\001\000\002\001\001" +
-            "\000\002\001\001\000\002\001\001\000\004\010\120\001" +
-            "\001\000\002\001\001\000\002\001\001\000\002\001\001" +
-            "\000\002\001\001\000\002\001\001\000\002\001\001" });
-
-    /** Access to <code>reduce_goto</code> table. */
-    @Override
-    public short[][] reduce_table()
-    {
-        return _reduce_table;
-    }
+    private Lexer lexer;
 
-    /** Instance of action encapsulation class. */
-    protected CUP$Parser$actions action_obj;
+    private int debugLevel = 0;
 
-    /** Action encapsulation object initializer. */
-    @Override
-    protected void init_actions()
-    {
-        this.action_obj = new CUP$Parser$actions(this);
-    }
+    // the lookahead symbol and its string value (for ATOMs)
+    private int token;
 
-    /** Invoke a user supplied parse action. */
-    @Override
-    public java_cup.runtime.Symbol do_action(
-        int act_num,
-        java_cup.runtime.lr_parser parser,
-        java.util.Stack<Symbol> stack,
-        int top)
-        throws java.lang.Exception
-    {
-        /* call code in generated class */
-        return this.action_obj.CUP$Parser$do_action(act_num, parser, stack, top);
-    }
+    private String tokenValue;
 
-    /** Indicates start state. */
-    @Override
-    public int start_state()
-    {
-        return 0;
-    }
+    // variables used by the semantic actions during grammar translation
+    private Subgraph rootSubgraph;
 
-    /** Indicates start production. */
-    @Override
-    public int start_production()
-    {
-        return 0;
-    }
+    private Subgraph lastSubgraph;
 
-    /** <code>EOF</code> Symbol index. */
-    @Override
-    public int EOF_sym()
-    {
-        return 0;
-    }
+    private Graph graph;
 
-    /** <code>error</code> Symbol index. */
-    @Override
-    public int error_sym()
-    {
-        return 1;
-    }
+    private Subgraph thisGraph;
 
-    /** User initialization code. */
-    @Override
-    public void user_init() throws java.lang.Exception
-    {
+    private Node thisNode;
 
-        this.lexer.init();
-        this.action_obj.graph = this.theGraph;
-        // action_obj.parser = this;
+    private Edge thisEdge;
 
-    }
+    private int thisElemType;
 
-    /** Scan to get the next Symbol. */
-    @Override
-    public java_cup.runtime.Symbol scan()
-        throws java.lang.Exception
-    {
-        return this.lexer.next_token(this.debugLevel);
-    }
+    private boolean directed = true;
 
-    private Graph theGraph = null;
+    private int anon_id = 0;
 
-    @SuppressWarnings("unused")
-    private Reader inReader;
+    // pending attributes
+    private Attribute[] attrs = new Attribute[8];
 
-    private PrintWriter errWriter;
+    private int attrCount = 0;
 
-    private Lexer lexer;
+    // pool of pending nodes (and their ports); entries from nodeStart on are the current node list,
+    // entries before it belong to node lists already buffered as edge terms
+    private Node[] nodes = new Node[16];
 
-    private int debugLevel = 0;
+    private String[] ports = new String[16];
+
+    private int nodeStart = 0;
+
+    private int nodeCount = 0;
+
+    // buffered edge terms: either the node pool range [termStart,termEnd) or, when termSubg is non-null, a subgraph
+    private int[] termStart = new int[8];
+
+    private int[] termEnd = new int[8];
+
+    private Subgraph[] termSubg = new Subgraph[8];
+
+    private int termCount = 0;
+
+    // set when this parser only records the actions of a chunk of statements for parallel_parse()
+    private ParseChunk chunk = null;
+
+    // chunks whose actions are replayed in place of the statements of the graph body
+    private ParseChunk[] bodyChunks = null;
+
+    // tokens scanned by a separate lexer thread, when using pipelined_parse()
+    private TokenRing tokens = null;
 
     /**
      * Create an instance of <code>Parser</code> with input, error output and a supplied <code>Graph</code> object. The
@@ -313,7 +135,6 @@ public java_cup.runtime.Symbol scan()
      */
     public Parser(Reader inputReader, PrintWriter errorWriter, Graph graph)
     {
-        super();
         this.inReader = inputReader;
         this.errWriter = errorWriter;
         this.theGraph = graph;
@@ -414,10 +235,9 @@ public int getDebugLevel()
      * @param info not used
      * @exception GraphParserException whenver this method is called
      */
-    @Override
     public void report_error(String message, Object info) throws GraphParserException
     {
-        String loc = getLexer().getLocation();
+        String loc = location();
         if (this.errWriter != null) {
             this.errWriter.println("ERROR: Parser" + loc + ": " + message);
         }
@@ -432,7 +252,7 @@ public void report_error(String message, Object info) throws GraphParserExceptio
      */
     public void report_warning(String message, Object info)
     {
-        String loc = getLexer().getLocation();
+        String loc = location();
         if (this.errWriter != null) {
             this.errWriter.println("WARNING: Parser" + loc + ": " + message);
         }
@@ -444,7 +264,6 @@ public void report_warning(String message, Object info)
      * @param message the debug message to send to the error stream, if the stream non-null.
      * @see Parser#debug_message(int,String)
      */
-    @Override
     public void debug_message(String message)
     {
         debug_message(5, message);
@@ -463,17 +282,52 @@ public void debug_message(int level, String message)
         if (this.debugLevel < level) {
             return;
         }
-        String loc = getLexer().getLocation();
+        String loc = location();
         if (this.errWriter != null) {
             this.errWriter.println("DEBUG: Parser" + loc + ": " + message);
         }
     }
 
+    /**
+     * Parse the input and build the graph it describes.
+     *
+     * @return a <code>Symbol</code> whose value is the parsed graph (kept for compatibility with the former
+     *         table-driven parser).
+     * @exception Exception if a syntax or semantic error is encountered or the input cannot be read
+     * @see Parser#getGraph()
+     */
+    public Symbol parse() throws java.lang.Exception
+    {
+        if (this.tokens != null) {
+            this.tokens.start(this.debugLevel);
+        } else {
+            this.lexer.init();
+        }
+        this.graph = this.theGraph;
+        this.rootSubgraph = null;
+        this.lastSubgraph = null;
+        this.thisGraph = null;
+        this.thisNode = null;
+        this.thisEdge = null;
+        this.thisElemType = 0;
+        this.directed = true;
+        this.anon_id = 0;
+        clearAttrs();
+        clearTerms();
+        releaseNodes(0);
+
+        advance();
+        graph();
+
+        return new Symbol(Symbols.EOF, this.graph);
+    }
+
     /**
      * Invokes the parser in debug mode. The lowering the debug level reduces the amount of debugging output. A level of
      * 0 inhibits all debugging messages, generally a level of 10 will let all messages get through.
      *
      * @param debug the debug level to use for filtering debug messages based on priority.
+     * @return the result of <code>parse()</code>
      * @exception Exception if <code>parse()</code> does
      */
     public Symbol debug_parse(int debug) throws java.lang.Exception
@@ -483,219 +337,617 @@ public Symbol debug_parse(int debug) throws java.lang.Exception
         }
 
         this.debugLevel = debug;
-
-        /* the current action code */
-        int act;
-
-        /* the Symbol/stack element returned by a reduce */
-        Symbol lhs_sym = null;
-
-        /* information about production being reduced with */
-        short handle_size, lhs_sym_num;
-
-        /* set up direct reference to tables to drive the parser */
-        this.production_tab = production_table();
-        this.action_tab = action_table();
-        this.reduce_tab = reduce_table();
-
         debug_message(5, "# Initializing parser");
 
-        /* initialize the action encapsulation object */
-        init_actions();
-
-        /* do user initialization */
-        user_init();
+        return parse();
+    }
 
-        /* the current Symbol */
-        this.cur_token = scan();
+    /**
+     * Invokes the parser using several threads. The body of the graph is cut into chunks of top-level statements that
+     * are lexed and parsed concurrently, and the actions recorded for each chunk are then applied to the graph in input
+     * order, so the resulting graph is identical to the one <code>parse()</code> builds. The whole input is read into
+     * memory first. Input that is too small to be worth cutting up, parsing in debug mode, and input containing errors
+     * or provoking lexer warnings are handled by an ordinary sequential parse, so that messages are reported exactly as
+     * <code>parse()</code> reports them.
+     *
+     * @param threads the number of threads to use for parsing chunks
+     * @return the result of <code>parse()</code>
+     * @exception Exception if <code>parse()</code> does
+     * @see Parser#parse()
+     */
+    public Symbol parallel_parse(int threads) throws java.lang.Exception
+    {
+        char[] input = readInput();
+        int[] cuts = null;
 
-        debug_message(5, "# Current Symbol is #" + this.cur_token.sym);
+        if (threads > 1 && this.debugLevel == 0) {
+            cuts = ParseChunk.split(input, input.length, threads);
+        }
+        if (cuts != null && chunkedParse(input, cuts, threads)) {
+            return new Symbol(Symbols.EOF, this.graph);
+        }
 
-        /* push dummy Symbol with start state to get us underway */
-        this.stack.push(new Symbol(0, start_state()));
-        this.tos = 0;
+        this.lexer = new Lexer(new CharArrayReader(input), this.errWriter);
+        return parse();
+    }
 
-        /* continue until we are told to stop */
-        for (this._done_parsing = false; !this._done_parsing;)
-        {
-            /* current state is always on the top of the stack */
+    /**
+     * Invokes the parser with lexical analysis running on a separate thread. The lexer scans ahead into a bounded ring
+     * of token records while the parser builds the graph, so reading and scanning the input overlaps with graph
+     * construction. Results, messages and message locations are the same as for <code>parse()</code>.
+     *
+     * @return the result of <code>parse()</code>
+     * @exception Exception if <code>parse()</code> does
+     * @see Parser#parse()
+     */
+    public Symbol pipelined_parse() throws java.lang.Exception
+    {
+        this.tokens = new TokenRing(this.inReader);
+        this.lexer = this.tokens.getLexer();
+        try {
+            return parse();
+        } finally {
+            this.tokens.close();
+            this.tokens = null;
+        }
+    }
 
-            /* look up action out of the current state with the current input */
-            act = get_action(this.stack.peek().parse_state, this.cur_token.sym);
+    /**
+     * Get the graph resulting from the parsing operations.
+     *
+     * @return the graph generated from the input.
+     */
+    public Graph getGraph()
+    {
+        return this.graph;
+    }
 
-            /* decode the action -- > 0 encodes shift */
-            if (act > 0)
-            {
-                /* shift to the encoded state by pushing it on the stack */
-                this.cur_token.parse_state = act - 1;
-                debug_shift(this.cur_token);
-                this.stack.push(this.cur_token);
-                this.tos++;
-
-                /* advance to the next Symbol */
-                this.cur_token = scan();
-                debug_message(5, "# Current token is #" + this.cur_token.sym);
+    private char[] readInput() throws IOException
+    {
+        char[] buf = new char[64 * 1024];
+        int len = 0;
+        int count;
+
+        while ((count = this.inReader.read(buf, len, buf.length - len)) >= 0) {
+            len += count;
+            if (len == buf.length) {
+                if (len == MAX_INPUT) {
+                    if (this.inReader.read() < 0) {
+                        break;
+                    }
+                    throw new IOException("input is longer than " + MAX_INPUT + " characters");
+                }
+                buf = Arrays.copyOf(buf, (int) Math.min(2L * len, MAX_INPUT));
             }
-            /* if its less than zero, then it encodes a reduce action */
-            else if (act < 0)
-            {
-                /* perform the action for the reduce */
-                lhs_sym = do_action((-act) - 1, this, this.stack, this.tos);
-
-                /* look up information about the production */
-                lhs_sym_num = this.production_tab[(-act) - 1][0];
-                handle_size = this.production_tab[(-act) - 1][1];
-
-                debug_reduce((-act) - 1, lhs_sym_num, handle_size);
+        }
+        return (len == buf.length ? buf : Arrays.copyOf(buf, len));
+    }
 
-                /* pop the handle off the stack */
-                for (int i = 0; i < handle_size; i++)
+    /*
+     * Parse the chunks between the cuts concurrently, then parse the graph header and trailer and replay the chunks in
+     * between. Returns false, with nothing reported, if anything went wrong.
+     */
+    private boolean chunkedParse(char[] input, int[] cuts, int threads) throws InterruptedException
+    {
+        ParseChunk[] chunks = new ParseChunk[cuts.length - 1];
+        List<Callable<Object>> tasks = new ArrayList<>(chunks.length);
+        for (int i = 0; i < chunks.length; i++) {
+            final ParseChunk chunk = chunks[i] = new ParseChunk(input, cuts[i], cuts[i + 1]);
+            tasks.add(Executors.callable(new Runnable()
+            {
+                @Override
+                public void run()
                 {
-                    this.stack.pop();
-                    this.tos--;
+                    chunk.parse();
                 }
+            }));
+        }
 
-                /* look up the state to go to from the one popped back to */
-                act = get_reduce(this.stack.peek().parse_state, lhs_sym_num);
-
-                /* shift to that state */
-                lhs_sym.parse_state = act;
-                this.stack.push(lhs_sym);
-                this.tos++;
-
-                debug_message(5, "# Goto state #" + act);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, chunks.length));
+        try {
+            pool.invokeAll(tasks);
+        } finally {
+            pool.shutdown();
+        }
+        for (ParseChunk chunk : chunks) {
+            if (chunk.failed) {
+                return false;
             }
-            /* finally if the entry is zero, we have an error */
-            else if (act == 0)
-            {
-                /* call user syntax error reporting routine */
-                syntax_error(this.cur_token);
-
-                /* try to error recover */
-                if (!error_recovery(true))
-                {
-                    /* if that fails give up with a fatal syntax error */
-                    unrecovered_syntax_error(this.cur_token);
+        }
 
-                    /* just in case that wasn't fatal enough, end parse */
-                    done_parsing();
-                } else {
-                    lhs_sym = this.stack.peek();
-                }
-            }
+        int bodyStart = cuts[0];
+        int bodyEnd = cuts[cuts.length - 1];
+        char[] frame = new char[bodyStart + input.length - bodyEnd];
+        System.arraycopy(input, 0, frame, 0, bodyStart);
+        System.arraycopy(input, bodyEnd, frame, bodyStart, input.length - bodyEnd);
+
+        PrintWriter writer = this.errWriter;
+        this.errWriter = null;
+        this.lexer = new Lexer(new CharArrayReader(frame), null);
+        this.bodyChunks = chunks;
+        try {
+            parse();
+        } catch (Exception ex) {
+            return false;
+        } finally {
+            this.errWriter = writer;
+            this.bodyChunks = null;
         }
-        return lhs_sym;
+        return (this.lexer.getWarningCount() == 0);
     }
 
-    CUP$Parser$actions getActionObject()
+    /*
+     * Parse the statements of a chunk, recording their actions.
+     */
+    void parseChunk(ParseChunk chunk) throws IOException
     {
-        return this.action_obj;
+        this.chunk = chunk;
+        this.thisElemType = ParseChunk.UNKNOWN_TYPE;
+        this.lexer.init();
+        advance();
+        stmtList();
+        if (this.token != Symbols.EOF) {
+            syntaxError();
+        }
     }
 
-    /**
-     * Get the graph resulting from the parsing operations.
-     *
-     * @return the graph generated from the input.
+    /*
+     * Perform the actions recorded for a chunk.
      */
-    public Graph getGraph()
+    private void replay(ParseChunk chunk)
+    {
+        int[] ops = chunk.ops;
+        Object[] args = chunk.args;
+        int arg = 0;
+
+        for (int i = 0; i < chunk.opCount; i++) {
+            switch (ops[i]) {
+                case ParseChunk.ATTR:
+                    addAttr((Attribute) args[arg++]);
+                    break;
+                case ParseChunk.DEFERRED_ATTR:
+                    appendAttr((String) args[arg], (String) args[arg + 1]);
+                    arg += 2;
+                    break;
+                case ParseChunk.ATTR_STMT:
+                    attrStmt(ops[++i], null);
+                    break;
+                case ParseChunk.OPEN_SUBG:
+                    openSubg((String) args[arg++]);
+                    break;
+                case ParseChunk.CLOSE_SUBG:
+                    closeSubg();
+                    break;
+                case ParseChunk.NODE:
+                    appendNode((String) args[arg], (String) args[arg + 1]);
+                    arg += 2;
+                    break;
+                case ParseChunk.NODE_WRAP:
+                    this.thisElemType = GrappaConstants.NODE;
+                    nodeWrap();
+                    break;
+                case ParseChunk.EDGE_OP:
+                    edgeOp(ops[++i] != 0);
+                    break;
+                case ParseChunk.EDGE_WRAP:
+                    this.thisElemType = GrappaConstants.EDGE;
+                    edgeWrap();
+                    break;
+            }
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    //
+    // Recursive-descent grammar rules
+    //
+    ///////////////////////////////////////////////////////////////////////////
+
+    private void advance() throws IOException
     {
-        return this.action_obj.graph;
+        if (this.tokens != null) {
+            this.token = this.tokens.take(this.errWriter);
+            this.tokenValue = this.tokens.getValue();
+        } else {
+            this.token = this.lexer.next_token_sym(this.debugLevel);
+            this.tokenValue = this.lexer.getTokenValue();
+        }
+        if (this.debugLevel >= 5) {
+            debug_message(5, "# Current token is #" + this.token);
+        }
     }
 
-}
+    private String location()
+    {
+        if (this.tokens != null) {
+            return this.tokens.getLocation();
+        }
+        return this.lexer.getLocation();
+    }
 
-/** Cup generated class to encapsulate user supplied action code. */
-class CUP$Parser$actions
-{
+    private void expect(int sym) throws IOException
+    {
+        if (this.token != sym) {
+            syntaxError();
+        }
+        advance();
+    }
 
-    // a list of variables used in action code during grammar translation
-    // Parser parser = null;
-    Subgraph rootSubgraph;
+    private String expectAtom() throws IOException
+    {
+        if (this.token != Symbols.ATOM) {
+            syntaxError();
+        }
+        String value = this.tokenValue;
+        advance();
+        return value;
+    }
 
-    Subgraph lastSubgraph;
+    private void syntaxError()
+    {
+        report_error("Syntax error", null);
+    }
 
-    Graph graph;
+    /*
+     * Semantic actions are only performed once the lookahead is known to be valid, as with the table-driven parser, so
+     * that a syntax error leaves the graph in the same state.
+     */
+    private void checkFollow(boolean valid)
+    {
+        // the end of a chunk stands in for whatever follows it; that is checked when the next chunk is parsed
+        if (!valid && !(this.chunk != null && this.token == Symbols.EOF)) {
+            syntaxError();
+        }
+    }
 
-    Subgraph thisGraph;
+    private static boolean isStmtFollow(int sym)
+    {
+        switch (sym) {
+            case Symbols.SEMI:
+            case Symbols.RCUR:
+            case Symbols.GRAPH:
+            case Symbols.NODE:
+            case Symbols.EDGE:
+            case Symbols.ATOM:
+            case Symbols.SUBGRAPH:
+            case Symbols.LCUR:
+                return true;
+            default:
+                return false;
+        }
+    }
 
-    Node thisNode;
+    private static boolean isSimpleFollow(int sym)
+    {
+        return (sym == Symbols.D_EDGE_OP || sym == Symbols.ND_EDGE_OP || sym == Symbols.LBR || isStmtFollow(sym));
+    }
 
-    Edge thisEdge;
+    private void graph() throws IOException
+    {
+        if (this.token == Symbols.EOF) {
+            this.graph = new Graph("empty");
+            report_warning("The graph to parse is empty.", null);
+            return;
+        }
+        hdr();
+        openGraph();
+        if (this.bodyChunks != null) {
+            expect(Symbols.LCUR);
+            for (ParseChunk bodyChunk : this.bodyChunks) {
+                replay(bodyChunk);
+            }
+            stmtList();
+            expect(Symbols.RCUR);
+        } else {
+            body();
+        }
+        if (this.token != Symbols.EOF) {
+            syntaxError();
+        }
+        closeGraph();
+    }
 
-    Node fromNode;
+    private void hdr() throws IOException
+    {
+        switch (this.token) {
+            case Symbols.STRICTGRAPH:
+                advance();
+                startGraph(optGraphName(), true, false);
+                break;
+            case Symbols.STRICTDIGRAPH:
+                advance();
+                startGraph(optGraphName(), true, true);
+                break;
+            default:
+                boolean strict = false;
+                boolean type = false;
+                if (this.token == Symbols.STRICT) {
+                    strict = true;
+                    advance();
+                }
+                if (this.token == Symbols.DIGRAPH) {
+                    type = true;
+                } else if (this.token != Symbols.GRAPH) {
+                    syntaxError();
+                }
+                advance();
+                startGraph(optGraphName(), type, strict);
+                break;
+        }
+    }
 
-    Node toNode;
+    private String optGraphName() throws IOException
+    {
+        String name = null;
+        if (this.token == Symbols.ATOM) {
+            name = this.tokenValue;
+            advance();
+        }
+        if (this.token != Symbols.LCUR) {
+            syntaxError();
+        }
+        return (name == null ? anonStr() : name);
+    }
 
-    String portName = null;
+    private void body() throws IOException
+    {
+        expect(Symbols.LCUR);
+        stmtList();
+        expect(Symbols.RCUR);
+    }
 
-    String toPortName;
+    private void stmtList() throws IOException
+    {
+        for (;;) {
+            switch (this.token) {
+                case Symbols.GRAPH:
+                case Symbols.NODE:
+                case Symbols.EDGE:
+                    attrStmt();
+                    break;
+                case Symbols.ATOM:
+                    String name = this.tokenValue;
+                    advance();
+                    if (this.token == Symbols.EQUAL) {
+                        advance();
+                        appendAttr(name, expectAtom());
+                        checkFollow(isStmtFollow(this.token));
+                        attrStmt(GrappaConstants.SUBGRAPH, null);
+                    } else {
+                        compound(name);
+                    }
+                    break;
+                case Symbols.SUBGRAPH:
+                case Symbols.LCUR:
+                    compound(null);
+                    break;
+                default:
+                    return;
+            }
+            if (this.token == Symbols.SEMI) {
+                advance();
+            }
+        }
+    }
 
-    String fromPortName;
+    private void attrStmt() throws IOException
+    {
+        int kind;
+        if (this.token == Symbols.GRAPH) {
+            kind = GrappaConstants.SUBGRAPH;
+        } else if (this.token == Symbols.NODE) {
+            kind = GrappaConstants.NODE;
+        } else {
+            kind = GrappaConstants.EDGE;
+        }
+        advance();
+        String macroName = null;
+        if (this.token == Symbols.ATOM) {
+            macroName = this.tokenValue;
+            advance();
+            expect(Symbols.EQUAL);
+        }
+        if (this.token != Symbols.LBR) {
+            syntaxError();
+        }
+        attrList();
+        checkFollow(isStmtFollow(this.token));
+        attrStmt(kind, macroName);
+    }
 
-    int thisAttrType;
+    /*
+     * Parse a compound statement; firstName is the already consumed first node name, if any.
+     */
+    private void compound(String firstName) throws IOException
+    {
+        boolean edges = false;
+        simple(firstName);
+        while (this.token == Symbols.D_EDGE_OP || this.token == Symbols.ND_EDGE_OP) {
+            boolean dirOp = (this.token == Symbols.D_EDGE_OP);
+            advance();
+            checkFollow(this.token == Symbols.ATOM || this.token == Symbols.SUBGRAPH || this.token == Symbols.LCUR);
+            edgeOp(dirOp);
+            simple(null);
+            edges = true;
+        }
+        this.thisElemType = edges ? GrappaConstants.EDGE : GrappaConstants.NODE;
+        attrList();
+        checkFollow(isStmtFollow(this.token));
+        if (edges) {
+            edgeWrap();
+        } else {
+            nodeWrap();
+        }
+    }
 
-    int thisElemType;
+    private void simple(String firstName) throws IOException
+    {
+        if (firstName == null) {
+            if (this.token == Symbols.SUBGRAPH || this.token == Symbols.LCUR) {
+                subgraph();
+                return;
+            }
+            firstName = expectAtom();
+        }
+        String name = firstName;
+        for (;;) {
+            String port = null;
+            if (this.token == Symbols.COLON) {
+                advance();
+                port = expectAtom();
+            }
+            checkFollow(this.token == Symbols.COMMA || isSimpleFollow(this.token));
+            appendNode(name, port);
+            if (this.token != Symbols.COMMA) {
+                break;
+            }
+            advance();
+            name = expectAtom();
+        }
+    }
 
-    boolean directed = true;
+    private void subgraph() throws IOException
+    {
+        String name = null;
+        if (this.token == Symbols.SUBGRAPH) {
+            advance();
+            if (this.token == Symbols.ATOM) {
+                name = this.tokenValue;
+                advance();
+            }
+        }
+        checkFollow(this.token == Symbols.LCUR);
+        openSubg(name);
+        body();
+        checkFollow(isSimpleFollow(this.token));
+        closeSubg();
+    }
 
-    String graphType;
+    /*
+     * Parse zero or more bracketed attribute lists.
+     */
+    private void attrList() throws IOException
+    {
+        while (this.token == Symbols.LBR) {
+            advance();
+            if (this.token != Symbols.RBR) {
+                attrItem();
+                while (this.token != Symbols.RBR) {
+                    if (this.token == Symbols.SEMI || this.token == Symbols.COMMA) {
+                        advance();
+                    }
+                    attrItem();
+                }
+            }
+            advance();
+        }
+    }
 
-    private int anon_id = 0;
+    private void attrItem() throws IOException
+    {
+        if (this.token == Symbols.ATOM) {
+            String name = this.tokenValue;
+            advance();
+            expect(Symbols.EQUAL);
+            appendAttr(name, expectAtom());
+        } else if (this.token == Symbols.ATSIGN) {
+            advance();
+            appendAttr(expectAtom(), null);
+        } else {
+            syntaxError();
+        }
+    }
 
-    Vector<Attribute> attrs = new Vector<>(8, 4);
+    ///////////////////////////////////////////////////////////////////////////
+    //
+    // Semantic actions
+    //
+    ///////////////////////////////////////////////////////////////////////////
 
-    Vector<Object[]> nodes = new Vector<>(8, 4);
+    private void appendAttr(String name, String value)
+    {
+        if (this.chunk != null) {
+            if (this.thisElemType == ParseChunk.UNKNOWN_TYPE) {
+                this.chunk.addOp(ParseChunk.DEFERRED_ATTR);
+                this.chunk.addArg(name);
+                this.chunk.addArg(value);
+            } else {
+                this.chunk.addOp(ParseChunk.ATTR);
+                this.chunk.addArg(new Attribute(this.thisElemType, name, value));
+            }
+            return;
+        }
+        addAttr(new Attribute(this.thisElemType, name, value));
+    }
 
-    Vector<Object[]> edges = new Vector<>(8, 4);
+    private void addAttr(Attribute attr)
+    {
+        if (this.attrCount == this.attrs.length) {
+            Attribute[] grown = new Attribute[2 * this.attrCount];
+            System.arraycopy(this.attrs, 0, grown, 0, this.attrCount);
+            this.attrs = grown;
+        }
+        this.attrs[this.attrCount++] = attr;
+    }
 
-    void appendAttr(String name, String value)
+    private void clearAttrs()
     {
-        this.attrs.addElement(new Attribute(this.thisElemType, name, value));
+        while (this.attrCount > 0) {
+            this.attrs[--this.attrCount] = null;
+        }
     }
 
-    void noMacros()
+    private void noMacros()
     {
-        this.parser.report_error("attribute macros are not supported yet", null);
+        report_error("attribute macros are not supported yet", null);
     }
 
-    void attrStmt(int kind, String macroName)
+    private void attrStmt(int kind, String macroName)
     {
         if (macroName != null) {
             noMacros();
             return;
         }
-        if (this.attrs.size() == 0) {
+        if (this.chunk != null) {
+            this.chunk.addOp(ParseChunk.ATTR_STMT);
+            this.chunk.addOp(kind);
             return;
         }
         Attribute attr = null;
-        for (int i = 0; i < this.attrs.size(); i++) {
-            if ((attr = this.attrs.elementAt(i)).getValue() == null) {
+        for (int i = 0; i < this.attrCount; i++) {
+            if ((attr = this.attrs[i]).normalizedStringValue() == null) {
                 // null means to not attach the attribute to an element
                 continue;
             } else {
                 switch (kind) {
                     case GrappaConstants.NODE:
-                        this.parser.debug_message(1, "adding node default attr (" + attr.getName() + ") to thisGraph("
-                            + this.thisGraph.getName() + ")");
-                        this.thisGraph.setNodeAttribute(attr);
+                        if (this.debugLevel >= 1) {
+                            debug_message(1, "adding node default attr (" + attr.getName() + ") to thisGraph("
+                                + this.thisGraph.getName() + ")");
+                        }
+                        this.thisGraph.setNodeAttribute(attr, false);
                         break;
                     case GrappaConstants.EDGE:
-                        this.parser.debug_message(1, "adding edge default attr (" + attr.getName() + ") to thisGraph("
-                            + this.thisGraph.getName() + ")");
-                        this.thisGraph.setEdgeAttribute(attr);
+                        if (this.debugLevel >= 1) {
+                            debug_message(1, "adding edge default attr (" + attr.getName() + ") to thisGraph("
+                                + this.thisGraph.getName() + ")");
+                        }
+                        this.thisGraph.setEdgeAttribute(attr, false);
                         break;
                     case GrappaConstants.SUBGRAPH:
-                        this.parser.debug_message(1, "adding subg default attr (" + attr.getName() + ") to thisGraph("
-                            + this.thisGraph.getName() + ")");
-                        this.thisGraph.setAttribute(attr);
+                        if (this.debugLevel >= 1) {
+                            debug_message(1, "adding subg default attr (" + attr.getName() + ") to thisGraph("
+                                + this.thisGraph.getName() + ")");
+                        }
+                        this.thisGraph.setAttribute(attr, false);
                         break;
                 }
             }
         }
-        this.attrs.removeAllElements();
+        clearAttrs();
     }
 
-    void startGraph(String name, boolean type, boolean strict)
+    private void startGraph(String name, boolean type, boolean strict)
     {
         if (this.graph == null) {
             this.graph = new Graph(name, type, strict);
@@ -704,110 +956,207 @@ void startGraph(String name, boolean type, boolean strict)
         }
         this.directed = type;
         this.rootSubgraph = this.graph;
-        this.parser.debug_message(1, "Creating top level graph (" + name + ")");
+        if (this.debugLevel >= 1) {
+            debug_message(1, "Creating top level graph (" + name + ")");
+        }
         this.anon_id = 0;
     }
 
-    void openGraph()
+    private void openGraph()
     {
         this.thisGraph = this.rootSubgraph;
         this.thisElemType = GrappaConstants.SUBGRAPH;
-        this.parser.debug_message(1, "thisGraph(" + this.thisGraph.getName() + ")");
+        if (this.debugLevel >= 1) {
+            debug_message(1, "thisGraph(" + this.thisGraph.getName() + ")");
+        }
     }
 
-    void closeGraph()
+    private void closeGraph()
     {
         int level = 1;
 
-        if (this.parser.getErrorWriter() != null && this.parser.getDebugLevel() >= level) {
+        if (this.errWriter != null && this.debugLevel >= level) {
 
-            this.parser.debug_message(level, "parsed graph follows:");
-            this.rootSubgraph.printSubgraph(this.parser.getErrorWriter());
+            debug_message(level, "parsed graph follows:");
+            this.rootSubgraph.printSubgraph(this.errWriter);
         }
     }
 
-    void openSubg(String name)
+    private void openSubg(String name)
     {
+        if (this.chunk != null) {
+            // anonymous names are numbered in input order, so they are assigned on replay
+            this.chunk.addOp(ParseChunk.OPEN_SUBG);
+            this.chunk.addArg(name);
+            this.thisElemType = GrappaConstants.SUBGRAPH;
+            return;
+        }
+        if (name == null) {
+            name = anonStr();
+        }
         this.thisGraph = new Subgraph(this.thisGraph, name);
-        this.parser.debug_message(1, "thisGraph(" + this.thisGraph.getName() + ")");
+        if (this.debugLevel >= 1) {
+            debug_message(1, "thisGraph(" + this.thisGraph.getName() + ")");
+        }
         this.thisElemType = GrappaConstants.SUBGRAPH;
     }
 
-    String anonStr()
+    private String anonStr()
     {
         return GrappaConstants.ANONYMOUS_PREFIX + this.anon_id++;
     }
 
-    void closeSubg()
+    private void closeSubg()
     {
+        if (this.chunk != null) {
+            this.chunk.addOp(ParseChunk.CLOSE_SUBG);
+            return;
+        }
         this.lastSubgraph = this.thisGraph;
         // getSubgraph() gets the parent subgraph
         this.thisGraph = this.thisGraph.getSubgraph();
         if (this.thisGraph == null) {
-            this.parser.report_error("parser attempted to go above root Subgraph", null);
+            report_error("parser attempted to go above root Subgraph", null);
             this.thisGraph = this.rootSubgraph;
         }
-        this.parser.debug_message(1, "Created subgraph (" + this.lastSubgraph.getName() + ") in subgraph ("
-            + this.thisGraph.getName()
-            + ")...");
-        this.parser.debug_message(1, "thisGraph(" + this.thisGraph.getName() + ")");
+        if (this.debugLevel >= 1) {
+            debug_message(1, "Created subgraph (" + this.lastSubgraph.getName() + ") in subgraph ("
+                + this.thisGraph.getName()
+                + ")...");
+            debug_message(1, "thisGraph(" + this.thisGraph.getName() + ")");
+        }
     }
 
-    void appendNode(String name, String port)
+    private void appendNode(String name, String port)
     {
+        if (this.chunk != null) {
+            this.chunk.addOp(ParseChunk.NODE);
+            this.chunk.addArg(name);
+            this.chunk.addArg(port);
+            this.thisElemType = GrappaConstants.NODE;
+            return;
+        }
         if ((this.thisNode = this.rootSubgraph.findNodeByName(name)) == null) {
-            this.parser.debug_message(1, "Creating node in subgraph (" + this.thisGraph.getName() + ")...");
+            if (this.debugLevel >= 1) {
+                debug_message(1, "Creating node in subgraph (" + this.thisGraph.getName() + ")...");
+            }
             this.thisNode = new Node(this.thisGraph, name);
-        } else {
-            this.parser.debug_message(1, "Node already in subgraph (" + this.thisNode.getSubgraph().getName() + ")...");
+        } else if (this.debugLevel >= 1) {
+            debug_message(1, "Node already in subgraph (" + this.thisNode.getSubgraph().getName() + ")...");
+        }
+        if (this.nodeCount == this.nodes.length) {
+            Node[] grownNodes = new Node[2 * this.nodeCount];
+            String[] grownPorts = new String[2 * this.nodeCount];
+            System.arraycopy(this.nodes, 0, grownNodes, 0, this.nodeCount);
+            System.arraycopy(this.ports, 0, grownPorts, 0, this.nodeCount);
+            this.nodes = grownNodes;
+            this.ports = grownPorts;
+        }
+        this.nodes[this.nodeCount] = this.thisNode;
+        this.ports[this.nodeCount++] = port;
+        if (this.debugLevel >= 1) {
+            debug_message(1, "thisNode(" + this.thisNode.getName() + ")");
         }
-        Object[] pair = new Object[2];
-        pair[0] = this.thisNode;
-        pair[1] = port;
-        this.nodes.addElement(pair);
-        this.parser.debug_message(1, "thisNode(" + this.thisNode.getName() + ")");
         this.thisElemType = GrappaConstants.NODE;
     }
 
-    void nodeWrap()
+    /*
+     * Drop pool entries from index start on.
+     */
+    private void releaseNodes(int start)
     {
-        Object[] pair = null;
-        if (this.nodes.size() > 0 && this.attrs.size() > 0) {
-            for (int i = 0; i < this.nodes.size(); i++) {
-                pair = this.nodes.elementAt(i);
-                applyAttrs((Element) pair[0], null, null);
-            }
+        while (this.nodeCount > start) {
+            this.nodeCount--;
+            this.nodes[this.nodeCount] = null;
+            this.ports[this.nodeCount] = null;
+        }
+        if (this.nodeStart > start) {
+            this.nodeStart = start;
         }
-        this.attrs.removeAllElements();
-        this.nodes.removeAllElements();
     }
 
-    void bufferEdges()
+    private void nodeWrap()
     {
-        Object[] pair = new Object[2];
-        if (this.nodes.size() > 0) {
-            pair[0] = this.nodes;
-            this.nodes = new Vector<>(8, 4);
-            pair[1] = new Boolean(true);
-        } else if (this.lastSubgraph != null) {
-            pair[0] = this.lastSubgraph;
-            this.lastSubgraph = null;
-            pair[1] = new Boolean(false);
-        } else {
-            this.parser.report_error("EDGE_OP without clear antecedent nodelist or subgraph", null);
+        if (this.chunk != null) {
+            this.chunk.addOp(ParseChunk.NODE_WRAP);
             return;
         }
-        this.edges.addElement(pair);
-    }
+        if (this.attrCount > 0) {
+            for (int i = this.nodeStart; i < this.nodeCount; i++) {
+                applyAttrs(this.nodes[i], null, null);
+            }
+        }
+        clearAttrs();
+        releaseNodes(this.nodeStart);
+    }
+
+    private void addTerm(int start, int end, Subgraph subg)
+    {
+        if (this.termCount == this.termSubg.length) {
+            int[] grownStart = new int[2 * this.termCount];
+            int[] grownEnd = new int[2 * this.termCount];
+            Subgraph[] grownSubg = new Subgraph[2 * this.termCount];
+            System.arraycopy(this.termStart, 0, grownStart, 0, this.termCount);
+            System.arraycopy(this.termEnd, 0, grownEnd, 0, this.termCount);
+            System.arraycopy(this.termSubg, 0, grownSubg, 0, this.termCount);
+            this.termStart = grownStart;
+            this.termEnd = grownEnd;
+            this.termSubg = grownSubg;
+        }
+        this.termStart[this.termCount] = start;
+        this.termEnd[this.termCount] = end;
+        this.termSubg[this.termCount++] = subg;
+    }
+
+    private void clearTerms()
+    {
+        while (this.termCount > 0) {
+            this.termSubg[--this.termCount] = null;
+        }
+    }
+
+    private void edgeOp(boolean directedOp)
+    {
+        this.thisElemType = GrappaConstants.EDGE;
+        if (this.chunk != null) {
+            this.chunk.addOp(ParseChunk.EDGE_OP);
+            this.chunk.addOp(directedOp ? 1 : 0);
+            return;
+        }
+        if (directedOp && !this.directed) {
+            report_error("attempt to create a directed edge in a non-directed graph", null);
+        } else if (!directedOp && this.directed) {
+            report_error("attempt to create a non-directed edge in a directed graph", null);
+        }
+        bufferEdges();
+    }
+
+    private void bufferEdges()
+    {
+        if (this.nodeCount > this.nodeStart) {
+            addTerm(this.nodeStart, this.nodeCount, null);
+            this.nodeStart = this.nodeCount;
+        } else if (this.lastSubgraph != null) {
+            addTerm(-1, -1, this.lastSubgraph);
+            this.lastSubgraph = null;
+        } else {
+            report_error("EDGE_OP without clear antecedent nodelist or subgraph", null);
+            return;
+        }
+    }
 
-    void edgeWrap()
+    private void edgeWrap()
     {
+        if (this.chunk != null) {
+            this.chunk.addOp(ParseChunk.EDGE_WRAP);
+            return;
+        }
         bufferEdges();
         Attribute key = null;
         Attribute name = null;
         Attribute attr = null;
-        for (int i = 0; i < this.attrs.size(); i++) {
-            attr = this.attrs.elementAt(i);
+        for (int i = 0; i < this.attrCount; i++) {
+            attr = this.attrs[i];
             if (attr.getName().equals("key")) {
                 key = attr;
                 if (name != null) {
@@ -820,986 +1169,66 @@ void edgeWrap()
                 }
             }
         }
-        Object[] tailPair = this.edges.elementAt(0);
-        Object[] headPair = null;
         // note: when node list is used, a non-null name will cause errors
         // due to lack of uniqueness
-        for (int i = 1; i < this.edges.size(); i++) {
-            headPair = this.edges.elementAt(i);
-            if (((Boolean) (tailPair[1])).booleanValue()) { // true if node list
-                @SuppressWarnings("unchecked")
-                Vector<Object[]> list = (Vector<Object[]>) tailPair[0];
-                Object[] nodePair = null;
-                for (int j = 0; j < list.size(); j++) {
-                    nodePair = list.elementAt(j);
-                    edgeRHS((Node) (nodePair[0]), (String) (nodePair[1]), headPair, key, name);
+        for (int i = 1; i < this.termCount; i++) {
+            int tail = i - 1;
+            if (this.termSubg[tail] == null) {
+                for (int j = this.termStart[tail]; j < this.termEnd[tail]; j++) {
+                    edgeRHS(this.nodes[j], this.ports[j], i, key, name);
                 }
-                list.removeAllElements();
             } else {
-                Subgraph subg = (Subgraph) (tailPair[0]);
-                Enumeration<Element> enm = subg.elements(GrappaConstants.NODE);
+                Enumeration<Element> enm = this.termSubg[tail].elements(GrappaConstants.NODE);
                 while (enm.hasMoreElements()) {
-                    edgeRHS((Node) (enm.nextElement()), null, headPair, key, name);
+                    edgeRHS((Node) (enm.nextElement()), null, i, key, name);
                 }
             }
-            tailPair = headPair;
         }
-        this.edges.removeAllElements();
-        this.attrs.removeAllElements();
+        // all buffered edge terms are consumed, so the whole node pool is free again
+        clearTerms();
+        clearAttrs();
+        releaseNodes(0);
     }
 
-    void edgeRHS(Node tail, String tailPort, Object[] headPair, Attribute keyAttr, Attribute nameAttr)
+    private void edgeRHS(Node tail, String tailPort, int head, Attribute keyAttr, Attribute nameAttr)
     {
         String key = (keyAttr == null) ? null : keyAttr.getStringValue();
         String name = (nameAttr == null) ? null : nameAttr.getStringValue();
-        if (((Boolean) (headPair[1])).booleanValue()) { // true if node list
-            @SuppressWarnings("unchecked")
-            Vector<Object[]> list = (Vector<Object[]>) (headPair[0]);
-            Object[] nodePair = null;
-            for (int j = 0; j < list.size(); j++) {
-                nodePair = list.elementAt(j);
-                this.thisEdge =
-                    new Edge(this.thisGraph, tail, tailPort, (Node) (nodePair[0]), (String) (nodePair[1]), key, name);
-                this.parser.debug_message(1, "Creating edge in subgraph (" + this.thisGraph.getName() + ")...");
-                this.parser.debug_message(1, "thisEdge(" + this.thisEdge.getName() + ")");
-                this.thisElemType = GrappaConstants.EDGE;
-                applyAttrs(this.thisEdge, keyAttr, nameAttr);
+        if (this.termSubg[head] == null) {
+            for (int j = this.termStart[head]; j < this.termEnd[head]; j++) {
+                this.thisEdge = new Edge(this.thisGraph, tail, tailPort, this.nodes[j], this.ports[j], key, name);
+                edgeCreated(keyAttr, nameAttr);
             }
         } else {
-            Subgraph subg = (Subgraph) (headPair[0]);
-            Enumeration<Element> enm = subg.elements(GrappaConstants.NODE);
+            Enumeration<Element> enm = this.termSubg[head].elements(GrappaConstants.NODE);
             while (enm.hasMoreElements()) {
                 this.thisEdge = new Edge(this.thisGraph, tail, tailPort, (Node) (enm.nextElement()), null, key, name);
-                this.parser.debug_message(1, "Creating edge in subgraph (" + this.thisGraph.getName() + ")...");
-                this.parser.debug_message(1, "thisEdge(" + this.thisEdge.getName() + ")");
-                this.thisElemType = GrappaConstants.EDGE;
-                applyAttrs(this.thisEdge, keyAttr, nameAttr);
+                edgeCreated(keyAttr, nameAttr);
             }
         }
     }
 
-    void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
+    private void edgeCreated(Attribute keyAttr, Attribute nameAttr)
+    {
+        if (this.debugLevel >= 1) {
+            debug_message(1, "Creating edge in subgraph (" + this.thisGraph.getName() + ")...");
+            debug_message(1, "thisEdge(" + this.thisEdge.getName() + ")");
+        }
+        this.thisElemType = GrappaConstants.EDGE;
+        applyAttrs(this.thisEdge, keyAttr, nameAttr);
+    }
+
+    private void applyAttrs(Element elem, Attribute skip1, Attribute skip2)
     {
         Attribute attr = null;
-        for (int i = 0; i < this.attrs.size(); i++) {
-            attr = this.attrs.elementAt(i);
+        for (int i = 0; i < this.attrCount; i++) {
+            attr = this.attrs[i];
             if (attr == skip1) {
                 continue;
             } else if (attr == skip2) {
                 continue;
             }
-            elem.setAttribute(attr);
-        }
-    }
-
-    private final Parser parser;
-
-    /** Constructor */
-    CUP$Parser$actions(Parser parser)
-    {
-        this.parser = parser;
-    }
-
-    /** Method with the actual generated action code. */
-    public final java_cup.runtime.Symbol CUP$Parser$do_action(
-        int CUP$Parser$act_num,
-        java_cup.runtime.lr_parser CUP$Parser$parser,
-        java.util.Stack<Symbol> CUP$Parser$stack,
-        int CUP$Parser$top)
-        throws java.lang.Exception
-    {
-        /* Symbol object for return from actions */
-        java_cup.runtime.Symbol CUP$Parser$result;
-
-        /* select the action based on the action number */
-        switch (CUP$Parser$act_num)
-        {
-        /* . . . . . . . . . . . . . . . . . . . . */
-            case 62: // optSeparator ::=
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(17/* optSeparator */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 61: // optSeparator ::= COMMA
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(17/* optSeparator */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 60: // optSeparator ::= SEMI
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(17/* optSeparator */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 59: // optSemi ::=
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(16/* optSemi */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 58: // optSemi ::= SEMI
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(16/* optSemi */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 57: // optSubgHdr ::=
-            {
-                String RESULT = null;
-
-                RESULT = anonStr();
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(5/* optSubgHdr */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 56: // optSubgHdr ::= SUBGRAPH
-            {
-                String RESULT = null;
-
-                RESULT = anonStr();
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(5/* optSubgHdr */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 55: // optSubgHdr ::= SUBGRAPH ATOM
-            {
-                String RESULT = null;
-                String val = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                RESULT = val;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(5/* optSubgHdr */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 54: // subgraph ::= optSubgHdr NT$2 body
-            {
-                Object RESULT = null;
-                // propagate RESULT from NT$2
-                if (CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value != null) {
-                    RESULT = CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value;
-                }
-                closeSubg();
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(22/* subgraph */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 53: // NT$2 ::=
-            {
-                Object RESULT = null;
-                String val = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                openSubg(val);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(34/* NT$2 */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 52: // graphAttrDefs ::= attrAssignment
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(25/* graphAttrDefs */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 51: // attrMacro ::= ATSIGN ATOM
-            {
-                Object RESULT = null;
-                String name = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                appendAttr(name, null);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(30/* attrMacro */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 50: // attrAssignment ::= ATOM EQUAL ATOM
-            {
-                Object RESULT = null;
-                String name = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 2).value;
-                String value =
-                    (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                appendAttr(name, value);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(29/* attrAssignment */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 49: // attrItem ::= attrMacro
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(28/* attrItem */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 48: // attrItem ::= attrAssignment
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(28/* attrItem */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 47: // attrDefs ::= attrDefs optSeparator attrItem
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(27/* attrDefs */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 46: // attrDefs ::= attrItem
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(27/* attrDefs */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 45: // optAttrDefs ::=
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(26/* optAttrDefs */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 44: // optAttrDefs ::= attrDefs
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(26/* optAttrDefs */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 43: // attrList ::= optAttr LBR optAttrDefs RBR
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(24/* attrList */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 3).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 42: // optAttr ::=
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(20/* optAttr */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 41: // optAttr ::= attrList
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(20/* optAttr */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 40: // optMacroName ::=
-            {
-                String RESULT = null;
-
-                RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(7/* optMacroName */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 39: // optMacroName ::= ATOM EQUAL
-            {
-                String RESULT = null;
-                String val = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value;
-
-                RESULT = val;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(7/* optMacroName */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 38: // attrType ::= EDGE
-            {
-                Integer RESULT = null;
-
-                RESULT = new Integer(GrappaConstants.EDGE);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(4/* attrType */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 37: // attrType ::= NODE
-            {
-                Integer RESULT = null;
-
-                RESULT = new Integer(GrappaConstants.NODE);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(4/* attrType */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 36: // attrType ::= GRAPH
-            {
-                Integer RESULT = null;
-
-                RESULT = new Integer(GrappaConstants.SUBGRAPH);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(4/* attrType */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 35: // attrStmt ::= graphAttrDefs
-            {
-                Object RESULT = null;
-
-                attrStmt(GrappaConstants.SUBGRAPH, null);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(15/* attrStmt */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 34: // attrStmt ::= attrType optMacroName attrList
-            {
-                Object RESULT = null;
-                Integer type = (Integer) CUP$Parser$stack.elementAt(CUP$Parser$top - 2).value;
-                String name = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value;
-
-                attrStmt(type.intValue(), name);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(15/* attrStmt */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 33: // optPort ::=
-            {
-                String RESULT = null;
-
-                RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(8/* optPort */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 32: // optPort ::= COLON ATOM
-            {
-                String RESULT = null;
-                String val = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                RESULT = val;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(8/* optPort */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 31: // node ::= ATOM optPort
-            {
-                Object RESULT = null;
-                String name = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value;
-                String port = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                appendNode(name, port);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(23/* node */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 30: // nodeList ::= nodeList COMMA node
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(21/* nodeList */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 29: // nodeList ::= node
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(21/* nodeList */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 28: // rCompound ::=
-            {
-                Boolean RESULT = null;
-
-                this.thisElemType = GrappaConstants.NODE;
-                RESULT = new Boolean(false);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(3/* rCompound */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 27: // rCompound ::= edge_op NT$1 simple rCompound
-            {
-                Boolean RESULT = null;
-                // propagate RESULT from NT$1
-                if (CUP$Parser$stack.elementAt(CUP$Parser$top - 2).value != null) {
-                    RESULT = (Boolean) CUP$Parser$stack.elementAt(CUP$Parser$top - 2).value;
-                }
-
-                this.thisElemType = GrappaConstants.EDGE;
-                RESULT = new Boolean(true);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(3/* rCompound */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 3).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 26: // NT$1 ::=
-            {
-                Object RESULT = null;
-
-                this.thisElemType = GrappaConstants.EDGE;
-                bufferEdges();
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(33/* NT$1 */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 25: // edge_op ::= ND_EDGE_OP
-            {
-                Object RESULT = null;
-
-                if (this.directed) {
-                    // CUP$parser.report_error ("attempt to create a non-directed edge in a directed graph",null);
-                    this.parser.report_error("attempt to create a non-directed edge in a directed graph", null);
-                }
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(31/* edge_op */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 24: // edge_op ::= D_EDGE_OP
-            {
-                Object RESULT = null;
-
-                if (!this.directed) {
-                    // CUP$parser.report_error ("attempt to create a directed edge in a non-directed graph",null);
-                    this.parser.report_error("attempt to create a directed edge in a non-directed graph", null);
-                }
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(31/* edge_op */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 23: // simple ::= subgraph
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(19/* simple */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 22: // simple ::= nodeList
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(19/* simple */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 21: // compound ::= simple rCompound optAttr
-            {
-                Object RESULT = null;
-                Boolean val =
-                    (Boolean) CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value;
-
-                if (val.booleanValue()) {
-                    edgeWrap();
-                } else {
-                    nodeWrap();
-                }
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(18/* compound */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 20: // stmt ::= compound optSemi
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(14/* stmt */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 19: // stmt ::= attrStmt optSemi
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(14/* stmt */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 18: // stmtList ::= stmt
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(13/* stmtList */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 17: // stmtList ::= stmtList stmt
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(13/* stmtList */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 16: // optStmtList ::=
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(12/* optStmtList */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 15: // optStmtList ::= stmtList
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(12/* optStmtList */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 14: // body ::= LCUR optStmtList RCUR
-            {
-                Object RESULT = null;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(11/* body */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 13: // optGraphName ::=
-            {
-                String RESULT = null;
-
-                RESULT = anonStr();
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(6/* optGraphName */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 12: // optGraphName ::= ATOM
-            {
-                String RESULT = null;
-                String val = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                RESULT = val;
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(6/* optGraphName */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 11: // graphType ::= DIGRAPH
-            {
-                Boolean RESULT = null;
-
-                RESULT = new Boolean(true);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(2/* graphType */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 10: // graphType ::= GRAPH
-            {
-                Boolean RESULT = null;
-
-                RESULT = new Boolean(false);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(2/* graphType */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 9: // optStrict ::=
-            {
-                Boolean RESULT = null;
-
-                RESULT = new Boolean(false);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(1/* optStrict */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 8: // optStrict ::= STRICT
-            {
-                Boolean RESULT = null;
-
-                RESULT = new Boolean(true);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(1/* optStrict */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 7: // hdr ::= STRICTDIGRAPH optGraphName
-            {
-                Object RESULT = null;
-                String name = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                startGraph(name, true, true);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(10/* hdr */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 6: // hdr ::= STRICTGRAPH optGraphName
-            {
-                Object RESULT = null;
-                String name = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                startGraph(name, true, false);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(10/* hdr */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 5: // hdr ::= optStrict graphType optGraphName
-            {
-                Object RESULT = null;
-                Boolean strict = (Boolean) CUP$Parser$stack.elementAt(CUP$Parser$top - 2).value;
-                Boolean type = (Boolean) CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value;
-                String name = (String) CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                startGraph(name, type.booleanValue(), strict.booleanValue());
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(10/* hdr */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 4: // graph ::=
-            {
-                Object RESULT = null;
-
-                this.graph = new Graph("empty");
-                // ((Parser)(CUP$parser)).report_warning ("The graph to parse is empty.", null);
-                (this.parser).report_warning("The graph to parse is empty.", null);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(9/* graph */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 3: // graph ::= error
-            {
-                Object RESULT = null;
-                Object val = CUP$Parser$stack.elementAt(CUP$Parser$top - 0).value;
-
-                // CUP$parser.report_error ("An error was encountered while graph parsing (" + val.toString() + ").",
-                // null);
-                this.parser
-                .report_error("An error was encountered while graph parsing (" + val.toString() + ").", null);
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(9/* graph */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 2: // graph ::= hdr NT$0 body
-            {
-                Object RESULT = null;
-                // propagate RESULT from NT$0
-                if (CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value != null) {
-                    RESULT = CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value;
-                }
-
-                closeGraph();
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(9/* graph */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 2).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 1: // NT$0 ::=
-            {
-                Object RESULT = null;
-
-                openGraph();
-
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(32/* NT$0 */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                return CUP$Parser$result;
-
-                /* . . . . . . . . . . . . . . . . . . . . */
-            case 0: // $START ::= graph EOF
-            {
-                Object RESULT = null;
-                Object start_val = CUP$Parser$stack.elementAt(CUP$Parser$top - 1).value;
-                RESULT = start_val;
-                CUP$Parser$result =
-                    new java_cup.runtime.Symbol(0/* $START */,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 1).left,
-                        CUP$Parser$stack.elementAt(CUP$Parser$top - 0).right, RESULT);
-            }
-                /* ACCEPT */
-                CUP$Parser$parser.done_parsing();
-                return CUP$Parser$result;
-
-                /* . . . . . . */
-            default:
-                throw new Exception(
-                    "Invalid action number found in internal parse table");
-
+            elem.setAttribute(attr, false);
         }
     }
 }
@@ -0,0 +1,746 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * The parser and converter for a single <I>printf</I> conversion specification, used by <code>GrappaFormat</code>.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a> and Rich Drechsler, <a
+ *         href="http://www.research.att.com">Research @ AT&T Labs</a>
+ * @see GrappaFormat
+ */
+class PrintfParser implements GrappaConstants
+{
+    private boolean alternate;
+
+    private boolean rightpad;
+
+    private boolean sign;
+
+    private boolean space;
+
+    private boolean zeropad;
+
+    private boolean trim;
+
+    private int precision;
+
+    private int width;
+
+    private String plus;
+
+    private char padding;
+
+    private StringBuilder scratch;
+
+    // /////////////////////////////////////////////////////////////////////////
+    //
+    // Constructor
+    //
+    // /////////////////////////////////////////////////////////////////////////
+
+    PrintfParser()
+    {
+        this.scratch = new StringBuilder();
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    //
+    // printfParser
+    //
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Set up the conversion specification from the parts of a previously parsed one.
+     */
+    final void setSpec(int flags, int width, int precision)
+    {
+        this.rightpad = (flags & GrappaFormat.FLAG_RIGHTPAD) != 0;
+        this.sign = (flags & GrappaFormat.FLAG_SIGN) != 0;
+        this.space = (flags & GrappaFormat.FLAG_SPACE) != 0;
+        this.zeropad = (flags & GrappaFormat.FLAG_ZEROPAD) != 0;
+        this.alternate = (flags & GrappaFormat.FLAG_ALTERNATE) != 0;
+        this.trim = false;
+        this.plus = (this.sign ? "+" : (this.space ? " " : ""));
+        this.width = width;
+        this.precision = precision;
+        this.padding = (this.zeropad && !this.rightpad) ? '0' : ' ';
+    }
+
+    final int getWidth()
+    {
+        return (this.width);
+    }
+
+    final int getPrecision()
+    {
+        return (this.precision);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final int parse(char cfmt[])
+    {
+        return (parse(cfmt, 0));
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final int parse(char cfmt[], int n)
+    {
+        boolean done;
+        int ch;
+
+        //
+        // Parse the conversion specification that starts at index n
+        // in fmt. Results are stored in the class variables and the
+        // position of the character that stopped the parse is
+        // returned to the caller.
+        //
+
+        this.alternate = false;
+        this.rightpad = false;
+        this.sign = false;
+        this.space = false;
+        this.zeropad = false;
+        this.trim = false;
+
+        for (done = false; n < cfmt.length && !done; n++) {
+            switch (cfmt[n]) {
+                case '-':
+                    this.rightpad = true;
+                    break;
+                case '+':
+                    this.sign = true;
+                    break;
+                case ' ':
+                    this.space = true;
+                    break;
+                case '0':
+                    this.zeropad = true;
+                    break;
+                case '#':
+                    this.alternate = true;
+                    break;
+                default:
+                    done = true;
+                    n--;
+                    break;
+            }
+        }
+
+        this.plus = (this.sign ? "+" : (this.space ? " " : ""));
+
+        for (this.width = 0; n < cfmt.length && GrappaSupport.isdigit(ch = cfmt[n]); n++) {
+            this.width = this.width * 10 + (ch - '0');
+        }
+
+        if (n < cfmt.length && cfmt[n] == '.') {
+            n++;
+            for (this.precision = 0; n < cfmt.length && GrappaSupport.isdigit(ch = cfmt[n]); n++) {
+                this.precision = this.precision * 10 + (ch - '0');
+            }
+        } else {
+            this.precision = -1;
+        }
+
+        this.padding = (this.zeropad && !this.rightpad) ? '0' : ' ';
+
+        return (n);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildChar(StringBuilder buf, int arg)
+    {
+        this.scratch.setLength(0);
+        this.scratch.append((char) arg);
+        return (strpad(buf, this.scratch.toString(), ' ', this.width, this.rightpad));
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildExp(StringBuilder buf, double arg, boolean upper)
+    {
+        double exp;
+        double base;
+        double val;
+        int sign;
+
+        this.precision = (this.precision >= 0) ? this.precision : 6;
+
+        val = arg;
+        sign = (val >= 0) ? 1 : -1;
+        val = (val < 0) ? -val : val;
+
+        if (val >= 1) {
+            exp = Math.log(val) / LOG10;
+            base = Math.pow(10, exp - (int) exp);
+        } else {
+            exp = Math.log(val / 10) / LOG10;
+            base = Math.pow(10, exp - (int) exp + 1);
+        }
+
+        int iexp = (int) (exp > 0 ? exp : -exp);
+        boolean positive = (exp > 0);
+
+        // a base that rounds up to 10 is written as 1 with the next exponent
+        if (carriesToTen(base, this.precision)) {
+            base /= 10;
+            if (positive) {
+                iexp++;
+            } else if (--iexp == 0) {
+                positive = true;
+            }
+        }
+
+        this.scratch.setLength(0);
+        this.scratch.append(upper ? "E" : "e");
+        this.scratch.append(positive ? '+' : '-');
+
+        strpad(this.scratch, ("" + iexp), '0', 2, false);
+        if (this.padding == '0' && this.precision >= 0) {
+            this.padding = ' ';
+        }
+
+        return (strpad(buf, doubleToString(sign * base, this.scratch.toString()), this.padding, this.width,
+            this.rightpad));
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildFlex(StringBuilder buf, double arg, boolean upper)
+    {
+        double exp;
+        double val;
+        double ival;
+        StringBuilder retbuf;
+        int iexp;
+
+        this.trim = true;
+
+        val = arg;
+        ival = (int) arg;
+        val = (val < 0) ? -val : val;
+
+        if (val >= 1) {
+            exp = Math.log(val) / LOG10;
+        } else {
+            exp = Math.log(val / 10) / LOG10;
+        }
+
+        iexp = (int) exp;
+        this.precision = (this.precision >= 0) ? --this.precision : 5;
+
+        if (val == ival) {
+            if (this.alternate) {
+                if (this.precision < 0 || iexp <= this.precision) {
+                    this.precision -= iexp;
+                    retbuf = buildFloat(buf, arg);
+                } else {
+                    retbuf = buildExp(buf, arg, upper);
+                }
+            } else {
+                if (this.precision < 0 || iexp <= this.precision) {
+                    this.precision = -1;
+                    retbuf = buildInteger(buf, (int) arg);
+                } else {
+                    retbuf = buildExp(buf, arg, upper);
+                }
+            }
+        } else if (iexp < -4 || iexp > this.precision) {
+            retbuf = buildExp(buf, arg, upper);
+        } else {
+            retbuf = buildFloat(buf, arg);
+        }
+
+        return (retbuf);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildPoint(StringBuilder buf, java.awt.geom.Point2D parg, boolean upper)
+    {
+        double[] arg = { 0, 0 };
+        double[] exp = { 0, 0 };
+        double[] val = { 0, 0 };
+        double[] ival = { 0, 0 };
+        int[] iexp = { 0, 0 };
+        StringBuilder retbuf = null;
+        int orig_precision;
+
+        this.trim = true;
+
+        arg[0] = parg.getX();
+        arg[1] = (Grappa.negateStringYCoord ? -parg.getY() : parg.getY());
+        val[0] = arg[0];
+        val[1] = arg[1];
+        orig_precision = this.precision;
+
+        for (int i = 0; i < 2; i++) {
+            this.precision = orig_precision;
+            ival[i] = (int) val[i];
+            val[i] = (val[i] < 0) ? -val[i] : val[i];
+
+            if (val[i] >= 1) {
+                exp[i] = Math.log(val[i]) / LOG10;
+            } else {
+                exp[i] = Math.log(val[i] / 10) / LOG10;
+            }
+
+            iexp[i] = (int) exp[i];
+            this.precision = (this.precision >= 0) ? --this.precision : 5;
+
+            if (val[i] == ival[i]) {
+                if (this.alternate) {
+                    if (this.precision < 0 || iexp[i] <= this.precision) {
+                        this.precision -= iexp[i];
+                        retbuf = buildFloat(buf, arg[i]);
+                    } else {
+                        retbuf = buildExp(buf, arg[i], upper);
+                    }
+                } else {
+                    if (this.precision < 0 || iexp[i] <= this.precision) {
+                        this.precision = -1;
+                        retbuf = buildInteger(buf, (long) arg[i]);
+                    } else {
+                        retbuf = buildExp(buf, arg[i], upper);
+                    }
+                }
+            } else if (iexp[i] < -4 || iexp[i] > this.precision) {
+                retbuf = buildExp(buf, arg[i], upper);
+            } else {
+                retbuf = buildFloat(buf, arg[i]);
+            }
+
+            if (i == 0) {
+                retbuf = retbuf.append(',');
+                buf = retbuf;
+            }
+        }
+
+        return (retbuf);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildSize(StringBuilder buf, java.awt.geom.Dimension2D parg, boolean upper)
+    {
+        double[] arg = { 0, 0 };
+        double[] exp = { 0, 0 };
+        double[] val = { 0, 0 };
+        double[] ival = { 0, 0 };
+        int[] iexp = { 0, 0 };
+        StringBuilder retbuf = null;
+        int orig_precision;
+
+        this.trim = true;
+
+        arg[0] = parg.getWidth();
+        arg[1] = parg.getHeight();
+        val[0] = arg[0];
+        val[1] = arg[1];
+        orig_precision = this.precision;
+
+        for (int i = 0; i < 2; i++) {
+            this.precision = orig_precision;
+            ival[i] = (int) val[i];
+            val[i] = (val[i] < 0) ? -val[i] : val[i];
+
+            if (val[i] >= 1) {
+                exp[i] = Math.log(val[i]) / LOG10;
+            } else {
+                exp[i] = Math.log(val[i] / 10) / LOG10;
+            }
+
+            iexp[i] = (int) exp[i];
+            this.precision = (this.precision >= 0) ? --this.precision : 5;
+
+            if (val[i] == ival[i]) {
+                if (this.alternate) {
+                    if (this.precision < 0 || iexp[i] <= this.precision) {
+                        this.precision -= iexp[i];
+                        retbuf = buildFloat(buf, arg[i]);
+                    } else {
+                        retbuf = buildExp(buf, arg[i], upper);
+                    }
+                } else {
+                    if (this.precision < 0 || iexp[i] <= this.precision) {
+                        this.precision = -1;
+                        retbuf = buildInteger(buf, (long) arg[i]);
+                    } else {
+                        retbuf = buildExp(buf, arg[i], upper);
+                    }
+                }
+            } else if (iexp[i] < -4 || iexp[i] > this.precision) {
+                retbuf = buildExp(buf, arg[i], upper);
+            } else {
+                retbuf = buildFloat(buf, arg[i]);
+            }
+
+            if (i == 0) {
+                retbuf = retbuf.append(',');
+                buf = retbuf;
+            }
+        }
+
+        return (retbuf);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildBox(StringBuilder buf, java.awt.geom.Rectangle2D parg, boolean upper, boolean dimensioned)
+    {
+        double[] arg = { 0, 0, 0, 0 };
+        double[] exp = { 0, 0, 0, 0 };
+        double[] val = { 0, 0, 0, 0 };
+        double[] ival = { 0, 0, 0, 0 };
+        int[] iexp = { 0, 0, 0, 0 };
+        StringBuilder retbuf = null;
+        int orig_precision;
+
+        this.trim = true;
+
+        if (!dimensioned) {
+            arg[0] = parg.getX();
+            arg[1] = parg.getY();
+            arg[2] = arg[0] + arg[2];
+            arg[3] = arg[1] + arg[3];
+            arg[1] = (Grappa.negateStringYCoord ? -arg[1] : arg[1]);
+            arg[3] = (Grappa.negateStringYCoord ? -arg[3] : arg[3]);
+        } else {
+            arg[0] = parg.getX();
+            arg[1] = (Grappa.negateStringYCoord ? -parg.getY() : parg.getY());
+            arg[2] = parg.getWidth();
+            arg[3] = parg.getHeight();
+        }
+        val[0] = arg[0];
+        val[1] = arg[1];
+        val[2] = arg[2];
+        val[3] = arg[3];
+        orig_precision = this.precision;
+
+        for (int i = 0; i < 4; i++) {
+            this.precision = orig_precision;
+            ival[i] = (int) val[i];
+            val[i] = (val[i] < 0) ? -val[i] : val[i];
+
+            if (val[i] >= 1) {
+                exp[i] = Math.log(val[i]) / LOG10;
+            } else {
+                exp[i] = Math.log(val[i] / 10) / LOG10;
+            }
+
+            iexp[i] = (int) exp[i];
+            this.precision = (this.precision >= 0) ? --this.precision : 5;
+
+            if (val[i] == ival[i]) {
+                if (this.alternate) {
+                    if (this.precision < 0 || iexp[i] <= this.precision) {
+                        this.precision -= iexp[i];
+                        retbuf = buildFloat(buf, arg[i]);
+                    } else {
+                        retbuf = buildExp(buf, arg[i], upper);
+                    }
+                } else {
+                    if (this.precision < 0 || iexp[i] <= this.precision) {
+                        this.precision = -1;
+                        retbuf = buildInteger(buf, (long) arg[i]);
+                    } else {
+                        retbuf = buildExp(buf, arg[i], upper);
+                    }
+                }
+            } else if (iexp[i] < -4 || iexp[i] > this.precision) {
+                retbuf = buildExp(buf, arg[i], upper);
+            } else {
+                retbuf = buildFloat(buf, arg[i]);
+            }
+
+            if (i < 3) {
+                retbuf = retbuf.append(',');
+                buf = retbuf;
+            }
+        }
+
+        return (retbuf);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildFloat(StringBuilder buf, double arg)
+    {
+        double val;
+
+        this.precision = (this.precision >= 0) ? this.precision : 6;
+        val = arg;
+
+        if (this.padding == '0' && this.precision >= 0) {
+            this.padding = ' ';
+        }
+        return (strpad(buf, doubleToString(val, ""), this.padding, this.width, this.rightpad));
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildHex(StringBuilder buf, int arg, boolean upper)
+    {
+        String str;
+
+        this.scratch.setLength(0);
+
+        str = (upper) ? Integer.toHexString(arg).toUpperCase() : Integer.toHexString(arg);
+
+        if (this.precision > str.length()) {
+            if (this.alternate) {
+                this.scratch.append(upper ? "0X" : "0x");
+            }
+            strpad(this.scratch, str, '0', this.precision, false);
+            strpad(buf, this.scratch.toString(), ' ', this.width, this.rightpad);
+        } else {
+            if (this.zeropad && !this.rightpad && this.precision < 0) {
+                if (this.alternate) {
+                    if (this.width > 2) {
+                        strpad(this.scratch, str, '0', this.width - 2, this.rightpad);
+                        buf.append(upper ? "0X" : "0x");
+                        buf.append(this.scratch.toString());
+                    } else {
+                        buf.append(upper ? "0X" : "0x");
+                        buf.append(str);
+                    }
+                } else {
+                    strpad(buf, str, '0', this.width, this.rightpad);
+                }
+            } else {
+                if (this.alternate) {
+                    this.scratch.append(upper ? "0X" : "0x");
+                    this.scratch.append(str);
+                    str = this.scratch.toString();
+                }
+                strpad(buf, str, ' ', this.width, this.rightpad);
+            }
+        }
+
+        return (buf);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildInteger(StringBuilder buf, long arg)
+    {
+        String str;
+        String sign;
+        long val;
+
+        this.scratch.setLength(0);
+
+        val = arg;
+        sign = (val >= 0) ? this.plus : "-";
+        str = "" + ((val < 0) ? -val : val);
+
+        if (this.precision > str.length()) {
+            strpad(this.scratch, str, '0', this.precision, false);
+            this.scratch.insert(0, sign);
+        } else {
+            this.scratch.append(sign);
+            this.scratch.append(str);
+        }
+
+        if (this.padding == '0' && this.precision >= 0) {
+            this.padding = ' ';
+        }
+
+        return (strpad(buf, this.scratch.toString(), this.padding, this.width, this.rightpad));
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildOctal(StringBuilder buf, int arg)
+    {
+        String str;
+
+        this.scratch.setLength(0);
+
+        if (this.alternate) {
+            this.scratch.append('0');
+        }
+
+        this.scratch.append(Integer.toOctalString(arg));
+        if (this.precision > this.scratch.length()) {
+            str = this.scratch.toString();
+            this.scratch.setLength(0);
+            strpad(this.scratch, str, '0', this.precision, false);
+        }
+
+        if (this.padding == '0' && this.precision >= 0) {
+            this.padding = ' ';
+        }
+
+        return (strpad(buf, this.scratch.toString(), this.padding, this.width, this.rightpad));
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    final StringBuilder buildString(StringBuilder buf, String arg)
+    {
+        String str;
+
+        if (this.precision > 0) {
+            if (this.precision < arg.length()) {
+                str = arg.substring(0, this.precision);
+            } else {
+                str = arg;
+            }
+        } else {
+            str = arg;
+        }
+
+        return (strpad(buf, str, this.padding, this.width, this.rightpad));
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Check whether the base of an exponential conversion becomes 10 when rounded to the supplied number of decimals.
+     *
+     * @param base a base in [1,10), give or take rounding error
+     * @param precision the number of decimals kept
+     * @return true if the base should be written as 1 with the next exponent
+     */
+    static boolean carriesToTen(double base, int precision)
+    {
+        if (base >= 10) {
+            return (true);
+        }
+        if (precision <= 0 || base < 9) {
+            return (false);
+        }
+
+        double power = Math.pow(10, precision);
+
+        return (Math.round((base - Math.floor(base)) * power) >= power);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+    //
+    // Private methods
+    //
+    // /////////////////////////////////////////////////////////////////////////
+
+    private String doubleToString(double val, String exp)
+    {
+        String sign;
+        double whole;
+        double power;
+        double frac;
+
+        //
+        // Building the resulting String up by casting to an int or long
+        // doesn't always work, so we use algorithm that may look harder
+        // and slower than necessary.
+        //
+
+        this.scratch.setLength(0);
+
+        sign = (val >= 0) ? this.plus : "-";
+        val = (val < 0) ? -val : val;
+
+        whole = Math.floor(val);
+
+        if (this.precision != 0) {
+            power = Math.pow(10, this.precision);
+            frac = (val - whole) * power;
+            long rounded = Math.round(frac);
+            // a fraction that rounds up to a whole unit is carried into the whole part
+            if (rounded >= power) {
+                whole += 1;
+                frac = 0;
+                rounded = 0;
+            }
+            this.scratch.append((long) whole);
+            String tail = ("" + rounded);
+            if (this.trim) {
+                int len = tail.length();
+                int extra = 0;
+                while (extra < len && tail.charAt(len - extra - 1) == '0') {
+                    extra++;
+                }
+                if (extra == len) {
+                    if (exp.length() > 0) {
+                        tail = ".0";
+                    } else {
+                        tail = "";
+                    }
+                    this.precision = 0;
+                } else if (extra > 0) {
+                    this.scratch.append('.');
+                    tail = tail.substring(0, len - extra);
+                    this.precision -= extra;
+                } else {
+                    this.scratch.append('.');
+                }
+            } else {
+                this.scratch.append('.');
+            }
+            if (this.precision > 0 && (power / 10) > frac) {
+                strpad(this.scratch, tail, '0', this.precision, false);
+            } else {
+                this.scratch.append(tail);
+            }
+            this.scratch.append(exp);
+        } else {
+            this.scratch.append((long) whole);
+            if (this.alternate && exp.length() == 0) {
+                this.scratch.append('.');
+            }
+            this.scratch.append(exp);
+        }
+
+        if (this.zeropad && !this.rightpad) {
+            String str = this.scratch.toString();
+            this.scratch.setLength(0);
+            strpad(this.scratch, str, '0', this.width - sign.length(), false);
+        }
+
+        this.scratch.insert(0, sign);
+        return (this.scratch.toString());
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+
+    private StringBuilder strpad(StringBuilder buf, String str, int ch, int width, boolean right)
+    {
+        int len;
+        int n;
+
+        if (width > 0) {
+            if ((len = width - str.length()) > 0) {
+                if (right) {
+                    buf.append(str);
+                }
+                for (n = 0; n < len; n++) {
+                    buf.append((char) ch);
+                }
+                if (!right) {
+                    buf.append(str);
+                }
+            } else {
+                buf.append(str);
+            }
+        } else {
+            buf.append(str);
+        }
+
+        return (buf);
+    }
+
+    // /////////////////////////////////////////////////////////////////////////
+}
@@ -0,0 +1,157 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.Enumeration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The parallel build behind <code>Graph.buildShapes(int)</code>. The GrappaNexus objects are created, and every
+ * attribute the elements share (the subgraph defaults and the graph's own attributes) is converted to its object and
+ * primitive forms, on the calling thread, so that the workers only ever read shared attributes. The nodes are then
+ * computed by a fork/join pool, which splits their id range among its workers, and after them the edges, which refer
+ * to the positions of their nodes. Attribute changes the elements make to themselves while the workers run are
+ * serialized through the graph's build lock. The bounding boxes of the subgraphs are aggregated on the calling thread
+ * at the end.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see Graph#buildShapes(int)
+ */
+final class ShapeBuilder implements GrappaConstants
+{
+    // the fewest elements worth handing to a worker of their own
+    private static final int SLICE_SIZE = 256;
+
+    private ShapeBuilder()
+    {
+    }
+
+    /**
+     * Build and compute the GrappaNexus objects of all elements of a graph, and its bounding box.
+     *
+     * @param graph the graph
+     * @param parallelism the number of worker threads to use
+     */
+    static void build(Graph graph, int parallelism)
+    {
+        graph.buildShapes();
+
+        if (parallelism <= 1 || graph.batch != null || graph.buildLock != null) {
+            validate(graph, NODE, 0, graph.getIdLimit(NODE));
+            validate(graph, EDGE, 0, graph.getIdLimit(EDGE));
+            graph.getBoundingBox();
+            return;
+        }
+
+        resolveShared(graph);
+        graph.getFontRenderContext();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        graph.buildLock = new Object();
+        try {
+            pool.invoke(new Slice(graph, NODE, 0, graph.getIdLimit(NODE)));
+            pool.invoke(new Slice(graph, EDGE, 0, graph.getIdLimit(EDGE)));
+        } finally {
+            graph.buildLock = null;
+            pool.shutdown();
+        }
+        graph.getBoundingBox();
+    }
+
+    // compute the nexus of each element of a type with an id in the supplied range
+    private static void validate(Graph graph, int type, int from, int to)
+    {
+        for (int id = from; id < to; id++) {
+            Element elem = (type == NODE ? graph.findNodeById(id) : graph.findEdgeById(id));
+
+            if (elem != null && elem.grappaNexus != null) {
+                elem.grappaNexus.validate();
+                elem.grappaNexus.getBounds2D();
+            }
+        }
+    }
+
+    // convert the attributes the elements of the graph share, so that reading them writes nothing
+    private static void resolveShared(Graph graph)
+    {
+        Enumeration<String> keys = graph.getGrappaAttributeKeys();
+
+        while (keys.hasMoreElements()) {
+            resolve(graph.getGrappaAttribute(keys.nextElement()));
+        }
+
+        GraphEnumeration enm = graph.elements(SUBGRAPH);
+
+        while (enm.hasMoreElements()) {
+            Subgraph subgraph = (Subgraph) enm.nextGraphElement();
+
+            resolve(subgraph.getLocalAttributePairs());
+            resolve(subgraph.getNodeAttributePairs());
+            resolve(subgraph.getEdgeAttributePairs());
+        }
+    }
+
+    private static void resolve(Enumeration<Attribute> attrs)
+    {
+        if (attrs == null) {
+            return;
+        }
+        while (attrs.hasMoreElements()) {
+            resolve(attrs.nextElement());
+        }
+    }
+
+    private static void resolve(Attribute attr)
+    {
+        if (attr != null) {
+            attr.resolve();
+        }
+    }
+
+    // a range of element ids, split in halves until it is small enough to compute directly
+    private static final class Slice extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Graph graph;
+
+        private final int type;
+
+        private final int from;
+
+        private final int to;
+
+        Slice(Graph graph, int type, int from, int to)
+        {
+            this.graph = graph;
+            this.type = type;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (this.to - this.from <= SLICE_SIZE) {
+                validate(this.graph, this.type, this.from, this.to);
+            } else {
+                int middle = (this.from + this.to) >>> 1;
+
+                invokeAll(new Slice(this.graph, this.type, this.from, middle), new Slice(this.graph, this.type, middle,
+                    this.to));
+            }
+        }
+    }
+}
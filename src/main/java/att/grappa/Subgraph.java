@@ -48,10 +48,10 @@ public class Subgraph extends Element implements Comparator<Element>
     private boolean subgLabels = true;
 
     // default node attributes
-    private Map<String, Attribute> nodeAttributes = null;
+    private AttributeMap nodeAttributes = null;
 
     // default edge attributes
-    private Map<String, Attribute> edgeAttributes = null;
+    private AttributeMap edgeAttributes = null;
 
     // for cluster subgraphs
     private boolean cluster = false;
@@ -69,7 +69,7 @@ public class Subgraph extends Element implements Comparator<Element>
         // super();
         this.cluster = true; // the root is a cluster subgraph
 
-        subgraphAttrsOfInterest();
+        this.interest = ROOT_INTEREST;
     }
 
     /**
@@ -85,18 +85,18 @@ public Subgraph(Subgraph subg, String name)
 
         Enumeration<Attribute> enm = subg.getNodeAttributePairs();
         while (enm.hasMoreElements()) {
-            setNodeAttribute(enm.nextElement());
+            setNodeAttribute(enm.nextElement(), false);
         }
         enm = subg.getEdgeAttributePairs();
         while (enm.hasMoreElements()) {
-            setEdgeAttribute(enm.nextElement());
+            setEdgeAttribute(enm.nextElement(), false);
         }
         enm = subg.getLocalAttributePairs();
         while (enm.hasMoreElements()) {
-            setAttribute(enm.nextElement());
+            setAttribute(enm.nextElement(), false);
         }
 
-        subgraphAttrsOfInterest();
+        this.interest = SUBGRAPH_INTEREST;
     }
 
     /**
@@ -110,16 +110,13 @@ public Subgraph(Subgraph subg)
         this(subg, (String) (null));
     }
 
-    // a listing of the attributes of interest for Subgraphs
-    private void subgraphAttrsOfInterest()
-    {
-        // attrOfInterest(BBOX_ATTR);
-        attrOfInterest(MINBOX_ATTR);
-        attrOfInterest(MINSIZE_ATTR);
-        attrOfInterest(LABEL_ATTR);
-        attrOfInterest(LP_ATTR);
-        attrOfInterest(STYLE_ATTR);
-    }
+    // the attributes of interest for Subgraphs (but not BBOX_ATTR); the root graph does not get the ones of interest
+    // to all elements
+    private static final InterestSet ROOT_INTEREST = InterestSet.of(MINBOX_ATTR, MINSIZE_ATTR, LABEL_ATTR, LP_ATTR,
+        STYLE_ATTR);
+
+    private static final InterestSet SUBGRAPH_INTEREST = ELEMENT_INTEREST.with(MINBOX_ATTR, MINSIZE_ATTR, LABEL_ATTR,
+        LP_ATTR, STYLE_ATTR);
 
     /**
      * Check if this element is a subgraph. Useful for testing the subclass type of a Element object.
@@ -294,6 +291,20 @@ public Enumeration<Attribute> getNodeAttributePairs()
         return new IteratorEnumeration<>(this.nodeAttributes.values().iterator());
     }
 
+    // the table of defaults this subgraph applies to elements of the given type, or null if there is none yet
+    AttributeMap getDefaultMap(int type)
+    {
+        switch (type) {
+            case NODE:
+                return this.nodeAttributes;
+            case EDGE:
+                return this.edgeAttributes;
+            case SUBGRAPH:
+                return this.attributes;
+        }
+        return null;
+    }
+
     /**
      * Sets the subgraph-specific default for the specified node attribute. If the attribute is not from the parent
      * subgraph, then setNodeAttribute(attr.getName(), attr.getValue()) is called.
@@ -303,12 +314,18 @@ public Enumeration<Attribute> getNodeAttributePairs()
      * @see Subgraph#setNodeAttribute(java.lang.String, java.lang.String)
      */
     public Object setNodeAttribute(Attribute attr)
+    {
+        return (setNodeAttribute(attr, true));
+    }
+
+    // as above, but the old value is only converted to its object form and returned when report is true
+    Object setNodeAttribute(Attribute attr, boolean report)
     {
         if (attr == null) {
             return null;
         }
         if (this.nodeAttributes == null) {
-            this.nodeAttributes = new Hashtable<>();
+            this.nodeAttributes = new AttributeMap();
         }
         // check to see if attr is being passed down the subgraph chain
         Subgraph sg = getSubgraph();
@@ -317,33 +334,31 @@ public Object setNodeAttribute(Attribute attr)
             // it's not, so use the other method;
             // use getStringValue to make sure value is treated properly
             // when converted to an Object
-            return setNodeAttribute(attr.getName(), attr.getStringValue());
+            return setNodeAttribute(attr.getName(), attr.getStringValue(), report);
         }
         Object oldValue = null;
         Attribute newAttr = null;
         Attribute crntAttr = getNodeAttribute(attr.getName());
         if (attr == crntAttr) {
-            return attr.getValue();
+            return (report ? attr.getValue() : null);
         }
         if (crntAttr == null) {
-            if (attr.getValue() == null) {
+            if (!attr.hasValue()) {
                 return null;
             }
             this.nodeAttributes.put(attr.getName(), crntAttr = attr);
             // System.err.println("Adding passthru1 node attr("+attr.getName()+","+attr.getValue()+") to "+getName());
-            // it's a pass down, so no need to set observers
+            // it's a pass down, so no need to set watchers
         } else {
-            oldValue = crntAttr.getValue();
-            crntAttr.setChanged(); // so notifyObservers is sure to be called
+            oldValue = report ? crntAttr.getValue() : null;
             // it's a pass down, so pass it down
             this.nodeAttributes.put(attr.getName(), attr);
             // System.err.println("Adding passthru2 node attr("+attr.getName()+","+attr.getValue()+") to "+getName());
-            // this is why we need notifyObservers called
+            // this is why the watchers are told about the replacement
             newAttr = attr;
         }
-        // this should only be possible when "else" above has occurred
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Object[] { newAttr, new Long(System.currentTimeMillis()) });
+        if (newAttr != null) {
+            crntAttr.notifyReplaced(newAttr);
         }
         return oldValue;
     }
@@ -357,9 +372,15 @@ public Object setNodeAttribute(Attribute attr)
      * @return the Attribute object previously stored for this attribute, if any.
      */
     public Object setNodeAttribute(String name, Object value)
+    {
+        return (setNodeAttribute(name, value, true));
+    }
+
+    // as above, but the old value is only converted to its object form and returned when report is true
+    Object setNodeAttribute(String name, Object value, boolean report)
     {
         if (this.nodeAttributes == null) {
-            this.nodeAttributes = new Hashtable<>();
+            this.nodeAttributes = new AttributeMap();
         }
         if (name == null) {
             throw new IllegalArgumentException("cannot set an attribute using a null name");
@@ -382,8 +403,10 @@ public Object setNodeAttribute(String name, Object value)
                 return null;
             }
             this.nodeAttributes.put(name, (crntAttr = new Attribute(NODE, name, value)));
+            // the nodes below may now inherit it, which matters to an attribute column
+            getGraph().defaultAdded(this, NODE, name);
             // TODO: scan subnodes to see if this attr is of interest and then add it
-            // to observer list, but for now leave it
+            // to watcher list, but for now leave it
             //
             // System.err.println("adding new node attr("+name+","+value+") to "+getName());
             /*
@@ -391,22 +414,20 @@ public Object setNodeAttribute(String name, Object value)
              * attribute
              */
         } else {
-            oldValue = crntAttr.getValue();
+            oldValue = report ? crntAttr.getValue() : null;
             if (value == null) {
                 if (prntAttr == null) {
                     removeNodeAttribute(name);
                     return oldValue;
                 } else {
-                    return setNodeAttribute(prntAttr);
+                    return setNodeAttribute(prntAttr, report);
                 }
             } else {
                 crntAttr.setValue(value);
                 // System.err.println("changing node attr("+name+","+value+") in "+getName());
             }
         }
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
+        crntAttr.notifyChanged();
         return oldValue;
     }
 
@@ -425,10 +446,8 @@ private void removeNodeAttribute(String name)
             return;
         }
         attr.setValue("");
-        if (attr.hasChanged()) {
-            attr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
-        attr.deleteObservers();
+        attr.notifyChanged();
+        attr.clearWatchers();
     }
 
     /**
@@ -440,12 +459,18 @@ private void removeNodeAttribute(String name)
      * @see Subgraph#setEdgeAttribute(java.lang.String, java.lang.String)
      */
     public Object setEdgeAttribute(Attribute attr)
+    {
+        return (setEdgeAttribute(attr, true));
+    }
+
+    // as above, but the old value is only converted to its object form and returned when report is true
+    Object setEdgeAttribute(Attribute attr, boolean report)
     {
         if (attr == null) {
             return null;
         }
         if (this.edgeAttributes == null) {
-            this.edgeAttributes = new Hashtable<>();
+            this.edgeAttributes = new AttributeMap();
         }
         // check to see if attr is being passed down the subgraph chain
         Subgraph sg = getSubgraph();
@@ -454,32 +479,30 @@ public Object setEdgeAttribute(Attribute attr)
             // it's not, so use the other method;
             // use getStringValue to make sure value is treated properly
             // when converted to an Object
-            return setEdgeAttribute(attr.getName(), attr.getStringValue());
+            return setEdgeAttribute(attr.getName(), attr.getStringValue(), report);
         }
         Object oldValue = null;
         Attribute newAttr = null;
         Attribute crntAttr = getEdgeAttribute(attr.getName());
         if (attr == crntAttr) {
-            return attr.getValue();
+            return (report ? attr.getValue() : null);
         }
         if (crntAttr == null) {
-            if (attr.getValue() == null) {
+            if (!attr.hasValue()) {
                 return null;
             }
             this.edgeAttributes.put(attr.getName(), crntAttr = attr);
             // System.err.println("Adding passthru1 edge attr("+attr.getName()+","+attr.getValue()+") to "+getName());
-            // it's a pass down, so no need to set observers
+            // it's a pass down, so no need to set watchers
         } else {
-            oldValue = crntAttr.getValue();
-            crntAttr.setChanged(); // so notifyObservers is sure to be called
+            oldValue = report ? crntAttr.getValue() : null;
             // it's a pass down, so pass it down
             this.edgeAttributes.put(attr.getName(), attr);
             // System.err.println("Adding passthru2 edge attr("+attr.getName()+","+attr.getValue()+") to "+getName());
             newAttr = attr;
         }
-        // this should only be possible when "else" above has occurred
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Object[] { newAttr, new Long(System.currentTimeMillis()) });
+        if (newAttr != null) {
+            crntAttr.notifyReplaced(newAttr);
         }
         return oldValue;
     }
@@ -493,9 +516,15 @@ public Object setEdgeAttribute(Attribute attr)
      * @return the attribute pair previously stored for this attribute.
      */
     public Object setEdgeAttribute(String name, Object value)
+    {
+        return (setEdgeAttribute(name, value, true));
+    }
+
+    // as above, but the old value is only converted to its object form and returned when report is true
+    Object setEdgeAttribute(String name, Object value, boolean report)
     {
         if (this.edgeAttributes == null) {
-            this.edgeAttributes = new Hashtable<>();
+            this.edgeAttributes = new AttributeMap();
         }
         if (name == null) {
             throw new IllegalArgumentException("cannot set an attribute using a null name");
@@ -516,28 +545,28 @@ public Object setEdgeAttribute(String name, Object value)
                 return null;
             }
             this.edgeAttributes.put(name, (crntAttr = new Attribute(EDGE, name, value)));
+            // the edges below may now inherit it, which matters to an attribute column
+            getGraph().defaultAdded(this, EDGE, name);
             // System.err.println("adding new edge attr("+name+","+value+") to "+getName());
             /*
              * just concerned with subgraphs that share the same default (or null) and edges that do not have a local
              * attribute
              */
         } else {
-            oldValue = crntAttr.getValue();
+            oldValue = report ? crntAttr.getValue() : null;
             if (value == null) {
                 if (prntAttr == null) {
                     removeEdgeAttribute(name);
                     return oldValue;
                 } else {
-                    return setEdgeAttribute(prntAttr);
+                    return setEdgeAttribute(prntAttr, report);
                 }
             } else {
                 crntAttr.setValue(value);
                 // System.err.println("changing edge attr("+name+","+value+") in "+getName());
             }
         }
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
+        crntAttr.notifyChanged();
         return oldValue;
     }
 
@@ -555,10 +584,8 @@ private void removeEdgeAttribute(String name)
             return;
         }
         attr.setValue("");
-        if (attr.hasChanged()) {
-            attr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
-        attr.deleteObservers();
+        attr.notifyChanged();
+        attr.clearWatchers();
     }
 
     /**
@@ -571,12 +598,19 @@ private void removeEdgeAttribute(String name)
      */
     @Override
     public Object setAttribute(Attribute attr)
+    {
+        return (setAttribute(attr, true));
+    }
+
+    // as above, but the old value is only converted to its object form and returned when report is true
+    @Override
+    Object setAttribute(Attribute attr, boolean report)
     {
         if (attr == null) {
             return null;
         }
         if (this.attributes == null) {
-            this.attributes = new Hashtable<>();
+            this.attributes = new AttributeMap();
         }
         // check to see if attr is being passed down the subgraph chain
         Subgraph sg = getSubgraph();
@@ -585,33 +619,31 @@ public Object setAttribute(Attribute attr)
             // it's not, so use the other method;
             // use getStringValue to make sure value is treated properly
             // when converted to an Object
-            return setAttribute(attr.getName(), attr.getStringValue());
+            return setAttribute(attr.getName(), attr.getStringValue(), report);
         }
         Object oldValue = null;
         Attribute newAttr = null;
         Attribute crntAttr = getLocalAttribute(attr.getName());
         if (attr == crntAttr) {
-            return attr.getValue();
+            return (report ? attr.getValue() : null);
         }
         if (crntAttr == null) {
-            if (attr.getValue() == null) {
+            if (!attr.hasValue()) {
                 return null;
             }
             this.attributes.put(attr.getName(), crntAttr = attr);
             // System.err.println("Adding passthru1 graph attr("+attr.getName()+","+attr.getValue()+") to "+getName());
-            // it's a pass down, so no need to set observers
+            // it's a pass down, so no need to set watchers
         } else {
-            oldValue = crntAttr.getValue();
-            crntAttr.setChanged(); // so notifyObservers is sure to be called
+            oldValue = report ? crntAttr.getValue() : null;
             // it's a pass down, so pass it down
             this.attributes.put(attr.getName(), attr);
             // System.err.println("Adding passthru2 graph attr("+attr.getName()+","+attr.getValue()+") to "+getName());
-            // this is why we need notifyObservers called
+            // this is why the watchers are told about the replacement
             newAttr = attr;
         }
-        // this should only be possible when "else" above has occurred
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Object[] { newAttr, new Long(System.currentTimeMillis()) });
+        if (newAttr != null) {
+            crntAttr.notifyReplaced(newAttr);
         }
         return oldValue;
     }
@@ -626,9 +658,16 @@ public Object setAttribute(Attribute attr)
      */
     @Override
     public Object setAttribute(String name, Object value)
+    {
+        return (setAttribute(name, value, true));
+    }
+
+    // as above, but the old value is only converted to its object form and returned when report is true
+    @Override
+    Object setAttribute(String name, Object value, boolean report)
     {
         if (this.attributes == null) {
-            this.attributes = new Hashtable<>();
+            this.attributes = new AttributeMap();
         }
         if (name == null) {
             throw new IllegalArgumentException("cannot set an attribute using a null name");
@@ -652,40 +691,38 @@ public Object setAttribute(String name, Object value)
                 return null;
             }
             this.attributes.put(name, (crntAttr = new Attribute(SUBGRAPH, name, value)));
-            if (this.grappaNexus != null && isOfInterest(name)) {
-                crntAttr.addObserver(this.grappaNexus);
+            if (watches(name)) {
+                crntAttr.addWatcher(this);
             }
 
             // System.err.println("adding new graph attr("+name+","+value+") to "+getName());
         } else {
-            oldValue = crntAttr.getValue();
+            oldValue = report ? crntAttr.getValue() : null;
             if (value == null) {
                 if (prntAttr == null) {
                     // System.err.println("removing graph attr("+name+","+value+") in "+getName());
-                    super.setAttribute(name, null);
+                    super.setAttribute(name, null, report);
                     return oldValue;
                 } else {
                     // System.err.println("defaulting graph attr("+name+","+value+") in "+getName());
-                    return setAttribute(prntAttr);
+                    return setAttribute(prntAttr, report);
                 }
             } else if (value instanceof String && ((String) value).trim().length() == 0
                 && Attribute.attributeType(getType(), name) != STRING_TYPE) {
                 if (prntAttr == null) {
                     // System.err.println("removing graph attr("+name+","+value+") in "+getName());
-                    super.setAttribute(name, null);
+                    super.setAttribute(name, null, report);
                     return oldValue;
                 } else {
                     // System.err.println("defaulting graph attr("+name+","+value+") in "+getName());
-                    return setAttribute(prntAttr);
+                    return setAttribute(prntAttr, report);
                 }
             } else {
                 crntAttr.setValue(value);
                 // System.err.println("changing graph attr("+name+","+value+") in "+getName());
             }
         }
-        if (crntAttr.hasChanged()) {
-            crntAttr.notifyObservers(new Long(System.currentTimeMillis()));
-        }
+        crntAttr.notifyChanged();
         return oldValue;
     }
 
@@ -755,6 +792,10 @@ public Enumeration<Attribute> getEdgeAttributePairs()
     public java.awt.geom.Rectangle2D getBoundingBox()
     {
         java.awt.geom.Rectangle2D bbox = null;
+        if (this.grappaNexus != null) {
+            // a nexus not laid out yet has no bounding box, so lay it out as building it once did
+            this.grappaNexus.validateGeometry();
+        }
         if (this.grappaNexus == null || (bbox = this.grappaNexus.bbox) == null) {
             if (this.grappaNexus == null) {
                 buildShape();
@@ -855,7 +896,7 @@ public void printSubgraph(PrintWriter out)
         Graph graph = getGraph();
         String indent = new String(graph.getIndent());
 
-        if (Grappa.printVisibleOnly && (!this.visible || this.grappaNexus.style.invis)) {
+        if (Grappa.printVisibleOnly && (!this.visible || ((GrappaStyle) getAttributeValue(STYLE_ATTR)).invis)) {
             return;
         }
 
@@ -953,8 +994,8 @@ private void printDfltAttr(PrintWriter out, Map<String, Attribute> dfltAttr, int
                 continue;
             }
             value = attr.getStringValue();
-            if (Grappa.elementPrintAllAttributes || Grappa.elementPrintDefaultAttributes || this.printAllAttributes
-                || this.printDefaultAttributes || !attr.equalsValue(getParentDefault(type, key))) {
+            if (Grappa.elementPrintAllAttributes || Grappa.elementPrintDefaultAttributes || getPrintAllAttributes()
+                || getPrintDefaultAttributes() || !attr.equalsValue(getParentDefault(type, key))) {
                 nbr++;
                 if (nbr == 1) {
                     out.println(prefix);
@@ -1236,6 +1277,7 @@ public void addNode(Node newNode)
             this.nodedict = new HashMap<>();
         }
         this.nodedict.put(newNode.getName(), newNode);
+        structureChanged();
     }
 
     /**
@@ -1249,7 +1291,12 @@ public Node removeNode(String nodeName)
         if (this.nodedict == null) {
             return (null);
         }
-        return this.nodedict.remove(nodeName);
+        Node removed = this.nodedict.remove(nodeName);
+
+        if (removed != null) {
+            structureChanged();
+        }
+        return (removed);
     }
 
     /**
@@ -1266,6 +1313,7 @@ public void addEdge(Edge newEdge)
             this.edgedict = new HashMap<>();
         }
         this.edgedict.put(newEdge.getName(), newEdge);
+        structureChanged();
     }
 
     /**
@@ -1279,7 +1327,12 @@ public Edge removeEdge(String edgeName)
         if (this.edgedict == null) {
             return (null);
         }
-        return this.edgedict.remove(edgeName);
+        Edge removed = this.edgedict.remove(edgeName);
+
+        if (removed != null) {
+            structureChanged();
+        }
+        return (removed);
     }
 
     /**
@@ -1296,6 +1349,7 @@ public void addSubgraph(Subgraph newGraph)
             this.graphdict = new HashMap<>();
         }
         this.graphdict.put(newGraph.getName(), newGraph);
+        structureChanged();
     }
 
     /**
@@ -1309,7 +1363,23 @@ public Subgraph removeSubgraph(String graphName)
         if (this.graphdict == null) {
             return (null);
         }
-        return this.graphdict.remove(graphName);
+        Subgraph removed = this.graphdict.remove(graphName);
+
+        if (removed != null) {
+            structureChanged();
+        }
+        return (removed);
+    }
+
+    // note a change in the elements of the subgraph, for those drawing the graph
+    private void structureChanged()
+    {
+        Graph graph = getGraph();
+
+        if (graph != null) {
+            graph.structureVersion.incrementAndGet();
+            graph.contentVersion.incrementAndGet();
+        }
     }
 
     /**
@@ -0,0 +1,268 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring of token records filled by a <code>Lexer</code> running on its own thread and drained by the parser,
+ * as used by <code>Parser.pipelined_parse</code>. Each record holds the symbol number, the ATOM text (if any), the
+ * lexer location after the symbol was scanned and any messages the lexer wrote while scanning it, so that the parser
+ * sees exactly what it would have seen calling the lexer directly. The ring is allocated once; there is a single
+ * producer and a single consumer.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see Parser#pipelined_parse()
+ */
+final class TokenRing implements Runnable
+{
+    /** Number of token records in the ring (a power of 2). */
+    static final int CAPACITY = 4096;
+
+    // symbol number of a record that carries a lexer failure
+    private static final int FAILED = -1;
+
+    // how long close() waits, in milliseconds, for a lexer thread that is not blocked in a read to end
+    private static final long CLOSE_WAIT = 100;
+
+    private final Lexer lexer;
+
+    // lexer messages are collected here and attached to the token being scanned
+    private final StringWriter messages = new StringWriter();
+
+    private final int[] syms = new int[CAPACITY];
+
+    private final String[] values = new String[CAPACITY];
+
+    private final int[] lines = new int[CAPACITY];
+
+    private final int[] positions = new int[CAPACITY];
+
+    private final String[] notes = new String[CAPACITY];
+
+    // what ended the lexer thread early, published with the FAILED record
+    private Throwable failure = null;
+
+    private int debugLevel = 0;
+
+    // number of records written by the lexer thread and read by the parser
+    private volatile long produced = 0;
+
+    private volatile long consumed = 0;
+
+    private volatile boolean closed = false;
+
+    private Thread thread = null;
+
+    // the record most recently taken by the parser
+    private String value = null;
+
+    private int line;
+
+    private int position;
+
+    TokenRing(Reader input)
+    {
+        this.lexer = new Lexer(new GuardedReader(input), new PrintWriter(this.messages));
+        this.line = this.lexer.getLine();
+        this.position = this.lexer.getPosition();
+    }
+
+    Lexer getLexer()
+    {
+        return this.lexer;
+    }
+
+    /**
+     * Start the lexer thread.
+     *
+     * @param level the debug level passed on to the lexer
+     */
+    void start(int level)
+    {
+        this.debugLevel = level;
+        this.thread = new Thread(this, "Grappa lexer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Stop the lexer thread if it is still running, so that the input is no longer read once the parse returns. Once
+     * closed, the lexer thread sees end of input at its next read. A read already in progress is not interrupted: this
+     * waits briefly for the thread to end, and if it is blocked in a read that does not return (on a socket or a
+     * console, say) the thread is abandoned. It is a daemon thread, and it ends without reading again once that read
+     * returns.
+     */
+    void close()
+    {
+        this.closed = true;
+        if (this.thread == null) {
+            return;
+        }
+        try {
+            this.thread.join(CLOSE_WAIT);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The lexer thread: scan tokens into the ring until EOF, a failure or <code>close()</code>. Anything thrown while
+     * reading or scanning ends the thread with a FAILED record, which the parser rethrows from <code>take()</code>.
+     */
+    @Override
+    public void run()
+    {
+        long count = 0;
+        int sym;
+
+        try {
+            this.lexer.init();
+            do {
+                sym = this.lexer.next_token_sym(this.debugLevel);
+                if (!publish(count++, sym, null)) {
+                    return;
+                }
+            } while (sym != Symbols.EOF && !this.closed);
+        } catch (Throwable ex) {
+            publish(count, FAILED, ex);
+        }
+    }
+
+    /**
+     * Take the next token record, waiting for the lexer thread if necessary. Any messages the lexer produced while
+     * scanning the token are written to the supplied writer first, and a lexer failure is rethrown here.
+     *
+     * @param errWriter where to write lexer messages (or null)
+     * @return the symbol number of the token
+     * @exception IOException if the lexer failed to read its input
+     */
+    int take(PrintWriter errWriter) throws IOException
+    {
+        long count = this.consumed;
+        for (int spins = 0; count == this.produced; spins++) {
+            if (!this.thread.isAlive() && count == this.produced) {
+                // the thread could not even publish its failure
+                throw new IOException("lexer thread ended before end of input");
+            }
+            pause(spins);
+        }
+        int slot = (int) count & (CAPACITY - 1);
+        int sym = this.syms[slot];
+        if (this.notes[slot] != null && errWriter != null) {
+            errWriter.print(this.notes[slot]);
+            errWriter.flush();
+        }
+        if (sym == FAILED) {
+            if (this.failure instanceof IOException) {
+                throw (IOException) this.failure;
+            } else if (this.failure instanceof RuntimeException) {
+                throw (RuntimeException) this.failure;
+            } else if (this.failure instanceof Error) {
+                throw (Error) this.failure;
+            }
+            throw new IOException("lexer failed", this.failure);
+        }
+        this.value = this.values[slot];
+        this.line = this.lines[slot];
+        this.position = this.positions[slot];
+        this.values[slot] = null;
+        this.consumed = count + 1;
+        return sym;
+    }
+
+    /**
+     * Get the string value of the token most recently taken.
+     *
+     * @return the text of that token if it is an ATOM, or null otherwise
+     */
+    String getValue()
+    {
+        return this.value;
+    }
+
+    /**
+     * Get the lexer location as it was just after the token most recently taken was scanned.
+     *
+     * @return a location string as returned by <code>Lexer.getLocation()</code>
+     */
+    String getLocation()
+    {
+        return Lexer.location(this.line, this.position);
+    }
+
+    // write the record for a symbol once there is room, with any lexer messages; false if closed while waiting
+    private boolean publish(long count, int sym, Throwable ex)
+    {
+        for (int spins = 0; count - this.consumed == CAPACITY; spins++) {
+            if (this.closed) {
+                return false;
+            }
+            pause(spins);
+        }
+        int slot = (int) count & (CAPACITY - 1);
+        this.syms[slot] = sym;
+        this.values[slot] = (ex == null ? this.lexer.getTokenValue() : null);
+        this.lines[slot] = this.lexer.getLine();
+        this.positions[slot] = this.lexer.getPosition();
+        StringBuffer buffer = this.messages.getBuffer();
+        if (buffer.length() > 0) {
+            this.notes[slot] = buffer.toString();
+            buffer.setLength(0);
+        } else {
+            this.notes[slot] = null;
+        }
+        this.failure = ex;
+        this.produced = count + 1;
+        return true;
+    }
+
+    private static void pause(int spins)
+    {
+        if (spins < 64) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(20000L);
+        }
+    }
+
+    // the input as the lexer reads it, which ends as soon as the ring is closed
+    private final class GuardedReader extends Reader
+    {
+        private final Reader input;
+
+        GuardedReader(Reader input)
+        {
+            this.input = input;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) throws IOException
+        {
+            if (TokenRing.this.closed) {
+                return (-1);
+            }
+            return (this.input.read(buf, off, len));
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            this.input.close();
+        }
+    }
+}
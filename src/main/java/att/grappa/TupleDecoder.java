@@ -0,0 +1,207 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+/**
+ * Static methods for decoding numeric tuples such as "<I>x</I>,<I>y</I>" or "<I>x1</I>,<I>y1</I>,<I>x2</I>,<I>y2</I>"
+ * directly from a range of characters, without creating substrings or arrays. Fields are separated by any run of
+ * commas, spaces and tabs, exactly as with <code>GrappaSupport.arrayForTuple</code>, and each field is converted
+ * with the same result as <code>Double.valueOf</code>.
+ * <P>
+ * A typical decoding loop looks like:
+ *
+ * <PRE>
+ * int start = TupleDecoder.skip(str, 0, len);
+ * int end = TupleDecoder.scan(str, start, len);
+ * double x = TupleDecoder.parse(str, start, end);
+ * start = TupleDecoder.skip(str, end, len);
+ * ...
+ * </PRE>
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ * @see GrappaSupport#arrayForTuple(String)
+ */
+final class TupleDecoder
+{
+    // exactly representable powers of ten
+    private static final double[] POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // most significant digits that always fit exactly in a double mantissa
+    private static final int MAX_DIGITS = 15;
+
+    private TupleDecoder()
+    {
+    }
+
+    /**
+     * Skip field separators (commas, spaces and tabs).
+     *
+     * @param str the characters to decode
+     * @param pos the position at which to start
+     * @param end the end of the range to decode
+     * @return the position of the first character of the next field, or <code>end</code>
+     */
+    static int skip(CharSequence str, int pos, int end)
+    {
+        char c;
+        while (pos < end && ((c = str.charAt(pos)) == ',' || c == ' ' || c == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Find the end of the field starting at the supplied position.
+     *
+     * @param str the characters to decode
+     * @param pos the position of the first character of the field
+     * @param end the end of the range to decode
+     * @return the position just after the last character of the field
+     */
+    static int scan(CharSequence str, int pos, int end)
+    {
+        char c;
+        while (pos < end && (c = str.charAt(pos)) != ',' && c != ' ' && c != '\t') {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Convert a single field to a double. Plain decimal numbers with up to 15 significant digits and a small exponent
+     * are converted directly (such a conversion needs only one correctly rounded multiply or divide); anything else is
+     * handed to <code>Double.parseDouble</code>.
+     *
+     * @param str the characters to decode
+     * @param start the position of the first character of the field
+     * @param end the position just after the last character of the field
+     * @return the value of the field
+     * @exception NumberFormatException if the field is not a valid number
+     */
+    static double parse(CharSequence str, int start, int end) throws NumberFormatException
+    {
+        int i = start;
+        boolean negative = false;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seen = false;
+        char c;
+
+        if (i < end) {
+            if ((c = str.charAt(i)) == '-') {
+                negative = true;
+                i++;
+            } else if (c == '+') {
+                i++;
+            }
+        }
+        while (i < end && (c = str.charAt(i)) >= '0' && c <= '9') {
+            seen = true;
+            if (mantissa != 0 || c != '0') {
+                if (++digits > MAX_DIGITS) {
+                    return slowParse(str, start, end);
+                }
+                mantissa = 10 * mantissa + (c - '0');
+            }
+            i++;
+        }
+        if (i < end && str.charAt(i) == '.') {
+            i++;
+            while (i < end && (c = str.charAt(i)) >= '0' && c <= '9') {
+                seen = true;
+                if (mantissa != 0 || c != '0') {
+                    if (++digits > MAX_DIGITS) {
+                        return slowParse(str, start, end);
+                    }
+                    mantissa = 10 * mantissa + (c - '0');
+                }
+                scale--;
+                i++;
+            }
+        }
+        if (!seen) {
+            return slowParse(str, start, end);
+        }
+        if (i < end && ((c = str.charAt(i)) == 'e' || c == 'E')) {
+            boolean expNegative = false;
+            int exponent = 0;
+            int expDigits = 0;
+            if (++i < end) {
+                if ((c = str.charAt(i)) == '-') {
+                    expNegative = true;
+                    i++;
+                } else if (c == '+') {
+                    i++;
+                }
+            }
+            while (i < end && (c = str.charAt(i)) >= '0' && c <= '9') {
+                if (++expDigits > 4) {
+                    return slowParse(str, start, end);
+                }
+                exponent = 10 * exponent + (c - '0');
+                i++;
+            }
+            if (expDigits == 0) {
+                return slowParse(str, start, end);
+            }
+            scale += (expNegative ? -exponent : exponent);
+        }
+        if (i != end) {
+            return slowParse(str, start, end);
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (scale == 0) {
+            value = mantissa;
+        } else if (scale > 0 && scale < POWERS.length) {
+            value = mantissa * POWERS[scale];
+        } else if (scale < 0 && -scale < POWERS.length) {
+            value = mantissa / POWERS[-scale];
+        } else {
+            return slowParse(str, start, end);
+        }
+        return (negative ? -value : value);
+    }
+
+    /**
+     * Build the exception describing why the supplied tuple does not hold the expected number of valid fields, or
+     * throw the <code>NumberFormatException</code> for its first bad field, exactly as
+     * <code>GrappaSupport.arrayForTuple</code> would when all fields are converted before counting them.
+     *
+     * @param tuple the tuple string
+     * @param expected the number of fields expected
+     * @return the exception to throw
+     * @exception NumberFormatException if a field of the tuple is not a valid number
+     */
+    static IllegalArgumentException badTuple(String tuple, int expected) throws NumberFormatException
+    {
+        int end = tuple.length();
+        int start;
+        for (int pos = skip(tuple, 0, end); pos < end; pos = skip(tuple, start, end)) {
+            parse(tuple, pos, start = scan(tuple, pos, end));
+        }
+        return new IllegalArgumentException("coordinate string (" + tuple + ") does not contain " + expected
+            + " valid coordinates");
+    }
+
+    private static double slowParse(CharSequence str, int start, int end) throws NumberFormatException
+    {
+        return Double.parseDouble(str.subSequence(start, end).toString());
+    }
+}
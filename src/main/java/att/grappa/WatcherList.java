@@ -0,0 +1,276 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.Arrays;
+
+/**
+ * The elements watching a single attribute, in the order they started watching. A default attribute may be watched by
+ * every node or edge of a graph, so adding and removing a watcher must not cost time proportional to the number of
+ * watchers: removal leaves an empty slot behind (slots are squeezed out once half of them are empty) and, once there
+ * are more than a few watchers, an identity hash index from element to slot is kept alongside.
+ * <P>
+ * Watchers may be added or removed while the list is being walked (between <code>enter</code> and <code>exit</code>);
+ * a walk that starts at <code>end() - 1</code> and goes down sees neither the watchers added nor those removed after
+ * it started.
+ *
+ * @version $Id$
+ * @author <a href="mailto:john@research.att.com">John Mocenigo</a>, <a href="http://www.research.att.com">Research @
+ *         AT&T Labs</a>
+ */
+final class WatcherList
+{
+    // number of watchers above which the hash index is kept
+    private static final int INDEX_THRESHOLD = 8;
+
+    // the watchers, in the order added, with null in the slots of those removed
+    private Element[] slots;
+
+    // number of slots in use, including empty ones
+    private int end = 0;
+
+    // number of watchers
+    private int live = 0;
+
+    // number of walks in progress, during which slots must not move
+    private int busy = 0;
+
+    // open-addressed index holding the slot of each watcher (-1 when empty), or null while the list is short
+    private int[] index = null;
+
+    WatcherList(Element first)
+    {
+        this.slots = new Element[] { first };
+        this.end = this.live = 1;
+    }
+
+    /**
+     * Add a watcher, unless it is already in the list.
+     *
+     * @param elem the watcher
+     */
+    void add(Element elem)
+    {
+        if (find(elem) >= 0) {
+            return;
+        }
+        if (this.end == this.slots.length) {
+            if (this.busy == 0 && this.live < this.end / 2) {
+                squeeze();
+            } else {
+                Element[] grown = new Element[2 * this.slots.length];
+                System.arraycopy(this.slots, 0, grown, 0, this.end);
+                this.slots = grown;
+            }
+        }
+        this.slots[this.end] = elem;
+        this.end++;
+        this.live++;
+        if (this.index != null) {
+            index(this.end - 1);
+        } else if (this.live > INDEX_THRESHOLD) {
+            reindex();
+        }
+    }
+
+    /**
+     * Remove a watcher, if it is in the list.
+     *
+     * @param elem the watcher
+     */
+    void remove(Element elem)
+    {
+        int slot = find(elem);
+
+        if (slot < 0) {
+            return;
+        }
+        if (this.index != null) {
+            unindex(elem);
+        }
+        this.slots[slot] = null;
+        this.live--;
+        if (this.busy == 0 && this.live < this.end / 2) {
+            squeeze();
+        }
+    }
+
+    /**
+     * Check whether the list has no watchers.
+     *
+     * @return true if there are no watchers
+     */
+    boolean isEmpty()
+    {
+        return (this.live == 0);
+    }
+
+    /**
+     * Get the number of slots, for walking the list.
+     *
+     * @return one more than the highest slot in use
+     */
+    int end()
+    {
+        return (this.end);
+    }
+
+    /**
+     * Get the watcher in a slot.
+     *
+     * @param slot a slot below <code>end()</code>
+     * @return the watcher, or null if it has been removed
+     */
+    Element get(int slot)
+    {
+        return (this.slots[slot]);
+    }
+
+    // start a walk
+    void enter()
+    {
+        this.busy++;
+    }
+
+    // finish a walk
+    void exit()
+    {
+        if (--this.busy == 0 && this.live < this.end / 2) {
+            squeeze();
+        }
+    }
+
+    // //////////////////////////////////////////////////////////////////////
+    //
+    // Private methods
+    //
+    // //////////////////////////////////////////////////////////////////////
+
+    // the slot of a watcher, or -1
+    private int find(Element elem)
+    {
+        if (this.index == null) {
+            for (int i = 0; i < this.end; i++) {
+                if (this.slots[i] == elem) {
+                    return (i);
+                }
+            }
+            return (-1);
+        }
+
+        int mask = this.index.length - 1;
+        int h = hash(elem) & mask;
+        int slot;
+
+        while ((slot = this.index[h]) >= 0) {
+            if (this.slots[slot] == elem) {
+                return (slot);
+            }
+            h = (h + 1) & mask;
+        }
+        return (-1);
+    }
+
+    // close up the empty slots
+    private void squeeze()
+    {
+        int to = 0;
+
+        for (int from = 0; from < this.end; from++) {
+            if (this.slots[from] != null) {
+                this.slots[to++] = this.slots[from];
+            }
+        }
+        for (int i = to; i < this.end; i++) {
+            this.slots[i] = null;
+        }
+        this.end = to;
+        if (this.slots.length > 2 * INDEX_THRESHOLD && this.end < this.slots.length / 4) {
+            Element[] shrunk = new Element[this.slots.length / 2];
+            System.arraycopy(this.slots, 0, shrunk, 0, this.end);
+            this.slots = shrunk;
+        }
+        if (this.live > INDEX_THRESHOLD) {
+            reindex();
+        } else {
+            this.index = null;
+        }
+    }
+
+    // build the index from scratch, sized to be at most two thirds full
+    private void reindex()
+    {
+        int size = 2 * INDEX_THRESHOLD;
+
+        while (2 * size < 3 * this.live) {
+            size <<= 1;
+        }
+        this.index = new int[size];
+        Arrays.fill(this.index, -1);
+        for (int i = 0; i < this.end; i++) {
+            if (this.slots[i] != null) {
+                index(i);
+            }
+        }
+    }
+
+    // add the watcher in a slot to the index, growing it when it gets too full
+    private void index(int slot)
+    {
+        if (4 * this.live > 3 * this.index.length) {
+            reindex();
+            return;
+        }
+
+        int mask = this.index.length - 1;
+        int h = hash(this.slots[slot]) & mask;
+
+        while (this.index[h] >= 0) {
+            h = (h + 1) & mask;
+        }
+        this.index[h] = slot;
+    }
+
+    // remove a watcher from the index, shifting back any later entries of the same run that would otherwise be lost
+    private void unindex(Element elem)
+    {
+        int mask = this.index.length - 1;
+        int h = hash(elem) & mask;
+
+        while (this.slots[this.index[h]] != elem) {
+            h = (h + 1) & mask;
+        }
+        this.index[h] = -1;
+
+        int next = (h + 1) & mask;
+        int home;
+        int slot;
+
+        while ((slot = this.index[next]) >= 0) {
+            home = hash(this.slots[slot]) & mask;
+            // move the entry back into the hole unless its home lies cyclically in (h, next]
+            if ((next > h && (home <= h || home > next)) || (next < h && (home <= h && home > next))) {
+                this.index[h] = slot;
+                this.index[next] = -1;
+                h = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private static int hash(Element elem)
+    {
+        int h = System.identityHashCode(elem);
+
+        // fold in the high bits since the table size is a power of two
+        return (h ^ (h >>> 16));
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.geom.Point2D;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that attribute columns (see <code>Graph.addAttributeColumn</code>) stay in step with
+ * <code>Element.getAttribute</code> however the attribute changes.
+ */
+public class AttributeColumnTest extends TestCase
+{
+    private static final String INPUT = "digraph G { node [width=1]; a; b [width=2]; subgraph s { node [width=3]; c; }"
+        + " a -> b [color=red]; b -> c; }";
+
+    public void testNumericColumnFollowsLocalAndDefaultChanges() throws Exception
+    {
+        Graph graph = parse(INPUT);
+
+        graph.addAttributeColumn(GrappaConstants.NODE, "width");
+        assertInStep(graph, GrappaConstants.NODE, "width");
+        assertEquals(3.0, column(graph, GrappaConstants.NODE, "width", 0)[graph.findNodeByName("c").getId()], 0.0);
+
+        graph.findNodeByName("a").setAttribute("width", "4.5");
+        assertInStep(graph, GrappaConstants.NODE, "width");
+
+        graph.findSubgraphByName("s").setNodeAttribute("width", "5");
+        assertInStep(graph, GrappaConstants.NODE, "width");
+        assertEquals(5.0, column(graph, GrappaConstants.NODE, "width", 0)[graph.findNodeByName("c").getId()], 0.0);
+
+        graph.setNodeAttribute("width", "6");
+        assertInStep(graph, GrappaConstants.NODE, "width");
+    }
+
+    public void testColumnFollowsDeletionAndIdReuse() throws Exception
+    {
+        Graph graph = parse(INPUT);
+        Node b = graph.findNodeByName("b");
+        int id = b.getId();
+
+        graph.addAttributeColumn(GrappaConstants.NODE, "width");
+        b.delete();
+        assertTrue(Double.isNaN(column(graph, GrappaConstants.NODE, "width", 0)[id]));
+        assertInStep(graph, GrappaConstants.NODE, "width");
+
+        Node d = new Node(graph, "d");
+        assertEquals(id, d.getId());
+        assertInStep(graph, GrappaConstants.NODE, "width");
+
+        // the deleted node no longer writes into the entry its id now has
+        b.setAttribute("width", "7");
+        assertInStep(graph, GrappaConstants.NODE, "width");
+    }
+
+    public void testPointColumn() throws Exception
+    {
+        Graph graph = parse("digraph G { a [pos=\"1,2\"]; b [pos=\"3.5,4\"]; c; }");
+
+        graph.addAttributeColumn(GrappaConstants.NODE, "pos");
+        assertInStep(graph, GrappaConstants.NODE, "pos");
+
+        double[] xs = column(graph, GrappaConstants.NODE, "pos", 0).clone();
+        double[] ys = column(graph, GrappaConstants.NODE, "pos", 1).clone();
+        for (int id = 0; id < xs.length; id++) {
+            xs[id] += 10;
+            ys[id] -= 10;
+        }
+        graph.setAttributeColumn(GrappaConstants.NODE, "pos", xs, ys);
+        assertInStep(graph, GrappaConstants.NODE, "pos");
+
+        Node node = graph.findNodeByName("b");
+        Point2D pos = (Point2D) node.getAttributeValue("pos");
+        assertEquals(13.5, pos.getX(), 0.0);
+        assertEquals(ys[node.getId()], pos.getY(), 0.0);
+    }
+
+    public void testColorColumnRoundTrips() throws Exception
+    {
+        Graph graph = parse(INPUT);
+
+        graph.addAttributeColumn(GrappaConstants.EDGE, "color");
+        assertInStep(graph, GrappaConstants.EDGE, "color");
+
+        double[] colors = column(graph, GrappaConstants.EDGE, "color", 0).clone();
+        int[] argb = { 0xFF00FF00, 0xFF123456, 0x80ABCDEF };
+        int[] ids = new int[argb.length];
+        int count = 0;
+        for (int id = 0; id < colors.length && count < argb.length; id++) {
+            if (graph.findEdgeById(id) != null) {
+                ids[count] = id;
+                colors[id] = argb[count++];
+            }
+        }
+        graph.setAttributeColumn(GrappaConstants.EDGE, "color", colors, null);
+        assertInStep(graph, GrappaConstants.EDGE, "color");
+
+        for (int i = 0; i < count; i++) {
+            Attribute attr = graph.findEdgeById(ids[i]).getAttribute("color");
+            assertEquals(argb[i], attr.getIntValue(0));
+        }
+        assertEquals("green", graph.findEdgeById(ids[0]).getAttribute("color").getStringValue());
+    }
+
+    public void testMismatchedIdMappingReported() throws Exception
+    {
+        Graph graph = parse(INPUT);
+        Graph other = parse(INPUT);
+        StringWriter errors = new StringWriter();
+
+        graph.setErrorWriter(new PrintWriter(errors));
+        graph.findNodeByName("a").delete();
+        assertEquals("", errors.toString());
+
+        Node stranger = other.findNodeByName("b");
+        graph.removeIdMapping(stranger);
+        assertTrue(errors.toString().contains("belongs to \"b\""));
+        assertSame(graph.findNodeByName("b"), graph.findNodeById(stranger.getId()));
+    }
+
+    private static Graph parse(String text) throws Exception
+    {
+        Parser parser = new Parser(new StringReader(text));
+        parser.parse();
+        return (parser.getGraph());
+    }
+
+    private static double[] column(Graph graph, int type, String name, int component)
+    {
+        return (graph.getAttributeColumn(type, name, component));
+    }
+
+    // every entry of the column matches the attribute in effect for the element with that id
+    private static void assertInStep(Graph graph, int type, String name)
+    {
+        boolean point = (graph.column(type, AttributeRegistry.lookup(name)).attrType == GrappaConstants.POINT_TYPE);
+        double[] xs = column(graph, type, name, 0);
+        double[] ys = (point ? column(graph, type, name, 1) : null);
+
+        for (int id = 0; id < graph.getIdLimit(type); id++) {
+            Element elem = (type == GrappaConstants.NODE ? graph.findNodeById(id) : graph.findEdgeById(id));
+            Attribute attr = (elem == null ? null : elem.getAttribute(name));
+            String where = name + " of id " + id;
+
+            if (attr == null) {
+                assertTrue(where, Double.isNaN(xs[id]));
+            } else if (point) {
+                Point2D pos = (Point2D) attr.getValue();
+                assertEquals(where, pos.getX(), xs[id], 0.0);
+                assertEquals(where, pos.getY(), ys[id], 0.0);
+            } else {
+                assertEquals(where, attr.getDoubleValue(Double.NaN), xs[id], 0.0);
+            }
+        }
+    }
+}
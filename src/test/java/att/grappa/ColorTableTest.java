@@ -0,0 +1,124 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.Color;
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the color specifications ColorTable converts without a table entry: hex and HSB names give the colors
+ * java.awt.Color gives for them, and the names remembered for such colors stay within their limit however many are
+ * looked up.
+ */
+public class ColorTableTest extends TestCase
+{
+    // the most specification names ColorTable remembers
+    private static final int SPEC_NAME_LIMIT = 1024;
+
+    public void testHexLookup()
+    {
+        int[][] colors = { { 0x12, 0x34, 0x56, 0xFF }, { 0xAB, 0xCD, 0xEF, 0x80 }, { 0x00, 0x00, 0x00, 0x00 },
+            { 0xFF, 0xFF, 0xFF, 0x01 }, { 0x9A, 0x0B, 0x7C, 0xFE } };
+
+        for (int[] c : colors) {
+            Color color = new Color(c[0], c[1], c[2], c[3]);
+            String rgb = String.format("#%02x%02x%02x", c[0], c[1], c[2]);
+            String rgba = String.format("%s%02x", rgb, c[3]);
+
+            assertEquals(rgba, color.getRGB() & 0xFFFFFFFFL, ColorTable.lookup(rgba));
+            assertEquals(rgba, color.getRGB() & 0xFFFFFFFFL, ColorTable.lookup(rgba.toUpperCase()));
+            assertEquals(rgb, new Color(c[0], c[1], c[2]).getRGB() & 0xFFFFFFFFL, ColorTable.lookup(rgb));
+            assertEquals(rgba, color.getRGB(), ColorTable.getRGB(ColorTable.getNameOrHex(color.getRGB()), 0));
+        }
+
+        // a hex name does not replace the name a color already has
+        assertEquals(Color.red.getRGB() & 0xFFFFFFFFL, ColorTable.lookup("#FF0000"));
+        assertEquals("red", ColorTable.getName(Color.red.getRGB()));
+
+        assertEquals(ColorTable.NOT_FOUND, ColorTable.lookup("#12345g"));
+        assertEquals(ColorTable.NOT_FOUND, ColorTable.lookup("#12345"));
+        assertEquals(ColorTable.NOT_FOUND, ColorTable.lookup("#1234567"));
+        assertEquals(ColorTable.NOT_FOUND, ColorTable.lookup("#12 45 67"));
+    }
+
+    public void testHsbLookup()
+    {
+        for (int h = 0; h <= 10; h++) {
+            for (int s = 0; s <= 4; s++) {
+                for (int b = 1; b <= 4; b++) {
+                    float hue = h / 10f;
+                    float saturation = s / 4f;
+                    float brightness = b / 4f;
+                    long expected = Color.HSBtoRGB(hue, saturation, brightness) & 0xFFFFFFFFL;
+                    String spec = hue + "," + saturation + "," + brightness;
+
+                    assertEquals(spec, expected, ColorTable.lookup(spec));
+                    assertEquals(spec, expected, ColorTable.lookup(hue + " " + saturation + " " + brightness));
+                    assertEquals(spec, expected, ColorTable.lookup(spec));
+                }
+            }
+        }
+
+        // an HSB specification is remembered as the name of its color
+        int rgb = (int) ColorTable.lookup("0.3,0.7,0.9");
+        assertEquals("0.3,0.7,0.9", ColorTable.getName(rgb));
+        assertEquals("0.3,0.7,0.9", ColorTable.getNameOrHSB(rgb));
+
+        assertEquals(ColorTable.NOT_FOUND, ColorTable.lookup("0.3,0.7"));
+        assertEquals(ColorTable.NOT_FOUND, ColorTable.lookup("-0.3,0.7,0.9"));
+        assertEquals(ColorTable.NOT_FOUND, ColorTable.lookup("0.3,0.7,0..9"));
+    }
+
+    public void testAddedNamesBounded()
+    {
+        int count = 3 * SPEC_NAME_LIMIT;
+        int[] hex = new int[count];
+        int[] hsb = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            // almost transparent, so that no color has a name of its own
+            Color color = new Color(i >> 8, i & 0xFF, 0x5A, 0x01);
+            String name = String.format("#%02x%02x5a01", i >> 8, i & 0xFF);
+
+            hex[i] = color.getRGB();
+            assertEquals(name, hex[i] & 0xFFFFFFFFL, ColorTable.lookup(name));
+            assertEquals(name, hex[i], ColorTable.getRGB(ColorTable.getNameOrHex(hex[i]), 0));
+        }
+        for (int i = 0; i < count; i++) {
+            String hue = "0." + (1000 + i);
+            String name = hue + ",0.25,0.75";
+
+            hsb[i] = Color.HSBtoRGB(Float.parseFloat(hue), 0.25f, 0.75f);
+            assertEquals(name, hsb[i] & 0xFFFFFFFFL, ColorTable.lookup(name));
+            assertEquals(name, hsb[i] & 0xFFFFFFFFL, ColorTable.lookup(name));
+        }
+
+        Set<Integer> named = new HashSet<>();
+
+        addNamed(hex, named);
+        assertTrue(named.size() + " hex names", named.size() <= SPEC_NAME_LIMIT);
+        addNamed(hsb, named);
+        assertTrue(named.size() + " names", named.size() <= SPEC_NAME_LIMIT);
+    }
+
+    // collect the colors that have a name
+    private static void addNamed(int[] colors, Set<Integer> named)
+    {
+        for (int rgb : colors) {
+            if (ColorTable.getName(rgb) != null) {
+                named.add(Integer.valueOf(rgb));
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the operations DisplayList keeps for each element: after a change of color or highlight, a list that has
+ * already drawn the graph must draw what a list built afresh draws.
+ */
+public class DisplayListTest extends TestCase
+{
+    private static final int SIZE = 80;
+
+    private static final int BOTH = DisplayList.PLAIN | DisplayList.HIGHLIGHTED;
+
+    private Graph graph;
+
+    private DisplayList list;
+
+    // the area drawn, fixed so that changes to the graph do not move it
+    private Rectangle2D bbox;
+
+    @Override
+    protected void setUp() throws Exception
+    {
+        System.setProperty("java.awt.headless", "true");
+        this.graph = GrappaPanelTest.grid(3);
+        this.graph.buildShapes();
+        this.list = newList();
+        this.bbox = this.graph.getBoundingBox();
+    }
+
+    public void testColorChangeRecompiles()
+    {
+        int[] before = assertCurrent(BOTH, null);
+
+        this.graph.findNodeByName("n1_1").setAttribute("color", "red");
+        before = assertCurrent(BOTH, before);
+
+        this.graph.findNodeByName("n1_1").setAttribute("color", "blue");
+        before = assertCurrent(BOTH, before);
+
+        this.graph.findNodeByName("n0_0").setAttribute("style", "bold");
+        before = assertCurrent(BOTH, before);
+
+        this.graph.findNodeByName("n2_1").outEdgeElements().nextElement().setAttribute("color", "green");
+        before = assertCurrent(BOTH, before);
+
+        this.graph.findNodeByName("n1_1").setAttribute("color", "black");
+        assertCurrent(BOTH, before);
+    }
+
+    public void testHighlightChangeRecompiles()
+    {
+        Node node = this.graph.findNodeByName("n1_1");
+        Edge edge = this.graph.findNodeByName("n0_0").outEdgeElements().nextElement();
+        int[] plain = assertCurrent(BOTH, null);
+        int[] before = plain;
+
+        GrappaSupport.setHighlight(node, GrappaConstants.SELECTION_MASK, GrappaConstants.HIGHLIGHT_ON);
+        before = assertCurrent(BOTH, before);
+        assertTrue(Arrays.equals(plain, assertCurrent(DisplayList.PLAIN, null)));
+        assertCurrent(DisplayList.HIGHLIGHTED, null);
+
+        GrappaSupport.setHighlight(edge, GrappaConstants.DELETION_MASK, GrappaConstants.HIGHLIGHT_ON);
+        before = assertCurrent(BOTH, before);
+
+        GrappaSupport.setHighlight(node, GrappaConstants.DELETION_MASK, GrappaConstants.HIGHLIGHT_ON);
+        before = assertCurrent(BOTH, before);
+
+        GrappaSupport.setHighlight(node, 0, GrappaConstants.HIGHLIGHT_OFF);
+        GrappaSupport.setHighlight(edge, 0, GrappaConstants.HIGHLIGHT_OFF);
+        assertTrue(Arrays.equals(plain, assertCurrent(BOTH, before)));
+    }
+
+    // check that the list draws what a new one draws, and something other than an earlier drawing if one is given
+    private int[] assertCurrent(int mode, int[] before)
+    {
+        int[] drawn = paint(this.list, mode);
+
+        assertTrue("kept list differs from a new one", Arrays.equals(paint(newList(), mode), drawn));
+        if (before != null) {
+            assertFalse("drawing did not change", Arrays.equals(before, drawn));
+        }
+        return (drawn);
+    }
+
+    private DisplayList newList()
+    {
+        return (new DisplayList(this.graph,
+            (GrappaStyle) this.graph.getGrappaAttributeValue(GrappaConstants.GRAPPA_SELECTION_STYLE_ATTR),
+            (GrappaStyle) this.graph.getGrappaAttributeValue(GrappaConstants.GRAPPA_DELETION_STYLE_ATTR)));
+    }
+
+    // draw the graph on a white background, its initial bounding box in the middle of the image
+    private int[] paint(DisplayList displayList, int mode)
+    {
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        Rectangle2D bbox = this.bbox;
+
+        try {
+            g2d.setColor(Color.white);
+            g2d.fillRect(0, 0, SIZE, SIZE);
+            g2d.translate((SIZE - bbox.getWidth()) / 2 - bbox.getX(), (SIZE - bbox.getHeight()) / 2 - bbox.getY());
+            Rectangle clip = bbox.getBounds();
+            clip.grow(10, 10);
+            displayList.paint(g2d, clip, Color.white, true, true, true, mode);
+        } finally {
+            g2d.dispose();
+        }
+        return (image.getRGB(0, 0, SIZE, SIZE, null, 0, SIZE));
+    }
+}
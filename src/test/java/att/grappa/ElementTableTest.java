@@ -0,0 +1,135 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of element id allocation and reuse, and of what depends on the order of element creation.
+ */
+public class ElementTableTest extends TestCase
+{
+    public void testIdsReusedMostRecentFirst()
+    {
+        ElementTable table = new ElementTable();
+        Node a = new Node(new Graph("G"), "a");
+
+        assertEquals(0, table.allocate());
+        assertEquals(1, table.allocate());
+        assertEquals(2, table.allocate());
+        table.put(1, a);
+        table.put(2, a);
+
+        table.release(1, a);
+        table.release(2, a);
+        assertEquals(2, table.peek());
+        assertEquals(2, table.allocate());
+        assertEquals(1, table.allocate());
+        assertEquals(3, table.allocate());
+        assertEquals(4, table.limit());
+    }
+
+    public void testReleaseIgnoresOtherElement()
+    {
+        ElementTable table = new ElementTable();
+        Graph graph = new Graph("G");
+        Node a = new Node(graph, "a");
+        Node b = new Node(graph, "b");
+
+        table.put(table.allocate(), a);
+        table.release(0, b);
+        assertSame(a, table.get(0));
+        table.release(0, a);
+        table.release(0, a);
+        assertNull(table.get(0));
+        assertEquals(0, table.allocate());
+        assertEquals(1, table.allocate());
+    }
+
+    public void testTableGrowsAcrossChunks()
+    {
+        ElementTable table = new ElementTable();
+        Node a = new Node(new Graph("G"), "a");
+        int count = 5000;
+
+        for (int i = 0; i < count; i++) {
+            table.put(table.allocate(), a);
+        }
+        assertEquals(count, table.limit());
+        assertSame(a, table.get(count - 1));
+        assertNull(table.get(count));
+        assertNull(table.get(-1));
+
+        table.clear();
+        assertEquals(0, table.limit());
+        assertNull(table.get(0));
+    }
+
+    public void testDeletedNodeIdReused()
+    {
+        Graph graph = new Graph("G");
+        Node a = new Node(graph, "a");
+        int id = a.getId();
+
+        a.delete();
+        assertNull(graph.findNodeById(id));
+
+        Node b = new Node(graph, "b");
+        assertEquals(id, b.getId());
+        assertSame(b, graph.findNodeById(id));
+        assertTrue(a.getSequence() < b.getSequence());
+    }
+
+    public void testUndirectedEdgeOrientationFollowsCreation()
+    {
+        Graph graph = new Graph("G", false, false);
+        Node a = new Node(graph, "a");
+        Node b = new Node(graph, "b");
+
+        a.delete();
+        // c reuses the id of a, so it has a smaller id than b although it was created after it
+        Node c = new Node(graph, "c");
+        assertTrue(c.getId() < b.getId());
+
+        Edge edge = new Edge(graph, c, b);
+        assertSame(b, edge.getTail());
+        assertSame(c, edge.getHead());
+
+        edge = new Edge(graph, b, c);
+        assertSame(b, edge.getTail());
+        assertSame(c, edge.getHead());
+    }
+
+    public void testGeneratedNamesUniqueAfterReuse()
+    {
+        Graph graph = new Graph("G");
+        Node a = new Node(graph);
+        String name = a.getName();
+        int id = a.getId();
+
+        assertTrue(name.startsWith(Node.defaultNamePrefix + id + "_"));
+        a.delete();
+        assertNull(graph.findNodeByName(name));
+
+        for (int i = 0; i < 100; i++) {
+            Node b = new Node(graph);
+            Node c = new Node(graph);
+
+            assertEquals(id, b.getId());
+            assertSame(b, graph.findNodeByName(b.getName()));
+            assertSame(c, graph.findNodeByName(c.getName()));
+            assertFalse(b.getName().equals(c.getName()));
+            c.delete();
+            b.delete();
+            assertEquals(0, graph.countOfElements(GrappaConstants.NODE));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.io.StringWriter;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the per-element state kept outside the element itself, the application data and print flags held in the
+ * side record, and of the walk over the attributes in effect for an element.
+ */
+public class ElementTest extends TestCase
+{
+    public void testApplicationData()
+    {
+        Graph graph = new Graph("G");
+        Node a = new Node(graph, "a");
+        Object data = new Object();
+
+        assertNull(a.getObject());
+        assertEquals(0, a.getCounter());
+        assertEquals(0, a.getLineWidth());
+        assertFalse(a.getPrintAllAttributes());
+        assertFalse(a.getPrintDefaultAttributes());
+
+        a.setObject(data);
+        a.setCounter(7);
+        a.setLineWidth(3);
+        assertSame(data, a.getObject());
+        assertEquals(7, a.getCounter());
+        assertEquals(3, a.getLineWidth());
+
+        a.setObject(null);
+        a.setCounter(0);
+        assertNull(a.getObject());
+        assertEquals(0, a.getCounter());
+        assertEquals(3, a.getLineWidth());
+        assertNull(new Node(graph, "b").getObject());
+    }
+
+    public void testPrintFlags()
+    {
+        Graph graph = new Graph("G");
+        Node a = new Node(graph, "a");
+
+        a.setAttribute("color", "red");
+        assertFalse(print(graph).contains("fontsize"));
+
+        a.setPrintAllAttributes(true);
+        assertTrue(a.getPrintAllAttributes());
+        assertTrue(print(graph).contains("fontsize"));
+
+        a.setPrintAllAttributes(false);
+        assertFalse(print(graph).contains("fontsize"));
+
+        graph.setPrintDefaultAttributes(true);
+        assertTrue(graph.getPrintDefaultAttributes());
+        assertFalse(new Node(graph, "b").getPrintDefaultAttributes());
+    }
+
+    public void testVisitOrder()
+    {
+        String[] names = register("vt_a", "vt_b", "vt_c", "vt_d", "vt_e");
+        Graph graph = new Graph("G");
+        Node a = new Node(graph, "a");
+
+        graph.setNodeAttribute(names[1], "db");
+        graph.setNodeAttribute(names[2], "dc");
+        graph.setNodeAttribute(names[4], "de");
+        a.setAttribute(names[0], "la");
+        a.setAttribute(names[2], "lc");
+        a.setAttribute(names[3], "ld");
+
+        final Map<String, Attribute[]> visited = new LinkedHashMap<>();
+        assertTrue(a.visitAttributes(recorder(visited)));
+        assertIdOrder(visited);
+
+        Set<String> expected = new HashSet<>();
+        for (Enumeration<Attribute> enm = a.getLocalAttributePairs(); enm.hasMoreElements();) {
+            expected.add(enm.nextElement().getName());
+        }
+        for (Enumeration<Attribute> enm = graph.getNodeAttributePairs(); enm.hasMoreElements();) {
+            expected.add(enm.nextElement().getName());
+        }
+        assertEquals(expected, visited.keySet());
+
+        assertVisit(visited, names[0], "la", null);
+        assertVisit(visited, names[1], "db", "db");
+        assertVisit(visited, names[2], "lc", "dc");
+        assertVisit(visited, names[3], "ld", null);
+        assertVisit(visited, names[4], "de", "de");
+        assertSame(visited.get(names[1])[0], visited.get(names[1])[1]);
+
+        // a visitor can stop the walk
+        final int[] count = { 0 };
+        assertFalse(a.visitAttributes(new AttributeVisitor() {
+            @Override
+            public boolean visitAttribute(Attribute attr, Attribute dflt)
+            {
+                return (++count[0] < 3);
+            }
+        }));
+        assertEquals(3, count[0]);
+    }
+
+    public void testChangesWhileVisiting()
+    {
+        final String[] names = register("vt_p1", "vt_p2", "vt_p3", "vt_p4", "vt_p5", "vt_p6", "vt_p7", "vt_p8");
+        final Graph graph = new Graph("G");
+        final Node a = new Node(graph, "a");
+
+        a.setAttribute(names[0], "l1");
+        a.setAttribute(names[2], "l3");
+        a.setAttribute(names[4], "l5");
+        graph.setNodeAttribute(names[5], "d6");
+        a.setAttribute(names[5], "l6");
+        graph.setNodeAttribute(names[7], "d8");
+
+        final Map<String, Attribute[]> visited = new LinkedHashMap<>();
+        final AttributeVisitor recorder = recorder(visited);
+
+        assertTrue(a.visitAttributes(new AttributeVisitor() {
+            @Override
+            public boolean visitAttribute(Attribute attr, Attribute dflt)
+            {
+                if (attr.getName().equals(names[2])) {
+                    a.setAttribute("color", "blue");
+                    a.setAttribute(names[1], "l2");
+                    graph.setNodeAttribute(names[1], "d2");
+                    a.setAttribute(names[3], "l4");
+                    a.setAttribute(names[4], null);
+                    a.setAttribute(names[5], null);
+                    graph.setNodeAttribute(names[6], "d7");
+                    graph.setNodeAttribute(names[7], "d8 changed");
+                }
+                return (recorder.visitAttribute(attr, dflt));
+            }
+        }));
+        assertIdOrder(visited);
+
+        // what was visited before the change is not visited again, and what comes after it is visited as it now is
+        assertVisit(visited, names[0], "l1", null);
+        assertFalse(visited.containsKey(names[1]));
+        assertVisit(visited, names[2], "l3", null);
+        assertVisit(visited, names[3], "l4", null);
+        assertFalse(visited.containsKey(names[4]));
+        assertVisit(visited, names[5], "d6", "d6");
+        assertVisit(visited, names[6], "d7", "d7");
+        assertVisit(visited, names[7], "d8 changed", "d8 changed");
+        assertSame(graph.getNodeAttribute("color"), visited.get("color")[0]);
+        assertEquals("blue", a.getLocalAttribute("color").getStringValue());
+    }
+
+    // register attribute names in order, so that their ids are in the same order
+    private static String[] register(String... names)
+    {
+        for (int i = 0; i < names.length; i++) {
+            AttributeRegistry.register(names[i]);
+            assertTrue(names[i], i == 0 || Attribute.getNameId(names[i - 1]) < Attribute.getNameId(names[i]));
+        }
+        return (names);
+    }
+
+    // a visitor recording each attribute visited and the default it overrides, failing on a second visit
+    private static AttributeVisitor recorder(final Map<String, Attribute[]> visited)
+    {
+        return (new AttributeVisitor() {
+            @Override
+            public boolean visitAttribute(Attribute attr, Attribute dflt)
+            {
+                assertNull(attr.getName(), visited.put(attr.getName(), new Attribute[] { attr, dflt }));
+                return (true);
+            }
+        });
+    }
+
+    private static void assertIdOrder(Map<String, Attribute[]> visited)
+    {
+        int lastId = -1;
+
+        for (Attribute[] pair : visited.values()) {
+            assertTrue(pair[0].getName(), pair[0].getNameId() > lastId);
+            lastId = pair[0].getNameId();
+        }
+    }
+
+    private static void assertVisit(Map<String, Attribute[]> visited, String name, String value, String dflt)
+    {
+        Attribute[] pair = visited.get(name);
+
+        assertNotNull(name, pair);
+        assertEquals(name, value, pair[0].getStringValue());
+        assertEquals(name, dflt, pair[1] == null ? null : pair[1].getStringValue());
+    }
+
+    private static String print(Graph graph)
+    {
+        StringWriter out = new StringWriter();
+
+        graph.printGraph(out);
+        return (out.toString());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the fonts and line bounds FontTable keeps: fonts are shared, bounds are those the font gives in the
+ * rendering context asked for, and a label placed after a change of font or text is placed as in a graph read with
+ * the final values.
+ */
+public class FontTableTest extends TestCase
+{
+    private static final String INPUT = "digraph G { node [fontsize=14]; a [pos=\"0,0\", label=\"first\\nline two\"];"
+        + " b [pos=\"200,0\"]; }";
+
+    @Override
+    protected void setUp()
+    {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    public void testFontsShared()
+    {
+        Font font = FontTable.getFont("Serif", Font.BOLD, 12);
+
+        assertSame(font, FontTable.getFont("Serif", Font.BOLD, 12));
+        assertSame(FontTable.getFont(null, Font.PLAIN, 10), FontTable.getFont(null, Font.PLAIN, 10));
+        assertNotSame(font, FontTable.getFont("Serif", Font.PLAIN, 12));
+        assertNotSame(font, FontTable.getFont("Serif", Font.BOLD, 13));
+        assertNotSame(font, FontTable.getFont("SansSerif", Font.BOLD, 12));
+        assertEquals(new Font("Serif", Font.BOLD, 12), font);
+    }
+
+    public void testBoundsMatchFont()
+    {
+        Font font = FontTable.getFont("SansSerif", Font.PLAIN, 14);
+        FontRenderContext plain = new FontRenderContext(null, false, false);
+        FontRenderContext scaled = new FontRenderContext(AffineTransform.getScaleInstance(3, 3), true, true);
+        String text = "a line of label text";
+
+        Rectangle2D bounds = FontTable.getStringBounds(font, text, plain);
+        assertEquals(font.getStringBounds(text, plain), bounds);
+        assertEquals(font.getStringBounds(text, scaled), FontTable.getStringBounds(font, text, scaled));
+        assertEquals(font.getStringBounds("another", plain), FontTable.getStringBounds(font, "another", plain));
+
+        // each caller gets its own copy to change
+        bounds.setRect(0, 0, 1, 1);
+        assertEquals(font.getStringBounds(text, plain), FontTable.getStringBounds(font, text, plain));
+        assertNotSame(FontTable.getStringBounds(font, text, plain), FontTable.getStringBounds(font, text, plain));
+    }
+
+    public void testChangedLabelPlacedAsParsed() throws Exception
+    {
+        Graph graph = parse(INPUT);
+        Node a = graph.findNodeByName("a");
+
+        graph.buildShapes();
+        a.getGrappaNexus().getBounds2D();
+
+        a.setAttribute("fontsize", "20");
+        assertSameText("a [fontsize=20, label=\"first\\nline two\"]", a);
+        a.setAttribute("fontname", "Serif");
+        assertSameText("a [fontsize=20, fontname=Serif, label=\"first\\nline two\"]", a);
+        a.setAttribute("label", "a much longer first line\\lshort\\r");
+        assertSameText("a [fontsize=20, fontname=Serif, label=\"a much longer first line\\lshort\\r\"]", a);
+        a.setAttribute("fontsize", "14");
+        assertSameText("a [fontname=Serif, label=\"a much longer first line\\lshort\\r\"]", a);
+    }
+
+    // the label of node a must be set and placed as in a graph read with the supplied statement for it
+    private static void assertSameText(String statement, Node a) throws Exception
+    {
+        Graph fresh = parse("digraph G { node [fontsize=14]; " + statement + " [pos=\"0,0\"]; b [pos=\"200,0\"]; }");
+        GrappaNexus expected = fresh.findNodeByName("a").getGrappaNexus();
+        GrappaNexus actual = a.getGrappaNexus();
+
+        fresh.buildShapes();
+        expected.getBounds2D();
+        actual.getBounds2D();
+        assertEquals(statement, expected.font, actual.font);
+        assertEquals(statement, expected.lstr.length, actual.lstr.length);
+        for (int i = 0; i < expected.lstr.length; i++) {
+            assertEquals(statement, expected.lstr[i], actual.lstr[i]);
+            assertEquals(statement, expected.lpos[i].getX(), actual.lpos[i].getX(), 0.0);
+            assertEquals(statement, expected.lpos[i].getY(), actual.lpos[i].getY(), 0.0);
+        }
+        assertEquals(statement, expected.getBounds2D(), actual.getBounds2D());
+    }
+
+    private static Graph parse(String text) throws Exception
+    {
+        Parser parser = new Parser(new StringReader(text));
+        parser.parse();
+        return (parser.getGraph());
+    }
+}
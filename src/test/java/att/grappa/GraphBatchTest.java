@@ -0,0 +1,210 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.geom.Rectangle2D;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of <code>Graph.beginBatch</code> and <code>Graph.commit</code>: changes made in a batch take effect on the
+ * outermost commit, with a single repaint request, and leave the graph as the same changes made one at a time would.
+ */
+public class GraphBatchTest extends TestCase
+{
+    private static final String INPUT = "digraph G { node [width=1, height=0.5]; subgraph cluster_s { a [pos=\"0,0\"];"
+        + " b [pos=\"200,0\"]; } c [pos=\"0,200\"]; a -> b; b -> c; }";
+
+    @Override
+    protected void setUp()
+    {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    public void testNestedBatchesCommitOnce() throws Exception
+    {
+        Graph graph = parse(INPUT);
+        Node a = graph.findNodeByName("a");
+
+        graph.buildShapes();
+        assertEquals(72.0, width(a), 0.5);
+
+        GraphBatch outer = graph.beginBatch();
+        GraphBatch inner = graph.beginBatch();
+        assertSame(outer, inner);
+
+        a.setAttribute("width", "3");
+        assertEquals(72.0, width(a), 0.5);
+
+        graph.commit();
+        assertSame(outer, graph.batch);
+        assertEquals(72.0, width(a), 0.5);
+
+        graph.commit();
+        assertNull(graph.batch);
+        assertEquals(216.0, width(a), 0.5);
+    }
+
+    public void testTryWithResources() throws Exception
+    {
+        Graph graph = parse(INPUT);
+        Node a = graph.findNodeByName("a");
+
+        graph.buildShapes();
+        assertEquals(72.0, width(a), 0.5);
+        try (GraphBatch outer = graph.beginBatch()) {
+            try (GraphBatch inner = graph.beginBatch()) {
+                assertSame(outer, inner);
+                a.setAttribute("width", "2");
+            }
+            assertEquals(72.0, width(a), 0.5);
+            outer.getGraph().findNodeByName("a").setAttribute("height", "2");
+        }
+        assertNull(graph.batch);
+        assertEquals(144.0, width(a), 0.5);
+        assertEquals(144.0, a.getGrappaNexus().getBounds2D().getHeight(), 0.5);
+    }
+
+    public void testCloseAfterCommit() throws Exception
+    {
+        Graph graph = parse(INPUT);
+        GraphBatch batch = graph.beginBatch();
+
+        graph.commit();
+        assertNull(graph.batch);
+        batch.close();
+        batch.close();
+
+        try {
+            graph.commit();
+            fail("commit without an open batch");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+
+        // a new batch is independent of the closed one
+        GraphBatch next = graph.beginBatch();
+        assertNotSame(batch, next);
+        batch.close();
+        assertSame(next, graph.batch);
+        next.close();
+        assertNull(graph.batch);
+    }
+
+    public void testBatchMatchesSeparateChanges() throws Exception
+    {
+        Graph direct = parse(INPUT);
+        Graph batched = parse(INPUT);
+
+        direct.buildShapes();
+        batched.buildShapes();
+        direct.getBoundingBox();
+        batched.getBoundingBox();
+        for (String name : new String[] { "a", "b", "c" }) {
+            bounds(direct.findNodeByName(name));
+            bounds(batched.findNodeByName(name));
+        }
+
+        change(direct);
+        try (GraphBatch batch = batched.beginBatch()) {
+            change(batch.getGraph());
+        }
+
+        for (String name : new String[] { "a", "b", "c" }) {
+            assertEquals(name, bounds(direct.findNodeByName(name)), bounds(batched.findNodeByName(name)));
+        }
+        assertEquals(direct.findSubgraphByName("cluster_s").getBoundingBox(),
+            batched.findSubgraphByName("cluster_s").getBoundingBox());
+        assertEquals(direct.getBoundingBox(), batched.getBoundingBox());
+    }
+
+    public void testSingleRepaintOnCommit() throws Exception
+    {
+        Graph graph = parse(INPUT);
+        CountingPanel panel = new CountingPanel(graph);
+
+        graph.addPanel(panel);
+        graph.buildShapes();
+        graph.getBoundingBox();
+        for (String name : new String[] { "a", "b", "c" }) {
+            bounds(graph.findNodeByName(name));
+        }
+        panel.requests = 0;
+
+        try (GraphBatch batch = graph.beginBatch()) {
+            change(batch.getGraph());
+            try (GraphBatch inner = graph.beginBatch()) {
+                inner.getGraph().findNodeByName("c").setAttribute("color", "red");
+            }
+            assertEquals(0, panel.requests);
+        }
+        assertEquals(1, panel.requests);
+
+        // outside a batch a change only notes the damage, leaving the caller to ask for the repaint
+        graph.findNodeByName("c").setAttribute("color", "blue");
+        assertEquals(1, panel.requests);
+        graph.repaintDamage();
+        assertEquals(2, panel.requests);
+    }
+
+    // widen a, move b and relabel c
+    private static void change(Graph graph)
+    {
+        graph.findNodeByName("a").setAttribute("width", "2.5");
+        graph.findNodeByName("b").setAttribute("pos", "300,-50");
+        graph.findNodeByName("c").setAttribute("label", "a much longer label");
+        graph.findNodeByName("a").setAttribute("width", "3");
+    }
+
+    // reading the bounds of a node also brings its lazily computed geometry up to date
+    private static double width(Node node)
+    {
+        return (node.getGrappaNexus().getBounds2D().getWidth());
+    }
+
+    private static Rectangle2D bounds(Node node)
+    {
+        return (node.getGrappaNexus().getBounds2D());
+    }
+
+    private static Graph parse(String text) throws Exception
+    {
+        Parser parser = new Parser(new StringReader(text));
+        parser.parse();
+        return (parser.getGraph());
+    }
+
+    // a panel that counts the repaint requests the graph makes of it
+    private static final class CountingPanel extends GrappaPanel
+    {
+        private static final long serialVersionUID = 1L;
+
+        int requests = 0;
+
+        CountingPanel(Graph graph)
+        {
+            super(graph);
+        }
+
+        @Override
+        public void repaint()
+        {
+            this.requests++;
+        }
+
+        @Override
+        void repaintRegion(Rectangle2D region)
+        {
+            this.requests++;
+        }
+    }
+}
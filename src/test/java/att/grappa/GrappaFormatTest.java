@@ -0,0 +1,126 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the static GrappaFormat appenders write what the general <code>PrintfParser</code> conversions do, that
+ * compiled formats give the expected text, and that printed numbers read back as the values printed.
+ */
+public class GrappaFormatTest extends TestCase
+{
+    public void testAppendersMatchConversions()
+    {
+        Random random = new Random(30);
+
+        for (int i = 0; i < 200000; i++) {
+            double value = value(random);
+
+            assertEquals(String.valueOf(value), flex(value), GrappaFormat.formatDouble(value));
+        }
+
+        GrappaPoint point = new GrappaPoint(1.5, -20);
+        GrappaSize size = new GrappaSize(0.75, 0.5);
+        GrappaBox box = new GrappaBox(1, 2, 3.25, 4);
+        GrappaBox corners = new GrappaBox("1,2,3,4", false);
+
+        assertEquals(GrappaSupportPrintf.sprintf(new Object[] { "%p", point }), point.toAttributeString());
+        assertEquals(GrappaSupportPrintf.sprintf(new Object[] { "%p", size }), size.toAttributeString());
+        assertEquals(GrappaSupportPrintf.sprintf(new Object[] { "%b", box }), box.toAttributeString());
+        assertEquals(GrappaSupportPrintf.sprintf(new Object[] { "%b", corners }), corners.toAttributeString());
+        assertEquals("0.75,0.5", size.toAttributeString());
+    }
+
+    public void testFormats()
+    {
+        assertEquals("[  3.14|7     |+2|0x1f|17|100%]",
+            sprintf("[%6.2f|%-6d|%+d|%#x|%o|%d%%]", 3.14159, 7, 2, 31, 15, 100));
+        assertEquals("1.5 2 1000000 1.0e-04 1.0e-05", sprintf("%g %g %g %g %g", 1.5, 2, 1000000, 0.0001, 0.00001));
+        assertEquals("1.234560e+02|1.23E+02", sprintf("%e|%.2E", 123.456, 123.456));
+        assertEquals("a\tb\n", sprintf("%s\\t%c\\n", "a", 'b'));
+        assertEquals("ab", sprintf("%s%s", "a", "b"));
+
+        GrappaFormat format = GrappaFormat.getFormat("(%g,%g)");
+        assertSame(format, GrappaFormat.getFormat("(%g,%g)"));
+        assertEquals("(1,2.5)", format.format(new Object[] { 1, 2.5 }));
+        assertEquals("x(1,2.5)", format.format(new StringBuilder("x"), new Object[] { 1, 2.5 }).toString());
+
+        try {
+            format.format(new Object[] { 1 });
+            fail("formatted with too few arguments");
+        } catch (RuntimeException ex) {
+            assertEquals("too few arguments for format", ex.getMessage());
+        }
+    }
+
+    public void testRoundingCarries()
+    {
+        // a fraction rounding up to a whole unit is carried into the whole part, and a base into the exponent
+        assertEquals("1", GrappaFormat.formatDouble(0.9999999));
+        assertEquals("-2", GrappaFormat.formatDouble(-1.999999));
+        assertEquals("13", GrappaFormat.formatDouble(12.9999999));
+        assertEquals("1.0e-04", GrappaFormat.formatDouble(9.999999e-5));
+        assertEquals("1.0e+07", GrappaFormat.formatDouble(9999999.9));
+        assertEquals("1.00|1.000e-04", sprintf("%.2f|%.3e", 0.999, 9.99999e-5));
+    }
+
+    public void testPrintedValuesReadBack()
+    {
+        Random random = new Random(31);
+
+        for (int i = 0; i < 200000; i++) {
+            double value = value(random);
+            String printed = GrappaFormat.formatDouble(value);
+            double back = TupleDecoder.parse(printed, 0, printed.length());
+
+            // plain conversions keep five decimals, or six significant digits in exponential form
+            assertEquals(printed, value, back, Math.max(Math.abs(value) * 1e-5, 0.5e-5) * 1.000001);
+            // printing that again may choose the other form at a threshold, but not another value
+            String again = GrappaFormat.formatDouble(back);
+            assertEquals(printed, back, TupleDecoder.parse(again, 0, again.length()), 0.0);
+        }
+    }
+
+    // a value of any size, sometimes just short of a round number
+    private static double value(Random random)
+    {
+        double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(24) - 12);
+
+        switch (random.nextInt(4)) {
+            case 0:
+                return (Math.round(value * 1e6) / 1e6);
+            case 1:
+                return (Math.rint(value) - Math.signum(value) * 1e-7);
+            default:
+                return (value);
+        }
+    }
+
+    private static String flex(double value)
+    {
+        PrintfParser cvt = new PrintfParser();
+
+        cvt.setSpec(0, 0, -1);
+        return (cvt.buildFlex(new StringBuilder(), value, false).toString());
+    }
+
+    private static String sprintf(String format, Object... args)
+    {
+        Object[] all = new Object[args.length + 1];
+
+        all[0] = format;
+        System.arraycopy(args, 0, all, 1, args.length);
+        return (GrappaSupportPrintf.sprintf(all));
+    }
+}
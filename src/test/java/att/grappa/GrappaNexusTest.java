@@ -0,0 +1,146 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.geom.Rectangle2D;
+import java.io.StringReader;
+import java.util.Enumeration;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the parts a GrappaNexus computes only when they are first needed: whatever is asked for first, a lazy
+ * nexus must give the bounds a nexus computed in full when it is built gives.
+ */
+public class GrappaNexusTest extends TestCase
+{
+    private static final String INPUT = "digraph G { node [width=0.6, height=0.4];"
+        + " subgraph cluster_0 { a [pos=\"40,40\", label=\"first\\nsecond\"];"
+        + " b [pos=\"120,40\", shape=box, style=filled]; }"
+        + " c [pos=\"40,160\", shape=record, width=1.4, label=\"<p> x|{y|z}\"];"
+        + " d [pos=\"200,200\", shape=hexagon, peripheries=2];"
+        + " subgraph s { e [pos=\"300,20\"]; }"
+        + " a -> b [pos=\"e,98,40 62,40 72,40 84,40 98,40\", label=\"ab\", lp=\"80,50\"];"
+        + " c -> d [pos=\"e,180,190 62,165 100,175 140,185 180,190\"]; }";
+
+    @Override
+    protected void setUp()
+    {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    public void testGraphBoundsMatchEager() throws Exception
+    {
+        Graph eager = graph(true);
+        Graph lazy = graph(false);
+
+        assertEquals(eager.getBoundingBox(), lazy.getBoundingBox());
+        assertSameBounds(eager, lazy);
+    }
+
+    public void testElementBoundsMatchEager() throws Exception
+    {
+        Graph eager = graph(true);
+        Graph lazy = graph(false);
+
+        // elements first, so that each lazy nexus is laid out on its own
+        assertSameBounds(eager, lazy);
+    }
+
+    public void testBoundsAfterChangeMatchEager() throws Exception
+    {
+        Graph eager = graph(true);
+        Graph lazy = graph(false);
+
+        assertEquals(eager.getBoundingBox(), lazy.getBoundingBox());
+        for (Graph graph : new Graph[] { eager, lazy }) {
+            graph.findNodeByName("d").setAttribute("pos", "260,240");
+            graph.findNodeByName("a").setAttribute("label", "a much longer label");
+        }
+        assertEquals(eager.getBoundingBox(), lazy.getBoundingBox());
+        assertSameBounds(eager, lazy);
+    }
+
+    public void testGraphBoundsContainElements() throws Exception
+    {
+        // a cluster label widens the cluster only once its text is laid out, after the graph around it was
+        Graph graph = graph(INPUT.replace("cluster_0 {", "cluster_0 { label=\"cluster\";"), false);
+        Rectangle2D bbox = graph.getBoundingBox();
+        GraphEnumeration enm = graph.elements();
+
+        while (enm.hasMoreElements()) {
+            Element elem = enm.nextGraphElement();
+
+            assertTrue(elem.getName(), bbox.contains(elem.getGrappaNexus().getBounds2D()));
+        }
+        assertEquals(bbox, graph.getBoundingBox());
+    }
+
+    private static Graph graph(boolean eager) throws Exception
+    {
+        return (graph(INPUT, eager));
+    }
+
+    // read a graph, computing every part of every nexus in the order they are built, as the constructor once did,
+    // if eager is set
+    private static Graph graph(String input, boolean eager) throws Exception
+    {
+        Parser parser = new Parser(new StringReader(input));
+        parser.parse();
+
+        Graph graph = parser.getGraph();
+        graph.buildShapes();
+        if (eager) {
+            GraphEnumeration enm = graph.elements();
+
+            while (enm.hasMoreElements()) {
+                enm.nextGraphElement().getGrappaNexus().rebuild();
+            }
+        }
+        return (graph);
+    }
+
+    // check that the elements of two copies of a graph have the same bounds, taken in element order
+    private static void assertSameBounds(Graph expected, Graph actual)
+    {
+        GraphEnumeration enm = expected.elements();
+
+        while (enm.hasMoreElements()) {
+            Element elem = enm.nextGraphElement();
+            Element other = find(actual, elem);
+
+            assertEquals(elem.getName(), elem.getGrappaNexus().getBounds2D(), other.getGrappaNexus().getBounds2D());
+        }
+    }
+
+    // find the element of a graph matching one of a copy of it (edge names differ between copies)
+    private static Element find(Graph graph, Element elem)
+    {
+        switch (elem.getType()) {
+            case GrappaConstants.NODE:
+                return (graph.findNodeByName(elem.getName()));
+            case GrappaConstants.EDGE:
+                Edge edge = (Edge) elem;
+                Enumeration<Edge> enm = graph.findNodeByName(edge.getTail().getName()).outEdgeElements();
+
+                while (enm.hasMoreElements()) {
+                    Edge other = enm.nextElement();
+
+                    if (other.getHead().getName().equals(edge.getHead().getName())) {
+                        return (other);
+                    }
+                }
+                return (null);
+            default:
+                return (((Subgraph) elem).isRoot() ? graph : graph.findSubgraphByName(elem.getName()));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the drawing kept by a GrappaPanel when <code>Grappa.layeredPainting</code> is set: whatever changes the
+ * graph, including the parallel build, must leave the panel drawing what a direct paint would.
+ */
+public class GrappaPanelTest extends TestCase
+{
+    private static final int SIZE = 200;
+
+    private boolean layered;
+
+    @Override
+    protected void setUp()
+    {
+        System.setProperty("java.awt.headless", "true");
+        this.layered = Grappa.layeredPainting;
+    }
+
+    @Override
+    protected void tearDown()
+    {
+        Grappa.layeredPainting = this.layered;
+    }
+
+    public void testEditAfterParallelBuildRedrawsLayer() throws Exception
+    {
+        Graph graph = grid(20);
+        GrappaPanel panel = panel(graph);
+
+        // the first paint fits the graph to the panel, so the layer is only kept from the second on
+        paint(panel, true);
+        paint(panel, true);
+
+        graph.buildShapes(4);
+        int[] built = paint(panel, true);
+        assertDrawing(built, paint(panel, false));
+
+        graph.findNodeByName("n0_0").setAttribute("color", "red");
+        int[] after = paint(panel, true);
+        assertFalse(Arrays.equals(built, after));
+        assertDrawing(after, paint(panel, false));
+    }
+
+    public void testEditAfterBuildOnAnotherThreadRedrawsLayer() throws Exception
+    {
+        final Graph graph = grid(40);
+        GrappaPanel panel = panel(graph);
+
+        paint(panel, true);
+        assertDrawing(paint(panel, true), paint(panel, false));
+
+        Thread builder = new Thread() {
+            @Override
+            public void run()
+            {
+                graph.buildShapes(4);
+            }
+        };
+        int version = graph.contentVersion.get();
+        builder.start();
+        builder.join();
+        graph.findNodeByName("n1_1").setAttribute("color", "blue");
+
+        assertTrue(graph.contentVersion.get() != version);
+        assertDrawing(paint(panel, true), paint(panel, false));
+    }
+
+    public void testParallelBuildCountsEveryChange() throws Exception
+    {
+        Graph serial = grid(40);
+        Graph parallel = grid(40);
+
+        serial.buildShapes(1);
+        parallel.buildShapes(4);
+
+        assertEquals(serial.contentVersion.get(), parallel.contentVersion.get());
+        assertEquals(serial.structureVersion.get(), parallel.structureVersion.get());
+    }
+
+    // a square grid of filled, positioned nodes, each joined to the next in its row
+    static Graph grid(int n) throws Exception
+    {
+        StringBuilder text =
+            new StringBuilder("digraph G { node [style=filled, fillcolor=white, width=0.2, height=0.2];");
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                text.append(" n").append(i).append('_').append(j).append(" [pos=\"").append(10 + 20 * j).append(',')
+                    .append(10 + 20 * i).append("\"];");
+                if (j > 0) {
+                    text.append(" n").append(i).append('_').append(j - 1).append(" -> n").append(i).append('_')
+                        .append(j).append(" [pos=\"e,").append(20 * j + 3).append(',').append(10 + 20 * i)
+                        .append(' ').append(20 * j - 3).append(',').append(10 + 20 * i).append(' ')
+                        .append(20 * j - 1).append(',').append(10 + 20 * i).append(' ').append(20 * j + 1)
+                        .append(',').append(10 + 20 * i).append(' ').append(20 * j + 3).append(',')
+                        .append(10 + 20 * i).append("\"];");
+                }
+            }
+        }
+        text.append(" }");
+
+        Parser parser = new Parser(new StringReader(text.toString()));
+        parser.parse();
+        return (parser.getGraph());
+    }
+
+    private static GrappaPanel panel(Graph graph)
+    {
+        GrappaPanel panel = new GrappaPanel(graph);
+
+        panel.setScaleToFit(true);
+        panel.setSize(SIZE, SIZE);
+        return (panel);
+    }
+
+    private static int[] paint(GrappaPanel panel, boolean layered)
+    {
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+
+        Grappa.layeredPainting = layered;
+        try {
+            g2d.setClip(0, 0, SIZE, SIZE);
+            panel.paintComponent(g2d);
+        } finally {
+            g2d.dispose();
+        }
+        return (image.getRGB(0, 0, SIZE, SIZE, null, 0, SIZE));
+    }
+
+    private static void assertDrawing(int[] layered, int[] direct)
+    {
+        assertTrue("layered drawing differs from direct drawing", Arrays.equals(direct, layered));
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the paths GrappaShape shares among shapes with the same parameters: a shared path must give the outline a
+ * private one would, and any change of parameters, including the winding rule, must give the shape a path of its own.
+ */
+public class GrappaShapeTest extends TestCase
+{
+    // float coordinates built about the origin and translated may differ from those built in place by this much
+    private static final double TOLERANCE = 0.01;
+
+    private static final int[] TYPES = {
+        GrappaConstants.BOX_SHAPE, GrappaConstants.DIAMOND_SHAPE, GrappaConstants.DOUBLECIRCLE_SHAPE,
+        GrappaConstants.DOUBLEOCTAGON_SHAPE, GrappaConstants.EGG_SHAPE, GrappaConstants.HEXAGON_SHAPE,
+        GrappaConstants.HOUSE_SHAPE, GrappaConstants.INVERTEDTRAPEZIUM_SHAPE, GrappaConstants.OCTAGON_SHAPE,
+        GrappaConstants.OVAL_SHAPE, GrappaConstants.PARALLELOGRAM_SHAPE, GrappaConstants.PENTAGON_SHAPE,
+        GrappaConstants.POINT_SHAPE, GrappaConstants.ROUNDEDBOX_SHAPE, GrappaConstants.TRIANGLE_SHAPE,
+        GrappaConstants.TRIPLEOCTAGON_SHAPE, GrappaConstants.MCIRCLE_SHAPE, GrappaConstants.MDIAMOND_SHAPE,
+        GrappaConstants.MSQUARE_SHAPE,
+    };
+
+    private int windingRule;
+
+    @Override
+    protected void setUp()
+    {
+        this.windingRule = Grappa.windingRule;
+    }
+
+    @Override
+    protected void tearDown()
+    {
+        Grappa.windingRule = this.windingRule;
+    }
+
+    public void testSharedPathMatchesPrivatePath()
+    {
+        for (int type : TYPES) {
+            GrappaShape shared = shape(type, 130.5, -42.25, 54, 36, -1, -1, 0, 0, 0, false, false);
+
+            assertSame(shared.path, shape(type, 0, 0, 54, 36, -1, -1, 0, 0, 0, false, false).path);
+            assertSameOutline(shared, privateShape(type, 130.5, -42.25, 54, 36, -1, -1, 0, 0, 0, false, false));
+        }
+        assertSameOutline(shape(GrappaConstants.POLYGON_SHAPE, -7, 300, 80, 40, 7, 2, 0.3, -0.2, 15, false, false),
+            privateShape(GrappaConstants.POLYGON_SHAPE, -7, 300, 80, 40, 7, 2, 0.3, -0.2, 15, false, false));
+        assertSameOutline(shape(GrappaConstants.POLYGON_SHAPE, 10, 10, 60, 60, 5, 1, 0, 0, 0, true, false),
+            privateShape(GrappaConstants.POLYGON_SHAPE, 10, 10, 60, 60, 5, 1, 0, 0, 0, true, false));
+        assertSameOutline(shape(GrappaConstants.POLYGON_SHAPE, 10, 10, 60, 60, 4, 1, 0, 0, 0, false, true),
+            privateShape(GrappaConstants.POLYGON_SHAPE, 10, 10, 60, 60, 4, 1, 0, 0, 0, false, true));
+    }
+
+    public void testSameParametersSharePath()
+    {
+        GrappaShape a = shape(GrappaConstants.HEXAGON_SHAPE, 0, 0, 54, 36, -1, -1, 0, 0, 0, false, false);
+        GrappaShape b = shape(GrappaConstants.HEXAGON_SHAPE, 100, 50, 54, 36, -1, -1, 0, 0, 0, false, false);
+        GrappaShape c = shape(GrappaConstants.HEXAGON_SHAPE, 0, 0, 55, 36, -1, -1, 0, 0, 0, false, false);
+        GrappaShape d = shape(GrappaConstants.HEXAGON_SHAPE, 0, 0, 54, 36, -1, 2, 0, 0, 0, false, false);
+
+        assertSame(a.path, b.path);
+        assertNotSame(a.path, c.path);
+        assertNotSame(a.path, d.path);
+
+        Rectangle2D bounds = a.getBounds2D();
+        bounds.setRect(bounds.getX() + 100, bounds.getY() + 50, bounds.getWidth(), bounds.getHeight());
+        assertEquals(bounds, b.getBounds2D());
+        assertTrue(b.contains(100, 50));
+        assertFalse(a.contains(100, 50));
+
+        GrappaShape copy = (GrappaShape) b.clone();
+        assertSame(b.path, copy.path);
+        assertEquals(b.getBounds2D(), copy.getBounds2D());
+    }
+
+    public void testWindingRuleIsPartOfKey()
+    {
+        Grappa.windingRule = PathIterator.WIND_NON_ZERO;
+        GrappaShape nonZero = shape(GrappaConstants.OCTAGON_SHAPE, 0, 0, 40, 40, -1, 3, 0, 0, 0, false, false);
+
+        Grappa.windingRule = PathIterator.WIND_EVEN_ODD;
+        GrappaShape evenOdd = shape(GrappaConstants.OCTAGON_SHAPE, 0, 0, 40, 40, -1, 3, 0, 0, 0, false, false);
+
+        assertNotSame(nonZero.path, evenOdd.path);
+        assertEquals(PathIterator.WIND_NON_ZERO, nonZero.getPathIterator(null).getWindingRule());
+        assertEquals(PathIterator.WIND_EVEN_ODD, evenOdd.getPathIterator(null).getWindingRule());
+    }
+
+    public void testChangedNodeGetsOwnPath() throws Exception
+    {
+        Parser parser = new Parser(new StringReader("digraph G { node [shape=house, width=1, height=0.5];"
+            + " a [pos=\"0,0\"]; b [pos=\"200,0\"]; }"));
+        parser.parse();
+        Graph graph = parser.getGraph();
+        graph.buildShapes();
+
+        GrappaNexus a = graph.findNodeByName("a").getGrappaNexus();
+        GrappaNexus b = graph.findNodeByName("b").getGrappaNexus();
+        Rectangle2D before = b.getBounds2D();
+        a.getBounds2D();
+        assertSame(((GrappaShape) a.shape).path, ((GrappaShape) b.shape).path);
+
+        graph.findNodeByName("a").setAttribute("width", "2");
+        assertEquals(144, a.getBounds2D().getWidth(), 0.5);
+        assertNotSame(((GrappaShape) a.shape).path, ((GrappaShape) b.shape).path);
+        assertEquals(before, b.getBounds2D());
+
+        graph.findNodeByName("a").setAttribute("width", "1");
+        assertSame(((GrappaShape) a.shape).path, ((GrappaShape) b.shape).path);
+    }
+
+    // a negative number of sides or peripheries takes the default for the type
+    private static GrappaShape shape(int type, double x, double y, double width, double height, int sides,
+        int peripheries, double distortion, double skew, double orientation, boolean rounded, boolean diagonals)
+    {
+        return (new GrappaShape(type, x, y, width, height, sides, peripheries, distortion, skew, orientation, rounded,
+            diagonals, null));
+    }
+
+    // a subclass never shares its path, so it gives the outline as built in place
+    private static GrappaShape privateShape(int type, double x, double y, double width, double height, int sides,
+        int peripheries, double distortion, double skew, double orientation, boolean rounded, boolean diagonals)
+    {
+        return (new GrappaShape(type, x, y, width, height, sides, peripheries, distortion, skew, orientation, rounded,
+            diagonals, null) {
+        });
+    }
+
+    private static void assertSameOutline(GrappaShape shared, GrappaShape own)
+    {
+        PathIterator sit = shared.getPathIterator(null);
+        PathIterator oit = own.getPathIterator(null);
+        double[] scoords = new double[6];
+        double[] ocoords = new double[6];
+
+        assertEquals(oit.getWindingRule(), sit.getWindingRule());
+        while (!oit.isDone()) {
+            assertFalse("shared path ends early", sit.isDone());
+
+            int type = oit.currentSegment(ocoords);
+            assertEquals(type, sit.currentSegment(scoords));
+            for (int i = 0; i < 6; i++) {
+                assertEquals(ocoords[i], scoords[i], TOLERANCE);
+            }
+            oit.next();
+            sit.next();
+        }
+        assertTrue("shared path has more segments", sit.isDone());
+
+        Rectangle2D sbox = shared.getBounds2D();
+        Rectangle2D obox = own.getBounds2D();
+        assertEquals(obox.getX(), sbox.getX(), TOLERANCE);
+        assertEquals(obox.getY(), sbox.getY(), TOLERANCE);
+        assertEquals(obox.getWidth(), sbox.getWidth(), TOLERANCE);
+        assertEquals(obox.getHeight(), sbox.getHeight(), TOLERANCE);
+        assertEquals(own.contains(obox.getCenterX(), obox.getCenterY()),
+            shared.contains(obox.getCenterX(), obox.getCenterY()));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.Font;
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the styles <code>GrappaStyle.getStyle</code> shares: one instance per element type and style string, the
+ * same as a style parsed on its own, never changed by its users, and replaced in a nexus when the style changes.
+ */
+public class GrappaStyleTest extends TestCase
+{
+    public void testSameStringShared()
+    {
+        GrappaStyle style = GrappaStyle.getStyle(GrappaConstants.NODE, "dashed,filled,setlinewidth(3)");
+
+        assertTrue(style.isShared());
+        assertSame(style, GrappaStyle.getStyle(GrappaConstants.NODE, "dashed,filled,setlinewidth(3)"));
+        assertNotSame(style, GrappaStyle.getStyle(GrappaConstants.EDGE, "dashed,filled,setlinewidth(3)"));
+        assertNotSame(style, GrappaStyle.getStyle(GrappaConstants.NODE, "dashed,filled"));
+
+        GrappaStyle own = new GrappaStyle(GrappaConstants.NODE, "dashed,filled,setlinewidth(3)");
+        assertFalse(own.isShared());
+        assertEquals(own.toAttributeString(), style.toAttributeString());
+        assertEquals(own.getLineStyle(), style.getLineStyle());
+        assertEquals(own.getLineWidth(), style.getLineWidth(), 0.0f);
+        assertEquals(own.getFilled(), style.getFilled());
+    }
+
+    public void testSharedStyleUnchanged()
+    {
+        GrappaStyle style = GrappaStyle.getStyle(GrappaConstants.NODE, "dotted,rounded");
+        String text = style.toAttributeString();
+
+        try {
+            style.updateStyle("solid");
+            fail("updated a shared style");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        assertEquals(text, style.toAttributeString());
+
+        GrappaStyle copy = (GrappaStyle) style.clone();
+        assertFalse(copy.isShared());
+        copy.updateStyle("solid");
+        assertEquals(GrappaStyle.STYLE_SOLID, copy.getLineStyle());
+        assertEquals(GrappaStyle.STYLE_DOTTED, style.getLineStyle());
+        assertTrue(style.getRounded());
+        assertSame(style, GrappaStyle.getStyle(GrappaConstants.NODE, "dotted,rounded"));
+    }
+
+    public void testChangedStyleReplacesNexusStyle() throws Exception
+    {
+        Graph graph = parse("digraph G { a [style=dashed, pos=\"0,0\"]; b [style=dashed, pos=\"100,0\"]; }");
+        Node a = graph.findNodeByName("a");
+        Node b = graph.findNodeByName("b");
+        GrappaStyle dashed = GrappaStyle.getStyle(GrappaConstants.NODE, "dashed");
+
+        graph.buildShapes();
+        assertSame(dashed, nexusStyle(a));
+        assertSame(dashed, nexusStyle(b));
+
+        a.setAttribute("style", "bold,filled");
+        assertSame(GrappaStyle.getStyle(GrappaConstants.NODE, "bold,filled"), nexusStyle(a));
+        assertEquals(Font.BOLD, a.getIntAttribute(GrappaConstants.FONTSTYLE_ATTR, Font.PLAIN));
+        assertSame(dashed, nexusStyle(b));
+        assertEquals(GrappaStyle.STYLE_DASHED, dashed.getLineStyle());
+        assertFalse(dashed.getFilled());
+
+        a.setAttribute("style", "dashed");
+        assertSame(dashed, nexusStyle(a));
+    }
+
+    public void testDefaultFontStyleGivenToEveryNode() throws Exception
+    {
+        Graph graph = parse("digraph G { subgraph s { node [style=bold]; a [pos=\"0,0\"]; b [pos=\"100,0\"];"
+            + " c [pos=\"200,0\"]; } }");
+        GrappaStyle bold = GrappaStyle.getStyle(GrappaConstants.NODE, "bold");
+
+        graph.buildShapes();
+        for (String name : new String[] { "a", "b", "c" }) {
+            Node node = graph.findNodeByName(name);
+
+            assertSame(name, bold, nexusStyle(node));
+            assertEquals(name, Font.BOLD, node.getIntAttribute(GrappaConstants.FONTSTYLE_ATTR, Font.PLAIN));
+            assertEquals(name, Font.BOLD, node.getGrappaNexus().font.getStyle());
+        }
+        assertEquals(Font.BOLD, bold.getFontStyle());
+    }
+
+    public void testBadStyleRejectedWhenSet() throws Exception
+    {
+        String[] inputs = {
+            "digraph G { a [style=bogus]; }", "digraph G { node [style=\"setlinewidth(x)\"]; a; }",
+            "digraph G { a -> b [style=\"dashed,filled(\"]; }",
+        };
+
+        for (String input : inputs) {
+            try {
+                parse(input);
+                fail("accepted " + input);
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("style attribute")
+                    || ex.getMessage().startsWith("line width style attribute"));
+            }
+        }
+
+        Graph graph = parse("digraph G { a [style=dashed]; }");
+        Node a = graph.findNodeByName("a");
+        try {
+            a.setAttribute(new Attribute(GrappaConstants.NODE, "style", "dashed,wavy"));
+            fail("set a bad style");
+        } catch (IllegalArgumentException ex) {
+            assertEquals("style attribute (wavy) is unrecognized or badly implemented", ex.getMessage());
+        }
+        assertEquals("dashed", a.getAttribute("style").getStringValue());
+
+        // a good style is stored as written
+        a.setAttribute(new Attribute(GrappaConstants.NODE, "style", "setlinewidth(2.50)"));
+        assertEquals("setlinewidth(2.50)", a.getAttribute("style").getStringValue());
+    }
+
+    // reading the bounds of a node brings its style up to date
+    private static GrappaStyle nexusStyle(Node node)
+    {
+        node.getGrappaNexus().getBounds2D();
+        return (node.getGrappaNexus().style);
+    }
+
+    private static Graph parse(String text) throws Exception
+    {
+        Parser parser = new Parser(new StringReader(text));
+        parser.parse();
+        return (parser.getGraph());
+    }
+}
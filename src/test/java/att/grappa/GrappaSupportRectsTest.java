@@ -0,0 +1,121 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the record layouts GrappaSupportRects caches: a layout taken from the cache and translated to a node's
+ * position must give the fields a layout made afresh at that position gives, and a label that cannot be parsed must
+ * give no fields however often it is laid out.
+ */
+public class GrappaSupportRectsTest extends TestCase
+{
+    private static final String[] LABELS = {
+        "a|b|c", "<f0> left|<f1> mid\\ dle|<f2> right", "{x|{y|z}}|w", "hello\\nworld|{b|{c|<here> d|e}|f}|g|h",
+        "\\{braces\\}|\\|bar|plain", "|", "wide field text|{n|{o|p}|q}|{r|s}",
+    };
+
+    private static final String[] BAD_LABELS = { "a|{b", "{a|b", "a|b{c}", "<p|q", "a|<p>>|b", "a|{b|<c}|d", };
+
+    private static final String[] POSITIONS = { "100.5,37.25", "-40.75,310.5", "0,0", "1234.4,-56.6" };
+
+    public void testCachedLayoutMatchesFreshLayout() throws Exception
+    {
+        for (String rankdir : new String[] { "TB", "LR" }) {
+            for (String label : LABELS) {
+                Node node = recordNode(rankdir, label);
+
+                for (String pos : POSITIONS) {
+                    node.setAttribute(GrappaConstants.POS_ATTR, pos);
+
+                    Object[] cached = GrappaSupportRects.parseRecordInfo(node);
+                    Object[] fresh = freshLayout(node);
+                    String what = rankdir + " " + label + " at " + pos;
+
+                    assertTrue(what, Arrays.equals((Object[]) fresh[0], (Object[]) cached[0]));
+                    assertTrue(what, Arrays.equals((Object[]) fresh[1], (Object[]) cached[1]));
+                    assertEquals(what, fresh[2], cached[2]);
+                    assertEquals(what, fresh[2], node.getAttributeValue(GrappaConstants.RECTS_ATTR));
+                }
+            }
+        }
+    }
+
+    public void testUnparsableLabelGivesNoFields() throws Exception
+    {
+        for (String label : BAD_LABELS) {
+            Node node = recordNode("TB", label);
+
+            for (String pos : POSITIONS) {
+                node.setAttribute(GrappaConstants.POS_ATTR, pos);
+                node.setAttribute(GrappaConstants.RECTS_ATTR, "0,0,1,1");
+
+                Object[] cached = GrappaSupportRects.parseRecordInfo(node);
+
+                assertNull(label, freshLayout(node));
+                assertTrue(label, Arrays.equals(new Object[] { null, null, null }, cached));
+                assertNull(label, node.getAttributeValue(GrappaConstants.RECTS_ATTR));
+            }
+        }
+    }
+
+    // a record node with the given label, in a graph with the given rank direction
+    private static Node recordNode(String rankdir, String label) throws Exception
+    {
+        Parser parser = new Parser(new StringReader("digraph G { rankdir=" + rankdir
+            + "; node [shape=record, width=1.3, height=0.7, fontsize=11]; a [label=\"" + label + "\"]; }"));
+        parser.parse();
+
+        Node node = parser.getGraph().findNodeByName("a");
+        assertEquals(label, node.getAttributeValue(GrappaConstants.LABEL_ATTR));
+        return (node);
+    }
+
+    // lay out a node's record label in place, without the cache, as parseRecordInfo did before it had one
+    private static Object[] freshLayout(Node node)
+    {
+        double width = node.getDoubleAttribute(GrappaConstants.WIDTH_ATTR, 0) * GrappaConstants.PointsPerInch;
+        double height = node.getDoubleAttribute(GrappaConstants.HEIGHT_ATTR, 0) * GrappaConstants.PointsPerInch;
+        GrappaPoint pos = (GrappaPoint) node.getAttributeValue(GrappaConstants.POS_ATTR);
+        GrappaSupportRects.RecordLayout layout = GrappaSupportRects.layOut(
+            (String) node.getAttributeValue(GrappaConstants.LABEL_ATTR), !node.getSubgraph().isLR(),
+            node.getAttribute(GrappaConstants.FONTNAME_ATTR).getStringValue(),
+            node.getIntAttribute(GrappaConstants.FONTSIZE_ATTR, 0),
+            new Dimension((int) Math.round(width), (int) Math.round(height)),
+            new Point((int) Math.round(pos.getX() - width / 2.0), (int) Math.round(pos.getY() - height / 2.0)));
+
+        if (layout.texts == null) {
+            return (null);
+        }
+
+        GrappaPoint[] centers = new GrappaPoint[layout.count];
+        StringBuilder rects = new StringBuilder();
+
+        for (int i = 0; i < layout.count; i++) {
+            Rectangle rect = new Rectangle(layout.rects[4 * i], layout.rects[4 * i + 1], layout.rects[4 * i + 2],
+                layout.rects[4 * i + 3]);
+            int y = Grappa.negateStringYCoord ? -rect.y : rect.y;
+            int dy = Grappa.negateStringYCoord ? -rect.height : rect.height;
+
+            centers[i] = new GrappaPoint(rect.getCenterX(), rect.getCenterY());
+            rects.append(i > 0 ? " " : "").append(rect.x).append(',').append(y).append(',');
+            rects.append(rect.x + rect.width).append(',').append(y + dy);
+        }
+        return (new Object[] { Arrays.copyOf(layout.texts, layout.count), centers, rects.toString() });
+    }
+}
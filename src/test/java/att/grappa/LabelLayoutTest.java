@@ -0,0 +1,133 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the text layouts GrappaNexus keeps for label lines that need them: a label drawn after its text, font or
+ * rendering context changed must look as one drawn by a node that never had the earlier values.
+ */
+public class LabelLayoutTest extends TestCase
+{
+    // lines with combining marks, which are drawn through a TextLayout, and a plain one, which is not
+    private static final String LABEL = "cafe\u0301\\nplain\\nn\u0303a\u0308";
+
+    private static final String OTHER = "a\u0300 b\u0301\\nother";
+
+    @Override
+    protected void setUp()
+    {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    public void testRedrawMatchesFirstDrawing() throws Exception
+    {
+        GrappaNexus nexus = nexus(LABEL, 14);
+        int[] first = draw(nexus, 1, false);
+
+        assertTrue("nothing drawn", inked(first));
+        assertTrue(Arrays.equals(first, draw(nexus, 1, false)));
+        assertTrue(Arrays.equals(first, draw(nexus(LABEL, 14), 1, false)));
+    }
+
+    public void testChangedLabelRelaidOut() throws Exception
+    {
+        Graph graph = graph(LABEL, 14);
+        Node a = graph.findNodeByName("a");
+        GrappaNexus nexus = nexus(graph);
+
+        int[] before = draw(nexus, 1, false);
+        a.setAttribute("label", OTHER);
+        nexus.getBounds2D();
+        assertFalse(Arrays.equals(before, draw(nexus, 1, false)));
+        assertTrue(Arrays.equals(draw(nexus(OTHER, 14), 1, false), draw(nexus, 1, false)));
+
+        a.setAttribute("fontsize", "22");
+        nexus.getBounds2D();
+        assertTrue(Arrays.equals(draw(nexus(OTHER, 22), 1, false), draw(nexus, 1, false)));
+
+        a.setAttribute("label", LABEL);
+        nexus.getBounds2D();
+        assertTrue(Arrays.equals(draw(nexus(LABEL, 22), 1, false), draw(nexus, 1, false)));
+    }
+
+    public void testChangedContextRelaidOut() throws Exception
+    {
+        GrappaNexus nexus = nexus(LABEL, 14);
+
+        draw(nexus, 1, false);
+        assertTrue(Arrays.equals(draw(nexus(LABEL, 14), 3, false), draw(nexus, 3, false)));
+        assertTrue(Arrays.equals(draw(nexus(LABEL, 14), 3, true), draw(nexus, 3, true)));
+        assertTrue(Arrays.equals(draw(nexus(LABEL, 14), 1, false), draw(nexus, 1, false)));
+    }
+
+    // the nexus of node a in a new graph with the supplied label and font size, ready to draw
+    private static GrappaNexus nexus(String label, int fontsize) throws Exception
+    {
+        return (nexus(graph(label, fontsize)));
+    }
+
+    private static GrappaNexus nexus(Graph graph)
+    {
+        graph.buildShapes();
+
+        GrappaNexus nexus = graph.findNodeByName("a").getGrappaNexus();
+        nexus.getBounds2D();
+        return (nexus);
+    }
+
+    private static Graph graph(String label, int fontsize) throws Exception
+    {
+        Parser parser = new Parser(new StringReader("digraph G { a [pos=\"60,-40\", fontname=SansSerif, fontsize="
+            + fontsize + ", label=\"" + label + "\"]; }"));
+
+        parser.parse();
+        return (parser.getGraph());
+    }
+
+    // the pixels of the label text drawn at the supplied scale, with or without antialiased text
+    private static int[] draw(GrappaNexus nexus, double scale, boolean antialias)
+    {
+        BufferedImage image = new BufferedImage(400, 240, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+
+        try {
+            g2d.setColor(Color.white);
+            g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g2d.setColor(Color.black);
+            g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, antialias
+                ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+            g2d.scale(scale, scale);
+            nexus.drawText(g2d);
+        } finally {
+            g2d.dispose();
+        }
+        return (image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()));
+    }
+
+    private static boolean inked(int[] pixels)
+    {
+        for (int pixel : pixels) {
+            if ((pixel & 0xffffff) != 0xffffff) {
+                return (true);
+            }
+        }
+        return (false);
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the DOT parser: the sequential, chunked and pipelined modes must build the same graph and report the same
+ * errors, and printing a parsed graph must give input that parses to the same graph. Graphs are compared through
+ * <code>describe</code> rather than their printed form, since edges with generated names print in no fixed order.
+ */
+public class ParserTest extends TestCase
+{
+    private static final String[] MODES = { "parse", "parallel_parse", "pipelined_parse" };
+
+    private static final String SMALL = "/* comment */ strict digraph \"G 1\" {\n"
+        + "  graph [rankdir=LR, bb=\"0,0,100.5,200\"];\n"
+        + "  node [shape=box, width=0.75, fontsize=12];\n"
+        + "  edge [color=blue];\n"
+        + "  a [label=\"a; \\\"quoted\\\" {label}\", pos=\"10,20\"];\n"
+        + "  b; c // trailing comment\n"
+        + "  a -> b -> c [weight=2, pos=\"e,1,2 3,4 5,6 7,8\"];\n"
+        + "  subgraph cluster_0 { label=inner; d -> e; { rank=same; f; g } }\n"
+        + "  h [style=\"filled,dashed\", fillcolor=\"red:blue\", color=\"#123456\"];\n"
+        + "  i:n -> j:s;\n"
+        + "}\n";
+
+    public void testModesAgreeOnSmallGraph() throws Exception
+    {
+        assertModesAgree(SMALL);
+    }
+
+    public void testModesAgreeOnChunkedGraph() throws Exception
+    {
+        String text = large(4000);
+
+        assertNotNull("input should be cut into chunks", ParseChunk.split(text.toCharArray(), text.length(), 4));
+        assertModesAgree(text);
+    }
+
+    public void testPrintedGraphParsesToSameGraph() throws Exception
+    {
+        for (String text : new String[] { SMALL, large(200) }) {
+            Graph graph = parse(text, "parse");
+
+            assertEquals(describe(graph), describe(parse(print(graph), "parse")));
+        }
+    }
+
+    public void testPrintedValuesNormalized() throws Exception
+    {
+        String printed = print(parse("digraph G { a [width=0.00, height=0.2500, color=notacolor, fontsize=\"14\"];"
+            + " b [color=Red, dir=back, shape=box]; }", "parse"));
+
+        assertTrue(printed, printed.contains("width = 0\n"));
+        assertTrue(printed, printed.contains("height = 0.25,"));
+        // an unknown color is black, which is the default and so is not printed
+        assertFalse(printed, printed.contains("notacolor"));
+        assertTrue(printed, printed.contains("color = red"));
+        assertTrue(printed, printed.contains("shape = box"));
+    }
+
+    public void testMalformedInputRejectedByEveryMode() throws Exception
+    {
+        String[] inputs = {
+            "digraph",
+            "digraph G {",
+            "digraph G { a -> ; }",
+            "digraph G { a [width=abc]; }",
+            "digraph G { a [pos=\"1,x\"]; }",
+            "digraph G { a [fontsize=14.0]; }",
+            "digraph G { node [width=abc]; a; }",
+            "digraph G { a [label=\"unterminated]; }",
+            "digraph G { a } }",
+            "graph G { a -> b; }",
+            "digraph G { subgraph { a; }",
+            "digraph G { a [color=red; }",
+        };
+
+        for (String input : inputs) {
+            String first = null;
+
+            for (String mode : MODES) {
+                String message = failure(input, mode);
+
+                assertNotNull(mode + " accepted: " + input, message);
+                if (first == null) {
+                    first = message;
+                } else {
+                    assertEquals(mode + " on " + input, first, message);
+                }
+            }
+        }
+    }
+
+    public void testMalformedChunkRejectedByEveryMode() throws Exception
+    {
+        String text = large(4000);
+        int middle = text.indexOf("n2000 ");
+        String input = text.substring(0, middle) + "n2000 -> ; " + text.substring(middle);
+
+        String first = failure(input, "parse");
+        assertNotNull(first);
+        assertEquals(first, failure(input, "parallel_parse"));
+        assertEquals(first, failure(input, "pipelined_parse"));
+    }
+
+    static Graph parse(String text, String mode) throws Exception
+    {
+        Parser parser = new Parser(new StringReader(text), null);
+
+        if ("parallel_parse".equals(mode)) {
+            parser.parallel_parse(4);
+        } else if ("pipelined_parse".equals(mode)) {
+            parser.pipelined_parse();
+        } else {
+            parser.parse();
+        }
+        return (parser.getGraph());
+    }
+
+    static String print(Graph graph)
+    {
+        StringWriter out = new StringWriter();
+
+        graph.printGraph(out);
+        return (out.toString());
+    }
+
+    // one sorted line per element, giving its parent, its ends or name, the attributes in effect for it and, for a
+    // subgraph, the node and edge defaults it holds; printing leaves out values equal to their default, so comparing
+    // local attributes alone would not do
+    static String describe(Graph graph)
+    {
+        List<String> lines = new ArrayList<>();
+        GraphEnumeration enm = graph.elements();
+
+        lines.add(describe(graph, "graph " + graph.getName() + " " + graph.isDirected() + " " + graph.isStrict()));
+        while (enm.hasMoreElements()) {
+            Element elem = enm.nextGraphElement();
+
+            if (elem == graph) {
+                continue;
+            }
+            switch (elem.getType()) {
+                case GrappaConstants.NODE:
+                    lines.add(describe(elem, "node " + elem.getName()));
+                    break;
+                case GrappaConstants.EDGE:
+                    Edge edge = (Edge) elem;
+                    lines.add(describe(elem, "edge " + edge.getTail().getName() + ":" + edge.getTailPortId() + " -> "
+                        + edge.getHead().getName() + ":" + edge.getHeadPortId()));
+                    break;
+                default:
+                    lines.add(describe(elem, "subgraph " + elem.getName()));
+                    break;
+            }
+        }
+        Collections.sort(lines);
+
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append('\n');
+        }
+        return (text.toString());
+    }
+
+    private static String describe(Element elem, String what)
+    {
+        StringBuilder line = new StringBuilder(what);
+
+        line.append(" in ").append(elem.getSubgraph() == null ? null : elem.getSubgraph().getName());
+        final List<String> attrs = new ArrayList<>();
+
+        elem.visitAttributes(new AttributeVisitor() {
+            @Override
+            public boolean visitAttribute(Attribute attr, Attribute dflt)
+            {
+                attrs.add(attr.getName() + "=" + attr.getStringValue());
+                return (true);
+            }
+        });
+        Collections.sort(attrs);
+        line.append(" with ").append(attrs);
+        if (elem.isSubgraph()) {
+            pairs(line, " node", ((Subgraph) elem).getNodeAttributePairs());
+            pairs(line, " edge", ((Subgraph) elem).getEdgeAttributePairs());
+        }
+        return (line.toString());
+    }
+
+    private static void pairs(StringBuilder line, String label, Enumeration<Attribute> attrs)
+    {
+        List<String> pairs = new ArrayList<>();
+
+        while (attrs != null && attrs.hasMoreElements()) {
+            Attribute attr = attrs.nextElement();
+            pairs.add(attr.getName() + "=" + attr.getStringValue());
+        }
+        Collections.sort(pairs);
+        line.append(label).append(pairs);
+    }
+
+    // a graph of about 40 characters per node, with defaults, subgraphs and edges spread through it
+    static String large(int nodes)
+    {
+        StringBuilder text = new StringBuilder("digraph L {\n  node [shape=ellipse];\n");
+
+        for (int i = 0; i < nodes; i++) {
+            text.append("  n").append(i).append(" [width=").append(0.5 + (i % 7) * 0.125).append(", label=\"n; ")
+                .append(i).append("\"];\n");
+            if (i > 0) {
+                text.append("  n").append(i - 1).append(" -> n").append(i).append(" [weight=").append(i % 5)
+                    .append("];\n");
+            }
+            if (i % 500 == 250) {
+                text.append("  subgraph cluster_").append(i).append(" { node [color=red]; m").append(i)
+                    .append("; n").append(i).append(" -> m").append(i).append("; }\n");
+                text.append("  edge [color=\"0.5,0.5,0.").append(1 + i % 9).append("\"];\n");
+            }
+        }
+        text.append("}\n");
+        return (text.toString());
+    }
+
+    private static void assertModesAgree(String text) throws Exception
+    {
+        String expected = describe(parse(text, MODES[0]));
+
+        for (int i = 1; i < MODES.length; i++) {
+            assertEquals(MODES[i], expected, describe(parse(text, MODES[i])));
+        }
+    }
+
+    public void testErrorInChunkNotReplayed() throws Exception
+    {
+        // subgraphs nested deeper than the recursive descent can follow overflow the stack of a chunk's worker
+        String text = large(4000);
+        int middle = text.indexOf("n2000 ");
+        StringBuilder input = new StringBuilder(text.substring(0, middle));
+
+        for (int i = 0; i < 100000; i++) {
+            input.append('{');
+        }
+        for (int i = 0; i < 100000; i++) {
+            input.append('}');
+        }
+        input.append('\n').append(text.substring(middle));
+
+        for (String mode : MODES) {
+            try {
+                parse(input.toString(), mode);
+                fail(mode + " parsed subgraphs nested too deeply");
+            } catch (StackOverflowError err) {
+                // expected, as from the sequential parse
+            }
+        }
+    }
+
+    // the message of the exception a parse throws, or null if it succeeds
+    private static String failure(String text, String mode)
+    {
+        try {
+            parse(text, mode);
+        } catch (Exception ex) {
+            return (ex.getClass().getName() + ": " + ex.getMessage());
+        }
+        return (null);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of the token ring used by <code>Parser.pipelined_parse</code>: the parser must see the tokens, locations and
+ * messages the lexer gives directly, anything that stops the lexer thread must reach the parser, and the input must not
+ * be read once the ring is closed.
+ */
+public class TokenRingTest extends TestCase
+{
+    public void testTokensMatchLexer() throws Exception
+    {
+        StringBuilder text = new StringBuilder("digraph G {\n");
+
+        // more tokens than the ring holds, with an unrecognized character for the lexer to warn about
+        for (int i = 0; i < TokenRing.CAPACITY; i++) {
+            text.append("  n").append(i).append(" -> \"m ").append(i).append("\" [w=").append(i % 3).append("];\n");
+            if (i % 1000 == 0) {
+                text.append("  `\n");
+            }
+        }
+        text.append("}\n");
+
+        StringWriter expected = new StringWriter();
+        StringWriter actual = new StringWriter();
+        Lexer lexer = new Lexer(new StringReader(text.toString()), new PrintWriter(expected));
+        TokenRing ring = new TokenRing(new StringReader(text.toString()));
+        PrintWriter errWriter = new PrintWriter(actual);
+        int tokens = 0;
+        int sym;
+
+        lexer.init();
+        ring.start(0);
+        try {
+            do {
+                sym = lexer.next_token_sym(0);
+                assertEquals(sym, ring.take(errWriter));
+                assertEquals(lexer.getTokenValue(), ring.getValue());
+                assertEquals(lexer.getLocation(), ring.getLocation());
+                assertEquals(expected.toString(), actual.toString());
+                tokens++;
+            } while (sym != Symbols.EOF);
+        } finally {
+            ring.close();
+        }
+        assertTrue(tokens > TokenRing.CAPACITY);
+        assertTrue(expected.toString().contains("Unrecognized character"));
+    }
+
+    public void testReaderFailureRethrown() throws Exception
+    {
+        IOException io = new IOException("disk gone");
+        RuntimeException runtime = new IllegalStateException("reader broken");
+        Error error = new OutOfMemoryError("reader exhausted");
+
+        assertSame(io, takeUntilFailure(new FailingReader("digraph G { a -> b; ", io)));
+        assertSame(runtime, takeUntilFailure(new FailingReader("digraph G { a -> b; ", runtime)));
+        assertSame(error, takeUntilFailure(new FailingReader("digraph G { a -> b; ", error)));
+    }
+
+    public void testPipelinedParseRethrowsReaderFailure() throws Exception
+    {
+        IOException io = new IOException("disk gone");
+        Parser parser = new Parser(new FailingReader("digraph G { a -> b; c; ", io), null);
+
+        try {
+            parser.pipelined_parse();
+            fail("parse succeeded on a failing reader");
+        } catch (IOException ex) {
+            assertSame(io, ex);
+        }
+    }
+
+    public void testCloseStopsReading() throws Exception
+    {
+        EndlessReader reader = new EndlessReader();
+        TokenRing ring = new TokenRing(reader);
+
+        ring.start(0);
+        for (int i = 0; i < 3 * TokenRing.CAPACITY; i++) {
+            ring.take(null);
+        }
+        ring.close();
+
+        int reads = reader.reads;
+        Thread.sleep(50);
+        assertEquals(reads, reader.reads);
+    }
+
+    public void testParseErrorStopsReading() throws Exception
+    {
+        EndlessReader reader = new EndlessReader();
+        Parser parser = new Parser(reader, null);
+
+        reader.prefix = "digraph G { a -> ; ";
+        try {
+            parser.pipelined_parse();
+            fail("parse succeeded on malformed input");
+        } catch (GraphParserException ex) {
+            // expected
+        }
+
+        int reads = reader.reads;
+        Thread.sleep(50);
+        assertEquals(reads, reader.reads);
+    }
+
+    public void testParseErrorWithBlockedReaderReturns() throws Exception
+    {
+        final BlockingReader reader = new BlockingReader("digraph G { a -> ; b c d ");
+        final Throwable[] thrown = new Throwable[1];
+        Thread parse = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try {
+                    new Parser(reader, null).pipelined_parse();
+                } catch (Throwable ex) {
+                    thrown[0] = ex;
+                }
+            }
+        };
+
+        parse.start();
+        parse.join(5000);
+        try {
+            assertFalse("parse waited for a blocked reader", parse.isAlive());
+            assertTrue(String.valueOf(thrown[0]), thrown[0] instanceof GraphParserException);
+            assertTrue(reader.blocked);
+        } finally {
+            reader.release();
+        }
+
+        // the read in progress returns, and the abandoned lexer thread reads no more
+        Thread.sleep(50);
+        int reads = reader.reads;
+        Thread.sleep(50);
+        assertEquals(reads, reader.reads);
+    }
+
+    // take tokens until the ring rethrows whatever ended the lexer thread
+    private static Throwable takeUntilFailure(Reader reader) throws Exception
+    {
+        TokenRing ring = new TokenRing(reader);
+
+        ring.start(0);
+        try {
+            for (;;) {
+                if (ring.take(null) == Symbols.EOF) {
+                    fail("reached EOF on a failing reader");
+                }
+            }
+        } catch (IOException | RuntimeException | Error ex) {
+            return (ex);
+        } finally {
+            ring.close();
+        }
+    }
+
+    // a reader giving some text and then throwing
+    private static final class FailingReader extends Reader
+    {
+        private final String text;
+
+        private final Throwable failure;
+
+        private int next = 0;
+
+        FailingReader(String text, Throwable failure)
+        {
+            this.text = text;
+            this.failure = failure;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) throws IOException
+        {
+            if (this.next == this.text.length()) {
+                if (this.failure instanceof IOException) {
+                    throw (IOException) this.failure;
+                } else if (this.failure instanceof RuntimeException) {
+                    throw (RuntimeException) this.failure;
+                }
+                throw (Error) this.failure;
+            }
+
+            int count = Math.min(len, this.text.length() - this.next);
+            this.text.getChars(this.next, this.next + count, buf, off);
+            this.next += count;
+            return (count);
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    // a reader giving an optional prefix and then an endless run of node statements
+    private static final class EndlessReader extends Reader
+    {
+        String prefix = "digraph G { ";
+
+        volatile int reads = 0;
+
+        // what is left of the current piece of text
+        private String text = null;
+
+        @Override
+        public int read(char[] buf, int off, int len)
+        {
+            if (this.text == null || this.text.isEmpty()) {
+                this.text = (this.reads == 0 ? this.prefix : "n" + this.reads + "; ");
+            }
+
+            int count = Math.min(len, this.text.length());
+
+            this.text.getChars(0, count, buf, off);
+            this.text = this.text.substring(count);
+            this.reads++;
+            return (count);
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    // a reader giving some text and then blocking until released, after which it gives more statements
+    private static final class BlockingReader extends Reader
+    {
+        volatile int reads = 0;
+
+        volatile boolean blocked = false;
+
+        private boolean released = false;
+
+        // what is left of the current piece of text
+        private String text;
+
+        BlockingReader(String text)
+        {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len)
+        {
+            if (this.text.isEmpty()) {
+                synchronized (this) {
+                    this.blocked = true;
+                    while (!this.released) {
+                        try {
+                            wait();
+                        } catch (InterruptedException ex) {
+                            // keep blocking, as a socket read would
+                        }
+                    }
+                }
+                this.text = "n" + this.reads + "; ";
+            }
+
+            int count = Math.min(len, this.text.length());
+
+            this.text.getChars(0, count, buf, off);
+            this.text = this.text.substring(count);
+            this.reads++;
+            return (count);
+        }
+
+        synchronized void release()
+        {
+            this.released = true;
+            notifyAll();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *  This software may only be used by you under license from AT&T Corp.
+ *  ("AT&T").  A copy of AT&T's Source Code Agreement is available at
+ *  AT&T's Internet website having the URL:
+ *  <http://www.research.att.com/sw/tools/graphviz/license/source.html>
+ *  If you received this software without first entering into a license
+ *  with AT&T, you have an infringing copy of this software and cannot use
+ *  it without violating AT&T's intellectual property rights.
+ */
+
+package att.grappa;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that <code>TupleDecoder</code> splits and converts fields exactly as <code>GrappaSupport.arrayForTuple</code>
+ * and <code>Double.parseDouble</code> do, and that the points, sizes and boxes GrappaFormat writes decode to the
+ * values it wrote.
+ */
+public class TupleDecoderTest extends TestCase
+{
+    private static final String[] NUMBERS = {
+        "0", "-0", "+0", "00012", "1.", ".5", "-.5", "+.5", "0.1", "0.3", "72", "-72.25", "123456789012345",
+        "1234567890123456", "12345678901234567890", "0.000000000000000123456789012345", "3.14159265358979323846",
+        "1e0", "1e22", "1e23", "1e-22", "1e-23", "2.5E+3", "2.5e-3", "-7.0e+10", "9007199254740993", "1e308",
+        "1e309", "1e-400", "4.9e-324", "1e00001", "123.456e-5", "NaN", "-Infinity", "1f", "2d", "0x1p3",
+    };
+
+    private static final String[] MALFORMED = { "", "-", "+", ".", "e5", "1e", "1e+", "1.2.3", "1-2", "abc", "--1" };
+
+    public void testFieldsConvertAsParseDouble()
+    {
+        for (String number : NUMBERS) {
+            assertParsedAs(number);
+        }
+
+        Random random = new Random(29);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder number = new StringBuilder();
+
+            if (random.nextBoolean()) {
+                number.append('-');
+            }
+            number.append(random.nextInt(100000));
+            if (random.nextBoolean()) {
+                number.append('.');
+                for (int digits = random.nextInt(18); digits > 0; digits--) {
+                    number.append(random.nextInt(10));
+                }
+            }
+            if (random.nextInt(4) == 0) {
+                number.append('e').append(random.nextInt(60) - 30);
+            }
+            assertParsedAs(number.toString());
+        }
+    }
+
+    public void testMalformedFieldsRejected()
+    {
+        for (String field : MALFORMED) {
+            try {
+                TupleDecoder.parse(field, 0, field.length());
+                fail("accepted " + field);
+            } catch (NumberFormatException ex) {
+                // expected, as from Double.parseDouble
+            }
+        }
+    }
+
+    public void testFieldsSplitAsArrayForTuple()
+    {
+        String[] tuples = { "1,2", " 1, 2 ", "1,,2", "\t1 \t,2,", ",,1 2 3,4", "1", "", " , ", "1.5e3,-2,.25,7" };
+
+        for (String tuple : tuples) {
+            assertTrue(tuple, Arrays.equals(GrappaSupport.arrayForTuple(tuple), decode(tuple)));
+        }
+
+        // a range within a longer string is decoded without looking outside it
+        String spline = "e,10,20 30.5,40 50,60";
+        int start = spline.indexOf(' ') + 1;
+        int end = spline.indexOf(' ', start);
+        GrappaPoint point = new GrappaPoint(spline, start, end);
+        assertEquals(30.5, point.getX(), 0.0);
+        assertEquals(Grappa.negateStringYCoord ? -40.0 : 40.0, point.getY(), 0.0);
+    }
+
+    public void testBadTuplesReported()
+    {
+        String[] points = { "1", "1,2,3", "", "1,x" };
+
+        for (String tuple : points) {
+            try {
+                new GrappaPoint(tuple);
+                fail("accepted point " + tuple);
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("coordinate string (" + tuple + ")"));
+            }
+        }
+        try {
+            new GrappaBox("1,2,3");
+            fail("accepted box 1,2,3");
+        } catch (IllegalArgumentException ex) {
+            assertEquals("coordinate string (1,2,3) does not contain 4 valid coordinates", ex.getMessage());
+        }
+        try {
+            new GrappaSize("1,2,3");
+            fail("accepted size 1,2,3");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    public void testFormattedValuesDecodeToThemselves()
+    {
+        Random random = new Random(30);
+
+        for (int i = 0; i < 5000; i++) {
+            double x = value(random);
+            double y = value(random);
+            double w = Math.abs(value(random));
+            double h = Math.abs(value(random));
+
+            GrappaPoint point = new GrappaPoint(x, y);
+            assertSameTuple(point.toAttributeString(), new GrappaPoint(point.toAttributeString()).toAttributeString());
+
+            GrappaSize size = new GrappaSize(w, h);
+            assertSameTuple(size.toAttributeString(), new GrappaSize(size.toAttributeString()).toAttributeString());
+
+            GrappaBox box = new GrappaBox(x, y, w, h);
+            assertSameTuple(box.toAttributeString(), new GrappaBox(box.toAttributeString()).toAttributeString());
+
+            // each decoded field is the value of the printed digits
+            String text = box.toAttributeString();
+            GrappaBox decoded = new GrappaBox(text);
+            double[] fields = GrappaSupport.arrayForTuple(text);
+            assertEquals(text, fields[0], decoded.getX(), 0.0);
+            assertEquals(text, Grappa.negateStringYCoord ? -fields[1] : fields[1], decoded.getY(), 0.0);
+            assertEquals(text, fields[2], decoded.getWidth(), 0.0);
+            assertEquals(text, fields[3], decoded.getHeight(), 0.0);
+        }
+    }
+
+    // a coordinate of the kind found in layouts: mostly points with a few decimals, sometimes tiny or huge
+    private static double value(Random random)
+    {
+        switch (random.nextInt(4)) {
+            case 0:
+                return (random.nextInt(2000) - 1000);
+            case 1:
+                return ((random.nextInt(200000) - 100000) / 100.0);
+            case 2:
+                return ((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 10));
+            default:
+                return (random.nextGaussian() * 500);
+        }
+    }
+
+    private static double[] decode(String tuple)
+    {
+        double[] values = new double[tuple.length()];
+        int count = 0;
+        int end = tuple.length();
+        int stop;
+
+        for (int start = TupleDecoder.skip(tuple, 0, end); start < end; start = TupleDecoder.skip(tuple, stop, end)) {
+            stop = TupleDecoder.scan(tuple, start, end);
+            values[count++] = TupleDecoder.parse(tuple, start, stop);
+        }
+        return (Arrays.copyOf(values, count));
+    }
+
+    private static void assertParsedAs(String number)
+    {
+        // decoded in place, as a field surrounded by other text
+        String text = "x," + number + ",y";
+        double value = TupleDecoder.parse(text, 2, 2 + number.length());
+        double expected = Double.parseDouble(number);
+
+        assertEquals(number, Double.doubleToLongBits(expected), Double.doubleToLongBits(value));
+    }
+
+    // both tuples hold the same values, though a value at a threshold may be printed in either form
+    private static void assertSameTuple(String expected, String actual)
+    {
+        assertTrue(expected + " and " + actual,
+            Arrays.equals(GrappaSupport.arrayForTuple(expected), GrappaSupport.arrayForTuple(actual)));
+    }
+}